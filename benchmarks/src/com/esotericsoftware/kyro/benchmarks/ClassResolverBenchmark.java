@@ -0,0 +1,103 @@
+package com.esotericsoftware.kyro.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+
+/** Writes and reads a list whose elements alternate between a number of classes, which exercises the class lookups of
+ * DefaultClassResolver. Sparse IDs are too large to be looked up without hashing. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClassResolverBenchmark {
+	static private final Class[] types = {A.class, B.class, C.class, D.class, E.class, F.class, G.class, H.class};
+
+	@Param({"1", "2", "3", "5", "8"})
+	public int classes;
+
+	@Param({"false", "true"})
+	public boolean sparseIds;
+
+	private Kyro kyro;
+	private ArrayList list;
+	private Output output;
+	private Input input;
+
+	@Setup
+	public void setup () throws Exception {
+		kyro = new Kyro();
+		kyro.setRegistrationRequired(true);
+		kyro.setReferences(false);
+		kyro.register(ArrayList.class);
+		for (int i = 0; i < types.length; i++) {
+			if (sparseIds)
+				kyro.register(types[i], 100000 + i * 1000);
+			else
+				kyro.register(types[i]);
+		}
+
+		list = new ArrayList();
+		for (int i = 0; i < 1000; i++)
+			list.add(types[i % classes].newInstance());
+
+		output = new Output(16 * 1024);
+		kyro.writeObject(output, list);
+		input = new Input(output.toBytes());
+	}
+
+	@Benchmark
+	public Output write () {
+		output.clear();
+		kyro.writeObject(output, list);
+		return output;
+	}
+
+	@Benchmark
+	public Object read () {
+		input.setPosition(0);
+		return kyro.readObject(input, ArrayList.class);
+	}
+
+	static public class A {
+		public int value;
+	}
+
+	static public class B extends A {
+	}
+
+	static public class C extends A {
+	}
+
+	static public class D extends A {
+	}
+
+	static public class E extends A {
+	}
+
+	static public class F extends A {
+	}
+
+	static public class G extends A {
+	}
+
+	static public class H extends A {
+	}
+}
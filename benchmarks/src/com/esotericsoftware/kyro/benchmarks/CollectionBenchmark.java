@@ -0,0 +1,100 @@
+package com.esotericsoftware.kyro.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+
+/** Writes and reads collections and maps of strings and integers. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollectionBenchmark {
+	@Param({"ArrayList", "LinkedList", "HashSet", "HashMap", "TreeMap"})
+	public String type;
+
+	@Param({"10", "1000"})
+	public int size;
+
+	private Kyro kyro;
+	private Object object;
+	private Output output;
+	private Input input;
+
+	@Setup
+	public void setup () {
+		kyro = new Kyro();
+		kyro.setRegistrationRequired(true);
+		kyro.setReferences(false);
+		kyro.register(ArrayList.class);
+		kyro.register(LinkedList.class);
+		kyro.register(HashSet.class);
+		kyro.register(HashMap.class);
+		kyro.register(TreeMap.class);
+
+		if (type.equals("ArrayList"))
+			object = fill(new ArrayList());
+		else if (type.equals("LinkedList"))
+			object = fill(new LinkedList());
+		else if (type.equals("HashSet"))
+			object = fill(new HashSet());
+		else if (type.equals("HashMap"))
+			object = fill(new HashMap());
+		else if (type.equals("TreeMap"))
+			object = fill(new TreeMap());
+		else
+			throw new IllegalArgumentException("Unknown type: " + type);
+
+		output = new Output(size * 32 + 64);
+		kyro.writeClassAndObject(output, object);
+		input = new Input(output.toBytes());
+	}
+
+	private Object fill (Collection collection) {
+		for (int i = 0; i < size; i++)
+			collection.add("value" + i);
+		return collection;
+	}
+
+	private Object fill (Map map) {
+		for (int i = 0; i < size; i++)
+			map.put("key" + i, i);
+		return map;
+	}
+
+	@Benchmark
+	public Output write () {
+		output.clear();
+		kyro.writeClassAndObject(output, object);
+		return output;
+	}
+
+	@Benchmark
+	public Object read () {
+		input.rewind();
+		return kyro.readClassAndObject(input);
+	}
+}
@@ -0,0 +1,141 @@
+package com.esotericsoftware.kyro.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kyro.serializers.FieldSerializer;
+import com.esotericsoftware.kyro.serializers.TaggedFieldSerializer;
+import com.esotericsoftware.kyro.serializers.TaggedFieldSerializer.Tag;
+
+/** Writes and reads an object with FieldSerializer using each backend, CompatibleFieldSerializer and TaggedFieldSerializer.
+ * <p>
+ * The reflection backend is used for a class that is not public, which ASM cannot access. The Unsafe memory regions backend
+ * can't be enabled from the FieldSerializer API, so it is not measured. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldSerializerBenchmark {
+	@Param({"reflection", "asm", "unsafe", "compatible", "tagged"})
+	public String serializer;
+
+	@Param({Streams.INPUT, Streams.UNSAFE})
+	public String stream;
+
+	private Kyro kyro;
+	private Sample sample;
+	private Output output;
+	private Input input;
+
+	@Setup
+	public void setup () {
+		kyro = new Kyro();
+		kyro.setRegistrationRequired(true);
+		kyro.setReferences(false);
+		kyro.register(int[].class);
+		kyro.register(Child.class);
+
+		Class type = Sample.class;
+		if (serializer.equals("reflection")) {
+			type = HiddenSample.class;
+			FieldSerializer fieldSerializer = new FieldSerializer(kyro, type);
+			fieldSerializer.setUseAsm(true);
+			kyro.register(type, fieldSerializer);
+		} else if (serializer.equals("asm")) {
+			FieldSerializer fieldSerializer = new FieldSerializer(kyro, type);
+			fieldSerializer.setUseAsm(true);
+			kyro.register(type, fieldSerializer);
+		} else if (serializer.equals("unsafe")) {
+			FieldSerializer fieldSerializer = new FieldSerializer(kyro, type);
+			fieldSerializer.setUseAsm(false);
+			kyro.register(type, fieldSerializer);
+		} else if (serializer.equals("compatible"))
+			kyro.register(type, new CompatibleFieldSerializer(kyro, type));
+		else if (serializer.equals("tagged"))
+			kyro.register(type, new TaggedFieldSerializer(kyro, type));
+		else
+			throw new IllegalArgumentException("Unknown serializer: " + serializer);
+
+		sample = type == HiddenSample.class ? new HiddenSample() : new Sample();
+		sample.populate();
+
+		output = Streams.newOutput(stream, 4096);
+		kyro.writeObject(output, sample);
+		input = Streams.newInput(stream, output);
+	}
+
+	@Benchmark
+	public Output write () {
+		output.clear();
+		kyro.writeObject(output, sample);
+		return output;
+	}
+
+	@Benchmark
+	public Object read () {
+		input.rewind();
+		return kyro.readObject(input, sample.getClass());
+	}
+
+	@Benchmark
+	public Object copy () {
+		return kyro.copy(sample);
+	}
+
+	static public class Sample {
+		@Tag(0) public int intValue;
+		@Tag(1) public long longValue;
+		@Tag(2) public double doubleValue;
+		@Tag(3) public float floatValue;
+		@Tag(4) public short shortValue;
+		@Tag(5) public byte byteValue;
+		@Tag(6) public boolean booleanValue;
+		@Tag(7) public char charValue;
+		@Tag(8) public String text;
+		@Tag(9) public Integer boxed;
+		@Tag(10) public int[] ints;
+		@Tag(11) public Child child;
+
+		void populate () {
+			intValue = 123456;
+			longValue = 1234567890123L;
+			doubleValue = 1.25;
+			floatValue = 2.5f;
+			shortValue = 1234;
+			byteValue = 12;
+			booleanValue = true;
+			charValue = 'k';
+			text = "The quick brown fox";
+			boxed = 42;
+			ints = new int[] {1, 2, 3, 4, 5, 6, 7, 8};
+			child = new Child();
+			child.id = 7;
+			child.name = "child";
+		}
+	}
+
+	static final class HiddenSample extends Sample {
+	}
+
+	static public final class Child {
+		@Tag(0) public int id;
+		@Tag(1) public String name;
+	}
+}
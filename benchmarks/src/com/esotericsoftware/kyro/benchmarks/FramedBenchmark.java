@@ -0,0 +1,95 @@
+package com.esotericsoftware.kyro.benchmarks;
+
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.io.FramedInput;
+import com.esotericsoftware.kyro.io.FramedOutput;
+
+/** Sends small messages through a loopback pipe with FramedOutput and receives them with FramedInput, flushing after every
+ * messagesPerFlush messages. The score is messages per millisecond. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FramedBenchmark {
+	static private final int MESSAGES = 256;
+
+	@Param({"1", "16", "256"})
+	public int messagesPerFlush;
+
+	@Param({"false", "true"})
+	public boolean checksum;
+
+	private Kyro kyro;
+	private Pipe pipe;
+	private FramedOutput output;
+	private FramedInput input;
+	private Message[] messages;
+
+	@Setup
+	public void setup () throws Exception {
+		kyro = new Kyro();
+		kyro.setReferences(false);
+		kyro.register(Message.class);
+
+		messages = new Message[MESSAGES];
+		for (int i = 0; i < MESSAGES; i++) {
+			Message message = new Message();
+			message.id = i;
+			message.timestamp = 1400000000000L + i;
+			message.text = "message " + i;
+			messages[i] = message;
+		}
+
+		// A batch of 256 messages fits in the pipe's buffer, so one thread can write and then read it.
+		pipe = Pipe.open();
+		output = new FramedOutput(Channels.newOutputStream(pipe.sink()), 16 * 1024, -1);
+		output.setChecksum(checksum);
+		input = new FramedInput(Channels.newInputStream(pipe.source()), 16 * 1024, -1);
+		input.setChecksum(checksum);
+	}
+
+	@TearDown
+	public void tearDown () throws Exception {
+		pipe.sink().close();
+		pipe.source().close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void sendReceive (Blackhole blackhole) {
+		for (int i = 0; i < MESSAGES; i += messagesPerFlush) {
+			for (int ii = i, n = i + messagesPerFlush; ii < n; ii++)
+				output.writeMessage(kyro, messages[ii]);
+			output.flush();
+			for (int ii = 0; ii < messagesPerFlush; ii++)
+				blackhole.consume(input.readMessage(kyro));
+		}
+	}
+
+	static public class Message {
+		public int id;
+		public long timestamp;
+		public String text;
+	}
+}
@@ -0,0 +1,158 @@
+package com.esotericsoftware.kyro.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+
+/** Writes and reads primitive values with each Output and Input variant. Scores are per value. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@OperationsPerInvocation(InputOutputBenchmark.COUNT)
+public class InputOutputBenchmark {
+	static final int COUNT = 1024;
+
+	@Param({Streams.INPUT, Streams.FAST, Streams.UNSAFE, Streams.BYTE_BUFFER, Streams.UNSAFE_MEMORY})
+	public String stream;
+
+	private Output output;
+	private Input ints, varInts, longs, varLongs, doubles, bytes;
+	private byte[] byteArray = new byte[COUNT];
+
+	@Setup
+	public void setup () {
+		output = Streams.newOutput(stream, COUNT * 10);
+		writeInts();
+		ints = Streams.newInput(stream, output);
+		writeVarInts();
+		varInts = Streams.newInput(stream, output);
+		writeLongs();
+		longs = Streams.newInput(stream, output);
+		writeVarLongs();
+		varLongs = Streams.newInput(stream, output);
+		writeDoubles();
+		doubles = Streams.newInput(stream, output);
+		writeBytes();
+		bytes = Streams.newInput(stream, output);
+	}
+
+	@Benchmark
+	public Output writeInts () {
+		Output output = this.output;
+		output.clear();
+		for (int i = 0; i < COUNT; i++)
+			output.writeInt(i * 31);
+		return output;
+	}
+
+	@Benchmark
+	public void readInts (Blackhole blackhole) {
+		Input input = ints;
+		input.rewind();
+		for (int i = 0; i < COUNT; i++)
+			blackhole.consume(input.readInt());
+	}
+
+	@Benchmark
+	public Output writeVarInts () {
+		Output output = this.output;
+		output.clear();
+		for (int i = 0; i < COUNT; i++)
+			output.writeVarInt(i * 31, true);
+		return output;
+	}
+
+	@Benchmark
+	public void readVarInts (Blackhole blackhole) {
+		Input input = varInts;
+		input.rewind();
+		for (int i = 0; i < COUNT; i++)
+			blackhole.consume(input.readVarInt(true));
+	}
+
+	@Benchmark
+	public Output writeLongs () {
+		Output output = this.output;
+		output.clear();
+		for (int i = 0; i < COUNT; i++)
+			output.writeLong(i * 12345678901L);
+		return output;
+	}
+
+	@Benchmark
+	public void readLongs (Blackhole blackhole) {
+		Input input = longs;
+		input.rewind();
+		for (int i = 0; i < COUNT; i++)
+			blackhole.consume(input.readLong());
+	}
+
+	@Benchmark
+	public Output writeVarLongs () {
+		Output output = this.output;
+		output.clear();
+		for (int i = 0; i < COUNT; i++)
+			output.writeVarLong(i * 12345678901L, true);
+		return output;
+	}
+
+	@Benchmark
+	public void readVarLongs (Blackhole blackhole) {
+		Input input = varLongs;
+		input.rewind();
+		for (int i = 0; i < COUNT; i++)
+			blackhole.consume(input.readVarLong(true));
+	}
+
+	@Benchmark
+	public Output writeDoubles () {
+		Output output = this.output;
+		output.clear();
+		for (int i = 0; i < COUNT; i++)
+			output.writeDouble(i * 0.5);
+		return output;
+	}
+
+	@Benchmark
+	public void readDoubles (Blackhole blackhole) {
+		Input input = doubles;
+		input.rewind();
+		for (int i = 0; i < COUNT; i++)
+			blackhole.consume(input.readDouble());
+	}
+
+	/** Writes a single byte array, the score is per byte. */
+	@Benchmark
+	public Output writeBytes () {
+		Output output = this.output;
+		output.clear();
+		output.writeBytes(byteArray);
+		return output;
+	}
+
+	@Benchmark
+	public byte[] readBytes () {
+		Input input = bytes;
+		input.rewind();
+		input.readBytes(byteArray);
+		return byteArray;
+	}
+}
@@ -0,0 +1,88 @@
+package com.esotericsoftware.kyro.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+
+/** Writes and reads a list of objects that share some of the objects they reference, with reference tracking on and off. Without
+ * references, shared objects are written each time they are encountered. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReferenceBenchmark {
+	@Param({"true", "false"})
+	public boolean references;
+
+	@Param({"100", "10000"})
+	public int size;
+
+	private Kyro kyro;
+	private ArrayList list;
+	private Output output;
+	private Input input;
+
+	@Setup
+	public void setup () {
+		kyro = new Kyro();
+		kyro.setRegistrationRequired(true);
+		kyro.setReferences(references);
+		kyro.register(ArrayList.class);
+		kyro.register(Node.class);
+
+		Node[] shared = new Node[10];
+		for (int i = 0; i < shared.length; i++) {
+			shared[i] = new Node();
+			shared[i].id = i;
+			shared[i].name = "shared" + i;
+		}
+		list = new ArrayList(size);
+		for (int i = 0; i < size; i++) {
+			Node node = new Node();
+			node.id = i;
+			node.name = "node" + i;
+			node.next = shared[i % shared.length];
+			list.add(node);
+		}
+
+		output = new Output(1024, -1);
+		kyro.writeObject(output, list);
+		input = new Input(output.toBytes());
+	}
+
+	@Benchmark
+	public Output write () {
+		output.clear();
+		kyro.writeObject(output, list);
+		return output;
+	}
+
+	@Benchmark
+	public Object read () {
+		input.rewind();
+		return kyro.readObject(input, ArrayList.class);
+	}
+
+	static public final class Node {
+		public int id;
+		public String name;
+		public Node next;
+	}
+}
@@ -0,0 +1,105 @@
+package com.esotericsoftware.kyro.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.util.ChunkedReferenceResolver;
+import com.esotericsoftware.kyro.util.MapReferenceResolver;
+
+/** Writes and reads graphs where most fields are references to objects already in the graph: a circular doubly linked list and
+ * a binary tree whose nodes point to their parent. Reading these spends much of its time in the reference table. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReferenceGraphBenchmark {
+	@Param({"list", "tree"})
+	public String graph;
+
+	@Param({"map", "chunked"})
+	public String resolver;
+
+	private Kyro kyro;
+	private Object root;
+	private Output output;
+	private Input input;
+
+	@Setup
+	public void setup () {
+		kyro = new Kyro();
+		kyro.setReferenceResolver(resolver.equals("chunked") ? new ChunkedReferenceResolver() : new MapReferenceResolver());
+		kyro.setRegistrationRequired(true);
+		kyro.register(ListNode.class);
+		kyro.register(TreeNode.class);
+
+		if (graph.equals("list")) {
+			// The list is written recursively, so it is kept short enough for the default stack size.
+			ListNode first = new ListNode(), node = first;
+			for (int i = 1; i < 500; i++) {
+				ListNode next = new ListNode();
+				next.value = i;
+				next.previous = node;
+				node.next = next;
+				node = next;
+			}
+			node.next = first;
+			first.previous = node;
+			root = first;
+		} else
+			root = tree(null, 14);
+
+		output = new Output(1024, -1);
+		kyro.writeObject(output, root);
+		input = new Input(output.toBytes());
+	}
+
+	private TreeNode tree (TreeNode parent, int depth) {
+		TreeNode node = new TreeNode();
+		node.parent = parent;
+		node.value = depth;
+		if (depth > 0) {
+			node.left = tree(node, depth - 1);
+			node.right = tree(node, depth - 1);
+		}
+		return node;
+	}
+
+	@Benchmark
+	public Output write () {
+		output.clear();
+		kyro.writeObject(output, root);
+		return output;
+	}
+
+	@Benchmark
+	public Object read () {
+		input.rewind();
+		return kyro.readObject(input, root.getClass());
+	}
+
+	static public final class ListNode {
+		public int value;
+		public ListNode previous, next;
+	}
+
+	static public final class TreeNode {
+		public int value;
+		public TreeNode parent, left, right;
+	}
+}
@@ -0,0 +1,83 @@
+package com.esotericsoftware.kyro.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.util.EpochReferenceResolver;
+import com.esotericsoftware.kyro.util.MapReferenceResolver;
+
+/** Writes and reads a small object graph with references enabled, after one large graph has grown the reference tables. This
+ * measures the cost of the reset after each graph for each reference resolver. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResetBenchmark {
+	@Param({"map", "epoch"})
+	public String resolver;
+
+	private Kyro kyro;
+	private Node message;
+	private Output output;
+	private Input input;
+
+	@Setup
+	public void setup () {
+		kyro = new Kyro();
+		kyro.setRegistrationRequired(true);
+		kyro.setReferenceResolver(resolver.equals("epoch") ? new EpochReferenceResolver() : new MapReferenceResolver());
+		kyro.register(ArrayList.class);
+		kyro.register(Node.class);
+
+		ArrayList large = new ArrayList();
+		for (int i = 0; i < 100000; i++)
+			large.add(new Node());
+		output = new Output(1024, -1);
+		kyro.writeObject(output, large);
+		kyro.readObject(new Input(output.toBytes()), ArrayList.class);
+
+		message = new Node();
+		message.id = 1;
+		message.name = "message";
+		message.next = new Node();
+		output.clear();
+		kyro.writeObject(output, message);
+		input = new Input(output.toBytes());
+	}
+
+	@Benchmark
+	public Output write () {
+		output.clear();
+		kyro.writeObject(output, message);
+		return output;
+	}
+
+	@Benchmark
+	public Object read () {
+		input.rewind();
+		return kyro.readObject(input, Node.class);
+	}
+
+	static public final class Node {
+		public int id;
+		public String name;
+		public Node next;
+	}
+}
@@ -0,0 +1,43 @@
+package com.esotericsoftware.kyro.benchmarks;
+
+import java.nio.ByteBuffer;
+
+import com.esotericsoftware.kyro.io.ByteBufferInput;
+import com.esotericsoftware.kyro.io.ByteBufferOutput;
+import com.esotericsoftware.kyro.io.FastInput;
+import com.esotericsoftware.kyro.io.FastOutput;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.io.UnsafeInput;
+import com.esotericsoftware.kyro.io.UnsafeMemoryInput;
+import com.esotericsoftware.kyro.io.UnsafeMemoryOutput;
+import com.esotericsoftware.kyro.io.UnsafeOutput;
+
+/** Creates the matching Output and Input for each stream variant, named after the Input class. */
+class Streams {
+	static public final String INPUT = "Input", FAST = "FastInput", UNSAFE = "UnsafeInput", BYTE_BUFFER = "ByteBufferInput",
+		UNSAFE_MEMORY = "UnsafeMemoryInput";
+
+	static Output newOutput (String stream, int bufferSize) {
+		if (stream.equals(INPUT)) return new Output(bufferSize);
+		if (stream.equals(FAST)) return new FastOutput(bufferSize);
+		if (stream.equals(UNSAFE)) return new UnsafeOutput(bufferSize);
+		if (stream.equals(BYTE_BUFFER)) return new ByteBufferOutput(bufferSize);
+		if (stream.equals(UNSAFE_MEMORY)) return new UnsafeMemoryOutput(bufferSize);
+		throw new IllegalArgumentException("Unknown stream: " + stream);
+	}
+
+	/** Returns an input for the bytes written to the output. Inputs are reused by calling {@link Input#rewind()}. */
+	static Input newInput (String stream, Output output) {
+		byte[] bytes = output.toBytes();
+		if (stream.equals(INPUT)) return new Input(bytes);
+		if (stream.equals(FAST)) return new FastInput(bytes);
+		if (stream.equals(UNSAFE)) return new UnsafeInput(bytes);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+		buffer.put(bytes);
+		buffer.flip();
+		if (stream.equals(BYTE_BUFFER)) return new ByteBufferInput(buffer);
+		if (stream.equals(UNSAFE_MEMORY)) return new UnsafeMemoryInput(buffer);
+		throw new IllegalArgumentException("Unknown stream: " + stream);
+	}
+}
@@ -0,0 +1,65 @@
+package com.esotericsoftware.kyro.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+
+/** Writes and reads strings of several lengths, either ASCII or with characters that need multiple bytes in UTF8. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StringBenchmark {
+	@Param({"8", "64", "1024"})
+	public int length;
+
+	@Param({"true", "false"})
+	public boolean ascii;
+
+	@Param({Streams.INPUT, Streams.UNSAFE})
+	public String stream;
+
+	private String value;
+	private Output output;
+	private Input input;
+
+	@Setup
+	public void setup () {
+		StringBuilder buffer = new StringBuilder(length);
+		for (int i = 0; i < length; i++)
+			buffer.append(ascii ? (char)('a' + i % 26) : (char)(0x3b1 + i % 24));
+		value = buffer.toString();
+
+		output = Streams.newOutput(stream, length * 3 + 16);
+		output.writeString(value);
+		input = Streams.newInput(stream, output);
+	}
+
+	@Benchmark
+	public Output writeString () {
+		output.clear();
+		output.writeString(value);
+		return output;
+	}
+
+	@Benchmark
+	public String readString () {
+		input.rewind();
+		return input.readString();
+	}
+}
@@ -0,0 +1,533 @@
+package com.esotericsoftware.kyro.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+
+/** Generates a serializer for each class annotated with com.esotericsoftware.kyro.GenerateSerializer. The generated serializers
+ * extend com.esotericsoftware.kyro.serializers.GeneratedSerializer and write the same bytes as FieldSerializer (or
+ * TaggedFieldSerializer) with its default settings, but the fields are determined at build time so no reflection or bytecode
+ * generation is needed at runtime. For each package a KyroRegistrations class is generated that registers the annotated classes
+ * with their serializers.
+ * <p>
+ * The processor only refers to kyro classes by name, so kyro is not needed on the processor path. */
+@SupportedAnnotationTypes(SerializerProcessor.GENERATE_SERIALIZER)
+public class SerializerProcessor extends AbstractProcessor {
+	static final String GENERATE_SERIALIZER = "com.esotericsoftware.kyro.GenerateSerializer";
+	static private final String NOT_NULL = "com.esotericsoftware.kyro.NotNull";
+	static private final String TAG = "com.esotericsoftware.kyro.serializers.TaggedFieldSerializer.Tag";
+	static private final String DEPRECATED = "java.lang.Deprecated";
+	static private final String[] unsupportedAnnotations = {"com.esotericsoftware.kyro.serializers.FieldSerializer.Optional",
+		"com.esotericsoftware.kyro.serializers.FieldSerializer.Bind",
+		"com.esotericsoftware.kyro.serializers.CollectionSerializer.BindCollection",
+		"com.esotericsoftware.kyro.serializers.MapSerializer.BindMap"};
+
+	static private final String KYRO = "com.esotericsoftware.kyro.Kyro";
+	static private final String INPUT = "com.esotericsoftware.kyro.io.Input";
+	static private final String OUTPUT = "com.esotericsoftware.kyro.io.Output";
+	static private final String GENERATED_SERIALIZER = "com.esotericsoftware.kyro.serializers.GeneratedSerializer";
+	static private final String SERIALIZER_SUFFIX = "KyroSerializer";
+	static private final String REGISTRATIONS = "KyroRegistrations";
+
+	private final Set<String> registeredPackages = new HashSet();
+
+	public SourceVersion getSupportedSourceVersion () {
+		return SourceVersion.latestSupported();
+	}
+
+	public boolean process (Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		TypeElement annotation = processingEnv.getElementUtils().getTypeElement(GENERATE_SERIALIZER);
+		if (annotation == null) return false;
+
+		TreeMap<String, List<GeneratedClass>> packages = new TreeMap();
+		for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+			if (element.getKind() != ElementKind.CLASS) {
+				error(element, "@GenerateSerializer can only be used on classes.");
+				continue;
+			}
+			GeneratedClass generated = analyze((TypeElement)element);
+			if (generated == null) continue;
+			writeSerializer(generated);
+			List<GeneratedClass> classes = packages.get(generated.packageName);
+			if (classes == null) {
+				classes = new ArrayList();
+				packages.put(generated.packageName, classes);
+			}
+			classes.add(generated);
+		}
+		for (Map.Entry<String, List<GeneratedClass>> entry : packages.entrySet())
+			writeRegistrations(entry.getKey(), entry.getValue());
+		return true;
+	}
+
+	private GeneratedClass analyze (TypeElement type) {
+		Set<Modifier> modifiers = type.getModifiers();
+		if (modifiers.contains(Modifier.ABSTRACT)) {
+			error(type, "@GenerateSerializer cannot be used on an abstract class.");
+			return null;
+		}
+		if (modifiers.contains(Modifier.PRIVATE)) {
+			error(type, "@GenerateSerializer cannot be used on a private class.");
+			return null;
+		}
+		if (type.getNestingKind() != NestingKind.TOP_LEVEL
+			&& (type.getNestingKind() != NestingKind.MEMBER || !modifiers.contains(Modifier.STATIC))) {
+			error(type, "@GenerateSerializer can only be used on top level or static member classes.");
+			return null;
+		}
+		if (!type.getTypeParameters().isEmpty()) {
+			error(type, "@GenerateSerializer cannot be used on a class with type parameters.");
+			return null;
+		}
+
+		GeneratedClass generated = new GeneratedClass();
+		generated.type = type;
+		generated.typeName = type.getQualifiedName().toString();
+		generated.packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+		String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+		if (generated.packageName.length() > 0) binaryName = binaryName.substring(generated.packageName.length() + 1);
+		generated.serializerName = binaryName.replace('$', '_') + SERIALIZER_SUFFIX;
+		AnnotationMirror annotation = getAnnotation(type, GENERATE_SERIALIZER);
+		Object tagged = getValue(annotation, "tagged");
+		generated.tagged = tagged != null && (Boolean)tagged;
+		Object id = getValue(annotation, "id");
+		generated.id = id == null ? -1 : (Integer)id;
+
+		for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+			if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+				generated.hasConstructor = true;
+				break;
+			}
+		}
+
+		// Collect all fields, subclass fields first, the same as FieldSerializer.
+		boolean valid = true;
+		Set<String> names = new HashSet();
+		TypeElement current = type;
+		while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+			for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+				Set<Modifier> fieldModifiers = field.getModifiers();
+				if (fieldModifiers.contains(Modifier.STATIC)) continue;
+				boolean isTransient = fieldModifiers.contains(Modifier.TRANSIENT);
+				for (String name : unsupportedAnnotations) {
+					if (getAnnotation(field, name) != null) {
+						error(field, "@" + name.substring(name.lastIndexOf('.') + 1)
+							+ " is not supported by @GenerateSerializer, use FieldSerializer instead.");
+						valid = false;
+					}
+				}
+
+				AnnotationMirror tag = getAnnotation(field, TAG);
+				boolean hidden = !names.add(field.getSimpleName().toString());
+				// TaggedFieldSerializer ignores fields without a tag, except for copying transient fields.
+				if (generated.tagged && tag == null && !isTransient) continue;
+
+				GeneratedField generatedField = new GeneratedField();
+				generatedField.name = field.getSimpleName().toString();
+				if (hidden) generatedField.qualifier = current.getQualifiedName().toString();
+				String problem = accessProblem(field, current, hidden, generated.packageName);
+				if (problem != null) {
+					if (isTransient) {
+						// Transient fields are only copied, skip them rather than failing.
+						warning(field, "Transient field will not be copied because it " + problem + ".");
+						continue;
+					}
+					error(field, "Field cannot be serialized by a generated serializer because it " + problem + ".");
+					valid = false;
+					continue;
+				}
+
+				TypeMirror fieldType = field.asType();
+				generatedField.kind = fieldType.getKind();
+				generatedField.fieldClass = erasure(fieldType);
+				// Fields of a parameterized superclass may have a more specific type when accessed through the subclass.
+				generatedField.valueType = generatedField.qualifier != null ? generatedField.fieldClass : erasure(processingEnv
+					.getTypeUtils().asMemberOf((DeclaredType)type.asType(), field));
+				generatedField.generics = isRaw(fieldType) ? null : generics(fieldType);
+				generatedField.canBeNull = !fieldType.getKind().isPrimitive() && getAnnotation(field, NOT_NULL) == null;
+				generatedField.deprecated = getAnnotation(field, DEPRECATED) != null;
+				if (tag != null) generatedField.tag = (Integer)getValue(tag, "value");
+
+				if (isTransient)
+					generated.transientFields.add(generatedField);
+				else
+					generated.fields.add(generatedField);
+			}
+			TypeMirror superclass = current.getSuperclass();
+			if (superclass.getKind() != TypeKind.DECLARED) break;
+			current = (TypeElement)((DeclaredType)superclass).asElement();
+		}
+		if (!valid) return null;
+
+		// Fields are sorted by name so the order of the data is known, the same as FieldSerializer.
+		Comparator<GeneratedField> comparator = new Comparator<GeneratedField>() {
+			public int compare (GeneratedField o1, GeneratedField o2) {
+				return o1.name.compareTo(o2.name);
+			}
+		};
+		Collections.sort(generated.fields, comparator);
+		Collections.sort(generated.transientFields, comparator);
+		for (GeneratedField field : generated.fields)
+			if (!field.kind.isPrimitive()) field.index = generated.objectFieldCount++;
+		return generated;
+	}
+
+	/** Returns why the generated serializer cannot access the field, or null. */
+	private String accessProblem (VariableElement field, TypeElement declaringClass, boolean qualified, String packageName) {
+		Set<Modifier> modifiers = field.getModifiers();
+		if (modifiers.contains(Modifier.PRIVATE)) return "is private";
+		if (modifiers.contains(Modifier.FINAL)) return "is final";
+		boolean samePackage = processingEnv.getElementUtils().getPackageOf(declaringClass).getQualifiedName()
+			.contentEquals(packageName);
+		if (!samePackage && !modifiers.contains(Modifier.PUBLIC)) return "is not public and is declared in another package";
+		if (qualified && !samePackage && !declaringClass.getModifiers().contains(Modifier.PUBLIC))
+			return "is hidden by a subclass field and its class is not public";
+		return null;
+	}
+
+	/** Returns the source for the generic type parameters FieldSerializer computes for a field, or null. */
+	private String generics (TypeMirror type) {
+		if (type.getKind() == TypeKind.ARRAY) return generics(((ArrayType)type).getComponentType());
+		if (type.getKind() != TypeKind.DECLARED) return null;
+		List<? extends TypeMirror> arguments = ((DeclaredType)type).getTypeArguments();
+		if (arguments.isEmpty()) return null;
+		StringBuilder buffer = new StringBuilder("new java.lang.Class[] {");
+		for (int i = 0, n = arguments.size(); i < n; i++) {
+			TypeMirror argument = arguments.get(i);
+			String generic;
+			switch (argument.getKind()) {
+			case DECLARED:
+				generic = erasure(argument) + ".class";
+				break;
+			case WILDCARD:
+				generic = "java.lang.Object.class";
+				break;
+			case ARRAY:
+				generic = isRaw(argument) ? erasure(argument) + ".class" : "null";
+				break;
+			default:
+				generic = "null";
+			}
+			// FieldSerializer only uses the generics if the first is known.
+			if (i == 0 && generic.equals("null")) return null;
+			if (i > 0) buffer.append(", ");
+			buffer.append(generic);
+		}
+		buffer.append('}');
+		return buffer.toString();
+	}
+
+	/** Returns true if the type is a class at runtime, rather than a generic type. */
+	private boolean isRaw (TypeMirror type) {
+		if (type.getKind().isPrimitive()) return true;
+		if (type.getKind() == TypeKind.ARRAY) return isRaw(((ArrayType)type).getComponentType());
+		if (type.getKind() == TypeKind.DECLARED) return ((DeclaredType)type).getTypeArguments().isEmpty();
+		return false;
+	}
+
+	private String erasure (TypeMirror type) {
+		return processingEnv.getTypeUtils().erasure(type).toString();
+	}
+
+	private void writeSerializer (GeneratedClass generated) {
+		List<GeneratedField> fields = generated.fields;
+		SourceWriter source = new SourceWriter();
+		if (generated.packageName.length() > 0) source.line("package " + generated.packageName + ";").line();
+		source.line("/** Serializer for {@link " + generated.typeName + "} generated by the kyro annotation processor. Do not edit. */");
+		source.line("@SuppressWarnings({\"unchecked\", \"deprecation\"})");
+		source.open("public class " + generated.serializerName + " extends " + GENERATED_SERIALIZER + "<" + generated.typeName + ">");
+
+		// Constructor.
+		StringBuilder names = new StringBuilder(), classes = new StringBuilder(), generics = new StringBuilder();
+		for (GeneratedField field : fields) {
+			if (field.index == -1) continue;
+			if (names.length() > 0) {
+				names.append(", ");
+				classes.append(", ");
+				generics.append(", ");
+			}
+			names.append('"').append(field.name).append('"');
+			classes.append(field.fieldClass).append(".class");
+			generics.append(field.generics == null ? "null" : field.generics);
+		}
+		source.open("public " + generated.serializerName + " (" + KYRO + " kyro)");
+		source.line("super(kyro, " + generated.typeName + ".class, new java.lang.String[] {" + names + "}, new java.lang.Class[] {"
+			+ classes + "}, new java.lang.Class[][] {" + generics + "});");
+		source.close().line();
+
+		// Write.
+		source.open("public void write (" + KYRO + " kyro, " + OUTPUT + " output, " + generated.typeName + " object)");
+		if (generated.tagged) {
+			int writeFieldCount = 0;
+			for (GeneratedField field : fields)
+				if (!field.deprecated) writeFieldCount++;
+			source.line("output.writeVarInt(" + writeFieldCount + ", true);");
+		}
+		for (GeneratedField field : fields) {
+			if (generated.tagged) {
+				if (field.deprecated) continue;
+				source.line("output.writeVarInt(" + field.tag + ", true);");
+			}
+			String value = field.access("object");
+			switch (field.kind) {
+			case INT:
+				source.line("output.writeInt(" + value + ", false);");
+				break;
+			case LONG:
+				source.line("output.writeLong(" + value + ", false);");
+				break;
+			case FLOAT:
+			case DOUBLE:
+			case SHORT:
+			case BYTE:
+			case CHAR:
+			case BOOLEAN:
+				source.line("output.write" + primitiveName(field.kind) + "(" + value + ");");
+				break;
+			default:
+				source.line("writeField(output, " + value + ", " + field.index + ", " + field.canBeNull + ");");
+			}
+		}
+		source.close().line();
+
+		// Read.
+		source.open("public " + generated.typeName + " read (" + KYRO + " kyro, " + INPUT + " input, java.lang.Class<" + generated.typeName
+			+ "> type)");
+		source.line(generated.typeName + " object = " + newInstance(generated, "type") + ";");
+		source.line("kyro.reference(object);");
+		if (generated.tagged) {
+			source.line("int fieldCount = input.readVarInt(true);");
+			source.open("for (int i = 0; i < fieldCount; i++)");
+			source.line("int tag = input.readVarInt(true);");
+			source.line("switch (tag) {");
+			Set<Integer> tags = new HashSet();
+			for (GeneratedField field : fields) {
+				// TaggedFieldSerializer uses the first field with a tag.
+				if (!tags.add(field.tag)) {
+					warning(generated.type, "Duplicate tag " + field.tag + " on field: " + field.name);
+					continue;
+				}
+				source.line("case " + field.tag + ":");
+				source.indent++;
+				source.line(readField(field) + ";");
+				source.line("break;");
+				source.indent--;
+			}
+			source.line("default:");
+			source.indent++;
+			source.line("throw unknownTag(tag);");
+			source.indent--;
+			source.line("}");
+			source.close();
+		} else {
+			for (GeneratedField field : fields)
+				source.line(readField(field) + ";");
+		}
+		source.line("return object;");
+		source.close().line();
+
+		// Copy.
+		source.open("public " + generated.typeName + " copy (" + KYRO + " kyro, " + generated.typeName + " original)");
+		source.line(generated.typeName + " copy = " + newInstance(generated, "original.getClass()") + ";");
+		source.line("kyro.reference(copy);");
+		List<GeneratedField> copyFields = new ArrayList(generated.transientFields);
+		copyFields.addAll(fields);
+		for (GeneratedField field : copyFields) {
+			String value = field.access("original");
+			if (!field.kind.isPrimitive()) value = "kyro.copy(" + value + ")";
+			source.line(field.access("copy") + " = " + value + ";");
+		}
+		source.line("return copy;");
+		source.close();
+
+		source.close();
+		write(generated.packageName, generated.serializerName, source, generated.type);
+	}
+
+	private String readField (GeneratedField field) {
+		String value;
+		switch (field.kind) {
+		case INT:
+			value = "input.readInt(false)";
+			break;
+		case LONG:
+			value = "input.readLong(false)";
+			break;
+		case FLOAT:
+		case DOUBLE:
+		case SHORT:
+		case BYTE:
+		case CHAR:
+		case BOOLEAN:
+			value = "input.read" + primitiveName(field.kind) + "()";
+			break;
+		default:
+			value = "(" + field.valueType + ")readField(input, " + field.index + ", " + field.canBeNull + ")";
+		}
+		return field.access("object") + " = " + value;
+	}
+
+	private String newInstance (GeneratedClass generated, String type) {
+		if (generated.hasConstructor) return "new " + generated.typeName + "()";
+		return "(" + generated.typeName + ")kyro.newInstance(" + type + ")";
+	}
+
+	static private String primitiveName (TypeKind kind) {
+		String name = kind.name().toLowerCase();
+		return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+	}
+
+	private void writeRegistrations (String packageName, List<GeneratedClass> classes) {
+		if (!registeredPackages.add(packageName)) {
+			error(classes.get(0).type, REGISTRATIONS + " has already been generated for this package.");
+			return;
+		}
+		Collections.sort(classes, new Comparator<GeneratedClass>() {
+			public int compare (GeneratedClass o1, GeneratedClass o2) {
+				return o1.typeName.compareTo(o2.typeName);
+			}
+		});
+		SourceWriter source = new SourceWriter();
+		if (packageName.length() > 0) source.line("package " + packageName + ";").line();
+		source.line("/** Registers the classes in this package annotated with {@link " + GENERATE_SERIALIZER
+			+ "} using their generated");
+		source.line(" * serializers. Generated by the kyro annotation processor. Do not edit. */");
+		source.open("public final class " + REGISTRATIONS);
+		source.open("private " + REGISTRATIONS + " ()");
+		source.close().line();
+		source.open("static public void register (" + KYRO + " kyro)");
+		for (GeneratedClass generated : classes) {
+			String id = generated.id == -1 ? "" : ", " + generated.id;
+			source.line("kyro.register(" + generated.typeName + ".class, new " + generated.serializerName + "(kyro)" + id + ");");
+		}
+		source.close();
+		source.close();
+		Element[] originatingElements = new Element[classes.size()];
+		for (int i = 0, n = classes.size(); i < n; i++)
+			originatingElements[i] = classes.get(i).type;
+		write(packageName, REGISTRATIONS, source, originatingElements);
+	}
+
+	private void write (String packageName, String className, SourceWriter source, Element... originatingElements) {
+		String name = packageName.length() == 0 ? className : packageName + "." + className;
+		try {
+			Writer writer = processingEnv.getFiler().createSourceFile(name, originatingElements).openWriter();
+			try {
+				writer.write(source.toString());
+			} finally {
+				writer.close();
+			}
+		} catch (IOException ex) {
+			error(originatingElements[0], "Unable to write generated source: " + name + " (" + ex.getMessage() + ")");
+		}
+	}
+
+	static private AnnotationMirror getAnnotation (Element element, String name) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			TypeElement type = (TypeElement)annotation.getAnnotationType().asElement();
+			if (type.getQualifiedName().contentEquals(name)) return annotation;
+		}
+		return null;
+	}
+
+	static private Object getValue (AnnotationMirror annotation, String name) {
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet())
+			if (entry.getKey().getSimpleName().contentEquals(name)) return entry.getValue().getValue();
+		return null;
+	}
+
+	private void error (Element element, String message) {
+		processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+	}
+
+	private void warning (Element element, String message) {
+		processingEnv.getMessager().printMessage(Kind.WARNING, message, element);
+	}
+
+	static class GeneratedClass {
+		TypeElement type;
+		String typeName, packageName, serializerName;
+		boolean tagged, hasConstructor;
+		int id;
+		final List<GeneratedField> fields = new ArrayList();
+		final List<GeneratedField> transientFields = new ArrayList();
+		int objectFieldCount;
+	}
+
+	static class GeneratedField {
+		String name;
+		/** The declaring class if the field is hidden by a subclass field, else null. */
+		String qualifier;
+		TypeKind kind;
+		String fieldClass, valueType, generics;
+		boolean canBeNull, deprecated;
+		int tag;
+		/** Index of the field in the arrays passed to the GeneratedSerializer constructor, or -1 for primitive fields. */
+		int index = -1;
+
+		String access (String object) {
+			if (qualifier == null) return object + "." + name;
+			return "((" + qualifier + ")" + object + ")." + name;
+		}
+	}
+
+	/** Builds Java source indented with tabs. */
+	static class SourceWriter {
+		private final StringBuilder buffer = new StringBuilder(1024);
+		int indent;
+
+		SourceWriter line () {
+			buffer.append('\n');
+			return this;
+		}
+
+		SourceWriter line (String line) {
+			for (int i = 0; i < indent; i++)
+				buffer.append('\t');
+			buffer.append(line).append('\n');
+			return this;
+		}
+
+		SourceWriter open (String line) {
+			line(line + " {");
+			indent++;
+			return this;
+		}
+
+		SourceWriter close () {
+			indent--;
+			return line("}");
+		}
+
+		public String toString () {
+			return buffer.toString();
+		}
+	}
+}
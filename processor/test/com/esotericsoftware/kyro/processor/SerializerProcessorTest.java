@@ -0,0 +1,202 @@
+package com.esotericsoftware.kyro.processor;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import junit.framework.TestCase;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.Serializer;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.serializers.FieldSerializer;
+import com.esotericsoftware.kyro.serializers.GeneratedSerializer;
+import com.esotericsoftware.kyro.serializers.TaggedFieldSerializer;
+
+/** Compiles sources with the processor and checks the generated serializers write the same bytes as the reflection based
+ * serializers. */
+public class SerializerProcessorTest extends TestCase {
+	static private final String ENTITY = "package test;\n" //
+		+ "import java.util.*;\n" //
+		+ "import com.esotericsoftware.kyro.*;\n" //
+		+ "@GenerateSerializer(id = 30)\n" //
+		+ "public class Entity extends Base<String> {\n" //
+		+ "	public int i; public long l; public float f; public double d;\n" //
+		+ "	short s; byte b; char c; boolean z;\n" //
+		+ "	public String text; @NotNull public String notNull;\n" //
+		+ "	public Entity child; public Integer boxed; public int[] ints;\n" //
+		+ "	public ArrayList<String> list; public HashMap<String, Integer> map; public Object any;\n" //
+		+ "	public transient int ignored;\n" //
+		+ "	@GenerateSerializer(tagged = true)\n" //
+		+ "	static public class Tagged {\n" //
+		+ "		@com.esotericsoftware.kyro.serializers.TaggedFieldSerializer.Tag(2) public String name;\n" //
+		+ "		@com.esotericsoftware.kyro.serializers.TaggedFieldSerializer.Tag(1) public int value;\n" //
+		+ "		@Deprecated @com.esotericsoftware.kyro.serializers.TaggedFieldSerializer.Tag(3) public int old;\n" //
+		+ "		private int untagged;\n" //
+		+ "	}\n" //
+		+ "}\n";
+	static private final String BASE = "package test;\n" //
+		+ "public class Base<T> { public T value; public int i; }\n";
+	static private final String PRIVATE_FIELD = "package test2;\n" //
+		+ "@com.esotericsoftware.kyro.GenerateSerializer\n" //
+		+ "public class Invalid { private int value; }\n";
+
+	private File directory;
+
+	protected void setUp () throws Exception {
+		super.setUp();
+		directory = File.createTempFile("kyro-processor", "");
+		directory.delete();
+		directory.mkdirs();
+	}
+
+	protected void tearDown () throws Exception {
+		delete(directory);
+		super.tearDown();
+	}
+
+	public void testFieldSerializerFormat () throws Exception {
+		assertEquals("", compile(source("test/Entity.java", ENTITY), source("test/Base.java", BASE)));
+		ClassLoader loader = new URLClassLoader(new URL[] {directory.toURI().toURL()}, getClass().getClassLoader());
+		Class type = loader.loadClass("test.Entity");
+
+		Kyro kyro = new Kyro();
+		loader.loadClass("test.KyroRegistrations").getMethod("register", Kyro.class).invoke(null, kyro);
+		assertEquals(30, kyro.getRegistration(type).getId());
+		Serializer serializer = kyro.getSerializer(type);
+		assertTrue(serializer instanceof GeneratedSerializer);
+		assertEquals("EntityKyroSerializer", serializer.getClass().getSimpleName());
+
+		Object entity = newEntity(type);
+		byte[] bytes = write(kyro, entity);
+
+		Kyro reflectionKyro = new Kyro();
+		reflectionKyro.register(type, new FieldSerializer(reflectionKyro, type), 30);
+		reflectionKyro.register(loader.loadClass("test.Entity$Tagged"), 31);
+		assertTrue(Arrays.equals(write(reflectionKyro, entity), bytes));
+
+		Object read = kyro.readObject(new Input(bytes), type);
+		assertTrue(Arrays.equals(bytes, write(kyro, read)));
+		assertEquals(0, type.getField("ignored").getInt(read));
+		Object copy = kyro.copy(entity);
+		assertTrue(Arrays.equals(bytes, write(kyro, copy)));
+		assertEquals(5, type.getField("ignored").getInt(copy));
+
+		// NotNull.
+		type.getField("notNull").set(entity, null);
+		try {
+			write(kyro, entity);
+			fail();
+		} catch (KyroException expected) {
+		}
+	}
+
+	public void testTaggedFieldSerializerFormat () throws Exception {
+		assertEquals("", compile(source("test/Entity.java", ENTITY), source("test/Base.java", BASE)));
+		ClassLoader loader = new URLClassLoader(new URL[] {directory.toURI().toURL()}, getClass().getClassLoader());
+		Class type = loader.loadClass("test.Entity$Tagged");
+
+		Kyro kyro = new Kyro();
+		loader.loadClass("test.KyroRegistrations").getMethod("register", Kyro.class).invoke(null, kyro);
+		assertEquals("Entity_TaggedKyroSerializer", kyro.getSerializer(type).getClass().getSimpleName());
+
+		Object tagged = type.newInstance();
+		type.getField("name").set(tagged, "abc");
+		type.getField("value").setInt(tagged, 123);
+		type.getField("old").setInt(tagged, 7);
+		byte[] bytes = write(kyro, tagged);
+
+		Kyro reflectionKyro = new Kyro();
+		reflectionKyro.register(type, new TaggedFieldSerializer(reflectionKyro, type));
+		assertTrue(Arrays.equals(write(reflectionKyro, tagged), bytes));
+
+		Object read = kyro.readObject(new Input(bytes), type);
+		assertEquals("abc", type.getField("name").get(read));
+		assertEquals(123, type.getField("value").getInt(read));
+		assertEquals(0, type.getField("old").getInt(read));
+	}
+
+	public void testInvalidField () throws Exception {
+		String errors = compile(source("test2/Invalid.java", PRIVATE_FIELD));
+		assertTrue(errors, errors.contains("is private"));
+	}
+
+	private Object newEntity (Class type) throws Exception {
+		Object entity = type.newInstance();
+		type.getField("i").setInt(entity, -123);
+		type.getField("l").setLong(entity, 1234567890123L);
+		type.getField("f").setFloat(entity, 1.5f);
+		type.getField("d").setDouble(entity, 2.25);
+		type.getField("text").set(entity, "text");
+		type.getField("notNull").set(entity, "notNull");
+		Object child = type.newInstance();
+		type.getField("notNull").set(child, "child");
+		type.getField("child").set(entity, child);
+		type.getField("boxed").set(entity, 5);
+		type.getField("ints").set(entity, new int[] {1, 2, 3});
+		type.getField("list").set(entity, new ArrayList(Arrays.asList("a", "b")));
+		type.getField("map").set(entity, new java.util.HashMap());
+		type.getField("any").set(entity, "any");
+		type.getField("value").set(entity, "value");
+		type.getField("ignored").setInt(entity, 5);
+		return entity;
+	}
+
+	private byte[] write (Kyro kyro, Object object) {
+		Output output = new Output(1024);
+		kyro.writeObject(output, object);
+		return output.toBytes();
+	}
+
+	/** Compiles the sources into the temporary directory and returns the errors. */
+	private String compile (File... sources) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+		Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(sources);
+		List<String> options = new ArrayList();
+		options.add("-d");
+		options.add(directory.getPath());
+		options.add("-s");
+		options.add(directory.getPath());
+		options.add("-classpath");
+		options.add(System.getProperty("java.class.path"));
+		options.add("-processor");
+		options.add(SerializerProcessor.class.getName());
+		options.add("-nowarn");
+		StringWriter errors = new StringWriter();
+		compiler.getTask(errors, fileManager, null, options, null, units).call();
+		fileManager.close();
+		return errors.toString();
+	}
+
+	private File source (String name, String content) throws IOException {
+		File file = new File(directory, name);
+		file.getParentFile().mkdirs();
+		FileWriter writer = new FileWriter(file);
+		writer.write(content);
+		writer.close();
+		return file;
+	}
+
+	static private void delete (File file) {
+		File[] files = file.listFiles();
+		if (files != null) {
+			for (File child : files)
+				delete(child);
+		}
+		file.delete();
+	}
+}
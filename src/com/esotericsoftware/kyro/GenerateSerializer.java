@@ -0,0 +1,29 @@
+package com.esotericsoftware.kyro;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.esotericsoftware.kyro.serializers.FieldSerializer;
+import com.esotericsoftware.kyro.serializers.GeneratedSerializer;
+import com.esotericsoftware.kyro.serializers.TaggedFieldSerializer;
+
+/** Indicates the kyro annotation processor should generate a {@link GeneratedSerializer} for the annotated class at build time.
+ * The generated serializer is named after the class with a "KyroSerializer" suffix and writes the same bytes as
+ * {@link FieldSerializer} or, if {@link #tagged()} is true, {@link TaggedFieldSerializer}. For each package, the processor also
+ * generates a "KyroRegistrations" class with a static register(Kyro) method that registers the annotated classes with their
+ * generated serializers.
+ * <p>
+ * The generated code accesses fields directly, so serialized fields must not be private or final.
+ * @see GeneratedSerializer */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface GenerateSerializer {
+	/** If true, only fields with the {@link TaggedFieldSerializer.Tag} annotation are serialized using the
+	 * {@link TaggedFieldSerializer} format. */
+	boolean tagged() default false;
+
+	/** The registration ID to use, or -1 to use the next available ID. */
+	int id() default -1;
+}
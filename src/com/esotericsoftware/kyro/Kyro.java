@@ -10,6 +10,7 @@ import com.esotericsoftware.kyro.factories.SerializerFactory;
 import com.esotericsoftware.kyro.io.Input;
 import com.esotericsoftware.kyro.io.Output;
 import com.esotericsoftware.kyro.serializers.CollectionSerializer;
+import com.esotericsoftware.kyro.serializers.FieldProjection;
 import com.esotericsoftware.kyro.serializers.FieldSerializer;
 import com.esotericsoftware.kyro.serializers.MapSerializer;
 import com.esotericsoftware.kyro.serializers.DefaultArraySerializers.BooleanArraySerializer;
@@ -96,10 +97,13 @@ public class Kyro {
 
 	static private final int REF = -1;
 	static private final int NO_REF = -2;
+	/** Cached by {@link #getDefaultSerializer(Class)} when no default serializer matches a class. Its factory is null. */
+	static private final DefaultSerializerEntry NO_DEFAULT_SERIALIZER = new DefaultSerializerEntry(Object.class, null);
 
 	private SerializerFactory defaultSerializer = new ReflectionSerializerFactory(FieldSerializer.class);
 	private final ArrayList<DefaultSerializerEntry> defaultSerializers = new ArrayList(32);
 	private final int lowPriorityDefaultSerializerCount;
+	private final IdentityMap<Class, DefaultSerializerEntry> defaultSerializerCache = new IdentityMap();
 
 	private final ClassResolver classResolver;
 	private int nextRegisterID;
@@ -231,6 +235,7 @@ public class Kyro {
 		if (serializer == null) throw new IllegalArgumentException("serializer cannot be null.");
 		DefaultSerializerEntry entry = new DefaultSerializerEntry(type, new PseudoSerializerFactory(serializer));
 		defaultSerializers.add(defaultSerializers.size() - lowPriorityDefaultSerializerCount, entry);
+		defaultSerializerCache.clear();
 	}
 
 	public void addDefaultSerializer (Class type, SerializerFactory serializerFactory) {
@@ -238,6 +243,7 @@ public class Kyro {
 		if (serializerFactory == null) throw new IllegalArgumentException("serializerFactory cannot be null.");
 		DefaultSerializerEntry entry = new DefaultSerializerEntry(type, serializerFactory);
 		defaultSerializers.add(defaultSerializers.size() - lowPriorityDefaultSerializerCount, entry);
+		defaultSerializerCache.clear();
 	}
 
 	/** Instances of the specified class will use the specified serializer. Serializer instances are created as needed via
@@ -321,27 +327,48 @@ public class Kyro {
 		if (serializerClass == null) throw new IllegalArgumentException("serializerClass cannot be null.");
 		DefaultSerializerEntry entry = new DefaultSerializerEntry(type, new ReflectionSerializerFactory(serializerClass));
 		defaultSerializers.add(defaultSerializers.size() - lowPriorityDefaultSerializerCount, entry);
+		defaultSerializerCache.clear();
 	}
 
 	/** Returns the best matching serializer for a class. This method can be overridden to implement custom logic to choose a
-	 * serializer. */
+	 * serializer.
+	 * <p>
+	 * The serializer factory chosen for each class is cached, so the default serializers are only searched once per class. The
+	 * cache is cleared when a default serializer is added.
+	 * @see #clearDefaultSerializerCache() */
 	public Serializer getDefaultSerializer (Class type) {
 		if (type == null) throw new IllegalArgumentException("type cannot be null.");
 
+		DefaultSerializerEntry entry = defaultSerializerCache.get(type);
+		if (entry == null) {
+			entry = findDefaultSerializerEntry(type);
+			defaultSerializerCache.put(type, entry);
+		}
+		if (entry.serializerFactory == null) return newDefaultSerializer(type);
+		return entry.serializerFactory.makeSerializer(this, type);
+	}
+
+	/** Returns an entry for the {@link DefaultSerializer} annotation, the first matching default serializer, or
+	 * {@link #NO_DEFAULT_SERIALIZER} if there is none. */
+	private DefaultSerializerEntry findDefaultSerializerEntry (Class type) {
 		if (type.isAnnotationPresent(DefaultSerializer.class)) {
 			DefaultSerializer defaultSerializerAnnotation = (DefaultSerializer)type.getAnnotation(DefaultSerializer.class);
-			return ReflectionSerializerFactory.makeSerializer(this, defaultSerializerAnnotation.value(), type);
+			return new DefaultSerializerEntry(type, new ReflectionSerializerFactory(defaultSerializerAnnotation.value()));
 		}
 
 		for (int i = 0, n = defaultSerializers.size(); i < n; i++) {
 			DefaultSerializerEntry entry = defaultSerializers.get(i);
-			if (entry.type.isAssignableFrom(type)) {
-				Serializer defaultSerializer = entry.serializerFactory.makeSerializer(this, type);
-				return defaultSerializer;
-			}
+			if (entry.type.isAssignableFrom(type)) return entry;
 		}
 
-		return newDefaultSerializer(type);
+		return NO_DEFAULT_SERIALIZER;
+	}
+
+	/** Discards the serializer factories cached by {@link #getDefaultSerializer(Class)}. This is done automatically when a default
+	 * serializer is added, but must be called if a subclass changes which default serializer is chosen for a class or to release
+	 * the references to the classes that have been looked up. */
+	public void clearDefaultSerializerCache () {
+		defaultSerializerCache.clear();
 	}
 
 	/** Called by {@link #getDefaultSerializer(Class)} when no default serializers matched the type. Subclasses can override this
@@ -769,6 +796,139 @@ public class Kyro {
 		}
 	}
 
+	/** Reads an object using the registered serializer, but only the fields selected by the paths. To read many objects, create a
+	 * {@link FieldProjection} once and use {@link #readProjected(Input, Class, FieldProjection)}.
+	 * @param paths Field names, or field names separated by '.' to select fields of the objects in fields. */
+	public <T> T readProjected (Input input, Class<T> type, String... paths) {
+		return readProjected(input, type, new FieldProjection(paths));
+	}
+
+	/** Reads an object using the registered serializer, but only the fields selected by the projection. Fields that are not
+	 * selected are skipped without creating their values, unless references are enabled. Only objects serialized by a
+	 * {@link FieldSerializer} are projected, other objects are read in whole. */
+	public <T> T readProjected (Input input, Class<T> type, FieldProjection projection) {
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		return readProjected(input, type, getRegistration(type).getSerializer(), projection, false);
+	}
+
+	/** Reads an object using the specified serializer, but only the fields selected by the projection. The registered serializer
+	 * is ignored.
+	 * @see #readProjected(Input, Class, FieldProjection) */
+	public <T> T readProjected (Input input, Class<T> type, Serializer serializer, FieldProjection projection) {
+		return readProjected(input, type, serializer, projection, false);
+	}
+
+	/** Reads an object or null using the specified serializer, but only the fields selected by the projection. The registered
+	 * serializer is ignored.
+	 * @return May be null.
+	 * @see #readProjected(Input, Class, FieldProjection) */
+	public <T> T readProjectedOrNull (Input input, Class<T> type, Serializer serializer, FieldProjection projection) {
+		return readProjected(input, type, serializer, projection, true);
+	}
+
+	private <T> T readProjected (Input input, Class<T> type, Serializer serializer, FieldProjection projection,
+		boolean mayBeNull) {
+		if (input == null) throw new IllegalArgumentException("input cannot be null.");
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		if (serializer == null) throw new IllegalArgumentException("serializer cannot be null.");
+		if (projection == null) throw new IllegalArgumentException("projection cannot be null.");
+		beginObject();
+		try {
+			T object;
+			if (references) {
+				int stackSize = readReferenceOrNull(input, type, mayBeNull);
+				if (stackSize == REF) return (T)readObject;
+				object = readProjected(serializer, input, type, projection);
+				if (stackSize == readReferenceIds.size) reference(object);
+			} else {
+				if (mayBeNull && !serializer.getAcceptsNull() && input.readByte() == NULL) {
+					if (TRACE || (DEBUG && depth == 1)) log("Read", null);
+					return null;
+				}
+				object = readProjected(serializer, input, type, projection);
+			}
+			if (TRACE || (DEBUG && depth == 1)) log("Read", object);
+			return object;
+		} finally {
+			if (--depth == 0 && autoReset) reset();
+		}
+	}
+
+	private <T> T readProjected (Serializer serializer, Input input, Class<T> type, FieldProjection projection) {
+		if (serializer instanceof FieldSerializer)
+			return ((FieldSerializer<T>)serializer).readProjected(this, input, type, projection);
+		return (T)serializer.read(this, input, type);
+	}
+
+	/** Moves the input past an object written with {@link #writeObject(Output, Object)}, using the registered serializer. The
+	 * object is not created unless references are enabled, in which case it is read and discarded because objects written
+	 * later may refer to it.
+	 * @see Serializer#skip(Kyro, Input, Class) */
+	public void skipObject (Input input, Class type) {
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		skipObject(input, type, getRegistration(type).getSerializer(), false);
+	}
+
+	/** Moves the input past an object written with the specified serializer. The registered serializer is ignored.
+	 * @see #skipObject(Input, Class) */
+	public void skipObject (Input input, Class type, Serializer serializer) {
+		skipObject(input, type, serializer, false);
+	}
+
+	/** Moves the input past an object or null written with {@link #writeObjectOrNull(Output, Object, Class)}, using the
+	 * registered serializer.
+	 * @see #skipObject(Input, Class) */
+	public void skipObjectOrNull (Input input, Class type) {
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		skipObject(input, type, getRegistration(type).getSerializer(), true);
+	}
+
+	/** Moves the input past an object or null written with the specified serializer. The registered serializer is ignored.
+	 * @see #skipObject(Input, Class) */
+	public void skipObjectOrNull (Input input, Class type, Serializer serializer) {
+		skipObject(input, type, serializer, true);
+	}
+
+	private void skipObject (Input input, Class type, Serializer serializer, boolean mayBeNull) {
+		if (input == null) throw new IllegalArgumentException("input cannot be null.");
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		if (serializer == null) throw new IllegalArgumentException("serializer cannot be null.");
+		if (references) {
+			if (mayBeNull)
+				readObjectOrNull(input, type, serializer);
+			else
+				readObject(input, type, serializer);
+			return;
+		}
+		beginObject();
+		try {
+			if (mayBeNull && !serializer.getAcceptsNull() && input.readByte() == NULL) return;
+			serializer.skip(this, input, type);
+			if (TRACE) trace("kyro", "Skip: " + className(type));
+		} finally {
+			if (--depth == 0 && autoReset) reset();
+		}
+	}
+
+	/** Moves the input past the class and object or null written with {@link #writeClassAndObject(Output, Object)}.
+	 * @see #skipObject(Input, Class) */
+	public void skipClassAndObject (Input input) {
+		if (input == null) throw new IllegalArgumentException("input cannot be null.");
+		if (references) {
+			readClassAndObject(input);
+			return;
+		}
+		beginObject();
+		try {
+			Registration registration = readClass(input);
+			if (registration == null) return;
+			registration.getSerializer().skip(this, input, registration.getType());
+			if (TRACE) trace("kyro", "Skip: " + className(registration.getType()));
+		} finally {
+			if (--depth == 0 && autoReset) reset();
+		}
+	}
+
 	/** Returns {@link #REF} if a reference to a previously read object was read, which is stored in {@link #readObject}. Returns a
 	 * stack size (> 0) if a reference ID has been put on the stack. */
 	int readReferenceOrNull (Input input, Class type, boolean mayBeNull) {
@@ -1074,6 +1234,30 @@ public class Kyro {
 		return graphContext;
 	}
 
+	/** Starts an object graph nested in the current one, for objects written to separate bytes that must be readable on their
+	 * own, such as the value of a {@link com.esotericsoftware.kyro.serializers.LazyRef}. The {@link #getGraphContext() graph
+	 * context} and, if the class resolver is a {@link DefaultClassResolver}, the unregistered class names of the current graph are
+	 * set aside, so the nested graph writes or reads all of its own per graph state. References are not affected. Each call must
+	 * be followed by {@link #endNestedGraph(Object)}.
+	 * @return The state of the current graph, to pass to endNestedGraph. */
+	public Object beginNestedGraph () {
+		Object[] outer = new Object[2];
+		outer[0] = graphContext;
+		if (classResolver instanceof DefaultClassResolver) outer[1] = ((DefaultClassResolver)classResolver).isolateGraph();
+		graphContext = null;
+		return outer;
+	}
+
+	/** Ends a nested object graph, restoring the state of the graph it was nested in.
+	 * @param graph The value returned by {@link #beginNestedGraph()}. */
+	public void endNestedGraph (Object graph) {
+		Object[] outer = (Object[])graph;
+		// Cleared so serializers can tell the nested graph is done.
+		if (graphContext != null) graphContext.clear();
+		graphContext = (ObjectMap)outer[0];
+		if (outer[1] != null) ((DefaultClassResolver)classResolver).restoreGraph(outer[1]);
+	}
+
 	/** Returns the number of child objects away from the object graph root. */
 	public int getDepth () {
 		return depth;
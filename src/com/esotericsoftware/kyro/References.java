@@ -0,0 +1,19 @@
+package com.esotericsoftware.kyro;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.esotericsoftware.kyro.util.SelectiveReferenceResolver;
+
+/** Sets whether references are tracked for objects of the annotated class and its subclasses. Use false for classes whose objects
+ * are never shared within an object graph and can't be part of a cycle, so they don't need to be tracked.
+ * @see SelectiveReferenceResolver */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Inherited
+public @interface References {
+	boolean value();
+}
@@ -42,6 +42,16 @@ public abstract class Serializer<T> {
 	 * @return May be null if {@link #getAcceptsNull()} is true. */
 	abstract public T read (Kyro kyro, Input input, Class<T> type);
 
+	/** Reads past the bytes for an object without creating it. This is only called when references are disabled, because an object
+	 * that is skipped can't be referenced later. The default implementation calls {@link #read(Kyro, Input, Class)} and discards
+	 * the object. Subclasses should override this method if the bytes can be skipped without allocating.
+	 * <p>
+	 * This method should not be called directly, instead this serializer can be passed to {@link Kyro} skip methods that accept a
+	 * serializer, such as {@link Kyro#skipObject(Input, Class, Serializer)}. */
+	public void skip (Kyro kyro, Input input, Class<T> type) {
+		read(kyro, input, type);
+	}
+
 	public boolean getAcceptsNull () {
 		return acceptsNull;
 	}
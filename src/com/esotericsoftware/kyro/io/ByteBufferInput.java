@@ -167,7 +167,7 @@ public class ByteBufferInput extends Input {
 	/** @param required Must be > 0. The buffer is filled until it has at least this many bytes.
 	 * @return the number of bytes remaining.
 	 * @throws KyroException if EOS is reached before required bytes are read (buffer underflow). */
-	final protected int require (int required) throws KyroException {
+	protected int require (int required) throws KyroException {
 		int remaining = limit - position;
 		if (remaining >= required) return remaining;
 		if (required > capacity) throw new KyroException("Buffer too small: capacity: " + capacity + ", required: " + required);
@@ -176,6 +176,8 @@ public class ByteBufferInput extends Input {
 		// Try to fill the buffer.
 		if (remaining > 0) {
 			count = fill(niobuffer, limit, capacity - limit);
+			// Fill leaves the buffer position at the old limit.
+			niobuffer.position(position);
 			if (count == -1) throw new KyroException("Buffer underflow.");
 			remaining += count;
 			if (remaining >= required) {
@@ -206,13 +208,14 @@ public class ByteBufferInput extends Input {
 
 	/** @param optional Try to fill the buffer with this many bytes.
 	 * @return the number of bytes remaining, but not more than optional, or -1 if the EOS was reached and the buffer is empty. */
-	private int optional (int optional) throws KyroException {
+	protected int optional (int optional) throws KyroException {
 		int remaining = limit - position;
 		if (remaining >= optional) return optional;
 		optional = Math.min(optional, capacity);
 
 		// Try to fill the buffer.
 		int count = fill(niobuffer, limit, capacity - limit);
+		niobuffer.position(position);
 		if (count == -1) return remaining == 0 ? -1 : Math.min(remaining, optional);
 		remaining += count;
 		if (remaining >= optional) {
@@ -277,6 +280,12 @@ public class ByteBufferInput extends Input {
 		return startingCount - count;
 	}
 
+	/** Discards the specified number of bytes. */
+	public void skip (int count) throws KyroException {
+		super.skip(count);
+		niobuffer.position(position);
+	}
+
 	/** Discards the specified number of bytes. */
 	public long skip (long count) throws KyroException {
 		long remaining = count;
@@ -603,12 +612,11 @@ public class ByteBufferInput extends Input {
 			end++;
 			b = niobuffer.get();
 		} while ((b & 0x80) == 0);
-		niobuffer.put(end - 1, (byte)(niobuffer.get(end - 1) & 0x7F)); // Mask end of ascii bit.
 		byte[] tmp = new byte[end - start];
 		niobuffer.position(start);
 		niobuffer.get(tmp);
+		tmp[tmp.length - 1] &= 0x7F; // Mask end of ascii bit. The buffer is not modified, it may be read only.
 		String value = new String(tmp, 0, 0, end - start);
-		niobuffer.put(end - 1, (byte)(niobuffer.get(end - 1) | 0x80));
 		position = end;
 		niobuffer.position(position);
 		return value;
@@ -293,6 +293,15 @@ public class ByteBufferOutput extends Output {
 		position += 4;
 	}
 
+	/** Writes an int in little endian order. The buffer is required before changing its order, since it may be replaced. */
+	private void writeLittleEndianInt (int value) {
+		require(4);
+		niobuffer.order(ByteOrder.LITTLE_ENDIAN);
+		niobuffer.putInt(value);
+		niobuffer.order(byteOrder);
+		position += 4;
+	}
+
 	public int writeInt (int value, boolean optimizePositive) throws KyroException {
 		if (!varIntsEnabled) {
 			writeInt(value);
@@ -323,9 +332,7 @@ public class ByteBufferOutput extends Output {
 		value >>>= 7;
 
 		if (value == 0) {
-			niobuffer.order(ByteOrder.LITTLE_ENDIAN);
-			writeInt(varInt);
-			niobuffer.order(byteOrder);
+			writeLittleEndianInt(varInt);
 			position -= 2;
 			niobuffer.position(position);
 			return 2;
@@ -337,9 +344,7 @@ public class ByteBufferOutput extends Output {
 		value >>>= 7;
 
 		if (value == 0) {
-			niobuffer.order(ByteOrder.LITTLE_ENDIAN);
-			writeInt(varInt);
-			niobuffer.order(byteOrder);
+			writeLittleEndianInt(varInt);
 			position -= 1;
 			niobuffer.position(position);
 			return 3;
@@ -351,9 +356,7 @@ public class ByteBufferOutput extends Output {
 		value >>>= 7;
 
 		if (value == 0) {
-			niobuffer.order(ByteOrder.LITTLE_ENDIAN);
-			writeInt(varInt);
-			niobuffer.order(byteOrder);
+			writeLittleEndianInt(varInt);
 			position -= 0;
 			return 4;
 		}
@@ -361,9 +364,7 @@ public class ByteBufferOutput extends Output {
 		varInt |= (0x80 << 24);
 		long varLong = (varInt & 0xFFFFFFFFL) | (((long)value) << 32);
 
-		niobuffer.order(ByteOrder.LITTLE_ENDIAN);
-		writeLong(varLong);
-		niobuffer.order(byteOrder);
+		writeLittleEndianLong(varLong);
 
 		position -= 3;
 		niobuffer.position(position);
@@ -400,14 +401,7 @@ public class ByteBufferOutput extends Output {
 			}
 		}
 		if (ascii) {
-			if (capacity - position < charCount)
-				writeAscii_slow(value, charCount);
-			else {
-				byte[] tmp = value.getBytes();
-				niobuffer.put(tmp, 0, tmp.length);
-				position += charCount;
-			}
-			niobuffer.put(position - 1, (byte)(niobuffer.get(position - 1) | 0x80));
+			writeAsciiChars(value, charCount);
 		} else {
 			writeUtf8Length(charCount + 1);
 			int charIndex = 0;
@@ -468,18 +462,30 @@ public class ByteBufferOutput extends Output {
 			return;
 		}
 		int charCount = value.length();
-		if (charCount == 0) {
-			writeByte(1 | 0x80); // 1 means empty string, bit 8 means UTF8.
+		switch (charCount) {
+		case 0:
+			writeByte(1 | 0x80); // 1 is string length + 1, bit 8 means UTF8.
+			return;
+		case 1:
+			writeByte(2 | 0x80); // 2 is string length + 1, bit 8 means UTF8.
+			writeByte(value.charAt(0));
 			return;
 		}
+		niobuffer.position(position);
+		writeAsciiChars(value, charCount);
+	}
+
+	/** Writes the chars with bit 8 of the last byte set to mean end of ASCII. The bit is set before the last byte is written,
+	 * because {@link #require(int)} may have flushed the bytes or started a new buffer. */
+	private void writeAsciiChars (String value, int charCount) throws KyroException {
 		if (capacity - position < charCount)
 			writeAscii_slow(value, charCount);
 		else {
 			byte[] tmp = value.getBytes();
+			tmp[charCount - 1] |= 0x80; // Bit 8 means end of ASCII.
 			niobuffer.put(tmp, 0, tmp.length);
 			position += charCount;
 		}
-		niobuffer.put(position - 1, (byte)(niobuffer.get(position - 1) | 0x80)); // Bit 8 means end of ASCII.
 	}
 
 	/** Writes the length of a string, which is a variable length encoded int except the first byte uses bit 8 to denote UTF8 and
@@ -544,6 +550,7 @@ public class ByteBufferOutput extends Output {
 		while (charIndex < charCount) {
 			byte[] tmp = new byte[charCount];
 			value.getBytes(charIndex, charIndex + charsToWrite, tmp, 0);
+			if (charIndex + charsToWrite == charCount) tmp[charsToWrite - 1] |= 0x80; // Bit 8 means end of ASCII.
 			buffer.put(tmp, 0, charsToWrite);
 // value.getBytes(charIndex, charIndex + charsToWrite, buffer, position);
 			charIndex += charsToWrite;
@@ -587,6 +594,15 @@ public class ByteBufferOutput extends Output {
 		position += 8;
 	}
 
+	/** Writes a long in little endian order. The buffer is required before changing its order, since it may be replaced. */
+	private void writeLittleEndianLong (long value) {
+		require(8);
+		niobuffer.order(ByteOrder.LITTLE_ENDIAN);
+		niobuffer.putLong(value);
+		niobuffer.order(byteOrder);
+		position += 8;
+	}
+
 	public int writeLong (long value, boolean optimizePositive) throws KyroException {
 		if (!varIntsEnabled) {
 			writeLong(value);
@@ -614,9 +630,7 @@ public class ByteBufferOutput extends Output {
 		value >>>= 7;
 
 		if (value == 0) {
-			niobuffer.order(ByteOrder.LITTLE_ENDIAN);
-			writeInt(varInt);
-			niobuffer.order(byteOrder);
+			writeLittleEndianInt(varInt);
 			position -= 2;
 			niobuffer.position(position);
 			return 2;
@@ -628,9 +642,7 @@ public class ByteBufferOutput extends Output {
 		value >>>= 7;
 
 		if (value == 0) {
-			niobuffer.order(ByteOrder.LITTLE_ENDIAN);
-			writeInt(varInt);
-			niobuffer.order(byteOrder);
+			writeLittleEndianInt(varInt);
 			position -= 1;
 			niobuffer.position(position);
 			return 3;
@@ -642,9 +654,7 @@ public class ByteBufferOutput extends Output {
 		value >>>= 7;
 
 		if (value == 0) {
-			niobuffer.order(ByteOrder.LITTLE_ENDIAN);
-			writeInt(varInt);
-			niobuffer.order(byteOrder);
+			writeLittleEndianInt(varInt);
 			position -= 0;
 			return 4;
 		}
@@ -656,9 +666,7 @@ public class ByteBufferOutput extends Output {
 		value >>>= 7;
 
 		if (value == 0) {
-			niobuffer.order(ByteOrder.LITTLE_ENDIAN);
-			writeLong(varLong);
-			niobuffer.order(byteOrder);
+			writeLittleEndianLong(varLong);
 			position -= 3;
 			niobuffer.position(position);
 			return 5;
@@ -670,9 +678,7 @@ public class ByteBufferOutput extends Output {
 		value >>>= 7;
 
 		if (value == 0) {
-			niobuffer.order(ByteOrder.LITTLE_ENDIAN);
-			writeLong(varLong);
-			niobuffer.order(byteOrder);
+			writeLittleEndianLong(varLong);
 			position -= 2;
 			niobuffer.position(position);
 			return 6;
@@ -684,9 +690,7 @@ public class ByteBufferOutput extends Output {
 		value >>>= 7;
 
 		if (value == 0) {
-			niobuffer.order(ByteOrder.LITTLE_ENDIAN);
-			writeLong(varLong);
-			niobuffer.order(byteOrder);
+			writeLittleEndianLong(varLong);
 			position -= 1;
 			niobuffer.position(position);
 			return 7;
@@ -698,16 +702,12 @@ public class ByteBufferOutput extends Output {
 		value >>>= 7;
 
 		if (value == 0) {
-			niobuffer.order(ByteOrder.LITTLE_ENDIAN);
-			writeLong(varLong);
-			niobuffer.order(byteOrder);
+			writeLittleEndianLong(varLong);
 			return 8;
 		}
 
 		varLong |= (0x80L << 56);
-		niobuffer.order(ByteOrder.LITTLE_ENDIAN);
-		writeLong(varLong);
-		niobuffer.order(byteOrder);
+		writeLittleEndianLong(varLong);
 		write((byte)(value));
 		return 9;
 	}
@@ -0,0 +1,163 @@
+package com.esotericsoftware.kyro.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import com.esotericsoftware.kyro.KyroException;
+
+/** A ByteBufferInput that fills a direct ByteBuffer from a {@link ReadableByteChannel}. The channel reads into the buffer as is,
+ * without the copy from a heap array that an InputStream requires.
+ * <p>
+ * Byte arrays at least as large as the buffer are read directly from the channel, rather than through the buffer. Bytes can be
+ * passed on to another channel with {@link #transferTo(WritableByteChannel, long)}, which uses
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)} when reading from a file so the OS can copy the bytes without
+ * them entering the JVM.
+ * <p>
+ * The channel must be in blocking mode.
+ * @see ChannelOutput */
+public class ChannelInput extends ByteBufferInput {
+	private ReadableByteChannel channel;
+
+	/** Creates an uninitialized input with a buffer size of 4096. {@link #setChannel(ReadableByteChannel)} must be called before
+	 * the input is used. */
+	public ChannelInput () {
+		this(null, 4096);
+	}
+
+	/** Creates an input for reading from a channel with a buffer size of 4096. */
+	public ChannelInput (ReadableByteChannel channel) {
+		this(channel, 4096);
+	}
+
+	/** Creates an input for reading from a channel.
+	 * @param channel May be null. */
+	public ChannelInput (ReadableByteChannel channel, int bufferSize) {
+		super(bufferSize);
+		this.channel = channel;
+	}
+
+	public ReadableByteChannel getChannel () {
+		return channel;
+	}
+
+	/** Sets a new channel. The position and total are reset, discarding any buffered bytes. The
+	 * {@link #setInputStream(java.io.InputStream) InputStream} is set to null.
+	 * @param channel May be null. */
+	public void setChannel (ReadableByteChannel channel) {
+		this.channel = channel;
+		inputStream = null;
+		limit = 0;
+		rewind();
+	}
+
+	/** Fills the buffer from the channel, if any, otherwise from the InputStream, if any. */
+	protected int fill (ByteBuffer buffer, int offset, int count) throws KyroException {
+		if (channel == null) return super.fill(buffer, offset, count);
+		buffer.position(offset);
+		buffer.limit(offset + count);
+		try {
+			return channel.read(buffer);
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		} finally {
+			buffer.limit(buffer.capacity());
+			buffer.position(offset);
+		}
+	}
+
+	/** Reads the bytes. If there are at least as many bytes as the size of the buffer, the buffered bytes are used and the rest are
+	 * read directly from the channel. */
+	public void readBytes (byte[] bytes, int offset, int count) throws KyroException {
+		if (bytes == null) throw new IllegalArgumentException("bytes cannot be null.");
+		if (count < capacity || channel == null) {
+			super.readBytes(bytes, offset, count);
+			return;
+		}
+		int buffered = limit - position;
+		niobuffer.position(position);
+		niobuffer.get(bytes, offset, buffered);
+		discardBuffer();
+		ByteBuffer buffer = ByteBuffer.wrap(bytes, offset + buffered, count - buffered);
+		try {
+			while (buffer.hasRemaining())
+				if (channel.read(buffer) == -1) throw new KyroException("Buffer underflow.");
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+		total += count - buffered;
+	}
+
+	/** Writes the next bytes to another channel. The buffered bytes are written first. If the rest are read from a
+	 * {@link FileChannel}, they are transferred using {@link FileChannel#transferTo(long, long, WritableByteChannel)}, otherwise they
+	 * are read through the buffer.
+	 * @throws KyroException if there are fewer bytes than requested. */
+	public void transferTo (WritableByteChannel target, long count) throws KyroException {
+		if (target == null) throw new IllegalArgumentException("target cannot be null.");
+		try {
+			long remaining = count;
+			int buffered = (int)Math.min(limit - position, remaining);
+			if (buffered > 0) writeBuffered(target, buffered);
+			remaining -= buffered;
+			if (remaining == 0) return;
+
+			if (channel instanceof FileChannel) {
+				discardBuffer();
+				FileChannel file = (FileChannel)channel;
+				long filePosition = file.position();
+				while (remaining > 0) {
+					long transferred = file.transferTo(filePosition, remaining, target);
+					if (transferred == 0 && filePosition >= file.size()) throw new KyroException("Buffer underflow.");
+					filePosition += transferred;
+					remaining -= transferred;
+					total += transferred;
+				}
+				file.position(filePosition);
+				return;
+			}
+
+			while (remaining > 0) {
+				int available = optional((int)Math.min(remaining, capacity));
+				if (available == -1) throw new KyroException("Buffer underflow.");
+				writeBuffered(target, available);
+				remaining -= available;
+			}
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+	}
+
+	private void writeBuffered (WritableByteChannel target, int count) throws IOException {
+		niobuffer.position(position);
+		niobuffer.limit(position + count);
+		try {
+			while (niobuffer.hasRemaining())
+				target.write(niobuffer);
+		} finally {
+			niobuffer.limit(niobuffer.capacity());
+		}
+		position += count;
+	}
+
+	/** Marks all buffered bytes as read, so the next bytes come from the channel. */
+	private void discardBuffer () {
+		total += limit;
+		position = 0;
+		limit = 0;
+		niobuffer.position(0);
+	}
+
+	/** Closes the channel or the InputStream, if any. */
+	public void close () throws KyroException {
+		if (channel == null) {
+			super.close();
+			return;
+		}
+		try {
+			channel.close();
+		} catch (IOException ignored) {
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.esotericsoftware.kyro.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import com.esotericsoftware.kyro.KyroException;
+
+/** A ByteBufferOutput that buffers data in a direct ByteBuffer and flushes it to a {@link WritableByteChannel}. The buffer is
+ * written to the channel as is, without the copy to a heap array that an OutputStream requires.
+ * <p>
+ * Byte arrays and ByteBuffers at least as large as the buffer are written directly to the channel after flushing, rather than
+ * through the buffer. A region of a file can be sent with {@link #transferFrom(FileChannel, long, long)}, which uses
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)} so the OS can copy the bytes without them entering the JVM.
+ * <p>
+ * The channel must be in blocking mode.
+ * @see ChannelInput */
+public class ChannelOutput extends ByteBufferOutput {
+	private WritableByteChannel channel;
+
+	/** Creates an uninitialized output with a buffer size of 4096. {@link #setChannel(WritableByteChannel)} must be called before
+	 * the output is used. */
+	public ChannelOutput () {
+		this(null, 4096);
+	}
+
+	/** Creates an output for writing to a channel with a buffer size of 4096. */
+	public ChannelOutput (WritableByteChannel channel) {
+		this(channel, 4096);
+	}
+
+	/** Creates an output for writing to a channel.
+	 * @param channel May be null. */
+	public ChannelOutput (WritableByteChannel channel, int bufferSize) {
+		super(bufferSize, bufferSize);
+		this.channel = channel;
+	}
+
+	public WritableByteChannel getChannel () {
+		return channel;
+	}
+
+	/** Sets a new channel. The position and total are reset, discarding any buffered bytes. The
+	 * {@link #setOutputStream(java.io.OutputStream) OutputStream} is set to null.
+	 * @param channel May be null. */
+	public void setChannel (WritableByteChannel channel) {
+		this.channel = channel;
+		outputStream = null;
+		clear();
+	}
+
+	/** Writes the buffered bytes to the channel, if any, otherwise to the OutputStream, if any. */
+	public void flush () throws KyroException {
+		if (channel == null) {
+			super.flush();
+			return;
+		}
+		niobuffer.position(0);
+		niobuffer.limit(position);
+		writeFully(niobuffer);
+		niobuffer.clear();
+		total += position;
+		position = 0;
+	}
+
+	private void writeFully (ByteBuffer buffer) throws KyroException {
+		try {
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+	}
+
+	/** Writes the bytes. If there are at least as many bytes as the size of the buffer, the buffer is flushed and the bytes are
+	 * written directly to the channel. */
+	public void writeBytes (byte[] bytes, int offset, int count) throws KyroException {
+		if (bytes == null) throw new IllegalArgumentException("bytes cannot be null.");
+		if (count < capacity || channel == null) {
+			super.writeBytes(bytes, offset, count);
+			return;
+		}
+		flush();
+		writeFully(ByteBuffer.wrap(bytes, offset, count));
+		total += count;
+	}
+
+	/** Writes the bytes between the position and limit of the ByteBuffer and sets its position to its limit. If there are at least
+	 * as many bytes as the size of the buffer, the buffer is flushed and the bytes are written directly to the channel. This avoids
+	 * any copy when the ByteBuffer is direct. */
+	public void writeByteBuffer (ByteBuffer buffer) throws KyroException {
+		if (buffer == null) throw new IllegalArgumentException("buffer cannot be null.");
+		int count = buffer.remaining();
+		if (count < capacity || channel == null) {
+			while (true) {
+				int copyCount = Math.min(capacity - position, buffer.remaining());
+				int limit = buffer.limit();
+				buffer.limit(buffer.position() + copyCount);
+				niobuffer.put(buffer);
+				buffer.limit(limit);
+				position += copyCount;
+				if (!buffer.hasRemaining()) return;
+				require(Math.min(capacity, buffer.remaining()));
+			}
+		}
+		flush();
+		writeFully(buffer);
+		total += count;
+	}
+
+	/** Flushes the buffer, then writes bytes from a file directly to the channel using
+	 * {@link FileChannel#transferTo(long, long, WritableByteChannel)}. The position of the file channel is not changed.
+	 * @param filePosition The position in the file of the first byte to write.
+	 * @param count The number of bytes to write.
+	 * @throws KyroException if the file has fewer bytes than requested. */
+	public void transferFrom (FileChannel file, long filePosition, long count) throws KyroException {
+		if (file == null) throw new IllegalArgumentException("file cannot be null.");
+		if (channel == null) throw new IllegalStateException("A channel must be set.");
+		flush();
+		try {
+			long remaining = count;
+			while (remaining > 0) {
+				long transferred = file.transferTo(filePosition, remaining, channel);
+				if (transferred == 0 && filePosition >= file.size())
+					throw new KyroException("Unable to transfer " + count + " bytes, end of file reached at: " + filePosition);
+				filePosition += transferred;
+				remaining -= transferred;
+			}
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+		total += count;
+	}
+
+	/** Flushes any buffered bytes and closes the channel or the OutputStream, if any. */
+	public void close () throws KyroException {
+		if (channel == null) {
+			super.close();
+			return;
+		}
+		flush();
+		try {
+			channel.close();
+		} catch (IOException ignored) {
+		}
+	}
+}
@@ -0,0 +1,252 @@
+package com.esotericsoftware.kyro.io;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import com.esotericsoftware.kyro.KyroException;
+
+/** A ByteBufferInput that reads across a sequence of ByteBuffers as if they were one buffer, without copying them into a single
+ * array. Each ByteBuffer is read in place between its position and limit, so reads within a ByteBuffer take the same fast paths
+ * as ByteBufferInput. Only when a value crosses the boundary between ByteBuffers are its bytes, at most 16, copied to a small
+ * buffer to be read.
+ * <p>
+ * The positions of the ByteBuffers are changed as they are read, their limits and byte orders are not. {@link #position()} is
+ * relative to the ByteBuffer being read, {@link #total()} is the number of bytes read from all ByteBuffers. */
+public class CompositeInput extends ByteBufferInput {
+	static private final int SCRATCH_SIZE = 16;
+
+	private ByteBuffer[] buffers = new ByteBuffer[0];
+	/** Holds the ByteBuffers set from a List, so an array passed to {@link #setBuffers(ByteBuffer...)} is never written to. */
+	private ByteBuffer[] listBuffers = new ByteBuffer[0];
+	private int[] starts = new int[0], limits = new int[0];
+	private int count;
+	private final byte[] scratchBytes = new byte[SCRATCH_SIZE];
+	private final ByteBuffer scratch = ByteBuffer.wrap(scratchBytes);
+	/** The index of the ByteBuffer being read or, when reading the scratch buffer, of the ByteBuffer to read next. */
+	private int index;
+	/** When reading the scratch buffer, the position in the next ByteBuffer to continue reading. */
+	private int resume;
+
+	/** Creates an uninitialized input. {@link #setBuffers(ByteBuffer[])} must be called before the input is used. */
+	public CompositeInput () {
+		setBuffers(buffers, 0);
+	}
+
+	public CompositeInput (ByteBuffer... buffers) {
+		setBuffers(buffers);
+	}
+
+	public CompositeInput (List<ByteBuffer> buffers) {
+		setBuffers(buffers);
+	}
+
+	/** Sets the ByteBuffers to read, discarding any previous buffers. The total is reset. The array is not copied and must not be
+	 * modified while the input is used. */
+	public void setBuffers (ByteBuffer... buffers) {
+		if (buffers == null) throw new IllegalArgumentException("buffers cannot be null.");
+		setBuffers(buffers, buffers.length);
+	}
+
+	/** Sets the ByteBuffers to read, discarding any previous buffers. The total is reset. */
+	public void setBuffers (List<ByteBuffer> buffers) {
+		if (buffers == null) throw new IllegalArgumentException("buffers cannot be null.");
+		int count = buffers.size();
+		if (listBuffers.length < count) listBuffers = new ByteBuffer[count];
+		for (int i = 0; i < count; i++)
+			listBuffers[i] = buffers.get(i);
+		setBuffers(listBuffers, count);
+	}
+
+	private void setBuffers (ByteBuffer[] buffers, int count) {
+		if (starts.length < count) {
+			starts = new int[count];
+			limits = new int[count];
+		}
+		for (int i = 0; i < count; i++) {
+			ByteBuffer buffer = buffers[i];
+			if (buffer == null) throw new IllegalArgumentException("buffers cannot contain null.");
+			starts[i] = buffer.position();
+			limits[i] = buffer.limit();
+		}
+		this.buffers = buffers;
+		this.count = count;
+		inputStream = null;
+		rewind();
+	}
+
+	/** Sets a single ByteBuffer to read. */
+	public void setBuffer (ByteBuffer buffer) {
+		if (buffer == null) throw new IllegalArgumentException("buffer cannot be null.");
+		setBuffers(new ByteBuffer[] {buffer});
+	}
+
+	/** Unsupported, a CompositeInput only reads from its ByteBuffers. */
+	public void setInputStream (InputStream inputStream) {
+		throw new UnsupportedOperationException();
+	}
+
+	/** Returns the number of ByteBuffers. */
+	public int getBufferCount () {
+		return count;
+	}
+
+	/** Reads from the start of the first ByteBuffer again. */
+	public void rewind () {
+		total = 0;
+		position = 0;
+		enterScratch(0, 0, count > 0 ? starts[0] : 0);
+		if (count > 0) readBuffer(0, starts[0]);
+	}
+
+	/** Reads the ByteBuffer at the specified index, starting at the specified position. */
+	private void readBuffer (int index, int position) {
+		ByteBuffer buffer = buffers[index];
+		buffer.position(position);
+		total += this.position - position;
+		niobuffer = buffer;
+		this.index = index;
+		this.position = position;
+		limit = limits[index];
+		capacity = limit;
+	}
+
+	/** Reads the first bytes of the scratch buffer, then continues at the specified ByteBuffer and position. */
+	private void enterScratch (int count, int nextIndex, int nextPosition) {
+		scratch.clear();
+		scratch.limit(count);
+		total += position;
+		niobuffer = scratch;
+		position = 0;
+		limit = count;
+		capacity = count;
+		index = nextIndex;
+		resume = nextPosition;
+	}
+
+	/** Reads the next ByteBuffer with bytes remaining.
+	 * @return false if there are no more bytes. */
+	private boolean next () {
+		int next, position;
+		if (niobuffer == scratch) {
+			next = index;
+			position = resume;
+		} else {
+			next = index + 1;
+			position = next < count ? starts[next] : 0;
+		}
+		while (true) {
+			if (next >= count) return false;
+			if (position < limits[next]) break;
+			next++;
+			if (next < count) position = starts[next];
+		}
+		readBuffer(next, position);
+		return true;
+	}
+
+	/** Makes at least the specified number of bytes available, copying them to the scratch buffer if they cross the boundary
+	 * between ByteBuffers.
+	 * @return The number of bytes available, which is less than required only if there are no more bytes. */
+	private int advance (int required) {
+		int remaining = limit - position;
+		if (remaining == 0) {
+			if (!next()) return 0;
+			remaining = limit - position;
+			if (remaining >= required) return remaining;
+		}
+
+		byte[] bytes = scratchBytes;
+		int n = remaining;
+		int next, nextPosition;
+		if (niobuffer == scratch) {
+			System.arraycopy(bytes, position, bytes, 0, n);
+			next = index;
+			nextPosition = resume;
+		} else {
+			ByteBuffer buffer = niobuffer;
+			for (int i = 0, p = position; i < n; i++, p++)
+				bytes[i] = buffer.get(p);
+			scratch.order(buffer.order());
+			next = index + 1;
+			nextPosition = next < count ? starts[next] : 0;
+		}
+		while (n < required && next < count) {
+			ByteBuffer buffer = buffers[next];
+			int copyCount = Math.min(limits[next] - nextPosition, required - n);
+			for (int i = 0; i < copyCount; i++)
+				bytes[n++] = buffer.get(nextPosition++);
+			if (nextPosition == limits[next]) {
+				next++;
+				if (next < count) nextPosition = starts[next];
+			}
+		}
+		enterScratch(n, next, nextPosition);
+		return n;
+	}
+
+	/** @param required Must be > 0 and <= 16.
+	 * @return the number of bytes remaining.
+	 * @throws KyroException if the end of the last ByteBuffer is reached before required bytes are read (buffer underflow). */
+	protected int require (int required) throws KyroException {
+		int remaining = limit - position;
+		if (remaining >= required) return remaining;
+		if (required > SCRATCH_SIZE)
+			throw new KyroException("Buffer too small: capacity: " + SCRATCH_SIZE + ", required: " + required);
+		remaining = advance(required);
+		if (remaining < required) throw new KyroException("Buffer underflow.");
+		return remaining;
+	}
+
+	/** @param optional Try to make this many bytes available, up to 16.
+	 * @return the number of bytes remaining, but not more than optional, or -1 if there are no more bytes. */
+	protected int optional (int optional) throws KyroException {
+		int remaining = limit - position;
+		if (remaining >= optional) return optional;
+		remaining = advance(Math.min(optional, SCRATCH_SIZE));
+		if (remaining == 0) return -1;
+		return Math.min(remaining, optional);
+	}
+
+	public int available () {
+		int available = limit - position;
+		int next = index + 1;
+		if (niobuffer == scratch) {
+			if (index >= count) return available;
+			available += limits[index] - resume;
+		}
+		for (int i = next; i < count; i++)
+			available += limits[i] - starts[i];
+		return available;
+	}
+
+	public void readBytes (byte[] bytes, int offset, int count) throws KyroException {
+		if (bytes == null) throw new IllegalArgumentException("bytes cannot be null.");
+		while (true) {
+			int copyCount = Math.min(limit - position, count);
+			niobuffer.position(position);
+			niobuffer.get(bytes, offset, copyCount);
+			position += copyCount;
+			count -= copyCount;
+			if (count == 0) return;
+			offset += copyCount;
+			if (advance(1) == 0) throw new KyroException("Buffer underflow.");
+		}
+	}
+
+	public void skip (int count) throws KyroException {
+		while (true) {
+			int skipCount = Math.min(limit - position, count);
+			position += skipCount;
+			count -= skipCount;
+			if (count == 0) break;
+			if (advance(1) == 0) throw new KyroException("Buffer underflow.");
+		}
+		niobuffer.position(position);
+	}
+
+	/** Discards the ByteBuffers. */
+	public void release () {
+		setBuffers(new ByteBuffer[0], 0);
+	}
+}
@@ -0,0 +1,197 @@
+package com.esotericsoftware.kyro.io;
+
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.zip.CRC32;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.KyroException;
+
+/** An Input that reads the stream of messages written by {@link FramedOutput}. Before a message is read, all its bytes are
+ * buffered and, if {@link #setChecksum(boolean) checksums} are enabled, verified. While the message is read, the bytes after it
+ * are not readable, so a serializer that reads too many or too few bytes is detected rather than corrupting the next message.
+ * <p>
+ * {@link #readMessages(Kyro, Collection, int)} reads a batch of the messages that are already buffered, so many small messages can
+ * be read with a single read from the stream.
+ * @see FramedOutput */
+public class FramedInput extends Input {
+	private final int maxCapacity;
+	private boolean checksum;
+	private CRC32 crc;
+	private int bufferedLimit = -1;
+
+	/** Creates an uninitialized FramedInput. {@link #setBuffer(byte[])} must be called before the Input is used. */
+	public FramedInput () {
+		maxCapacity = Integer.MAX_VALUE;
+	}
+
+	/** Creates a FramedInput for reading from a byte array. */
+	public FramedInput (byte[] buffer) {
+		super(buffer);
+		maxCapacity = Integer.MAX_VALUE;
+	}
+
+	/** Creates a FramedInput with a buffer size of 4096 and no maximum. */
+	public FramedInput (InputStream inputStream) {
+		this(inputStream, 4096, -1);
+	}
+
+	/** @param maxBufferSize The buffer is doubled as needed to hold a message until it exceeds maxBufferSize and an exception is
+	 *           thrown. Can be -1 for no maximum. */
+	public FramedInput (InputStream inputStream, int bufferSize, int maxBufferSize) {
+		super(inputStream, bufferSize);
+		if (maxBufferSize < -1) throw new IllegalArgumentException("maxBufferSize cannot be < -1: " + maxBufferSize);
+		maxCapacity = maxBufferSize == -1 ? Integer.MAX_VALUE : maxBufferSize;
+	}
+
+	/** If true, the header of each message includes a CRC32 checksum of its bytes. The {@link FramedOutput} must use the same
+	 * setting. Default is false. */
+	public void setChecksum (boolean checksum) {
+		if (bufferedLimit != -1) throw new KyroException("The checksum setting cannot change while a message is read.");
+		this.checksum = checksum;
+		if (checksum && crc == null) crc = new CRC32();
+	}
+
+	public boolean getChecksum () {
+		return checksum;
+	}
+
+	public void setInputStream (InputStream inputStream) {
+		super.setInputStream(inputStream);
+		bufferedLimit = -1;
+	}
+
+	public void setBuffer (byte[] bytes, int offset, int count) {
+		super.setBuffer(bytes, offset, count);
+		bufferedLimit = -1;
+	}
+
+	public void rewind () {
+		super.rewind();
+		bufferedLimit = -1;
+	}
+
+	protected int fill (byte[] buffer, int offset, int count) throws KyroException {
+		// The bytes of the current message are all buffered, the stream is only read between messages.
+		if (bufferedLimit != -1) return -1;
+		return super.fill(buffer, offset, count);
+	}
+
+	protected int require (int required) throws KyroException {
+		if (bufferedLimit == -1) return super.require(required);
+		// Don't compact the buffer, which would move the bytes of the message.
+		int remaining = limit - position;
+		if (remaining < required) throw new KyroException("Buffer underflow.");
+		return remaining;
+	}
+
+	/** Reads the header of the next message and buffers its bytes. The message is read with the other Input methods, then
+	 * {@link #endMessage()} must be called.
+	 * @return The length of the message.
+	 * @throws KyroException if the checksum doesn't match. The message is skipped, so the next message can be read. */
+	public int beginMessage () throws KyroException {
+		if (bufferedLimit != -1) throw new KyroException("A message is already being read.");
+		require(checksum ? 8 : 4);
+		int length = readInt();
+		int expected = checksum ? readInt() : 0;
+		if (length < 0) throw new KyroException("Invalid message length: " + length);
+		if (length > capacity) grow(length);
+		if (length > 0) require(length);
+		if (checksum) {
+			crc.reset();
+			crc.update(buffer, position, length);
+			if ((int)crc.getValue() != expected) {
+				// Skip the message so the next message can be read.
+				position += length;
+				throw new KyroException("Message checksum mismatch, length: " + length);
+			}
+		}
+		bufferedLimit = limit;
+		limit = position + length;
+		return length;
+	}
+
+	/** Completes the message started by {@link #beginMessage()}.
+	 * @throws KyroException if not all bytes of the message were read. */
+	public void endMessage () throws KyroException {
+		if (bufferedLimit == -1) throw new KyroException("No message is being read.");
+		int unread = limit - position;
+		limit = bufferedLimit;
+		bufferedLimit = -1;
+		if (unread != 0) {
+			position += unread;
+			throw new KyroException("Message not fully read, bytes remaining: " + unread);
+		}
+	}
+
+	/** Discards the next message without deserializing it. */
+	public void skipMessage () throws KyroException {
+		beginMessage();
+		position = limit;
+		endMessage();
+	}
+
+	/** Reads the next message as an object and its class.
+	 * @see Kyro#readClassAndObject(Input) */
+	public Object readMessage (Kyro kyro) throws KyroException {
+		if (kyro == null) throw new IllegalArgumentException("kyro cannot be null.");
+		beginMessage();
+		Object object;
+		boolean complete = false;
+		try {
+			object = kyro.readClassAndObject(this);
+			complete = true;
+		} finally {
+			if (!complete) {
+				// Skip the rest of the message so the next message can be read.
+				position = limit;
+				limit = bufferedLimit;
+				bufferedLimit = -1;
+			}
+		}
+		endMessage();
+		return object;
+	}
+
+	/** Reads the next message, waiting for it if needed, then reads more messages as long as they are already completely buffered.
+	 * @param max The maximum number of messages to read.
+	 * @return The number of messages added to the collection, which is 0 only if the end of the stream has been reached. */
+	public int readMessages (Kyro kyro, Collection messages, int max) throws KyroException {
+		if (messages == null) throw new IllegalArgumentException("messages cannot be null.");
+		if (max <= 0 || eof()) return 0;
+		int count = 0;
+		do {
+			messages.add(readMessage(kyro));
+			count++;
+		} while (count < max && isMessageBuffered());
+		return count;
+	}
+
+	/** Returns true if all the bytes of the next message are in the buffer, so it can be read without reading from the stream. */
+	public boolean isMessageBuffered () {
+		int headerSize = checksum ? 8 : 4;
+		int remaining = limit - position;
+		if (remaining < headerSize) return false;
+		byte[] buffer = this.buffer;
+		int p = position;
+		int length = (buffer[p] & 0xFF) << 24 | (buffer[p + 1] & 0xFF) << 16 | (buffer[p + 2] & 0xFF) << 8 | buffer[p + 3] & 0xFF;
+		return remaining - headerSize >= length;
+	}
+
+	/** Grows the buffer to hold a message of the specified length, keeping the buffered bytes. */
+	private void grow (int length) {
+		if (length > maxCapacity)
+			throw new KyroException("Message too large. Max buffer size: " + maxCapacity + ", length: " + length);
+		int newCapacity = capacity * 2;
+		if (newCapacity < length) newCapacity = length;
+		if (newCapacity < 0 || newCapacity > maxCapacity) newCapacity = maxCapacity;
+		int remaining = limit - position;
+		byte[] newBuffer = new byte[newCapacity];
+		System.arraycopy(buffer, position, newBuffer, 0, remaining);
+		total += position;
+		position = 0;
+		limit = remaining;
+		buffer = newBuffer;
+		capacity = newCapacity;
+	}
+}
@@ -0,0 +1,149 @@
+package com.esotericsoftware.kyro.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.KyroException;
+
+/** An Output that writes a stream of independent messages, each preceded by its length and optionally a CRC32 checksum of its
+ * bytes. Each message is written in place in the buffer after space for the header, which is filled in when the message is
+ * complete, so messages are not copied to a staging buffer to learn their length.
+ * <p>
+ * Only complete messages are flushed to the OutputStream. Many messages can be written and then flushed at once with
+ * {@link #writeMessages(Kyro, Iterable)}, so a batch costs a single write to the stream. The header is a 4 byte length followed, if
+ * {@link #setChecksum(boolean) checksums} are enabled, by a 4 byte CRC32 of the message bytes, both big endian.
+ * @see FramedInput */
+public class FramedOutput extends Output {
+	private boolean checksum;
+	private CRC32 crc;
+	private int messageStart = -1;
+
+	/** Creates an uninitialized FramedOutput that writes to a buffer of the specified size.
+	 * @param maxBufferSize The buffer is doubled as needed to hold a message until it exceeds maxBufferSize and an exception is
+	 *           thrown. Can be -1 for no maximum. */
+	public FramedOutput (int bufferSize, int maxBufferSize) {
+		super(bufferSize, maxBufferSize);
+	}
+
+	/** Creates a FramedOutput with a buffer size of 4096 and no maximum. */
+	public FramedOutput (OutputStream outputStream) {
+		this(outputStream, 4096, -1);
+	}
+
+	/** @param maxBufferSize The buffer is doubled as needed to hold a message until it exceeds maxBufferSize and an exception is
+	 *           thrown. Can be -1 for no maximum. */
+	public FramedOutput (OutputStream outputStream, int bufferSize, int maxBufferSize) {
+		super(bufferSize, maxBufferSize);
+		if (outputStream == null) throw new IllegalArgumentException("outputStream cannot be null.");
+		this.outputStream = outputStream;
+	}
+
+	/** If true, the header of each message includes a CRC32 checksum of its bytes. The {@link FramedInput} must use the same
+	 * setting. Default is false. */
+	public void setChecksum (boolean checksum) {
+		if (messageStart != -1) throw new KyroException("The checksum setting cannot change while a message is written.");
+		this.checksum = checksum;
+		if (checksum && crc == null) crc = new CRC32();
+	}
+
+	public boolean getChecksum () {
+		return checksum;
+	}
+
+	public void setOutputStream (OutputStream outputStream) {
+		super.setOutputStream(outputStream);
+		messageStart = -1;
+	}
+
+	public void setBuffer (byte[] buffer, int maxBufferSize) {
+		super.setBuffer(buffer, maxBufferSize);
+		messageStart = -1;
+	}
+
+	public void clear () {
+		super.clear();
+		messageStart = -1;
+	}
+
+	/** Reserves space for the header of a message. The message is written with the other Output methods, then
+	 * {@link #endMessage()} must be called. */
+	public void beginMessage () throws KyroException {
+		if (messageStart != -1) throw new KyroException("A message is already being written.");
+		int headerSize = checksum ? 8 : 4;
+		require(headerSize);
+		messageStart = position;
+		position += headerSize;
+	}
+
+	/** Completes the message started by {@link #beginMessage()} by writing its header. */
+	public void endMessage () throws KyroException {
+		if (messageStart == -1) throw new KyroException("No message is being written.");
+		int start = messageStart;
+		int dataStart = start + (checksum ? 8 : 4);
+		int length = position - dataStart;
+		setInt(start, length);
+		if (checksum) {
+			crc.reset();
+			crc.update(buffer, dataStart, length);
+			setInt(start + 4, (int)crc.getValue());
+		}
+		messageStart = -1;
+	}
+
+	private void setInt (int index, int value) {
+		byte[] buffer = this.buffer;
+		buffer[index] = (byte)(value >> 24);
+		buffer[index + 1] = (byte)(value >> 16);
+		buffer[index + 2] = (byte)(value >> 8);
+		buffer[index + 3] = (byte)value;
+	}
+
+	/** Writes the object and its class as a message. If serialization fails, the partial message is discarded. The message is not
+	 * flushed unless the buffer is full.
+	 * @see Kyro#writeClassAndObject(Output, Object) */
+	public void writeMessage (Kyro kyro, Object object) throws KyroException {
+		if (kyro == null) throw new IllegalArgumentException("kyro cannot be null.");
+		beginMessage();
+		boolean complete = false;
+		try {
+			kyro.writeClassAndObject(this, object);
+			complete = true;
+		} finally {
+			if (!complete) {
+				position = messageStart;
+				messageStart = -1;
+			}
+		}
+		endMessage();
+	}
+
+	/** Writes each object as a message, then flushes once. */
+	public void writeMessages (Kyro kyro, Iterable objects) throws KyroException {
+		if (objects == null) throw new IllegalArgumentException("objects cannot be null.");
+		for (Object object : objects)
+			writeMessage(kyro, object);
+		flush();
+	}
+
+	/** Writes the complete messages to the OutputStream, if any. The bytes of a message still being written are kept and moved to
+	 * the start of the buffer. */
+	public void flush () throws KyroException {
+		if (messageStart == -1) {
+			super.flush();
+			return;
+		}
+		if (outputStream == null || messageStart == 0) return;
+		try {
+			outputStream.write(buffer, 0, messageStart);
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+		int count = position - messageStart;
+		System.arraycopy(buffer, messageStart, buffer, 0, count);
+		total += messageStart;
+		position = count;
+		messageStart = 0;
+	}
+}
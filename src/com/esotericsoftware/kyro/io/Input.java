@@ -635,6 +635,37 @@ public class Input extends InputStream {
 		return builder;
 	}
 
+	/** Reads past a string written by {@link Output#writeString(String)}, {@link Output#writeString(CharSequence)}, or
+	 * {@link Output#writeAscii(String)} without creating it. */
+	public void skipString () throws KyroException {
+		int b = readByte();
+		if ((b & 0x80) == 0) { // ASCII, the last byte has bit 8 set.
+			while ((readByte() & 0x80) == 0) {
+			}
+			return;
+		}
+		// Null, empty, or UTF8.
+		int charCount = b & 0x3F;
+		if ((b & 0x40) != 0) {
+			for (int shift = 6;; shift += 7) {
+				b = readByte();
+				charCount |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0 || shift == 27) break;
+			}
+		}
+		for (int i = 1; i < charCount; i++) {
+			switch ((readByte() & 0xFF) >> 4) {
+			case 12:
+			case 13:
+				skip(1);
+				break;
+			case 14:
+				skip(2);
+				break;
+			}
+		}
+	}
+
 	// float
 
 	/** Reads a 4 byte float. */
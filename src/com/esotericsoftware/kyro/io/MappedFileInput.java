@@ -0,0 +1,136 @@
+package com.esotericsoftware.kyro.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.util.UnsafeUtil;
+
+/** A ByteBufferInput that reads a file through memory mapped segments, letting the OS page cache do the I/O. When a value
+ * continues past the end of the current segment, the next segment is mapped starting at the first unread byte, so no bytes are
+ * copied and a file larger than 2GB can be read as a single Input.
+ * <p>
+ * {@link #position()} is relative to the current segment, {@link #total()} is the position in the file. A ByteBuffer returned by
+ * {@link #getByteBuffer()} can't be used after the next segment is mapped.
+ * @see MappedFileOutput */
+public class MappedFileInput extends ByteBufferInput {
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final int segmentSize;
+	private final long length;
+	private long segmentStart;
+
+	/** Creates an input that reads the file using segments of {@link MappedFileOutput#DEFAULT_SEGMENT_SIZE}. */
+	public MappedFileInput (File file) {
+		this(file, MappedFileOutput.DEFAULT_SEGMENT_SIZE);
+	}
+
+	/** Creates an input that reads the file, starting at the beginning of the file.
+	 * @param segmentSize The number of bytes mapped at once. Must be at least 16, the most bytes read at once for a value. */
+	public MappedFileInput (File file, int segmentSize) {
+		if (file == null) throw new IllegalArgumentException("file cannot be null.");
+		if (segmentSize < 16) throw new IllegalArgumentException("segmentSize must be >= 16: " + segmentSize);
+		this.segmentSize = segmentSize;
+		try {
+			this.file = new RandomAccessFile(file, "r");
+			length = this.file.length();
+		} catch (IOException ex) {
+			throw new KyroException("Unable to open file: " + file, ex);
+		}
+		channel = this.file.getChannel();
+		map(0);
+	}
+
+	/** Maps the segment that starts at the specified position in the file and releases the previous segment. */
+	private void map (long start) {
+		int size = (int)Math.min(segmentSize, length - start);
+		MappedByteBuffer buffer;
+		try {
+			buffer = channel.map(MapMode.READ_ONLY, start, size);
+		} catch (IOException ex) {
+			throw new KyroException("Unable to map file segment at: " + start, ex);
+		}
+		buffer.order(byteOrder);
+		UnsafeUtil.releaseBuffer(niobuffer);
+		niobuffer = buffer;
+		segmentStart = start;
+		total = start;
+		position = 0;
+		limit = size;
+		capacity = size;
+	}
+
+	/** Maps the next segment if the current segment does not have the required number of bytes remaining. */
+	protected int require (int required) throws KyroException {
+		int remaining = limit - position;
+		if (remaining >= required) return remaining;
+		if (required > segmentSize)
+			throw new KyroException("Buffer too small: segment size: " + segmentSize + ", required: " + required);
+		map(segmentStart + position);
+		if (limit < required) throw new KyroException("Buffer underflow.");
+		return limit;
+	}
+
+	protected int optional (int optional) throws KyroException {
+		int remaining = limit - position;
+		if (remaining >= optional) return optional;
+		if (segmentStart + limit < length) {
+			map(segmentStart + position);
+			remaining = limit;
+		}
+		if (remaining == 0) return -1;
+		return Math.min(remaining, optional);
+	}
+
+	/** Returns true if all bytes in the file have been read. */
+	public boolean eof () {
+		return segmentStart + position == length;
+	}
+
+	/** Returns the length of the file. */
+	public long length () {
+		return length;
+	}
+
+	/** Returns the number of bytes mapped for each segment. */
+	public int getSegmentSize () {
+		return segmentSize;
+	}
+
+	public FileChannel getChannel () {
+		return channel;
+	}
+
+	/** Sets the position in the file where the next bytes are read. */
+	public void setFilePosition (long position) {
+		if (position < 0 || position > length)
+			throw new IllegalArgumentException("position must be >= 0 and <= " + length + ": " + position);
+		map(position);
+	}
+
+	/** Reads from the beginning of the file again. */
+	public void rewind () {
+		map(0);
+	}
+
+	public void close () throws KyroException {
+		if (niobuffer == null) return;
+		UnsafeUtil.releaseBuffer(niobuffer);
+		niobuffer = null;
+		try {
+			file.close();
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+	}
+
+	/** Unsupported, a MappedFileInput always reads from its file. */
+	public void setBuffer (ByteBuffer buffer) {
+		throw new UnsupportedOperationException();
+	}
+}
@@ -0,0 +1,132 @@
+package com.esotericsoftware.kyro.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.util.UnsafeUtil;
+
+/** A ByteBufferOutput that writes to a file through memory mapped segments. Bytes are written directly to the OS page cache
+ * without being copied to a stream. When a segment doesn't have room for a value, the next segment is mapped starting at the
+ * current position in the file, so a value never spans two segments and the file can be larger than 2GB.
+ * <p>
+ * {@link #position()} is relative to the current segment, {@link #total()} is the position in the file. When the output is
+ * closed, the file is truncated to the number of bytes written. A ByteBuffer returned by {@link #getByteBuffer()} can't be used
+ * after the next segment is mapped.
+ * @see MappedFileInput */
+public class MappedFileOutput extends ByteBufferOutput {
+	static public final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final int segmentSize;
+	private long segmentStart;
+
+	/** Creates an output that writes to the file using segments of {@link #DEFAULT_SEGMENT_SIZE}. */
+	public MappedFileOutput (File file) {
+		this(file, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/** Creates an output that writes to the file, starting at the beginning of the file.
+	 * @param segmentSize The number of bytes mapped at once. Must be at least 16, the most bytes written at once for a value. */
+	public MappedFileOutput (File file, int segmentSize) {
+		if (file == null) throw new IllegalArgumentException("file cannot be null.");
+		if (segmentSize < 16) throw new IllegalArgumentException("segmentSize must be >= 16: " + segmentSize);
+		this.segmentSize = segmentSize;
+		try {
+			this.file = new RandomAccessFile(file, "rw");
+		} catch (IOException ex) {
+			throw new KyroException("Unable to open file: " + file, ex);
+		}
+		channel = this.file.getChannel();
+		map(0);
+	}
+
+	/** Maps the segment that starts at the specified position in the file and releases the previous segment. */
+	private void map (long start) {
+		MappedByteBuffer buffer;
+		try {
+			buffer = channel.map(MapMode.READ_WRITE, start, segmentSize);
+		} catch (IOException ex) {
+			throw new KyroException("Unable to map file segment at: " + start, ex);
+		}
+		buffer.order(byteOrder);
+		UnsafeUtil.releaseBuffer(niobuffer);
+		niobuffer = buffer;
+		segmentStart = start;
+		total = start;
+		position = 0;
+		capacity = segmentSize;
+		maxCapacity = segmentSize;
+	}
+
+	/** Maps the next segment if the current segment does not have room for the required number of bytes.
+	 * @return true if a new segment has been mapped. */
+	protected boolean require (int required) throws KyroException {
+		if (capacity - position >= required) return false;
+		if (required > segmentSize)
+			throw new KyroException("Buffer overflow. Segment size: " + segmentSize + ", required: " + required);
+		map(segmentStart + position);
+		return true;
+	}
+
+	/** Does nothing, the bytes written are already in the OS page cache.
+	 * @see #force() */
+	public void flush () throws KyroException {
+	}
+
+	/** Forces the bytes written to be stored on disk. */
+	public void force () throws KyroException {
+		((MappedByteBuffer)niobuffer).force();
+		try {
+			channel.force(false);
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+	}
+
+	/** Starts writing at the beginning of the file again. */
+	public void clear () {
+		map(0);
+	}
+
+	/** Returns the number of bytes mapped for each segment. */
+	public int getSegmentSize () {
+		return segmentSize;
+	}
+
+	public FileChannel getChannel () {
+		return channel;
+	}
+
+	/** Sets the position in the file where the next bytes are written. Bytes after the position that have already been written
+	 * are overwritten or, when the output is closed, discarded. */
+	public void setFilePosition (long position) {
+		if (position < 0) throw new IllegalArgumentException("position cannot be < 0: " + position);
+		map(position);
+	}
+
+	/** Truncates the file to the number of bytes written and closes it. */
+	public void close () throws KyroException {
+		if (niobuffer == null) return;
+		long length = total();
+		UnsafeUtil.releaseBuffer(niobuffer);
+		niobuffer = null;
+		try {
+			channel.truncate(length);
+			file.close();
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+	}
+
+	/** Unsupported, a MappedFileOutput always writes to its file. */
+	public void setBuffer (ByteBuffer buffer, int maxBufferSize) {
+		throw new UnsupportedOperationException();
+	}
+}
@@ -0,0 +1,236 @@
+package com.esotericsoftware.kyro.io;
+
+import static com.esotericsoftware.minlog.Log.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.KyroException;
+
+/** Reads objects from bytes that arrive in pieces, without blocking, such as from a non-blocking channel in a selector loop.
+ * Received bytes are {@link #append(byte[], int, int) appended} or {@link #readFrom(ReadableByteChannel) read from a channel}, then
+ * {@link #readClassAndObject()} or another read method is called. If all the bytes of the next object have been received, it
+ * returns true and the object is available from {@link #getObject()}. Otherwise it returns false rather than blocking or failing,
+ * and {@link #getRequired()} is the minimum number of additional bytes needed before the read can succeed.
+ * <p>
+ * The reader keeps the bytes of the current object, from its start, as a checkpoint. After more bytes arrive, the read method is
+ * called again and the object is parsed again from its start. To avoid parsing the same bytes many times, a read method returns
+ * false without parsing until at least {@link #getRequired()} more bytes have arrived. Objects are usually small compared to the
+ * rate bytes arrive, so reparsing costs less than the bookkeeping needed to suspend a serializer in the middle of an object graph.
+ * <p>
+ * Because a failed attempt discards the state of the Kyro with {@link Kyro#reset()}, references and class names are only
+ * resolved within an object graph, as when {@link Kyro#setAutoReset(boolean) auto reset} is true. A reader is used by one thread
+ * at a time, with a Kyro instance that is not used elsewhere meanwhile. The reader's buffer is reused, so a
+ * {@link com.esotericsoftware.kyro.serializers.LazyRefSerializer} must be set to copy bytes. */
+public class ResumableReader {
+	private final Kyro kyro;
+	private final PartialInput input = new PartialInput();
+	private final int maxBufferSize;
+	private byte[] buffer;
+	private ByteBuffer byteBuffer;
+	private int start, limit;
+	private int waitLimit, required;
+	private Object object;
+
+	/** Creates a reader with an initial buffer size of 4096 and no maximum. */
+	public ResumableReader (Kyro kyro) {
+		this(kyro, 4096, -1);
+	}
+
+	/** @param bufferSize The initial size of the buffer.
+	 * @param maxBufferSize The buffer is doubled as needed to hold the bytes of an object until it exceeds maxBufferSize and an
+	 *           exception is thrown. Can be -1 for no maximum. */
+	public ResumableReader (Kyro kyro, int bufferSize, int maxBufferSize) {
+		if (kyro == null) throw new IllegalArgumentException("kyro cannot be null.");
+		if (bufferSize < 1) throw new IllegalArgumentException("bufferSize must be > 0: " + bufferSize);
+		if (maxBufferSize < -1) throw new IllegalArgumentException("maxBufferSize cannot be < -1: " + maxBufferSize);
+		this.kyro = kyro;
+		this.maxBufferSize = maxBufferSize == -1 ? Integer.MAX_VALUE : maxBufferSize;
+		buffer = new byte[bufferSize];
+	}
+
+	/** Adds received bytes. */
+	public void append (byte[] bytes, int offset, int count) {
+		if (bytes == null) throw new IllegalArgumentException("bytes cannot be null.");
+		ensureCapacity(count);
+		System.arraycopy(bytes, offset, buffer, limit, count);
+		limit += count;
+	}
+
+	/** Adds the received bytes between the position and limit of the ByteBuffer and sets its position to its limit. */
+	public void append (ByteBuffer bytes) {
+		if (bytes == null) throw new IllegalArgumentException("bytes cannot be null.");
+		int count = bytes.remaining();
+		ensureCapacity(count);
+		bytes.get(buffer, limit, count);
+		limit += count;
+	}
+
+	/** Reads the bytes currently available from the channel. When the channel is non-blocking, this may read no bytes.
+	 * @return The number of bytes read, or -1 if the channel has reached end-of-stream. */
+	public int readFrom (ReadableByteChannel channel) throws KyroException {
+		if (channel == null) throw new IllegalArgumentException("channel cannot be null.");
+		if (limit == buffer.length) ensureCapacity(Math.max(required, 1));
+		if (byteBuffer == null) byteBuffer = ByteBuffer.wrap(buffer);
+		byteBuffer.limit(buffer.length);
+		byteBuffer.position(limit);
+		int count;
+		try {
+			count = channel.read(byteBuffer);
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+		if (count > 0) limit += count;
+		return count;
+	}
+
+	/** Makes room for the specified number of bytes after the limit, by discarding the bytes of objects already read or by growing
+	 * the buffer. */
+	private void ensureCapacity (int count) {
+		if (buffer.length - limit >= count) return;
+		int size = limit - start;
+		if (size + count > maxBufferSize)
+			throw new KyroException("Buffer overflow. Max buffer size: " + maxBufferSize + ", required: " + (size + count));
+		byte[] newBuffer = buffer;
+		if (buffer.length - size < count) {
+			int capacity = buffer.length;
+			while (capacity - size < count) {
+				capacity *= 2;
+				if (capacity < 0 || capacity > maxBufferSize) capacity = maxBufferSize;
+			}
+			newBuffer = new byte[capacity];
+			byteBuffer = null;
+		}
+		System.arraycopy(buffer, start, newBuffer, 0, size);
+		buffer = newBuffer;
+		if (waitLimit > 0) waitLimit -= start;
+		limit = size;
+		start = 0;
+	}
+
+	/** Reads the class and object, if all their bytes have been received.
+	 * @return true if the object was read and is available from {@link #getObject()}, false if more bytes are needed.
+	 * @see Kyro#readClassAndObject(Input) */
+	public boolean readClassAndObject () throws KyroException {
+		return read(null, false);
+	}
+
+	/** Reads an object of the specified type, if all its bytes have been received.
+	 * @return true if the object was read and is available from {@link #getObject()}, false if more bytes are needed.
+	 * @see Kyro#readObject(Input, Class) */
+	public boolean readObject (Class type) throws KyroException {
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		return read(type, false);
+	}
+
+	/** Reads an object of the specified type, which may be null, if all its bytes have been received.
+	 * @return true if the object was read and is available from {@link #getObject()}, false if more bytes are needed.
+	 * @see Kyro#readObjectOrNull(Input, Class) */
+	public boolean readObjectOrNull (Class type) throws KyroException {
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		return read(type, true);
+	}
+
+	private boolean read (Class type, boolean mayBeNull) {
+		object = null;
+		if (limit < waitLimit) {
+			required = waitLimit - limit;
+			return false;
+		}
+		if (start == limit) {
+			required = 1;
+			return false;
+		}
+		input.setBuffer(buffer, start, limit - start);
+		try {
+			if (type == null)
+				object = kyro.readClassAndObject(input);
+			else if (mayBeNull)
+				object = kyro.readObjectOrNull(input, type);
+			else
+				object = kyro.readObject(input, type);
+		} catch (KyroException ex) {
+			Underflow underflow = findUnderflow(ex);
+			if (underflow == null) throw ex;
+			kyro.reset();
+			required = underflow.required;
+			waitLimit = limit + required;
+			if (TRACE) trace("kyro", "Partial object, at least " + required + " more bytes required: " + (limit - start) + " received");
+			return false;
+		}
+		start = input.position();
+		if (start == limit) {
+			start = 0;
+			limit = 0;
+		}
+		waitLimit = 0;
+		required = 0;
+		return true;
+	}
+
+	static private Underflow findUnderflow (Throwable ex) {
+		while (ex != null) {
+			if (ex instanceof Underflow) return (Underflow)ex;
+			ex = ex.getCause();
+		}
+		return null;
+	}
+
+	/** Returns the object read by the last successful read method. */
+	public Object getObject () {
+		return object;
+	}
+
+	/** Returns the minimum number of additional bytes needed before the last unsuccessful read method can succeed, or 0 if the last
+	 * read was successful. */
+	public int getRequired () {
+		return required;
+	}
+
+	/** Returns the number of bytes received that have not been read as part of an object. */
+	public int available () {
+		return limit - start;
+	}
+
+	/** Discards all bytes received. */
+	public void clear () {
+		start = 0;
+		limit = 0;
+		waitLimit = 0;
+		required = 0;
+		object = null;
+	}
+
+	public Kyro getKyro () {
+		return kyro;
+	}
+
+	/** Thrown instead of blocking or failing when the bytes of an object have not all been received. */
+	static private class Underflow extends KyroException {
+		final int required;
+
+		Underflow (int required) {
+			super("Buffer underflow.");
+			this.required = required;
+		}
+
+		public Throwable fillInStackTrace () {
+			return this;
+		}
+	}
+
+	/** An Input over the received bytes that never fills or compacts its buffer. */
+	static private class PartialInput extends Input {
+		protected int fill (byte[] buffer, int offset, int count) {
+			return -1;
+		}
+
+		protected int require (int required) throws KyroException {
+			int remaining = limit - position;
+			if (remaining >= required) return remaining;
+			throw new Underflow(required - remaining);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.esotericsoftware.kyro.io;
+
+import java.util.ArrayList;
+
+/** A thread safe pool of fixed size byte arrays, used as the segments of a {@link SegmentedOutput}. A pool can be shared by many
+ * outputs so the memory for their segments is allocated once and reused, rather than allocated for each output and left to the
+ * garbage collector. Segments freed while the pool already holds its maximum number of free segments are discarded. */
+public class SegmentPool {
+	private final int segmentSize;
+	private final int maximumFree;
+	private final ArrayList<byte[]> free = new ArrayList();
+
+	/** Creates a pool that keeps any number of free segments. */
+	public SegmentPool (int segmentSize) {
+		this(segmentSize, Integer.MAX_VALUE);
+	}
+
+	/** @param segmentSize The size of each segment. Must be at least 16, the most bytes written at once for a value.
+	 * @param maximumFree The maximum number of free segments kept by the pool. */
+	public SegmentPool (int segmentSize, int maximumFree) {
+		if (segmentSize < 16) throw new IllegalArgumentException("segmentSize must be >= 16: " + segmentSize);
+		if (maximumFree < 0) throw new IllegalArgumentException("maximumFree cannot be < 0: " + maximumFree);
+		this.segmentSize = segmentSize;
+		this.maximumFree = maximumFree;
+	}
+
+	/** Returns a free segment, or a new segment if the pool is empty. The contents of the segment are undefined. */
+	public byte[] obtain () {
+		synchronized (free) {
+			int size = free.size();
+			if (size > 0) return free.remove(size - 1);
+		}
+		return new byte[segmentSize];
+	}
+
+	/** Returns a segment to the pool. The segment must not be used afterward. */
+	public void free (byte[] segment) {
+		if (segment == null) throw new IllegalArgumentException("segment cannot be null.");
+		if (segment.length != segmentSize)
+			throw new IllegalArgumentException("segment length must be " + segmentSize + ": " + segment.length);
+		synchronized (free) {
+			if (free.size() < maximumFree) free.add(segment);
+		}
+	}
+
+	/** Returns the number of free segments in the pool. */
+	public int getFree () {
+		synchronized (free) {
+			return free.size();
+		}
+	}
+
+	/** Discards all free segments. */
+	public void clear () {
+		synchronized (free) {
+			free.clear();
+		}
+	}
+
+	public int getSegmentSize () {
+		return segmentSize;
+	}
+}
@@ -0,0 +1,177 @@
+package com.esotericsoftware.kyro.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.util.ArrayList;
+
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.util.IntArray;
+
+/** An Output that stores the bytes written in a chain of fixed size segments obtained from a {@link SegmentPool}. When the current
+ * segment doesn't have room for a value, the segment is kept and writing continues in a new segment, so growing never copies the
+ * bytes already written and a value never spans two segments. This makes it suitable for very large outputs, which
+ * {@link Output} would otherwise double and copy many times.
+ * <p>
+ * The bytes written can be obtained with {@link #getByteBuffers()} or written to a channel with
+ * {@link #writeTo(GatheringByteChannel)}, without building a contiguous array. {@link #clear()} and {@link #close()} return the
+ * segments to the pool. {@link #position()} is relative to the current segment, {@link #total()} is the number of bytes written to
+ * all segments. */
+public class SegmentedOutput extends Output {
+	static public final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+
+	private final SegmentPool pool;
+	private final ArrayList<byte[]> segments = new ArrayList();
+	private final IntArray sizes = new IntArray();
+
+	/** Creates an output that uses segments of {@link #DEFAULT_SEGMENT_SIZE} from a new pool. */
+	public SegmentedOutput () {
+		this(new SegmentPool(DEFAULT_SEGMENT_SIZE));
+	}
+
+	/** Creates an output that uses segments of the specified size from a new pool. */
+	public SegmentedOutput (int segmentSize) {
+		this(new SegmentPool(segmentSize));
+	}
+
+	/** Creates an output that uses segments from the specified pool, which may be shared with other outputs. */
+	public SegmentedOutput (SegmentPool pool) {
+		if (pool == null) throw new IllegalArgumentException("pool cannot be null.");
+		this.pool = pool;
+		buffer = pool.obtain();
+		capacity = buffer.length;
+		maxCapacity = Integer.MAX_VALUE;
+	}
+
+	/** Starts a new segment if the current segment does not have room for the required number of bytes.
+	 * @return true if a new segment has been started. */
+	protected boolean require (int required) throws KyroException {
+		if (capacity - position >= required) return false;
+		if (required > capacity)
+			throw new KyroException("Buffer overflow. Segment size: " + capacity + ", required: " + required);
+		segments.add(buffer);
+		sizes.add(position);
+		total += position;
+		buffer = pool.obtain();
+		position = 0;
+		return true;
+	}
+
+	/** Does nothing, the bytes written are kept in the segments until the output is cleared. */
+	public void flush () throws KyroException {
+	}
+
+	/** Returns the number of segments holding bytes, including the current segment. */
+	public int getSegmentCount () {
+		return segments.size() + 1;
+	}
+
+	/** Returns a ByteBuffer for each segment, wrapping the bytes written to it. The ByteBuffers share the segments and can't be used
+	 * after the output is {@link #clear() cleared}. */
+	public ByteBuffer[] getByteBuffers () {
+		int count = segments.size();
+		ByteBuffer[] buffers = new ByteBuffer[count + 1];
+		int[] sizes = this.sizes.items;
+		for (int i = 0; i < count; i++)
+			buffers[i] = ByteBuffer.wrap(segments.get(i), 0, sizes[i]);
+		buffers[count] = ByteBuffer.wrap(buffer, 0, position);
+		return buffers;
+	}
+
+	/** Writes the bytes in all segments to the channel using gathering writes.
+	 * @param channel Must be in blocking mode, so each write makes progress.
+	 * @return The number of bytes written. */
+	public long writeTo (GatheringByteChannel channel) throws KyroException {
+		if (channel == null) throw new IllegalArgumentException("channel cannot be null.");
+		if (channel instanceof SelectableChannel && !((SelectableChannel)channel).isBlocking())
+			throw new IllegalArgumentException("channel must be in blocking mode.");
+		ByteBuffer[] buffers = getByteBuffers();
+		long remaining = total();
+		try {
+			int offset = 0;
+			while (remaining > 0) {
+				remaining -= channel.write(buffers, offset, buffers.length - offset);
+				while (!buffers[offset].hasRemaining() && offset < buffers.length - 1)
+					offset++;
+			}
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+		return total();
+	}
+
+	/** Writes the bytes in all segments to the stream. */
+	public void writeTo (OutputStream outputStream) throws KyroException {
+		if (outputStream == null) throw new IllegalArgumentException("outputStream cannot be null.");
+		try {
+			int[] sizes = this.sizes.items;
+			for (int i = 0, n = segments.size(); i < n; i++)
+				outputStream.write(segments.get(i), 0, sizes[i]);
+			outputStream.write(buffer, 0, position);
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+	}
+
+	/** Returns a new byte array containing the bytes in all segments. Unlike most methods of this class, this copies every byte
+	 * written. */
+	public byte[] toBytes () {
+		long total = total();
+		if (total > Integer.MAX_VALUE) throw new KyroException("Too many bytes for an array: " + total);
+		byte[] bytes = new byte[(int)total];
+		int offset = 0;
+		int[] sizes = this.sizes.items;
+		for (int i = 0, n = segments.size(); i < n; i++) {
+			System.arraycopy(segments.get(i), 0, bytes, offset, sizes[i]);
+			offset += sizes[i];
+		}
+		System.arraycopy(buffer, 0, bytes, offset, position);
+		return bytes;
+	}
+
+	/** Returns the current segment. The bytes between zero and {@link #position()} are the data written to it. */
+	public byte[] getBuffer () {
+		return buffer;
+	}
+
+	/** Returns all segments except the current one to the pool and sets the position and total to zero. */
+	public void clear () {
+		freeSegments();
+		position = 0;
+		total = 0;
+	}
+
+	/** Returns all segments to the pool. The output can't be used afterward. */
+	public void close () throws KyroException {
+		if (buffer == null) return;
+		freeSegments();
+		pool.free(buffer);
+		buffer = null;
+		capacity = 0;
+		position = 0;
+		total = 0;
+	}
+
+	private void freeSegments () {
+		for (int i = 0, n = segments.size(); i < n; i++)
+			pool.free(segments.get(i));
+		segments.clear();
+		sizes.clear();
+	}
+
+	public SegmentPool getPool () {
+		return pool;
+	}
+
+	/** Unsupported, a SegmentedOutput always writes to its segments. */
+	public void setBuffer (byte[] buffer, int maxBufferSize) {
+		throw new UnsupportedOperationException();
+	}
+
+	/** Unsupported, use {@link #writeTo(OutputStream)}. */
+	public void setOutputStream (OutputStream outputStream) {
+		throw new UnsupportedOperationException();
+	}
+}
@@ -161,8 +161,8 @@ public final class UnsafeMemoryOutput extends ByteBufferOutput {
 	}
 
 	final public int writeVarInt (int val, boolean optimizePositive) throws KyroException {
-		long value = val;
-		if (!optimizePositive) value = (value << 1) ^ (value >> 31);
+		if (!optimizePositive) val = (val << 1) ^ (val >> 31);
+		long value = val & 0xFFFFFFFFL;
 		long varInt = 0;
 
 		varInt = (value & 0x7F);
@@ -207,9 +207,8 @@ public final class UnsafeMemoryOutput extends ByteBufferOutput {
 			return 4;
 		}
 
-		varInt |= (0x80 << 24);
+		varInt |= (0x80L << 24);
 		varInt |= ((value & 0x7F) << 32);
-		varInt &= 0xFFFFFFFFL;
 		writeLittleEndianLong(varInt);
 		position -= 3;
 		return 5;
@@ -224,7 +223,7 @@ public final class UnsafeMemoryOutput extends ByteBufferOutput {
 		value >>>= 7;
 
 		if (value == 0) {
-			write(varInt);
+			writeByte(varInt);
 			return 1;
 		}
 
@@ -306,7 +305,7 @@ public final class UnsafeMemoryOutput extends ByteBufferOutput {
 
 		varLong |= (0x80L << 56);
 		writeLittleEndianLong(varLong);
-		write((byte)((value & 0x7F)));
+		writeByte((byte)value);
 		return 9;
 	}
 
@@ -188,8 +188,7 @@ public final class UnsafeOutput extends Output {
 		}
 
 		varInt |= 0x80 << 24;
-		long varLong = varInt | (((long)(value & 0x7F)) << 32);
-		varInt &= 0xFFFFFFFFL;
+		long varLong = (varInt & 0xFFFFFFFFL) | (((long)(value & 0x7F)) << 32);
 		writeLittleEndianLong(varLong);
 		position -= 3;
 		return 5;
@@ -210,7 +209,7 @@ public final class UnsafeOutput extends Output {
 		}
 
 		varInt |= 0x80;
-		varInt |= (value << 8);
+		varInt |= ((value & 0x7F) << 8);
 
 		value >>>= 7;
 
@@ -221,7 +220,7 @@ public final class UnsafeOutput extends Output {
 		}
 
 		varInt |= (0x80 << 8);
-		varInt |= (value << 16);
+		varInt |= ((value & 0x7F) << 16);
 
 		value >>>= 7;
 
@@ -232,7 +231,7 @@ public final class UnsafeOutput extends Output {
 		}
 
 		varInt |= (0x80 << 16);
-		varInt |= (value << 24);
+		varInt |= ((value & 0x7F) << 24);
 
 		value >>>= 7;
 
@@ -243,7 +242,7 @@ public final class UnsafeOutput extends Output {
 		}
 
 		varInt |= (0x80 << 24);
-		long varLong = varInt | (((long)value) << 32);
+		long varLong = (varInt & 0xFFFFFFFFL) | (((long)(value & 0x7F)) << 32);
 
 		value >>>= 7;
 
@@ -253,8 +252,8 @@ public final class UnsafeOutput extends Output {
 			return 5;
 		}
 
-		varLong |= (0x80 << 32);
-		varLong = varInt | (((long)value) << 40);
+		varLong |= (0x80L << 32);
+		varLong |= (((long)(value & 0x7F)) << 40);
 
 		value >>>= 7;
 
@@ -264,8 +263,8 @@ public final class UnsafeOutput extends Output {
 			return 6;
 		}
 
-		varLong |= (0x80 << 40);
-		varLong = varInt | (((long)value) << 48);
+		varLong |= (0x80L << 40);
+		varLong |= (((long)(value & 0x7F)) << 48);
 
 		value >>>= 7;
 
@@ -275,20 +274,19 @@ public final class UnsafeOutput extends Output {
 			return 7;
 		}
 
-		varLong |= (0x80 << 48);
-		varLong = varInt | (((long)value) << 56);
+		varLong |= (0x80L << 48);
+		varLong |= (((long)(value & 0x7F)) << 56);
 
 		value >>>= 7;
 
 		if (value == 0) {
 			writeLittleEndianLong(varLong);
-// position -= 1;
 			return 8;
 		}
 
-		varLong |= (0x80 << 56);
+		varLong |= (0x80L << 56);
 		writeLittleEndianLong(varLong);
-		write((byte)(value >>> 7));
+		write((byte)value);
 		return 9;
 	}
 
@@ -0,0 +1,9 @@
+package com.esotericsoftware.kyro.pool;
+
+import com.esotericsoftware.kyro.Kyro;
+
+/** Work that is executed with a {@link Kyro} borrowed from a {@link KyroPool}.
+ * @see KyroPool#run(KyroCallback) */
+public interface KyroCallback<T> {
+	public T execute (Kyro kyro);
+}
@@ -0,0 +1,9 @@
+package com.esotericsoftware.kyro.pool;
+
+import com.esotericsoftware.kyro.Kyro;
+
+/** Creates and configures new {@link Kyro} instances for a {@link KyroPool}. The factory is called whenever the pool is empty, so
+ * it must be thread safe and should perform all registrations needed by the application. */
+public interface KyroFactory {
+	public Kyro create ();
+}
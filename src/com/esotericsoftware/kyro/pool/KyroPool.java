@@ -0,0 +1,130 @@
+package com.esotericsoftware.kyro.pool;
+
+import static com.esotericsoftware.minlog.Log.*;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.esotericsoftware.kyro.Kyro;
+
+/** A thread safe pool of {@link Kyro} instances. Kyro is not thread safe, so each instance is used by one thread at a time: a
+ * thread {@link #borrow() borrows} an instance, uses it, then {@link #release(Kyro) releases} it back to the pool, or uses
+ * {@link #run(KyroCallback)} to do both. This allows a small set of warm instances, with their registrations and serializers
+ * already built, to be shared by many threads.
+ * <p>
+ * New instances are created by the {@link KyroFactory} when the pool is empty. By default idle instances are kept in a lock-free
+ * {@link ConcurrentLinkedQueue}. If soft references are enabled, idle instances are only softly reachable and the garbage
+ * collector may reclaim them under memory pressure. Instances released while the pool already holds its maximum number of idle
+ * instances are discarded. */
+public class KyroPool {
+	private final KyroFactory factory;
+	private final Queue<Object> queue;
+	private final AtomicInteger size = new AtomicInteger();
+	private final int maximumSize;
+	private final boolean softReferences;
+
+	/** Creates an unbounded pool that holds idle instances strongly. */
+	public KyroPool (KyroFactory factory) {
+		this(factory, Integer.MAX_VALUE, false);
+	}
+
+	/** Creates a pool using a {@link ConcurrentLinkedQueue}.
+	 * @param maximumSize The maximum number of idle instances kept by the pool.
+	 * @param softReferences If true, idle instances are held by {@link SoftReference soft references}. */
+	public KyroPool (KyroFactory factory, int maximumSize, boolean softReferences) {
+		this(factory, new ConcurrentLinkedQueue(), maximumSize, softReferences);
+	}
+
+	/** @param queue Stores the idle instances, or their soft references. Must be thread safe and should be empty.
+	 * @param maximumSize The maximum number of idle instances kept by the pool.
+	 * @param softReferences If true, idle instances are held by {@link SoftReference soft references}. */
+	public KyroPool (KyroFactory factory, Queue<Object> queue, int maximumSize, boolean softReferences) {
+		if (factory == null) throw new IllegalArgumentException("factory cannot be null.");
+		if (queue == null) throw new IllegalArgumentException("queue cannot be null.");
+		if (maximumSize < 0) throw new IllegalArgumentException("maximumSize cannot be < 0: " + maximumSize);
+		this.factory = factory;
+		this.queue = queue;
+		this.maximumSize = maximumSize;
+		this.softReferences = softReferences;
+	}
+
+	/** Returns an idle instance from the pool, or a new instance from the factory if the pool is empty. The instance must not be
+	 * used by another thread until it is {@link #release(Kyro) released}. */
+	public Kyro borrow () {
+		Object entry;
+		while ((entry = queue.poll()) != null) {
+			size.decrementAndGet();
+			if (!softReferences) return (Kyro)entry;
+			Kyro kyro = ((SoftReference<Kyro>)entry).get();
+			if (kyro != null) return kyro;
+		}
+		if (TRACE) trace("kyro", "Pool empty, creating a new Kyro instance.");
+		Kyro kyro = factory.create();
+		if (kyro == null) throw new IllegalStateException("KyroFactory returned null: " + factory.getClass().getName());
+		return kyro;
+	}
+
+	/** Returns an instance to the pool. The calling thread must not use the instance afterward. If the pool is full, the instance
+	 * is discarded. */
+	public void release (Kyro kyro) {
+		if (kyro == null) throw new IllegalArgumentException("kyro cannot be null.");
+		if (size.incrementAndGet() > maximumSize) {
+			size.decrementAndGet();
+			// Entries for instances reclaimed by the GC may be using the space.
+			if (!softReferences || clean() == 0) return;
+			size.incrementAndGet();
+		}
+		queue.offer(softReferences ? new SoftReference(kyro) : kyro);
+	}
+
+	/** Borrows an instance, executes the callback with it and releases the instance, even if the callback throws an exception.
+	 * @return The value returned by the callback. */
+	public <T> T run (KyroCallback<T> callback) {
+		if (callback == null) throw new IllegalArgumentException("callback cannot be null.");
+		Kyro kyro = borrow();
+		try {
+			return callback.execute(kyro);
+		} finally {
+			release(kyro);
+		}
+	}
+
+	/** Removes the soft references to instances that have been reclaimed by the garbage collector. This is done automatically
+	 * when a full pool receives an instance.
+	 * @return The number of entries removed. */
+	public int clean () {
+		if (!softReferences) return 0;
+		int removed = 0;
+		for (Iterator iter = queue.iterator(); iter.hasNext();) {
+			if (((SoftReference)iter.next()).get() == null) {
+				iter.remove();
+				size.decrementAndGet();
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+	/** Discards all idle instances. */
+	public void clear () {
+		while (queue.poll() != null)
+			size.decrementAndGet();
+	}
+
+	/** Returns the number of idle instances in the pool. With soft references this may include instances that have been reclaimed
+	 * by the garbage collector. */
+	public int size () {
+		return size.get();
+	}
+
+	public int getMaximumSize () {
+		return maximumSize;
+	}
+
+	public boolean getSoftReferences () {
+		return softReferences;
+	}
+}
@@ -0,0 +1,157 @@
+package com.esotericsoftware.kyro.recordlog;
+
+import static com.esotericsoftware.minlog.Log.*;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.io.FramedInput;
+
+/** The file format of a record log, an append-only file of objects written by {@link KyroRecordLogWriter} and read by
+ * {@link KyroRecordLogReader}.
+ * <p>
+ * The log file starts with a 12 byte header: a magic number, the format version and the index interval. Each record is a message
+ * as written by {@link com.esotericsoftware.kyro.io.FramedOutput FramedOutput} with checksums enabled: a 4 byte length, a 4 byte
+ * CRC32 and the bytes of the object written with {@link com.esotericsoftware.kyro.Kyro#writeClassAndObject(com.esotericsoftware.kyro.io.Output, Object)
+ * writeClassAndObject}.
+ * <p>
+ * A sparse index is kept in a sidecar file, named like the log file with ".idx" appended. It holds the 8 byte offset in the log
+ * file of every record whose number is a multiple of the index interval, so the offset of index entry n is at n * 8 in the index
+ * file. To read a record, its index entry is read and then at most interval - 1 records are skipped.
+ * <p>
+ * When a log is opened, the records after the last index entry are verified. A record that is incomplete or doesn't match its
+ * checksum, such as one cut off by a crash, is dropped along with any bytes after it. Index entries for dropped records are ignored
+ * and entries missing for the remaining records are rebuilt. */
+public class KyroRecordLog {
+	static public final int DEFAULT_INDEX_INTERVAL = 64;
+
+	static final int MAGIC = 0x4B524C47;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 12;
+
+	private KyroRecordLog () {
+	}
+
+	/** Returns the sidecar file that holds the index of the specified log file. */
+	static public File getIndexFile (File file) {
+		return new File(file.getPath() + ".idx");
+	}
+
+	/** Returns the index interval stored in the header of the log file.
+	 * @throws KyroException if the file doesn't start with a valid header. */
+	static int readHeader (FileChannel channel, File file) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining())
+			if (channel.read(header, header.position()) == -1) throw new KyroException("Record log header is incomplete: " + file);
+		header.flip();
+		if (header.getInt() != MAGIC) throw new KyroException("File is not a record log: " + file);
+		int version = header.getInt();
+		if (version != VERSION) throw new KyroException("Unsupported record log version " + version + ": " + file);
+		int indexInterval = header.getInt();
+		if (indexInterval < 1) throw new KyroException("Invalid record log index interval " + indexInterval + ": " + file);
+		return indexInterval;
+	}
+
+	/** Returns the offset in the log file stored in the specified index entry. */
+	static long readIndexEntry (FileChannel index, long entry, ByteBuffer buffer) throws IOException {
+		buffer.clear();
+		long position = entry * 8;
+		while (buffer.hasRemaining()) {
+			int count = index.read(buffer, position + buffer.position());
+			if (count == -1) throw new KyroException("Index entry not found: " + entry);
+		}
+		return buffer.getLong(0);
+	}
+
+	/** Finds the valid records of a log by verifying the records after the last index entry that refers to a valid record.
+	 * @param index May be null if there is no index file. */
+	static Tail recover (File file, FileChannel index, int indexInterval) throws IOException {
+		long length = file.length();
+		long entries = index == null ? 0 : index.size() / 8;
+		ByteBuffer buffer = ByteBuffer.allocate(8);
+		FileInputStream stream = new FileInputStream(file);
+		try {
+			while (true) {
+				long offset = HEADER_SIZE, first = 0;
+				if (entries > 0) {
+					offset = readIndexEntry(index, entries - 1, buffer);
+					first = (entries - 1) * indexInterval;
+					if (offset < HEADER_SIZE || offset >= length) {
+						entries--;
+						continue;
+					}
+				}
+
+				// Verify each record, up to the first that is incomplete or corrupt.
+				Tail tail = new Tail();
+				stream.getChannel().position(offset);
+				FramedInput input = new FramedInput(stream, 4096, (int)Math.min(Integer.MAX_VALUE, length - offset));
+				input.setChecksum(true);
+				long count = 0;
+				tail.end = offset;
+				try {
+					while (!input.eof()) {
+						long recordOffset = offset + input.total();
+						input.skipMessage();
+						long record = first + count;
+						if (record % indexInterval == 0 && record / indexInterval >= entries) tail.addEntry(recordOffset);
+						count++;
+						tail.end = offset + input.total();
+					}
+				} catch (KyroException ex) {
+					if (DEBUG) debug("kyro", "Invalid record " + (first + count) + " in record log: " + file, ex);
+				}
+				if (count == 0 && entries > 0) {
+					// The index entry refers to a dropped record.
+					entries--;
+					continue;
+				}
+				tail.records = first + count;
+				tail.indexEntries = entries;
+				if (tail.end < length && WARN)
+					warn("kyro", "Dropping " + (length - tail.end) + " bytes of incomplete or corrupt records from record log: " + file);
+				return tail;
+			}
+		} finally {
+			stream.close();
+		}
+	}
+
+	/** Closes the files opened before a log failed to open, keeping the exception that caused the failure.
+	 * @param files May contain nulls for files that were not opened. */
+	static void close (Closeable... files) {
+		for (Closeable file : files) {
+			try {
+				if (file != null) file.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+
+	/** The valid part of a log. */
+	static class Tail {
+		/** The number of valid records. */
+		long records;
+		/** The offset in the log file after the last valid record. */
+		long end;
+		/** The number of valid entries in the index file. */
+		long indexEntries;
+		/** The offsets of index entries missing from the index file, which follow its valid entries. */
+		long[] missingEntries = new long[0];
+		int missingCount;
+
+		void addEntry (long offset) {
+			if (missingCount == missingEntries.length) {
+				long[] newEntries = new long[Math.max(8, missingCount * 2)];
+				System.arraycopy(missingEntries, 0, newEntries, 0, missingCount);
+				missingEntries = newEntries;
+			}
+			missingEntries[missingCount++] = offset;
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package com.esotericsoftware.kyro.recordlog;
+
+import static com.esotericsoftware.kyro.recordlog.KyroRecordLog.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.io.FramedInput;
+import com.esotericsoftware.kyro.recordlog.KyroRecordLog.Tail;
+
+/** Reads the records of a record log, starting at any record. The valid records are found when the reader is opened: incomplete or
+ * corrupt records at the end of the log are ignored and the files are not modified. Records appended after the reader is opened
+ * are not seen.
+ * <p>
+ * {@link #seek(long)} reads the index entry at or before the record and skips the records in between, so a positioned read takes
+ * time proportional to the index interval rather than to the size of the log.
+ * @see KyroRecordLog */
+public class KyroRecordLogReader {
+	private final Kyro kyro;
+	private final FileInputStream dataStream;
+	private final FileChannel index;
+	private final FramedInput input;
+	private final ByteBuffer entryBuffer = ByteBuffer.allocate(8);
+	private final int indexInterval;
+	private final Tail tail;
+	private long next;
+
+	public KyroRecordLogReader (File file, Kyro kyro) throws KyroException {
+		if (file == null) throw new IllegalArgumentException("file cannot be null.");
+		if (kyro == null) throw new IllegalArgumentException("kyro cannot be null.");
+		this.kyro = kyro;
+		FileInputStream dataStream = null;
+		FileChannel index = null;
+		boolean opened = false;
+		try {
+			dataStream = new FileInputStream(file);
+			indexInterval = readHeader(dataStream.getChannel(), file);
+			// Without an index file, the entries are found by reading the log.
+			File indexFile = getIndexFile(file);
+			index = indexFile.exists() ? new RandomAccessFile(indexFile, "r").getChannel() : null;
+			tail = recover(file, index, indexInterval);
+			dataStream.getChannel().position(HEADER_SIZE);
+			opened = true;
+		} catch (IOException ex) {
+			throw new KyroException("Unable to open record log: " + file, ex);
+		} finally {
+			if (!opened) KyroRecordLog.close(dataStream, index);
+		}
+		this.dataStream = dataStream;
+		this.index = index;
+		input = new FramedInput(dataStream, 8192, -1);
+		input.setChecksum(true);
+	}
+
+	/** Returns the number of valid records in the log. */
+	public long size () {
+		return tail.records;
+	}
+
+	public int getIndexInterval () {
+		return indexInterval;
+	}
+
+	/** Returns the number of the record that {@link #next()} reads. */
+	public long position () {
+		return next;
+	}
+
+	/** Sets the number of the record that {@link #next()} reads.
+	 * @param record May be equal to {@link #size()}, after the last record. */
+	public void seek (long record) throws KyroException {
+		if (record < 0 || record > tail.records)
+			throw new IllegalArgumentException("record must be >= 0 and <= " + tail.records + ": " + record);
+		long entry = record / indexInterval;
+		// Records in the same index interval after the next record are reached by skipping.
+		if (record < next || entry != next / indexInterval) {
+			if (record == tail.records)
+				position(tail.end, record);
+			else
+				position(entryOffset(entry), entry * indexInterval);
+		}
+		while (next < record) {
+			input.skipMessage();
+			next++;
+		}
+	}
+
+	private long entryOffset (long entry) throws KyroException {
+		if (entry == 0) return HEADER_SIZE;
+		if (entry >= tail.indexEntries) return tail.missingEntries[(int)(entry - tail.indexEntries)];
+		try {
+			return readIndexEntry(index, entry, entryBuffer);
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+	}
+
+	private void position (long offset, long record) throws KyroException {
+		try {
+			dataStream.getChannel().position(offset);
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+		input.setInputStream(dataStream);
+		next = record;
+	}
+
+	/** Returns true if there is a record after the last record read. */
+	public boolean hasNext () {
+		return next < tail.records;
+	}
+
+	/** Reads the next record.
+	 * @return May be null.
+	 * @throws KyroException if there are no more records. */
+	public Object next () throws KyroException {
+		if (next == tail.records) throw new KyroException("No more records, size: " + tail.records);
+		Object object = input.readMessage(kyro);
+		next++;
+		return object;
+	}
+
+	/** Reads the specified record. The next record can then be read with {@link #next()}. */
+	public Object read (long record) throws KyroException {
+		seek(record);
+		return next();
+	}
+
+	public void close () throws KyroException {
+		try {
+			dataStream.close();
+			if (index != null) index.close();
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+	}
+}
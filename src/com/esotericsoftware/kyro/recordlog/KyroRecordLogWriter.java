@@ -0,0 +1,130 @@
+package com.esotericsoftware.kyro.recordlog;
+
+import static com.esotericsoftware.kyro.recordlog.KyroRecordLog.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.io.FramedOutput;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.recordlog.KyroRecordLog.Tail;
+
+/** Appends records to a record log file, creating it if it doesn't exist. When an existing log is opened, incomplete or corrupt
+ * records at its end are dropped and appending continues after the last valid record. Records are buffered until
+ * {@link #flush()}, {@link #sync()} or {@link #close()} is called or the buffer is full.
+ * <p>
+ * Only one writer may have a log open at a time. Objects are written with
+ * {@link Kyro#writeClassAndObject(Output, Object)}, so a reader must use a Kyro with the same registrations.
+ * @see KyroRecordLog */
+public class KyroRecordLogWriter {
+	private final Kyro kyro;
+	private final int indexInterval;
+	private final FileOutputStream dataStream, indexStream;
+	private final FramedOutput output;
+	private final Output indexOutput;
+	private final long start;
+	private long records;
+
+	/** Opens or creates a log that uses {@link KyroRecordLog#DEFAULT_INDEX_INTERVAL}. */
+	public KyroRecordLogWriter (File file, Kyro kyro) throws KyroException {
+		this(file, kyro, DEFAULT_INDEX_INTERVAL);
+	}
+
+	/** @param indexInterval The number of records per index entry, used if the log is created. An existing log keeps its interval.
+	 *           Smaller values make reading a record faster and the index larger. */
+	public KyroRecordLogWriter (File file, Kyro kyro, int indexInterval) throws KyroException {
+		if (file == null) throw new IllegalArgumentException("file cannot be null.");
+		if (kyro == null) throw new IllegalArgumentException("kyro cannot be null.");
+		if (indexInterval < 1) throw new IllegalArgumentException("indexInterval must be > 0: " + indexInterval);
+		this.kyro = kyro;
+		File indexFile = getIndexFile(file);
+		RandomAccessFile data = null, index = null;
+		FileOutputStream dataStream = null, indexStream = null;
+		boolean opened = false;
+		try {
+			data = new RandomAccessFile(file, "rw");
+			index = new RandomAccessFile(indexFile, "rw");
+			if (data.length() < HEADER_SIZE) {
+				data.setLength(0);
+				data.writeInt(MAGIC);
+				data.writeInt(VERSION);
+				data.writeInt(indexInterval);
+			} else
+				indexInterval = readHeader(data.getChannel(), file);
+			Tail tail = recover(file, index.getChannel(), indexInterval);
+			data.setLength(tail.end);
+			index.setLength(tail.indexEntries * 8);
+			index.seek(tail.indexEntries * 8);
+			for (int i = 0; i < tail.missingCount; i++)
+				index.writeLong(tail.missingEntries[i]);
+			records = tail.records;
+			start = tail.end;
+			data.close();
+			index.close();
+			dataStream = new FileOutputStream(file, true);
+			indexStream = new FileOutputStream(indexFile, true);
+			opened = true;
+		} catch (IOException ex) {
+			throw new KyroException("Unable to open record log: " + file, ex);
+		} finally {
+			if (!opened) KyroRecordLog.close(data, index, dataStream, indexStream);
+		}
+		this.dataStream = dataStream;
+		this.indexStream = indexStream;
+		this.indexInterval = indexInterval;
+		output = new FramedOutput(dataStream, 8192, -1);
+		output.setChecksum(true);
+		indexOutput = new Output(indexStream, 1024);
+	}
+
+	/** Appends a record.
+	 * @param object May be null.
+	 * @return The number of the record. */
+	public long append (Object object) throws KyroException {
+		long offset = start + output.total();
+		output.writeMessage(kyro, object);
+		long record = records++;
+		if (record % indexInterval == 0) indexOutput.writeLong(offset);
+		return record;
+	}
+
+	/** Returns the number of records in the log, including records not yet flushed. */
+	public long size () {
+		return records;
+	}
+
+	public int getIndexInterval () {
+		return indexInterval;
+	}
+
+	/** Writes the buffered records and index entries to the files. */
+	public void flush () throws KyroException {
+		output.flush();
+		indexOutput.flush();
+	}
+
+	/** Flushes, then forces the files to be stored on disk. */
+	public void sync () throws KyroException {
+		flush();
+		try {
+			dataStream.getChannel().force(false);
+			indexStream.getChannel().force(false);
+		} catch (IOException ex) {
+			throw new KyroException(ex);
+		}
+	}
+
+	/** Flushes and closes the files. */
+	public void close () throws KyroException {
+		try {
+			flush();
+		} finally {
+			output.close();
+			indexOutput.close();
+		}
+	}
+}
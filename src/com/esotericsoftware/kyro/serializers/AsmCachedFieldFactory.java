@@ -12,6 +12,7 @@ import com.esotericsoftware.kyro.serializers.AsmCacheFields.AsmLongField;
 import com.esotericsoftware.kyro.serializers.AsmCacheFields.AsmObjectField;
 import com.esotericsoftware.kyro.serializers.AsmCacheFields.AsmShortField;
 import com.esotericsoftware.kyro.serializers.AsmCacheFields.AsmStringField;
+import com.esotericsoftware.kyro.serializers.DefaultSerializers.StringSerializer;
 import com.esotericsoftware.kyro.serializers.FieldSerializer.CachedField;
 import com.esotericsoftware.kyro.serializers.FieldSerializer.CachedFieldFactory;
 
@@ -40,7 +41,8 @@ class AsmCachedFieldFactory implements CachedFieldFactory {
 				cachedField = new AsmObjectField(ser);
 			}
 		} else if (fieldClass == String.class
-			&& (!ser.kyro.getReferences() || !ser.kyro.getReferenceResolver().useReferences(String.class))) {
+			&& (!ser.kyro.getReferences() || !ser.kyro.getReferenceResolver().useReferences(String.class))
+			&& ser.kyro.getSerializer(String.class).getClass() == StringSerializer.class) {
 			cachedField = new AsmStringField();
 		} else {
 			cachedField = new AsmObjectField(ser);
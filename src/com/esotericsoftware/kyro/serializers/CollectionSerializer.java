@@ -118,6 +118,33 @@ public class CollectionSerializer extends Serializer<Collection> {
 		return collection;
 	}
 
+	/** Skips the elements without creating the collection. Subclasses that override {@link #create(Kyro, Input, Class)} to read
+	 * bytes must also override this method to skip them. */
+	public void skip (Kyro kyro, Input input, Class<Collection> type) {
+		int length = input.readVarInt(true);
+		Class elementClass = this.elementClass;
+		Serializer serializer = this.serializer;
+		if (genericType != null) {
+			if (serializer == null) {
+				elementClass = genericType;
+				serializer = kyro.getSerializer(genericType);
+			}
+			genericType = null;
+		}
+		if (serializer != null) {
+			if (elementsCanBeNull) {
+				for (int i = 0; i < length; i++)
+					kyro.skipObjectOrNull(input, elementClass, serializer);
+			} else {
+				for (int i = 0; i < length; i++)
+					kyro.skipObject(input, elementClass, serializer);
+			}
+		} else {
+			for (int i = 0; i < length; i++)
+				kyro.skipClassAndObject(input);
+		}
+	}
+
 	/** Used by {@link #copy(Kyro, Collection)} to create the new object. This can be overridden to customize object creation, eg to
 	 * call a constructor with arguments. The default implementation uses {@link Kyro#newInstance(Class)}. */
 	protected Collection createCopy (Kyro kyro, Collection original) {
@@ -6,6 +6,7 @@ import com.esotericsoftware.kyro.io.Input;
 import com.esotericsoftware.kyro.io.InputChunked;
 import com.esotericsoftware.kyro.io.Output;
 import com.esotericsoftware.kyro.io.OutputChunked;
+import com.esotericsoftware.kyro.util.IntMap;
 import com.esotericsoftware.kyro.util.ObjectMap;
 
 import static com.esotericsoftware.minlog.Log.*;
@@ -18,35 +19,217 @@ import static com.esotericsoftware.minlog.Log.*;
  * skipping the bytes for a field that no longer exists, for each field value an int is written that is the length of the value in
  * bytes.
  * <p>
+ * If a {@link #setSchemaRegistry(SchemaRegistry) schema registry} is set, the header is replaced by a variable length int
+ * written with each object, which is the ID of the field names in the registry.
+ * <p>
  * Note that the field data is identified by name. The situation where a super class has a field with the same name as a subclass
  * must be avoided.
  * @author Nathan Sweet <misc@n4te.com> */
 public class CompatibleFieldSerializer<T> extends FieldSerializer<T> {
+	private SchemaRegistry schemaRegistry;
+	private CachedField[] writeSchemaFields;
+	private int writeSchemaId;
+	private IntMap<SchemaFields> readSchemas;
+	private OutputChunked outputChunked;
+	private InputChunked inputChunked;
+
 	public CompatibleFieldSerializer (Kyro kyro, Class type) {
 		super(kyro, type);
 	}
 
+	/** Sets the registry that assigns IDs to the field names, so an ID is written with each object instead of the field names
+	 * being written the first time a class appears in an object graph. Objects must be read using a registry that maps the IDs
+	 * to the same field names. Bytes written with a registry can't be read without one and vice versa. The field names of
+	 * each ID are matched to fields only once.
+	 * @param schemaRegistry May be null to write the field names. Default is null. */
+	public void setSchemaRegistry (SchemaRegistry schemaRegistry) {
+		this.schemaRegistry = schemaRegistry;
+		writeSchemaFields = null;
+		readSchemas = null;
+	}
+
+	public SchemaRegistry getSchemaRegistry () {
+		return schemaRegistry;
+	}
+
 	public void write (Kyro kyro, Output output, T object) {
 		CachedField[] fields = getFields();
-		ObjectMap context = kyro.getGraphContext();
-		if (!context.containsKey(this)) {
-			context.put(this, null);
-			if (TRACE) trace("kyro", "Write " + fields.length + " field names.");
-			output.writeVarInt(fields.length, true);
-			for (int i = 0, n = fields.length; i < n; i++)
-				output.writeString(fields[i].field.getName());
+		if (schemaRegistry != null) {
+			if (fields != writeSchemaFields) {
+				String[] names = new String[fields.length];
+				for (int i = 0, n = fields.length; i < n; i++)
+					names[i] = fields[i].field.getName();
+				writeSchemaId = schemaRegistry.getId(getType(), names);
+				writeSchemaFields = fields;
+			}
+			if (TRACE) trace("kyro", "Write schema ID: " + writeSchemaId);
+			output.writeVarInt(writeSchemaId, true);
+		} else {
+			ObjectMap context = kyro.getGraphContext();
+			if (!context.containsKey(this)) {
+				context.put(this, null);
+				if (TRACE) trace("kyro", "Write " + fields.length + " field names.");
+				output.writeVarInt(fields.length, true);
+				for (int i = 0, n = fields.length; i < n; i++)
+					output.writeString(fields[i].field.getName());
+			}
 		}
 
-		OutputChunked outputChunked = new OutputChunked(output, 1024);
-		for (int i = 0, n = fields.length; i < n; i++) {
-			fields[i].write(outputChunked, object);
-			outputChunked.endChunks();
+		OutputChunked outputChunked = obtainOutputChunked(output);
+		try {
+			for (int i = 0, n = fields.length; i < n; i++) {
+				fields[i].write(outputChunked, object);
+				outputChunked.endChunks();
+			}
+		} finally {
+			free(outputChunked);
 		}
 	}
 
 	public T read (Kyro kyro, Input input, Class<T> type) {
 		T object = create(kyro, input, type);
 		kyro.reference(object);
+		CachedField[] fields = readFields(kyro, input);
+
+		InputChunked inputChunked = obtainInputChunked(input);
+		try {
+			boolean hasGenerics = getGenerics() != null;
+			for (int i = 0, n = fields.length; i < n; i++) {
+				CachedField cachedField = fields[i];
+				if(cachedField != null && hasGenerics) {
+					// Generic type used to instantiate this field could have 
+					// been changed in the meantime. Therefore take the most 
+					// up-to-date definition of a field
+					cachedField = getField(cachedField.field.getName());
+				}
+				if (cachedField == null) {
+					if (TRACE) trace("kyro", "Skip obsolete field.");
+					inputChunked.nextChunks();
+					continue;
+				}
+				cachedField.read(inputChunked, object);
+				inputChunked.nextChunks();
+			}
+		} finally {
+			free(inputChunked);
+		}
+		return object;
+	}
+
+	/** Skips the value of each field using the length written for it, without parsing it, if the value can't contain per graph
+	 * state. Otherwise the value is skipped with {@link CachedField#skip(Input)}.
+	 * @see #canSkipChunks(CachedField) */
+	public void skip (Kyro kyro, Input input, Class<T> type) {
+		if (kyro.getReferences()) {
+			read(kyro, input, type);
+			return;
+		}
+		CachedField[] fields = readFields(kyro, input);
+		InputChunked inputChunked = obtainInputChunked(input);
+		try {
+			boolean hasGenerics = getGenerics() != null;
+			for (int i = 0, n = fields.length; i < n; i++) {
+				CachedField cachedField = fields[i];
+				if (cachedField != null && !canSkipChunks(cachedField)) {
+					if (hasGenerics) cachedField = getField(cachedField.field.getName());
+					cachedField.skip(inputChunked);
+				}
+				inputChunked.nextChunks();
+			}
+		} finally {
+			free(inputChunked);
+		}
+	}
+
+	/** Fields that are not selected are skipped as by {@link #skip(Kyro, Input, Class)}. */
+	public T readProjected (Kyro kyro, Input input, Class<T> type, FieldProjection projection) {
+		T object = create(kyro, input, type);
+		kyro.reference(object);
+		CachedField[] fields = readFields(kyro, input);
+		FieldProjection[] selected = select(fields, projection, false);
+
+		InputChunked inputChunked = obtainInputChunked(input);
+		try {
+			boolean hasGenerics = getGenerics() != null;
+			for (int i = 0, n = fields.length; i < n; i++) {
+				CachedField cachedField = fields[i];
+				if (cachedField != null) {
+					if (selected[i] != null) {
+						if (hasGenerics) cachedField = getField(cachedField.field.getName());
+						readProjected(cachedField, selected[i], inputChunked, object);
+					} else if (!canSkipChunks(cachedField)) {
+						if (hasGenerics) cachedField = getField(cachedField.field.getName());
+						cachedField.skip(inputChunked);
+					}
+				}
+				inputChunked.nextChunks();
+			}
+		} finally {
+			free(inputChunked);
+		}
+		return object;
+	}
+
+	/** Returns true if the field's value is written without using Kyro, so skipping its chunks can't lose per graph state that
+	 * later values depend on, such as unregistered class names, field names written by this serializer for a nested object or
+	 * other state in the {@link Kyro#getGraphContext() graph context}. */
+	static private boolean canSkipChunks (CachedField cachedField) {
+		Class type = cachedField.field.getType();
+		return type.isPrimitive() || (type == String.class && !(cachedField instanceof ObjectField));
+	}
+
+	/** Returns an OutputChunked that writes to the output. The OutputChunked is taken while in use, so a field value written by
+	 * this serializer gets its own. */
+	private OutputChunked obtainOutputChunked (Output output) {
+		OutputChunked outputChunked = this.outputChunked;
+		if (outputChunked == null)
+			outputChunked = new OutputChunked(1024);
+		else
+			this.outputChunked = null;
+		outputChunked.setOutputStream(output);
+		return outputChunked;
+	}
+
+	private void free (OutputChunked outputChunked) {
+		outputChunked.setOutputStream(null);
+		this.outputChunked = outputChunked;
+	}
+
+	/** Returns an InputChunked that reads from the input. The InputChunked is taken while in use, so a field value read by this
+	 * serializer gets its own. */
+	private InputChunked obtainInputChunked (Input input) {
+		InputChunked inputChunked = this.inputChunked;
+		if (inputChunked == null)
+			inputChunked = new InputChunked(1024);
+		else
+			this.inputChunked = null;
+		inputChunked.setInputStream(input);
+		return inputChunked;
+	}
+
+	private void free (InputChunked inputChunked) {
+		inputChunked.setInputStream(null);
+		this.inputChunked = inputChunked;
+	}
+
+	/** Returns the fields in the order they were written, reading the schema ID or, if this is the first object of this type in
+	 * the graph, the field names. Fields that no longer exist are null. */
+	private CachedField[] readFields (Kyro kyro, Input input) {
+		if (schemaRegistry != null) {
+			int id = input.readVarInt(true);
+			if (TRACE) trace("kyro", "Read schema ID: " + id);
+			CachedField[] allFields = getFields();
+			if (readSchemas == null) readSchemas = new IntMap();
+			SchemaFields schema = readSchemas.get(id);
+			if (schema == null || schema.allFields != allFields) {
+				schema = new SchemaFields();
+				schema.allFields = allFields;
+				schema.fields = match(schemaRegistry.getFieldNames(getType(), id), allFields);
+				readSchemas.put(id, schema);
+			}
+			return schema.fields;
+		}
+
 		ObjectMap context = kyro.getGraphContext();
 		CachedField[] fields = (CachedField[])context.get(this);
 		if (fields == null) {
@@ -55,41 +238,31 @@ public class CompatibleFieldSerializer<T> extends FieldSerializer<T> {
 			String[] names = new String[length];
 			for (int i = 0; i < length; i++)
 				names[i] = input.readString();
-
-			fields = new CachedField[length];
-			CachedField[] allFields = getFields();
-			outer:
-			for (int i = 0, n = names.length; i < n; i++) {
-				String schemaName = names[i];
-				for (int ii = 0, nn = allFields.length; ii < nn; ii++) {
-					if (allFields[ii].field.getName().equals(schemaName)) {
-						fields[i] = allFields[ii];
-						continue outer;
-					}
-				}
-				if (TRACE) trace("kyro", "Ignore obsolete field: " + schemaName);
-			}
+			fields = match(names, getFields());
 			context.put(this, fields);
 		}
+		return fields;
+	}
 
-		InputChunked inputChunked = new InputChunked(input, 1024);
-		boolean hasGenerics = getGenerics() != null;
-		for (int i = 0, n = fields.length; i < n; i++) {
-			CachedField cachedField = fields[i];
-			if(cachedField != null && hasGenerics) {
-				// Generic type used to instantiate this field could have 
-				// been changed in the meantime. Therefore take the most 
-				// up-to-date definition of a field
-				cachedField = getField(cachedField.field.getName());
-			}
-			if (cachedField == null) {
-				if (TRACE) trace("kyro", "Skip obsolete field.");
-				inputChunked.nextChunks();
-				continue;
+	private CachedField[] match (String[] names, CachedField[] allFields) {
+		CachedField[] fields = new CachedField[names.length];
+		outer:
+		for (int i = 0, n = names.length; i < n; i++) {
+			String schemaName = names[i];
+			for (int ii = 0, nn = allFields.length; ii < nn; ii++) {
+				if (allFields[ii].field.getName().equals(schemaName)) {
+					fields[i] = allFields[ii];
+					continue outer;
+				}
 			}
-			cachedField.read(inputChunked, object);
-			inputChunked.nextChunks();
+			if (TRACE) trace("kyro", "Ignore obsolete field: " + schemaName);
 		}
-		return object;
+		return fields;
+	}
+
+	/** The fields of a schema ID, matched to the fields of this serializer. */
+	static private class SchemaFields {
+		CachedField[] allFields;
+		CachedField[] fields;
 	}
 }
@@ -0,0 +1,109 @@
+package com.esotericsoftware.kyro.serializers;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.Serializer;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.util.ChunkedObjectArray;
+import com.esotericsoftware.kyro.util.ObjectIntMap;
+import com.esotericsoftware.kyro.util.ObjectMap;
+
+/** Writes each distinct string value once per object graph. The first time a value is written it is written in full, after that
+ * an equal string is written as a varint index of the first one. Reading returns the same String instance for each index. Unlike
+ * tracking references for String, equal strings that are not the same instance are also written once, and no identity map is
+ * used. This makes graphs with many repeated strings, such as map keys, status codes or IDs, smaller to write and read.
+ * <p>
+ * The serializer must be registered for String before the serializers for classes with String fields are created, so those
+ * fields use it:
+ *
+ * <pre>
+ * kyro.register(String.class, new DeduplicatingStringSerializer());
+ * </pre>
+ *
+ * The strings are kept until the graph is done and {@link Kyro#reset()} is called, so the Kyro instances that write and read
+ * must both use this serializer and reset after the same objects. A {@link Kyro#beginNestedGraph() nested graph}, such as the
+ * value of a {@link LazyRef}, has its own table. Skipping a string, including when a projection or a
+ * {@link CompatibleFieldSerializer} skips a field, still reads it, because a later index may refer to it. */
+public class DeduplicatingStringSerializer extends Serializer<String> {
+	static private final int NULL = 0;
+	static private final int NEW = 1;
+
+	private int maximumCapacity = 2048;
+
+	{
+		setImmutable(true);
+		setAcceptsNull(true);
+	}
+
+	/** Sets the capacity the table of written strings is reduced to when it is cleared for the next graph, so one graph with many
+	 * strings does not make clearing slower for all the graphs after it. Default is 2048. */
+	public void setMaximumCapacity (int maximumCapacity) {
+		if (maximumCapacity < 0) throw new IllegalArgumentException("maximumCapacity must be >= 0: " + maximumCapacity);
+		this.maximumCapacity = maximumCapacity;
+	}
+
+	public void write (Kyro kyro, Output output, String object) {
+		if (object == null) {
+			output.writeVarInt(NULL, true);
+			return;
+		}
+		ObjectIntMap<String> written = table(kyro).written;
+		int index = written.get(object, -1);
+		if (index != -1) {
+			output.writeVarInt(index + 2, true);
+			return;
+		}
+		written.put(object, written.size);
+		output.writeVarInt(NEW, true);
+		output.writeString(object);
+	}
+
+	public String read (Kyro kyro, Input input, Class<String> type) {
+		int tag = input.readVarInt(true);
+		if (tag == NULL) return null;
+		ChunkedObjectArray read = table(kyro).read;
+		if (tag == NEW) {
+			String value = input.readString();
+			read.set(read.add(), value);
+			return value;
+		}
+		int index = tag - 2;
+		if (index < 0 || index >= read.size) throw new KyroException("Unknown string index: " + index);
+		return (String)read.get(index);
+	}
+
+	/** Reads the string, because a later index may refer to it. */
+	public void skip (Kyro kyro, Input input, Class<String> type) {
+		read(kyro, input, type);
+	}
+
+	/** Returns the table for the current graph. The first time it is used in a graph, the table kept for the Kyro instance is
+	 * cleared and used, unless a graph the current graph is nested in is still using it. */
+	private StringTable table (Kyro kyro) {
+		ObjectMap graphContext = kyro.getGraphContext();
+		StringTable table = (StringTable)graphContext.get(this);
+		if (table == null) {
+			ObjectMap context = kyro.getContext();
+			table = (StringTable)context.get(this);
+			if (table == null || (table.graphContext != null && table.graphContext.get(this) == table)) {
+				StringTable newTable = new StringTable();
+				if (table == null) context.put(this, newTable);
+				table = newTable;
+			} else {
+				table.written.clear(maximumCapacity);
+				table.read.clear();
+			}
+			table.graphContext = graphContext;
+			graphContext.put(this, table);
+		}
+		return table;
+	}
+
+	static private class StringTable {
+		final ObjectIntMap<String> written = new ObjectIntMap();
+		final ChunkedObjectArray read = new ChunkedObjectArray();
+		/** The graph context of the graph using the table. The graph is done when its context no longer holds the table. */
+		ObjectMap graphContext;
+	}
+}
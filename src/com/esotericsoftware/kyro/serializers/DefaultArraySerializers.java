@@ -13,6 +13,7 @@ import com.esotericsoftware.kyro.Registration;
 import com.esotericsoftware.kyro.Serializer;
 import com.esotericsoftware.kyro.io.Input;
 import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.serializers.DefaultSerializers.StringSerializer;
 
 import static com.esotericsoftware.kyro.Kyro.*;
 import static com.esotericsoftware.minlog.Log.TRACE;
@@ -42,6 +43,12 @@ public class DefaultArraySerializers{
 			return input.readBytes(length - 1);
 		}
 
+		public void skip (Kyro kyro, Input input, Class<byte[]> type) {
+			int length = input.readVarInt(true);
+			if (length == NULL) return;
+			input.skip((long)length - 1);
+		}
+
 		public byte[] copy (Kyro kyro, byte[] original) {
 			byte[] copy = new byte[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -69,6 +76,13 @@ public class DefaultArraySerializers{
 			return input.readInts(length - 1, false);
 		}
 
+		public void skip (Kyro kyro, Input input, Class<int[]> type) {
+			int length = input.readVarInt(true);
+			if (length == NULL) return;
+			for (int i = 1; i < length; i++)
+				input.readInt(false);
+		}
+
 		public int[] copy (Kyro kyro, int[] original) {
 			int[] copy = new int[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -96,6 +110,12 @@ public class DefaultArraySerializers{
 			return input.readFloats(length-1);
 		}
 
+		public void skip (Kyro kyro, Input input, Class<float[]> type) {
+			int length = input.readVarInt(true);
+			if (length == NULL) return;
+			input.skip((length - 1) * 4L);
+		}
+
 		public float[] copy (Kyro kyro, float[] original) {
 			float[] copy = new float[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -123,6 +143,13 @@ public class DefaultArraySerializers{
 			return input.readLongs(length-1, false);
 		}
 
+		public void skip (Kyro kyro, Input input, Class<long[]> type) {
+			int length = input.readVarInt(true);
+			if (length == NULL) return;
+			for (int i = 1; i < length; i++)
+				input.readLong(false);
+		}
+
 		public long[] copy (Kyro kyro, long[] original) {
 			long[] copy = new long[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -150,6 +177,12 @@ public class DefaultArraySerializers{
 			return input.readShorts(length-1);
 		}
 
+		public void skip (Kyro kyro, Input input, Class<short[]> type) {
+			int length = input.readVarInt(true);
+			if (length == NULL) return;
+			input.skip((length - 1) * 2L);
+		}
+
 		public short[] copy (Kyro kyro, short[] original) {
 			short[] copy = new short[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -177,6 +210,12 @@ public class DefaultArraySerializers{
 			return input.readChars(length-1);
 		}
 
+		public void skip (Kyro kyro, Input input, Class<char[]> type) {
+			int length = input.readVarInt(true);
+			if (length == NULL) return;
+			input.skip((length - 1) * 2L);
+		}
+
 		public char[] copy (Kyro kyro, char[] original) {
 			char[] copy = new char[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -204,6 +243,12 @@ public class DefaultArraySerializers{
 			return input.readDoubles(length-1);
 		}
 
+		public void skip (Kyro kyro, Input input, Class<double[]> type) {
+			int length = input.readVarInt(true);
+			if (length == NULL) return;
+			input.skip((length - 1) * 8L);
+		}
+
 		public double[] copy (Kyro kyro, double[] original) {
 			double[] copy = new double[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -235,6 +280,12 @@ public class DefaultArraySerializers{
 			return array;
 		}
 
+		public void skip (Kyro kyro, Input input, Class<boolean[]> type) {
+			int length = input.readVarInt(true);
+			if (length == NULL) return;
+			input.skip((long)length - 1);
+		}
+
 		public boolean[] copy (Kyro kyro, boolean[] original) {
 			boolean[] copy = new boolean[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -253,8 +304,8 @@ public class DefaultArraySerializers{
 				return;
 			}
 			output.writeVarInt(object.length + 1, true);
-			if (kyro.getReferences() && kyro.getReferenceResolver().useReferences(String.class)) {
-				Serializer serializer = kyro.getSerializer(String.class);
+			Serializer serializer = elementSerializer(kyro);
+			if (serializer != null) {
 				for (int i = 0, n = object.length; i < n; i++)
 					kyro.writeObjectOrNull(output, object[i], serializer);
 			} else {
@@ -267,8 +318,8 @@ public class DefaultArraySerializers{
 			int length = input.readVarInt(true);
 			if (length == NULL) return null;
 			String[] array = new String[--length];
-			if (kyro.getReferences() && kyro.getReferenceResolver().useReferences(String.class)) {
-				Serializer serializer = kyro.getSerializer(String.class);
+			Serializer serializer = elementSerializer(kyro);
+			if (serializer != null) {
 				for (int i = 0; i < length; i++) {
 					array[i] = kyro.readObjectOrNull(input, String.class, serializer);
 				}
@@ -279,6 +330,28 @@ public class DefaultArraySerializers{
 			return array;
 		}
 
+		public void skip (Kyro kyro, Input input, Class<String[]> type) {
+			int length = input.readVarInt(true);
+			if (length == NULL) return;
+			Serializer serializer = elementSerializer(kyro);
+			if (serializer != null) {
+				for (int i = 1; i < length; i++)
+					kyro.skipObjectOrNull(input, String.class, serializer);
+			} else {
+				for (int i = 1; i < length; i++)
+					input.skipString();
+			}
+		}
+
+		/** Returns the serializer for the elements, or null if they are written directly with {@link Output#writeString(String)}
+		 * because references are not used for String and the String serializer is the default. */
+		private Serializer elementSerializer (Kyro kyro) {
+			Serializer serializer = kyro.getSerializer(String.class);
+			if (serializer.getClass() == StringSerializer.class
+				&& (!kyro.getReferences() || !kyro.getReferenceResolver().useReferences(String.class))) return null;
+			return serializer;
+		}
+
 		public String[] copy (Kyro kyro, String[] original) {
 			String[] copy = new String[original.length];
 			System.arraycopy(original, 0, copy, 0, copy.length);
@@ -384,6 +457,30 @@ public class DefaultArraySerializers{
 			return object;
 		}
 
+		public void skip (Kyro kyro, Input input, Class<Object[]> type) {
+			int length = input.readVarInt(true);
+			if (length == NULL) return;
+			Class elementClass = type.getComponentType();
+			if (elementsAreSameType || Modifier.isFinal(elementClass.getModifiers())) {
+				Serializer elementSerializer = kyro.getSerializer(elementClass);
+				elementSerializer.setGenerics(kyro, generics);
+				for (int i = 1; i < length; i++) {
+					if (elementsCanBeNull)
+						kyro.skipObjectOrNull(input, elementClass, elementSerializer);
+					else
+						kyro.skipObject(input, elementClass, elementSerializer);
+				}
+			} else {
+				for (int i = 1; i < length; i++) {
+					Registration registration = kyro.readClass(input);
+					if (registration != null) {
+						registration.getSerializer().setGenerics(kyro, generics);
+						kyro.skipObject(input, registration.getType(), registration.getSerializer());
+					}
+				}
+			}
+		}
+
 		public Object[] copy (Kyro kyro, Object[] original) {
 			Object[] copy = (Object[]) Array.newInstance(original.getClass().getComponentType(), original.length);
 			for (int i = 0, n = original.length; i < n; i++)
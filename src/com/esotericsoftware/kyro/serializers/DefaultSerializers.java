@@ -50,6 +50,9 @@ public class DefaultSerializers {
 		public Object read (Kyro kyro, Input input, Class type) {
 			return null;
 		}
+
+		public void skip (Kyro kyro, Input input, Class type) {
+		}
 	}
 	static public class BooleanSerializer extends Serializer<Boolean> {
 		{
@@ -63,6 +66,10 @@ public class DefaultSerializers {
 		public Boolean read (Kyro kyro, Input input, Class<Boolean> type) {
 			return input.readBoolean();
 		}
+
+		public void skip (Kyro kyro, Input input, Class<Boolean> type) {
+			input.skip(1);
+		}
 	}
 
 	static public class ByteSerializer extends Serializer<Byte> {
@@ -77,6 +84,10 @@ public class DefaultSerializers {
 		public Byte read (Kyro kyro, Input input, Class<Byte> type) {
 			return input.readByte();
 		}
+
+		public void skip (Kyro kyro, Input input, Class<Byte> type) {
+			input.skip(1);
+		}
 	}
 
 	static public class CharSerializer extends Serializer<Character> {
@@ -91,6 +102,10 @@ public class DefaultSerializers {
 		public Character read (Kyro kyro, Input input, Class<Character> type) {
 			return input.readChar();
 		}
+
+		public void skip (Kyro kyro, Input input, Class<Character> type) {
+			input.skip(2);
+		}
 	}
 
 	static public class ShortSerializer extends Serializer<Short> {
@@ -105,6 +120,10 @@ public class DefaultSerializers {
 		public Short read (Kyro kyro, Input input, Class<Short> type) {
 			return input.readShort();
 		}
+
+		public void skip (Kyro kyro, Input input, Class<Short> type) {
+			input.skip(2);
+		}
 	}
 
 	static public class IntSerializer extends Serializer<Integer> {
@@ -119,6 +138,10 @@ public class DefaultSerializers {
 		public Integer read (Kyro kyro, Input input, Class<Integer> type) {
 			return input.readInt(false);
 		}
+
+		public void skip (Kyro kyro, Input input, Class<Integer> type) {
+			input.readInt(false);
+		}
 	}
 
 	static public class LongSerializer extends Serializer<Long> {
@@ -133,6 +156,10 @@ public class DefaultSerializers {
 		public Long read (Kyro kyro, Input input, Class<Long> type) {
 			return input.readLong(false);
 		}
+
+		public void skip (Kyro kyro, Input input, Class<Long> type) {
+			input.readLong(false);
+		}
 	}
 
 	static public class FloatSerializer extends Serializer<Float> {
@@ -147,6 +174,10 @@ public class DefaultSerializers {
 		public Float read (Kyro kyro, Input input, Class<Float> type) {
 			return input.readFloat();
 		}
+
+		public void skip (Kyro kyro, Input input, Class<Float> type) {
+			input.skip(4);
+		}
 	}
 
 	static public class DoubleSerializer extends Serializer<Double> {
@@ -161,6 +192,10 @@ public class DefaultSerializers {
 		public Double read (Kyro kyro, Input input, Class<Double> type) {
 			return input.readDouble();
 		}
+
+		public void skip (Kyro kyro, Input input, Class<Double> type) {
+			input.skip(8);
+		}
 	}
 
 	/** @see Output#writeString(String) */
@@ -177,6 +212,10 @@ public class DefaultSerializers {
 		public String read (Kyro kyro, Input input, Class<String> type) {
 			return input.readString();
 		}
+
+		public void skip (Kyro kyro, Input input, Class<String> type) {
+			input.skipString();
+		}
 	}
 
 	static public class BigIntegerSerializer extends Serializer<BigInteger> {
@@ -598,6 +637,11 @@ public class DefaultSerializers {
 			return new TreeMap((Comparator)kyro.readClassAndObject(input));
 		}
 
+		public void skip (Kyro kyro, Input input, Class<Map> type) {
+			kyro.skipClassAndObject(input);
+			super.skip(kyro, input, type);
+		}
+
 		protected Map createCopy (Kyro kyro, Map original) {
 			return new TreeMap(((TreeMap)original).comparator());
 		}
@@ -614,6 +658,11 @@ public class DefaultSerializers {
 			return new TreeSet((Comparator)kyro.readClassAndObject(input));
 		}
 
+		public void skip (Kyro kyro, Input input, Class<Collection> type) {
+			kyro.skipClassAndObject(input);
+			super.skip(kyro, input, type);
+		}
+
 		protected TreeSet createCopy (Kyro kyro, Collection original) {
 			return new TreeSet(((TreeSet)original).comparator());
 		}
@@ -1,11 +1,12 @@
-
 package com.esotericsoftware.kyro.serializers;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.Inflater;
-import java.util.zip.InflaterInputStream;
 
 import com.esotericsoftware.kyro.Kyro;
 import com.esotericsoftware.kyro.KyroException;
@@ -14,7 +15,11 @@ import com.esotericsoftware.kyro.io.Input;
 import com.esotericsoftware.kyro.io.InputChunked;
 import com.esotericsoftware.kyro.io.Output;
 import com.esotericsoftware.kyro.io.OutputChunked;
+import com.esotericsoftware.kyro.util.ObjectMap;
 
+/** Compresses the bytes written by another serializer. The Deflater, Inflater and buffers are kept in the
+ * {@link Kyro#getContext() context} of each Kyro instance and reused, so a DeflateSerializer can be shared by Kyro instances if
+ * the serializer it wraps can be. */
 public class DeflateSerializer extends Serializer {
 	private final Serializer serializer;
 	private boolean noHeaders = true;
@@ -25,24 +30,72 @@ public class DeflateSerializer extends Serializer {
 	}
 
 	public void write (Kyro kyro, Output output, Object object) {
-		Deflater deflater = new Deflater(compressionLevel, noHeaders);
-		OutputChunked outputChunked = new OutputChunked(output, 256);
-		DeflaterOutputStream deflaterStream = new DeflaterOutputStream(outputChunked, deflater);
-		Output deflaterOutput = new Output(deflaterStream, 256);
-		kyro.writeObject(deflaterOutput, object, serializer);
-		deflaterOutput.flush();
+		Codec codec = getCodec(kyro);
+		// The deflater is taken while in use, so an object in the graph written by this serializer gets its own.
+		Deflating deflating = codec.deflating;
+		if (deflating != null && deflating.noHeaders == noHeaders)
+			codec.deflating = null;
+		else
+			deflating = new Deflating(noHeaders);
+		Deflater deflater = deflating.deflater;
+		deflater.setLevel(compressionLevel);
+		OutputChunked outputChunked = deflating.outputChunked;
+		outputChunked.setOutputStream(output);
+		Output deflaterOutput = deflating.output;
+		deflaterOutput.setOutputStream(deflating.stream);
 		try {
-			deflaterStream.finish();
-		} catch (IOException ex) {
-			throw new KyroException(ex);
+			kyro.writeObject(deflaterOutput, object, serializer);
+			deflaterOutput.flush();
+			try {
+				deflating.stream.finish();
+			} catch (IOException ex) {
+				throw new KyroException(ex);
+			}
+			outputChunked.endChunks();
+		} finally {
+			deflater.reset();
+			outputChunked.setOutputStream(null);
+			deflaterOutput.setOutputStream(null);
+			if (codec.deflating == null && deflating.noHeaders == noHeaders)
+				codec.deflating = deflating;
+			else
+				deflater.end();
 		}
-		outputChunked.endChunks();
 	}
 
 	public Object read (Kyro kyro, Input input, Class type) {
+		Codec codec = getCodec(kyro);
+		Inflating inflating = codec.inflating;
+		if (inflating != null && inflating.noHeaders == noHeaders)
+			codec.inflating = null;
+		else
+			inflating = new Inflating(noHeaders);
 		// The inflater would read from input beyond the compressed bytes if chunked enoding wasn't used.
-		InflaterInputStream inflaterStream = new InflaterInputStream(new InputChunked(input, 256), new Inflater(noHeaders));
-		return kyro.readObject(new Input(inflaterStream, 256), type, serializer);
+		inflating.inputChunked.setInputStream(input);
+		inflating.input.setInputStream(inflating);
+		try {
+			Object object = kyro.readObject(inflating.input, type, serializer);
+			inflating.inputChunked.nextChunks();
+			return object;
+		} finally {
+			inflating.inflater.reset();
+			inflating.inputChunked.setInputStream(null);
+			inflating.input.setInputStream(null);
+			if (codec.inflating == null && inflating.noHeaders == noHeaders)
+				codec.inflating = inflating;
+			else
+				inflating.inflater.end();
+		}
+	}
+
+	private Codec getCodec (Kyro kyro) {
+		ObjectMap context = kyro.getContext();
+		Codec codec = (Codec)context.get(this);
+		if (codec == null) {
+			codec = new Codec();
+			context.put(this, codec);
+		}
+		return codec;
 	}
 
 	public void setNoHeaders (boolean noHeaders) {
@@ -58,4 +111,62 @@ public class DeflateSerializer extends Serializer {
 	public Object copy (Kyro kyro, Object original) {
 		return serializer.copy(kyro, original);
 	}
+
+	/** The deflater and inflater of a Kyro instance that are not in use. */
+	static private class Codec {
+		Deflating deflating;
+		Inflating inflating;
+	}
+
+	static private class Deflating {
+		final boolean noHeaders;
+		final Deflater deflater;
+		final OutputChunked outputChunked = new OutputChunked(256);
+		final DeflaterOutputStream stream;
+		final Output output = new Output(256);
+
+		Deflating (boolean noHeaders) {
+			this.noHeaders = noHeaders;
+			deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, noHeaders);
+			stream = new DeflaterOutputStream(outputChunked, deflater);
+		}
+	}
+
+	/** Inflates the bytes read from an InputChunked. Unlike InflaterInputStream, this can be reused after the Inflater is
+	 * reset. */
+	static private class Inflating extends InputStream {
+		final boolean noHeaders;
+		final Inflater inflater;
+		final InputChunked inputChunked = new InputChunked(256);
+		final Input input = new Input(256);
+		private final byte[] buffer = new byte[256], single = new byte[1];
+
+		Inflating (boolean noHeaders) {
+			this.noHeaders = noHeaders;
+			inflater = new Inflater(noHeaders);
+		}
+
+		public int read () throws IOException {
+			int count = read(single, 0, 1);
+			return count == -1 ? -1 : single[0] & 0xFF;
+		}
+
+		public int read (byte[] bytes, int offset, int count) throws IOException {
+			if (count == 0) return 0;
+			try {
+				while (true) {
+					int inflated = inflater.inflate(bytes, offset, count);
+					if (inflated > 0) return inflated;
+					if (inflater.finished() || inflater.needsDictionary()) return -1;
+					if (inflater.needsInput()) {
+						int length = inputChunked.read(buffer, 0, buffer.length);
+						if (length == -1) throw new EOFException("Unexpected end of compressed data.");
+						inflater.setInput(buffer, 0, length);
+					}
+				}
+			} catch (DataFormatException ex) {
+				throw new KyroException(ex);
+			}
+		}
+	}
 }
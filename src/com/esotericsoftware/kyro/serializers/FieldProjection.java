@@ -0,0 +1,62 @@
+package com.esotericsoftware.kyro.serializers;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.util.ObjectMap;
+
+/** Selects the fields that are read by {@link Kyro#readProjected(Input, Class, FieldProjection)}. Each path is a field name, or
+ * field names separated by '.' to select a field of the object in a field, eg "customer.region". Selecting a field selects its
+ * whole value. Fields that are not selected are skipped and keep the value given to them when the object was created.
+ * <p>
+ * A FieldProjection can't be changed after it is created, so it can be reused for many reads and by many threads.
+ * @see FieldSerializer#readProjected(Kyro, Input, Class, FieldProjection) */
+public class FieldProjection {
+	static final FieldProjection ALL = new FieldProjection();
+
+	final ObjectMap<String, FieldProjection> fields = new ObjectMap();
+
+	/** @param paths The paths of the fields to read. */
+	public FieldProjection (String... paths) {
+		for (int i = 0, n = paths.length; i < n; i++)
+			add(paths[i]);
+	}
+
+	private void add (String path) {
+		if (path == null) throw new IllegalArgumentException("path cannot be null.");
+		FieldProjection projection = this;
+		int start = 0;
+		while (true) {
+			int end = path.indexOf('.', start);
+			String name = path.substring(start, end == -1 ? path.length() : end);
+			if (name.length() == 0) throw new IllegalArgumentException("Invalid field path: " + path);
+			FieldProjection child = projection.fields.get(name);
+			if (end == -1) {
+				projection.fields.put(name, ALL);
+				return;
+			}
+			if (child == ALL) return;
+			if (child == null) {
+				child = new FieldProjection();
+				projection.fields.put(name, child);
+			}
+			projection = child;
+			start = end + 1;
+		}
+	}
+
+	/** Returns the projection for the value of the field with the specified name, which selects the whole value if all of the
+	 * value's fields are read, or null if the field is not selected. */
+	FieldProjection get (String name) {
+		return fields.get(name);
+	}
+
+	/** Returns true if the whole value is selected. */
+	boolean isAll () {
+		return this == ALL;
+	}
+
+	public String toString () {
+		if (this == ALL) return "*";
+		return fields.toString();
+	}
+}
@@ -92,6 +92,20 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 
 	private boolean hasObjectFields = false;
 
+	/** Fields built for each set of concrete generic type parameters, so they are only built once for each instantiation. */
+	private ObjectMap<GenericsKey, GenericsEntry> genericsCache;
+	private final GenericsKey genericsLookup = new GenericsKey(null);
+	/** The generic type parameters the current fields were taken from the cache for, or null. */
+	private Class[] cachedGenerics;
+	/** 0 if not yet known, 1 if the fields only depend on the generic type parameters of this type, else -1. */
+	private int genericsCacheable;
+	private long genericsCacheHits, genericsCacheMisses;
+
+	// The fields selected by the last projection used to read.
+	private FieldProjection lastProjection;
+	private CachedField[] lastProjectedFields;
+	private FieldProjection[] lastSelected;
+
 	static CachedFieldFactory asmFieldFactory;
 	static CachedFieldFactory objectFieldFactory;
 	static CachedFieldFactory unsafeFieldFactory;
@@ -166,6 +180,8 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 		 */
 		
 		if (TRACE && generics != null) trace("kyro", "Generic type parameters: " + Arrays.toString(generics));
+		cachedGenerics = null;
+		if (!minorRebuild && genericsCache != null) genericsCache.clear();
 		if (type.isInterface()) {
 			fields = new CachedField[0]; // No fields to serialize.
 			return;
@@ -318,8 +334,62 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 			// Generic parameter types do not affect the set of fields, offsets of fields,
 			// transient and non-transient properties. They only affect the type of
 			// fields and serializers selected for each field.
+			if (!useGenericsCache()) rebuildCachedFields(true);
+		}
+	}
+
+	/** Sets the cached fields for the current generic type parameters from the generics cache, building and caching them if
+	 * they were not seen before.
+	 * @return false if the fields for the current generic type parameters can't be cached and must be rebuilt. */
+	private boolean useGenericsCache () {
+		Class[] generics = this.generics;
+		if (generics == null) return false;
+		if (cachedGenerics != null && Arrays.equals(generics, cachedGenerics)) return true;
+		if (!isGenericsCacheable(generics)) return false;
+
+		if (genericsCache == null) genericsCache = new ObjectMap();
+		genericsLookup.generics = generics;
+		GenericsEntry entry = genericsCache.get(genericsLookup);
+		genericsLookup.generics = null;
+		if (entry != null) {
+			genericsCacheHits++;
+			// Generic type parameters don't change which fields are used, so initializeCachedFields is not needed.
+			fields = entry.fields;
+			transientFields = entry.transientFields;
+			genericsScope = entry.genericsScope;
+			hasObjectFields = entry.hasObjectFields;
+		} else {
+			genericsCacheMisses++;
 			rebuildCachedFields(true);
+			entry = new GenericsEntry();
+			entry.fields = fields;
+			entry.transientFields = transientFields;
+			entry.genericsScope = genericsScope;
+			entry.hasObjectFields = hasObjectFields;
+			genericsCache.put(new GenericsKey(generics.clone()), entry);
 		}
+		cachedGenerics = generics.clone();
+		return true;
+	}
+
+	private boolean isGenericsCacheable (Class[] generics) {
+		if (genericsCacheable == 0) genericsCacheable = FieldSerializerGenericsUtil.hasOuterTypeVariables(type) ? -1 : 1;
+		if (genericsCacheable == -1) return false;
+		// Type parameters without a concrete class are looked up in the generics scope of the outer serializers.
+		if (generics.length < typeParameters.length) return false;
+		for (int i = 0, n = typeParameters.length; i < n; i++)
+			if (generics[i] == null) return false;
+		return true;
+	}
+
+	/** Returns the number of times the fields for a set of generic type parameters were found in the cache. */
+	public long getGenericsCacheHits () {
+		return genericsCacheHits;
+	}
+
+	/** Returns the number of times the fields for a set of generic type parameters had to be built and were added to the cache. */
+	public long getGenericsCacheMisses () {
+		return genericsCacheMisses;
 	}
 	
 	/** Get generic type parameters of the class controlled by this serializer.
@@ -473,16 +543,14 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 
 	/** This method can be called for different fields having the same type. Even though the raw type is the same, if the type is
 	 * generic, it could happen that different concrete classes are used to instantiate it. Therefore, in case of different
-	 * instantiation parameters, the fields analysis should be repeated.
-	 * 
-	 * TODO: Cache serializer instances generated for a given set of generic parameters. Reuse it later instead of recomputing
-	 * every time. */
+	 * instantiation parameters, the fields analysis is repeated. The fields are cached for each set of generic parameters, so the
+	 * analysis is only done once for each instantiation. */
 	public void write (Kyro kyro, Output output, T object) {
 		if (TRACE) trace("kyro", "FieldSerializer.write fields of class: " + object.getClass().getName());
 
 		if (typeParameters != null && generics != null) {
 			// Rebuild fields info. It may result in rebuilding the genericScope
-			rebuildCachedFields();
+			if (!useGenericsCache()) rebuildCachedFields();
 		}
 
 		if (genericsScope != null) {
@@ -512,7 +580,7 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 			if (typeParameters != null && generics != null) {
 				// Rebuild fields info. It may result in rebuilding the
 				// genericScope
-				rebuildCachedFields();
+				if (!useGenericsCache()) rebuildCachedFields();
 			}
 
 			if (genericsScope != null) {
@@ -541,6 +609,113 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 		}
 	}
 
+	/** Reads past the fields of an object without creating it. If references are enabled, the object is read so that it can be
+	 * referenced later. */
+	public void skip (Kyro kyro, Input input, Class<T> type) {
+		if (kyro.getReferences()) {
+			read(kyro, input, type);
+			return;
+		}
+		try {
+			if (typeParameters != null && generics != null) {
+				if (!useGenericsCache()) rebuildCachedFields();
+			}
+
+			if (genericsScope != null) kyro.pushGenericsScope(type, genericsScope);
+
+			CachedField[] fields = this.fields;
+			for (int i = 0, n = fields.length; i < n; i++)
+				fields[i].skip(input);
+
+			if (serializeTransient) {
+				for (int i = 0, n = transientFields.length; i < n; i++)
+					transientFields[i].skip(input);
+			}
+		} finally {
+			if (genericsScope != null && kyro.getGenericsScope() != null) kyro.popGenericsScope();
+		}
+	}
+
+	/** Reads an object, but only the fields selected by the projection. The other fields are skipped and keep the value set by
+	 * {@link #create(Kyro, Input, Class)}. Subclasses that change how fields are written must override this method.
+	 * @see Kyro#readProjected(Input, Class, FieldProjection) */
+	public T readProjected (Kyro kyro, Input input, Class<T> type, FieldProjection projection) {
+		try {
+			if (typeParameters != null && generics != null) {
+				if (!useGenericsCache()) rebuildCachedFields();
+			}
+
+			if (genericsScope != null) kyro.pushGenericsScope(type, genericsScope);
+
+			T object = create(kyro, input, type);
+			kyro.reference(object);
+
+			CachedField[] fields = this.fields;
+			FieldProjection[] selected = select(fields, projection, true);
+			for (int i = 0, n = fields.length; i < n; i++)
+				readProjected(fields[i], selected[i], input, object);
+
+			if (serializeTransient) {
+				for (int i = 0, n = transientFields.length; i < n; i++)
+					transientFields[i].read(input, object);
+			}
+			return object;
+		} finally {
+			if (genericsScope != null && kyro.getGenericsScope() != null) kyro.popGenericsScope();
+		}
+	}
+
+	/** Reads, skips, or reads with a nested projection the value of the field, as selected. */
+	final void readProjected (CachedField field, FieldProjection selected, Input input, Object object) {
+		if (selected == null)
+			field.skip(input);
+		else if (selected.isAll())
+			field.read(input, object);
+		else
+			field.readProjected(input, object, selected);
+	}
+
+	/** Returns the projection for each of the fields, or null for a field that is not selected. The result for the last fields and
+	 * projection is cached.
+	 * @param fields May contain nulls.
+	 * @param validate If true, an exception is thrown if the projection selects a field that isn't in the fields. */
+	final FieldProjection[] select (CachedField[] fields, FieldProjection projection, boolean validate) {
+		if (projection == lastProjection && fields == lastProjectedFields) return lastSelected;
+		FieldProjection[] selected = new FieldProjection[fields.length];
+		int count = 0;
+		for (int i = 0, n = fields.length; i < n; i++) {
+			CachedField field = fields[i];
+			if (field == null) continue;
+			if (field instanceof UnsafeCacheFields.UnsafeRegionField) {
+				// A region of primitive fields is always read. The names of the fields in it are not known.
+				selected[i] = FieldProjection.ALL;
+				validate = false;
+				continue;
+			}
+			FieldProjection fieldProjection = projection.get(field.field.getName());
+			if (fieldProjection == null) continue;
+			if (!fieldProjection.isAll() && (!(field instanceof ObjectField) || field.field.getType().isPrimitive())) {
+				throw new KyroException("Only the whole value of a field can be selected: " + field + " (" + type.getName()
+					+ ")");
+			}
+			selected[i] = fieldProjection;
+			count++;
+		}
+		if (validate && count < projection.fields.size) {
+			for (ObjectMap.Keys<String> keys = projection.fields.keys(); keys.hasNext();) {
+				String name = keys.next();
+				boolean found = false;
+				for (int i = 0, n = fields.length; i < n; i++)
+					if (fields[i] != null && fields[i].field.getName().equals(name)) found = true;
+				if (!found) throw new KyroException("Field \"" + name + "\" not found on class: " + type.getName());
+			}
+		}
+		lastProjection = projection;
+		lastProjectedFields = fields;
+		lastSelected = selected;
+		return selected;
+	}
+
 	/** Used by {@link #read(Kyro, Input, Class)} to create the new object. This can be overridden to customize object creation, eg
 	 * to call a constructor with arguments. The default implementation uses {@link Kyro#newInstance(Class)}. */
 	protected T create (Kyro kyro, Input input, Class<T> type) {
@@ -564,6 +739,7 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 				System.arraycopy(fields, i + 1, newFields, i, newFields.length - i);
 				fields = newFields;
 				removedFields.add(cachedField);
+				clearGenericsCache();
 				return;
 			}
 		}
@@ -580,12 +756,18 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 				System.arraycopy(fields, i + 1, newFields, i, newFields.length - i);
 				fields = newFields;
 				removedFields.add(cachedField);
+				clearGenericsCache();
 				return;
 			}
 		}
 		throw new IllegalArgumentException("Field \"" + removeField + "\" not found on class: " + type.getName());
 	}
 
+	private void clearGenericsCache () {
+		cachedGenerics = null;
+		if (genericsCache != null) genericsCache.clear();
+	}
+
 	/**
 	 * Get all fields controlled by this FieldSerializer 
 	 * @return all fields controlled by this FieldSerializer
@@ -690,9 +872,65 @@ public class FieldSerializer<T> extends Serializer<T> implements Comparator<Fiel
 
 		abstract public void read (Input input, Object object);
 
+		/** Reads past the value of this field without setting it. The default implementation can skip values of primitive and
+		 * String fields. */
+		public void skip (Input input) {
+			Class type = field.getType();
+			if (type == int.class) {
+				if (varIntsEnabled)
+					input.readInt(false);
+				else
+					input.readInt();
+			} else if (type == long.class) {
+				if (varIntsEnabled)
+					input.readLong(false);
+				else
+					input.readLong();
+			} else if (type == boolean.class || type == byte.class)
+				input.skip(1);
+			else if (type == short.class || type == char.class)
+				input.skip(2);
+			else if (type == float.class)
+				input.skip(4);
+			else if (type == double.class)
+				input.skip(8);
+			else if (type == String.class)
+				input.skipString();
+			else
+				throw new KyroException("Field cannot be skipped: " + this);
+		}
+
+		/** Reads only the parts of the value of this field that are selected by the projection. The default implementation reads
+		 * the whole value. */
+		public void readProjected (Input input, Object object, FieldProjection projection) {
+			read(input, object);
+		}
+
 		abstract public void copy (Object original, Object copy);
 	}
 
+	static final class GenericsKey {
+		Class[] generics;
+
+		GenericsKey (Class[] generics) {
+			this.generics = generics;
+		}
+
+		public int hashCode () {
+			return Arrays.hashCode(generics);
+		}
+
+		public boolean equals (Object obj) {
+			return obj instanceof GenericsKey && Arrays.equals(generics, ((GenericsKey)obj).generics);
+		}
+	}
+
+	static final class GenericsEntry {
+		CachedField[] fields, transientFields;
+		Generics genericsScope;
+		boolean hasObjectFields;
+	}
+
 	public static interface CachedFieldFactory {
 		public CachedField createCachedField (Class fieldClass, Field field, FieldSerializer ser);
 	}
@@ -38,6 +38,7 @@ final class FieldSerializerAnnotationsUtil {
 	 * @see FieldSerializer.Bind
 	 * @see CollectionSerializer.BindCollection
 	 * @see MapSerializer.BindMap
+	 * @see LazyRefSerializer.Lazy
 	 */
 	public void processAnnotatedFields (FieldSerializer fieldSerializer) {
 		CachedField[] fields = fieldSerializer.getFields();
@@ -123,6 +124,24 @@ final class FieldSerializerAnnotationsUtil {
 				}
 			}
 
+			// Set a lazy serializer with a known value class for a particular field
+			if (field.isAnnotationPresent(LazyRefSerializer.Lazy.class)) {
+				if (fields[i].serializer != null)
+					throw new RuntimeException("LazyRefSerializer.Lazy cannot be used with field "
+						+ fields[i].getField().getDeclaringClass().getName() + "." + fields[i].getField().getName()
+						+ ", because it has a serializer already.");
+				if (fields[i].field.getType() == LazyRef.class) {
+					Class valueClass = field.getAnnotation(LazyRefSerializer.Lazy.class).valueClass();
+					if (valueClass == Object.class) valueClass = null;
+					LazyRefSerializer serializer = new LazyRefSerializer();
+					serializer.setValueClass(valueClass);
+					fields[i].setSerializer(serializer);
+				} else {
+					throw new RuntimeException("LazyRefSerializer.Lazy should be used only with fields of type LazyRef, but field "
+						+ fields[i].getField().getDeclaringClass().getName() + "." + fields[i].getField().getName() + " is not.");
+				}
+			}
+
 		}
 	}
 
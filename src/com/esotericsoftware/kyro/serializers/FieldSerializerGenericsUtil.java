@@ -6,6 +6,7 @@ import static com.esotericsoftware.minlog.Log.trace;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
@@ -206,6 +207,30 @@ final class FieldSerializerGenericsUtil {
 		return cachedField;
 	}
 	
+	/** Returns true if the generic type of any field of the class or its superclasses refers to a type variable that is not
+	 * declared by the class. Such type variables are resolved using the generics scope of the outer serializers, so the fields
+	 * don't only depend on the generic type parameters of the class. */
+	static boolean hasOuterTypeVariables (Class type) {
+		for (Class nextClass = type; nextClass != null && nextClass != Object.class; nextClass = nextClass.getSuperclass()) {
+			for (Field field : nextClass.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) continue;
+				if (hasOuterTypeVariables(field.getGenericType(), type)) return true;
+			}
+		}
+		return false;
+	}
+
+	static private boolean hasOuterTypeVariables (Type genericType, Class type) {
+		if (genericType instanceof TypeVariable) return ((TypeVariable)genericType).getGenericDeclaration() != type;
+		if (genericType instanceof GenericArrayType)
+			return hasOuterTypeVariables(((GenericArrayType)genericType).getGenericComponentType(), type);
+		if (genericType instanceof ParameterizedType) {
+			for (Type actualType : ((ParameterizedType)genericType).getActualTypeArguments())
+				if (hasOuterTypeVariables(actualType, type)) return true;
+		}
+		return false;
+	}
+
 	/** Returns the first level of classes or interfaces for a generic type.
 	 * @return null if the specified type is not generic or its generic types are not classes. */
 	public static Class[] getGenerics (Type genericType, Kyro kyro) {
@@ -0,0 +1,465 @@
+package com.esotericsoftware.kyro.serializers;
+
+import static com.esotericsoftware.minlog.Log.*;
+import static com.esotericsoftware.reflectasm.shaded.org.objectweb.asm.Opcodes.*;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.WeakHashMap;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.Serializer;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.serializers.AsmCacheFields.AsmObjectField;
+import com.esotericsoftware.kyro.serializers.AsmCacheFields.AsmStringField;
+import com.esotericsoftware.kyro.serializers.UnsafeCacheFields.UnsafeObjectField;
+import com.esotericsoftware.kyro.serializers.UnsafeCacheFields.UnsafeRegionField;
+import com.esotericsoftware.kyro.serializers.UnsafeCacheFields.UnsafeStringField;
+import com.esotericsoftware.kyro.util.ObjectMap;
+import com.esotericsoftware.kyro.util.Util;
+import com.esotericsoftware.reflectasm.shaded.org.objectweb.asm.ClassWriter;
+import com.esotericsoftware.reflectasm.shaded.org.objectweb.asm.Label;
+import com.esotericsoftware.reflectasm.shaded.org.objectweb.asm.MethodVisitor;
+import com.esotericsoftware.reflectasm.shaded.org.objectweb.asm.Type;
+
+/** A {@link FieldSerializer} that generates a class with straight-line bytecode to read and write all the fields of a type,
+ * instead of looping over the {@link CachedField cached fields}. Primitive and String fields are read and written with direct
+ * field access and {@link Output}/{@link Input} calls, fields with a final type use a serializer bound when the class is generated,
+ * and all other fields call their cached field from a call site dedicated to that field. This lets the JIT inline the
+ * serialization of the whole object.
+ * <p>
+ * The bytes written are the same as {@link FieldSerializer}. Direct field access is only possible for public, non-final fields of
+ * public classes. Other fields use their cached field as usual. Types with generic type parameters, and all types on Android,
+ * use the {@link FieldSerializer} implementation.
+ * <p>
+ * The class is generated the first time an object is read or written and is generated again when the cached fields are rebuilt
+ * or a field is removed. Settings on individual cached fields must be changed before the serializer is first used. Generated
+ * classes are shared by serializers for the same type and field layout, and are only weakly referenced by the cache, so neither
+ * the type nor its class loader is kept from being unloaded. */
+public class GeneratedFieldSerializer<T> extends FieldSerializer<T> {
+	/** The generated class loader's parent is the type's class loader, so the generated classes would keep the weak keys from
+	 * being collected if they were not weakly referenced too. */
+	static private final WeakHashMap<Class, ObjectMap<String, WeakReference<Class>>> generatedClasses = new WeakHashMap();
+
+	private CachedField[] generatedFields;
+	private GeneratedFields generated;
+
+	public GeneratedFieldSerializer (Kyro kyro, Class type) {
+		super(kyro, type);
+	}
+
+	public void write (Kyro kyro, Output output, T object) {
+		GeneratedFields generated = getGenerated();
+		if (generated == null) {
+			super.write(kyro, output, object);
+			return;
+		}
+		generated.write(kyro, output, object);
+	}
+
+	public T read (Kyro kyro, Input input, Class<T> type) {
+		GeneratedFields generated = getGenerated();
+		if (generated == null) return super.read(kyro, input, type);
+		T object = create(kyro, input, type);
+		kyro.reference(object);
+		generated.read(kyro, input, object);
+		return object;
+	}
+
+	private GeneratedFields getGenerated () {
+		CachedField[] fields = getFields();
+		if (fields != generatedFields) {
+			generatedFields = fields;
+			generated = isGeneratable() ? newGenerated(fields) : null;
+		}
+		return generated;
+	}
+
+	private boolean isGeneratable () {
+		return !Util.isAndroid && isPublic(type) && type.getTypeParameters().length == 0 && getGenericsScope() == null;
+	}
+
+	private GeneratedFields newGenerated (CachedField[] fields) {
+		int n = fields.length;
+		int[] modes = new int[n];
+		Serializer[] serializers = new Serializer[n];
+		Class[] valueClasses = new Class[n];
+		StringBuilder key = new StringBuilder(64);
+		for (int i = 0; i < n; i++) {
+			CachedField cachedField = fields[i];
+			int mode = mode(cachedField);
+			if (mode == BOUND) {
+				Serializer serializer = cachedField.serializer;
+				if (serializer == null) serializer = kyro.getSerializer(cachedField.valueClass);
+				serializers[i] = serializer;
+				valueClasses[i] = cachedField.valueClass;
+			}
+			modes[i] = mode;
+			key.append(cachedField.field.getName()).append(':').append(mode);
+			if (cachedField.varIntsEnabled) key.append('v');
+			if (cachedField.canBeNull) key.append('n');
+			key.append(',');
+		}
+
+		Class generatedClass;
+		synchronized (generatedClasses) {
+			ObjectMap<String, WeakReference<Class>> classes = generatedClasses.get(type);
+			if (classes == null) {
+				classes = new ObjectMap();
+				generatedClasses.put(type, classes);
+			}
+			String layout = key.toString();
+			WeakReference<Class> reference = classes.get(layout);
+			generatedClass = reference == null ? null : reference.get();
+			if (generatedClass == null) {
+				// Each generated class has its own class loader, so the name of a collected class may be used again.
+				generatedClass = generateClass(fields, modes, classes.size);
+				classes.put(layout, new WeakReference(generatedClass));
+			}
+		}
+
+		try {
+			GeneratedFields generated = (GeneratedFields)generatedClass.newInstance();
+			generated.fields = fields;
+			generated.serializers = serializers;
+			generated.valueClasses = valueClasses;
+			return generated;
+		} catch (Exception ex) {
+			throw new KyroException("Error constructing generated serializer for class: " + type.getName(), ex);
+		}
+	}
+
+	static private final int DELEGATE = 0, DIRECT = 1, BOUND = 2;
+
+	private int mode (CachedField cachedField) {
+		Field field = cachedField.field;
+		int modifiers = field.getModifiers();
+		if (!Modifier.isPublic(modifiers) || Modifier.isFinal(modifiers) || !isPublic(field.getDeclaringClass()))
+			return DELEGATE;
+		Class fieldType = field.getType();
+		if (fieldType.isPrimitive()) return cachedField instanceof UnsafeRegionField ? DELEGATE : DIRECT;
+		if (cachedField instanceof AsmStringField || cachedField instanceof UnsafeStringField) return DIRECT;
+		Class fieldClass = cachedField.getClass();
+		if (fieldClass != ObjectField.class && fieldClass != AsmObjectField.class && fieldClass != UnsafeObjectField.class)
+			return DELEGATE;
+		if (cachedField.valueClass == null || ((ObjectField)cachedField).generics != null || !isPublic(fieldType))
+			return DELEGATE;
+		return BOUND;
+	}
+
+	static private boolean isPublic (Class type) {
+		while (type.isArray())
+			type = type.getComponentType();
+		return type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+	}
+
+	private Class generateClass (CachedField[] fields, int[] modes, int index) {
+		String className = type.getName() + "GeneratedSerializer" + (index == 0 ? "" : index);
+		if (className.startsWith("java.")) className = "kyro." + className;
+		String classNameInternal = className.replace('.', '/');
+		String typeInternal = Type.getInternalName(type);
+		String superInternal = Type.getInternalName(GeneratedFields.class);
+		String fieldsInternal = Type.getInternalName(GeneratedFieldSerializer.class) + "$GeneratedFields";
+
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_5, ACC_PUBLIC | ACC_SUPER, classNameInternal, null, superInternal, null);
+
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, superInternal, "<init>", "()V");
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// write (Kyro kyro, Output output, Object object): 4 = typed object, 5 = field value, 6 = serializer.
+		mv = cw.visitMethod(ACC_PUBLIC, "write", "(" + KYRO + OUTPUT + OBJECT + ")V", null, null);
+		mv.visitCode();
+		Label[] handlers = new Label[fields.length];
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitTypeInsn(CHECKCAST, typeInternal);
+		mv.visitVarInsn(ASTORE, 4);
+		for (int i = 0, n = fields.length; i < n; i++) {
+			CachedField cachedField = fields[i];
+			Field field = cachedField.field;
+			String owner = Type.getInternalName(field.getDeclaringClass());
+			String desc = Type.getDescriptor(field.getType());
+			Label end = insertTryStart(mv, modes[i], handlers, i);
+			switch (modes[i]) {
+			case DIRECT:
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitVarInsn(ALOAD, 4);
+				mv.visitFieldInsn(GETFIELD, owner, field.getName(), desc);
+				insertWritePrimitive(mv, field.getType(), cachedField.varIntsEnabled);
+				break;
+			case BOUND:
+				mv.visitVarInsn(ALOAD, 4);
+				mv.visitFieldInsn(GETFIELD, owner, field.getName(), desc);
+				mv.visitVarInsn(ASTORE, 5);
+				insertLoadSerializer(mv, fieldsInternal, i);
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitVarInsn(ALOAD, 5);
+				mv.visitVarInsn(ALOAD, 6);
+				if (cachedField.canBeNull)
+					mv.visitMethodInsn(INVOKEVIRTUAL, KYRO_INTERNAL, "writeObjectOrNull", "(" + OUTPUT + OBJECT + SERIALIZER + ")V");
+				else {
+					Label notNull = new Label();
+					mv.visitVarInsn(ALOAD, 5);
+					mv.visitJumpInsn(IFNONNULL, notNull);
+					mv.visitVarInsn(ALOAD, 0);
+					insertInt(mv, i);
+					mv.visitVarInsn(ALOAD, 3);
+					mv.visitMethodInsn(INVOKEVIRTUAL, fieldsInternal, "nullValue", "(I" + OBJECT + ")" + KYRO_EXCEPTION);
+					mv.visitInsn(ATHROW);
+					mv.visitLabel(notNull);
+					mv.visitMethodInsn(INVOKEVIRTUAL, KYRO_INTERNAL, "writeObject", "(" + OUTPUT + OBJECT + SERIALIZER + ")V");
+				}
+				break;
+			default:
+				insertLoadCachedField(mv, fieldsInternal, i);
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitMethodInsn(INVOKEVIRTUAL, CACHED_FIELD, "write", "(" + OUTPUT + OBJECT + ")V");
+			}
+			if (end != null) mv.visitLabel(end);
+		}
+		mv.visitInsn(RETURN);
+		insertHandlers(mv, fieldsInternal, handlers);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		// read (Kyro kyro, Input input, Object object): 4 = typed object, 6 = serializer.
+		mv = cw.visitMethod(ACC_PUBLIC, "read", "(" + KYRO + INPUT + OBJECT + ")V", null, null);
+		mv.visitCode();
+		handlers = new Label[fields.length];
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitTypeInsn(CHECKCAST, typeInternal);
+		mv.visitVarInsn(ASTORE, 4);
+		for (int i = 0, n = fields.length; i < n; i++) {
+			CachedField cachedField = fields[i];
+			Field field = cachedField.field;
+			String owner = Type.getInternalName(field.getDeclaringClass());
+			String desc = Type.getDescriptor(field.getType());
+			Label end = insertTryStart(mv, modes[i], handlers, i);
+			switch (modes[i]) {
+			case DIRECT:
+				mv.visitVarInsn(ALOAD, 4);
+				mv.visitVarInsn(ALOAD, 2);
+				insertReadPrimitive(mv, field.getType(), cachedField.varIntsEnabled);
+				mv.visitFieldInsn(PUTFIELD, owner, field.getName(), desc);
+				break;
+			case BOUND:
+				insertLoadSerializer(mv, fieldsInternal, i);
+				mv.visitVarInsn(ALOAD, 4);
+				mv.visitVarInsn(ALOAD, 1);
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitVarInsn(ALOAD, 0);
+				mv.visitFieldInsn(GETFIELD, fieldsInternal, "valueClasses", "[Ljava/lang/Class;");
+				insertInt(mv, i);
+				mv.visitInsn(AALOAD);
+				mv.visitVarInsn(ALOAD, 6);
+				mv.visitMethodInsn(INVOKEVIRTUAL, KYRO_INTERNAL, cachedField.canBeNull ? "readObjectOrNull" : "readObject", "("
+					+ INPUT + "Ljava/lang/Class;" + SERIALIZER + ")" + OBJECT);
+				mv.visitTypeInsn(CHECKCAST, Type.getInternalName(field.getType()));
+				mv.visitFieldInsn(PUTFIELD, owner, field.getName(), desc);
+				break;
+			default:
+				insertLoadCachedField(mv, fieldsInternal, i);
+				mv.visitVarInsn(ALOAD, 2);
+				mv.visitVarInsn(ALOAD, 3);
+				mv.visitMethodInsn(INVOKEVIRTUAL, CACHED_FIELD, "read", "(" + INPUT + OBJECT + ")V");
+			}
+			if (end != null) mv.visitLabel(end);
+		}
+		mv.visitInsn(RETURN);
+		insertHandlers(mv, fieldsInternal, handlers);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+		cw.visitEnd();
+
+		if (TRACE) trace("kyro", "Generated serializer class: " + className);
+		ClassLoader parent = type.getClassLoader();
+		if (parent == null) parent = GeneratedFieldSerializer.class.getClassLoader();
+		return new GeneratedClassLoader(parent).define(className, cw.toByteArray());
+	}
+
+	static private final String KYRO_INTERNAL = Type.getInternalName(Kyro.class);
+	static private final String KYRO = Type.getDescriptor(Kyro.class);
+	static private final String KYRO_EXCEPTION = Type.getDescriptor(KyroException.class);
+	static private final String OUTPUT = Type.getDescriptor(Output.class);
+	static private final String INPUT = Type.getDescriptor(Input.class);
+	static private final String OBJECT = "Ljava/lang/Object;";
+	static private final String SERIALIZER = Type.getDescriptor(Serializer.class);
+	static private final String CACHED_FIELD = Type.getInternalName(CachedField.class);
+
+	static private void insertLoadCachedField (MethodVisitor mv, String fieldsInternal, int index) {
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, fieldsInternal, "fields", "[" + Type.getDescriptor(CachedField.class));
+		insertInt(mv, index);
+		mv.visitInsn(AALOAD);
+	}
+
+	/** Stores the serializer in local 6 and calls {@link Serializer#setGenerics(Kyro, Class[])} with null, as {@link ObjectField}
+	 * does for fields without generics. */
+	static private void insertLoadSerializer (MethodVisitor mv, String fieldsInternal, int index) {
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, fieldsInternal, "serializers", "[" + SERIALIZER);
+		insertInt(mv, index);
+		mv.visitInsn(AALOAD);
+		mv.visitVarInsn(ASTORE, 6);
+		mv.visitVarInsn(ALOAD, 6);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitInsn(ACONST_NULL);
+		mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(Serializer.class), "setGenerics", "(" + KYRO
+			+ "[Ljava/lang/Class;)V");
+	}
+
+	/** Starts a try block around a field that the generated code reads or writes without calling its cached field.
+	 * @return The label that ends the try block, or null. */
+	static private Label insertTryStart (MethodVisitor mv, int mode, Label[] handlers, int index) {
+		if (mode == DELEGATE) return null;
+		Label start = new Label(), end = new Label();
+		handlers[index] = new Label();
+		mv.visitTryCatchBlock(start, end, handlers[index], "java/lang/RuntimeException");
+		mv.visitLabel(start);
+		return end;
+	}
+
+	/** Throws the exception with the field added to the serialization trace, as {@link ObjectField} does. */
+	static private void insertHandlers (MethodVisitor mv, String fieldsInternal, Label[] handlers) {
+		for (int i = 0, n = handlers.length; i < n; i++) {
+			if (handlers[i] == null) continue;
+			mv.visitLabel(handlers[i]);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitInsn(SWAP);
+			insertInt(mv, i);
+			mv.visitVarInsn(ALOAD, 3);
+			mv.visitMethodInsn(INVOKEVIRTUAL, fieldsInternal, "fieldException", "(Ljava/lang/RuntimeException;I" + OBJECT + ")"
+				+ KYRO_EXCEPTION);
+			mv.visitInsn(ATHROW);
+		}
+	}
+
+	static private void insertInt (MethodVisitor mv, int value) {
+		if (value <= 5)
+			mv.visitInsn(ICONST_0 + value);
+		else if (value <= Byte.MAX_VALUE)
+			mv.visitIntInsn(BIPUSH, value);
+		else if (value <= Short.MAX_VALUE)
+			mv.visitIntInsn(SIPUSH, value);
+		else
+			mv.visitLdcInsn(value);
+	}
+
+	/** Writes the value on the stack the same way as the cached field for the type. */
+	static private void insertWritePrimitive (MethodVisitor mv, Class type, boolean varIntsEnabled) {
+		String output = Type.getInternalName(Output.class);
+		if (type == int.class) {
+			if (varIntsEnabled) {
+				mv.visitInsn(ICONST_0);
+				mv.visitMethodInsn(INVOKEVIRTUAL, output, "writeInt", "(IZ)I");
+				mv.visitInsn(POP);
+			} else
+				mv.visitMethodInsn(INVOKEVIRTUAL, output, "writeInt", "(I)V");
+		} else if (type == long.class) {
+			if (varIntsEnabled) {
+				mv.visitInsn(ICONST_0);
+				mv.visitMethodInsn(INVOKEVIRTUAL, output, "writeLong", "(JZ)I");
+				mv.visitInsn(POP);
+			} else
+				mv.visitMethodInsn(INVOKEVIRTUAL, output, "writeLong", "(J)V");
+		} else if (type == float.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, output, "writeFloat", "(F)V");
+		else if (type == double.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, output, "writeDouble", "(D)V");
+		else if (type == short.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, output, "writeShort", "(I)V");
+		else if (type == byte.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, output, "writeByte", "(B)V");
+		else if (type == char.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, output, "writeChar", "(C)V");
+		else if (type == boolean.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, output, "writeBoolean", "(Z)V");
+		else if (type == String.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, output, "writeString", "(Ljava/lang/String;)V");
+		else
+			throw new KyroException("Unexpected field type: " + type.getName());
+	}
+
+	/** Reads a value onto the stack the same way as the cached field for the type. */
+	static private void insertReadPrimitive (MethodVisitor mv, Class type, boolean varIntsEnabled) {
+		String input = Type.getInternalName(Input.class);
+		if (type == int.class) {
+			if (varIntsEnabled) {
+				mv.visitInsn(ICONST_0);
+				mv.visitMethodInsn(INVOKEVIRTUAL, input, "readInt", "(Z)I");
+			} else
+				mv.visitMethodInsn(INVOKEVIRTUAL, input, "readInt", "()I");
+		} else if (type == long.class) {
+			if (varIntsEnabled) {
+				mv.visitInsn(ICONST_0);
+				mv.visitMethodInsn(INVOKEVIRTUAL, input, "readLong", "(Z)J");
+			} else
+				mv.visitMethodInsn(INVOKEVIRTUAL, input, "readLong", "()J");
+		} else if (type == float.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, input, "readFloat", "()F");
+		else if (type == double.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, input, "readDouble", "()D");
+		else if (type == short.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, input, "readShort", "()S");
+		else if (type == byte.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, input, "readByte", "()B");
+		else if (type == char.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, input, "readChar", "()C");
+		else if (type == boolean.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, input, "readBoolean", "()Z");
+		else if (type == String.class)
+			mv.visitMethodInsn(INVOKEVIRTUAL, input, "readString", "()Ljava/lang/String;");
+		else
+			throw new KyroException("Unexpected field type: " + type.getName());
+	}
+
+	/** Base class for the generated classes. This is public only so generated classes, which are defined in a separate class
+	 * loader, can extend it. */
+	static public abstract class GeneratedFields {
+		public CachedField[] fields;
+		public Serializer[] serializers;
+		public Class[] valueClasses;
+
+		abstract public void write (Kyro kyro, Output output, Object object);
+
+		abstract public void read (Kyro kyro, Input input, Object object);
+
+		public KyroException nullValue (int index, Object object) {
+			return new KyroException("Field value is null but canBeNull is false: " + fields[index] + " ("
+				+ object.getClass().getName() + ")");
+		}
+
+		public KyroException fieldException (RuntimeException runtimeEx, int index, Object object) {
+			KyroException ex = runtimeEx instanceof KyroException ? (KyroException)runtimeEx : new KyroException(runtimeEx);
+			ex.addTrace(fields[index] + " (" + object.getClass().getName() + ")");
+			return ex;
+		}
+	}
+
+	/** Defines generated classes. Kyro classes are resolved from the class loader that loaded Kyro, everything else from the class
+	 * loader of the serialized type. */
+	static class GeneratedClassLoader extends ClassLoader {
+		GeneratedClassLoader (ClassLoader parent) {
+			super(parent);
+		}
+
+		protected synchronized Class<?> loadClass (String name, boolean resolve) throws ClassNotFoundException {
+			if (name.startsWith("com.esotericsoftware.kyro.")) return GeneratedFieldSerializer.class.getClassLoader().loadClass(name);
+			return super.loadClass(name, resolve);
+		}
+
+		Class define (String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+}
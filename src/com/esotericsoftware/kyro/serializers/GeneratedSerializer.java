@@ -0,0 +1,125 @@
+package com.esotericsoftware.kyro.serializers;
+
+import static com.esotericsoftware.minlog.Log.*;
+
+import com.esotericsoftware.kyro.GenerateSerializer;
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.Registration;
+import com.esotericsoftware.kyro.Serializer;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+
+/** Base class for the serializers generated at build time by the kyro annotation processor for classes annotated with
+ * {@link GenerateSerializer}. The generated code reads and writes primitive fields directly and uses
+ * {@link #writeField(Output, Object, int, boolean)} and {@link #readField(Input, int, boolean)} for all other fields, which write
+ * the same bytes as the cached fields of {@link FieldSerializer}. No reflection is used to analyze the class.
+ * <p>
+ * The index passed to the field methods refers to the arrays given to the constructor, which only describe the fields that are
+ * not primitive. */
+public abstract class GeneratedSerializer<T> extends Serializer<T> {
+	protected final Kyro kyro;
+	protected final Class type;
+	private final String[] names;
+	private final Class[] valueClasses;
+	private final Class[][] generics;
+	private final Serializer[] serializers;
+
+	/** @param names The name of each non-primitive field, used for error messages.
+	 * @param types The declared class of each non-primitive field. If the class is {@link Kyro#isFinal(Class) final}, the
+	 *           serializer for the class is always used, otherwise the concrete class of the field value is written.
+	 * @param generics The generic type parameters of each non-primitive field, each may be null. */
+	protected GeneratedSerializer (Kyro kyro, Class type, String[] names, Class[] types, Class[][] generics) {
+		if (kyro == null) throw new IllegalArgumentException("kyro cannot be null.");
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		this.kyro = kyro;
+		this.type = type;
+		this.names = names;
+		this.generics = generics;
+		int n = types.length;
+		valueClasses = new Class[n];
+		serializers = new Serializer[n];
+		for (int i = 0; i < n; i++)
+			if (kyro.isFinal(types[i])) valueClasses[i] = types[i];
+	}
+
+	/** Writes the value of a non-primitive field. */
+	protected final void writeField (Output output, Object value, int index, boolean canBeNull) {
+		if (TRACE) trace("kyro", "Write field: " + names[index] + " (" + type.getName() + ")" + " pos=" + output.position());
+		try {
+			Class valueClass = valueClasses[index];
+			if (valueClass == null) {
+				// The concrete type of the field is unknown, write the class first.
+				if (value == null) {
+					kyro.writeClass(output, null);
+					return;
+				}
+				Serializer serializer = kyro.writeClass(output, value.getClass()).getSerializer();
+				serializer.setGenerics(kyro, generics[index]);
+				kyro.writeObject(output, value, serializer);
+			} else {
+				// The concrete type of the field is known, always use the same serializer.
+				Serializer serializer = serializers[index];
+				if (serializer == null) serializers[index] = serializer = kyro.getSerializer(valueClass);
+				serializer.setGenerics(kyro, generics[index]);
+				if (canBeNull)
+					kyro.writeObjectOrNull(output, value, serializer);
+				else {
+					if (value == null) {
+						throw new KyroException("Field value is null but canBeNull is false: " + names[index] + " ("
+							+ type.getName() + ")");
+					}
+					kyro.writeObject(output, value, serializer);
+				}
+			}
+		} catch (KyroException ex) {
+			ex.addTrace(names[index] + " (" + type.getName() + ")");
+			throw ex;
+		} catch (RuntimeException runtimeEx) {
+			KyroException ex = new KyroException(runtimeEx);
+			ex.addTrace(names[index] + " (" + type.getName() + ")");
+			throw ex;
+		}
+	}
+
+	/** Reads the value of a non-primitive field. */
+	protected final Object readField (Input input, int index, boolean canBeNull) {
+		if (TRACE) trace("kyro", "Read field: " + names[index] + " (" + type.getName() + ")" + " pos=" + input.position());
+		try {
+			Class valueClass = valueClasses[index];
+			if (valueClass == null) {
+				Registration registration = kyro.readClass(input);
+				if (registration == null) return null;
+				Serializer serializer = registration.getSerializer();
+				serializer.setGenerics(kyro, generics[index]);
+				return kyro.readObject(input, registration.getType(), serializer);
+			}
+			Serializer serializer = serializers[index];
+			if (serializer == null) serializers[index] = serializer = kyro.getSerializer(valueClass);
+			serializer.setGenerics(kyro, generics[index]);
+			if (canBeNull) return kyro.readObjectOrNull(input, valueClass, serializer);
+			return kyro.readObject(input, valueClass, serializer);
+		} catch (KyroException ex) {
+			ex.addTrace(names[index] + " (" + type.getName() + ")");
+			throw ex;
+		} catch (RuntimeException runtimeEx) {
+			KyroException ex = new KyroException(runtimeEx);
+			ex.addTrace(names[index] + " (" + type.getName() + ")");
+			throw ex;
+		}
+	}
+
+	/** Returns the exception thrown when a tag is read that is not known to a serializer in the {@link TaggedFieldSerializer}
+	 * format. */
+	protected final KyroException unknownTag (int tag) {
+		return new KyroException("Unknown field tag: " + tag + " (" + type.getName() + ")");
+	}
+
+	public Class getType () {
+		return type;
+	}
+
+	public Kyro getKryo () {
+		return kyro;
+	}
+}
@@ -0,0 +1,63 @@
+package com.esotericsoftware.kyro.serializers;
+
+import com.esotericsoftware.kyro.DefaultSerializer;
+import com.esotericsoftware.kyro.Kyro;
+
+/** Holds a value that is only deserialized when it is first accessed. A LazyRef is written by {@link LazyRefSerializer} as the
+ * length of the value's bytes followed by the bytes. When read, the bytes are kept until {@link #get(Kyro)} is called, so a large
+ * value in a field that is rarely used costs only the bytes being skipped.
+ * @see LazyRefSerializer.Lazy */
+@DefaultSerializer(LazyRefSerializer.class)
+public final class LazyRef<T> {
+	T value;
+
+	// Set while the value has not been deserialized.
+	LazyRefSerializer serializer;
+	byte[] bytes;
+	int offset, length;
+
+	/** Creates a LazyRef with a null value. */
+	public LazyRef () {
+	}
+
+	public LazyRef (T value) {
+		this.value = value;
+	}
+
+	/** Returns the value, deserializing it with the specified Kyro if this is the first access after the LazyRef was read.
+	 * @param kyro Must be configured the same as the Kyro that read the LazyRef. */
+	public T get (Kyro kyro) {
+		if (serializer != null) {
+			if (kyro == null) throw new IllegalArgumentException("kyro cannot be null.");
+			value = (T)serializer.readValue(kyro, this);
+			discardBytes();
+		}
+		return value;
+	}
+
+	/** Sets the value, discarding any bytes that have not been deserialized. */
+	public void set (T value) {
+		this.value = value;
+		discardBytes();
+	}
+
+	/** Returns false if the LazyRef was read and its value has not been deserialized yet. */
+	public boolean isResolved () {
+		return serializer == null;
+	}
+
+	/** Returns the number of bytes that have not been deserialized yet, or -1 if the value is {@link #isResolved() resolved}. */
+	public int getLength () {
+		return serializer == null ? -1 : length;
+	}
+
+	private void discardBytes () {
+		serializer = null;
+		bytes = null;
+	}
+
+	public String toString () {
+		if (serializer != null) return "LazyRef(" + length + " bytes)";
+		return "LazyRef(" + value + ")";
+	}
+}
@@ -0,0 +1,169 @@
+package com.esotericsoftware.kyro.serializers;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.ReferenceResolver;
+import com.esotericsoftware.kyro.Serializer;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.util.DefaultClassResolver;
+import com.esotericsoftware.kyro.util.MapReferenceResolver;
+
+/** Serializes a {@link LazyRef} as the number of bytes of its value followed by the value. When read, the bytes of the value are
+ * copied and the value is not deserialized until {@link LazyRef#get(Kyro)} is called. A LazyRef that was read and not yet
+ * deserialized is written by copying its bytes.
+ * <p>
+ * The value is written as a {@link Kyro#beginNestedGraph() nested object graph}, so its bytes can be read on their own: objects
+ * in the value are never written as references to objects outside it, and per graph state such as unregistered class names and
+ * the {@link Kyro#getGraphContext() graph context} is not shared with the outer graph. If the Kyro's class resolver is not a
+ * {@link DefaultClassResolver}, its unregistered class names can't be set aside, so every class in the value must be
+ * registered.
+ * @see Lazy */
+public class LazyRefSerializer extends Serializer<LazyRef> {
+	Class valueClass;
+	private boolean copyBytes = true;
+	private Output scratch;
+	private ReferenceResolver referenceResolver;
+
+	/** @param valueClass The concrete class of the values. This saves writing the class of each value. If null, the class is
+	 *           written with each value. Default is null. */
+	public void setValueClass (Class valueClass) {
+		this.valueClass = valueClass;
+	}
+
+	/** If false and the Input reads from a byte array rather than an InputStream, the bytes of a value are not copied when read
+	 * and the LazyRef refers to the Input's buffer. The buffer must then not be modified or reused, for example by a pooled or
+	 * resumable Input, until the value has been deserialized. Default is true. */
+	public void setCopyBytes (boolean copyBytes) {
+		this.copyBytes = copyBytes;
+	}
+
+	public void write (Kyro kyro, Output output, LazyRef ref) {
+		if (ref.serializer != null && ref.serializer.valueClass == valueClass) {
+			output.writeVarInt(ref.length, true);
+			output.writeBytes(ref.bytes, ref.offset, ref.length);
+			return;
+		}
+		Object value = ref.get(kyro);
+
+		// The scratch output is taken while in use, so a LazyRef in the value gets its own.
+		Output scratch = this.scratch;
+		if (scratch == null)
+			scratch = new Output(256, -1);
+		else
+			this.scratch = null;
+		try {
+			ReferenceResolver outerResolver = isolate(kyro);
+			Object outerGraph = kyro.beginNestedGraph();
+			boolean registrationRequired = requireRegistration(kyro);
+			try {
+				if (valueClass == null)
+					kyro.writeClassAndObject(scratch, value);
+				else
+					kyro.writeObjectOrNull(scratch, value, valueClass);
+			} finally {
+				kyro.setRegistrationRequired(registrationRequired);
+				kyro.endNestedGraph(outerGraph);
+				restore(kyro, outerResolver);
+			}
+			output.writeVarInt(scratch.position(), true);
+			output.writeBytes(scratch.getBuffer(), 0, scratch.position());
+		} finally {
+			scratch.clear();
+			this.scratch = scratch;
+		}
+	}
+
+	public LazyRef read (Kyro kyro, Input input, Class<LazyRef> type) {
+		int length = input.readVarInt(true);
+		LazyRef ref = new LazyRef();
+		byte[] buffer = input.getBuffer();
+		if (!copyBytes && buffer != null && input.getInputStream() == null && input.limit() - input.position() >= length) {
+			ref.bytes = buffer;
+			ref.offset = input.position();
+			input.skip(length);
+		} else
+			ref.bytes = input.readBytes(length);
+		ref.length = length;
+		ref.serializer = this;
+		return ref;
+	}
+
+	public LazyRef copy (Kyro kyro, LazyRef original) {
+		if (original.serializer == null) return new LazyRef(kyro.copy(original.value));
+		LazyRef copy = new LazyRef();
+		copy.bytes = new byte[original.length];
+		System.arraycopy(original.bytes, original.offset, copy.bytes, 0, original.length);
+		copy.length = original.length;
+		copy.serializer = original.serializer;
+		return copy;
+	}
+
+	Object readValue (Kyro kyro, LazyRef ref) {
+		Input input = new Input(ref.bytes, ref.offset, ref.length);
+		ReferenceResolver outerResolver = isolate(kyro);
+		Object outerGraph = kyro.beginNestedGraph();
+		boolean registrationRequired = requireRegistration(kyro);
+		try {
+			Object value;
+			if (valueClass == null)
+				value = kyro.readClassAndObject(input);
+			else
+				value = kyro.readObjectOrNull(input, valueClass);
+			if (input.position() != ref.offset + ref.length)
+				throw new KyroException("Lazy value was not fully read: " + (input.position() - ref.offset) + " of " + ref.length
+					+ " bytes");
+			return value;
+		} finally {
+			kyro.setRegistrationRequired(registrationRequired);
+			kyro.endNestedGraph(outerGraph);
+			restore(kyro, outerResolver);
+		}
+	}
+
+	/** Requires registration if the class resolver's unregistered class names were not set aside for the nested graph.
+	 * @return The previous setting. */
+	private boolean requireRegistration (Kyro kyro) {
+		boolean registrationRequired = kyro.isRegistrationRequired();
+		if (!(kyro.getClassResolver() instanceof DefaultClassResolver)) kyro.setRegistrationRequired(true);
+		return registrationRequired;
+	}
+
+	/** Replaces the Kyro's reference resolver with an empty one, so the value doesn't share references with the outer graph.
+	 * @return The replaced resolver, or null if references are disabled. */
+	private ReferenceResolver isolate (Kyro kyro) {
+		if (!kyro.getReferences()) return null;
+		ReferenceResolver outerResolver = kyro.getReferenceResolver();
+		ReferenceResolver resolver = referenceResolver;
+		if (resolver == null) {
+			resolver = new MapReferenceResolver();
+			resolver.setKryo(kyro);
+		} else
+			referenceResolver = null;
+		kyro.setReferenceResolver(resolver);
+		return outerResolver;
+	}
+
+	private void restore (Kyro kyro, ReferenceResolver outerResolver) {
+		if (outerResolver == null) return;
+		ReferenceResolver resolver = kyro.getReferenceResolver();
+		resolver.reset();
+		kyro.setReferenceResolver(outerResolver);
+		referenceResolver = resolver;
+	}
+
+	/** Indicates a {@link LazyRef} field is serialized with a {@link LazyRefSerializer} for values of the specified class. This
+	 * saves writing the class of each value. Without this annotation, a LazyRef field is serialized with a LazyRefSerializer
+	 * that writes the class of each value. */
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.FIELD)
+	public @interface Lazy {
+		/** The concrete class of the values of the field, or Object.class if the class is written with each value. */
+		Class valueClass() default Object.class;
+	}
+}
@@ -146,6 +146,45 @@ public class MapSerializer extends Serializer<Map> {
 		return map;
 	}
 
+	/** Skips the entries without creating the map. Subclasses that override {@link #create(Kyro, Input, Class)} to read bytes must
+	 * also override this method to skip them. */
+	public void skip (Kyro kyro, Input input, Class<Map> type) {
+		int length = input.readInt(true);
+
+		Class keyClass = this.keyClass;
+		Class valueClass = this.valueClass;
+
+		Serializer keySerializer = this.keySerializer;
+		if (keyGenericType != null) {
+			keyClass = keyGenericType;
+			if (keySerializer == null) keySerializer = kyro.getSerializer(keyClass);
+			keyGenericType = null;
+		}
+		Serializer valueSerializer = this.valueSerializer;
+		if (valueGenericType != null) {
+			valueClass = valueGenericType;
+			if (valueSerializer == null) valueSerializer = kyro.getSerializer(valueClass);
+			valueGenericType = null;
+		}
+
+		for (int i = 0; i < length; i++) {
+			if (keySerializer != null) {
+				if (keysCanBeNull)
+					kyro.skipObjectOrNull(input, keyClass, keySerializer);
+				else
+					kyro.skipObject(input, keyClass, keySerializer);
+			} else
+				kyro.skipClassAndObject(input);
+			if (valueSerializer != null) {
+				if (valuesCanBeNull)
+					kyro.skipObjectOrNull(input, valueClass, valueSerializer);
+				else
+					kyro.skipObject(input, valueClass, valueSerializer);
+			} else
+				kyro.skipClassAndObject(input);
+		}
+	}
+
 	protected Map createCopy (Kyro kyro, Map original) {
 		return kyro.newInstance(original.getClass());
 	}
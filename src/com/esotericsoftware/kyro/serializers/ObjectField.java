@@ -131,6 +131,79 @@ class ObjectField extends CachedField {
 		}
 	}
 
+	public void skip (Input input) {
+		if (field.getType().isPrimitive()) {
+			super.skip(input);
+			return;
+		}
+		try {
+			if (TRACE) trace("kyro", "Skip field: " + this + " (" + type.getName() + ")" + " pos=" + input.position());
+
+			Class concreteType = valueClass;
+			Serializer serializer = this.serializer;
+			if (concreteType == null) {
+				Registration registration = kyro.readClass(input);
+				if (registration == null) return;
+				concreteType = registration.getType();
+				if (serializer == null) serializer = registration.getSerializer();
+				serializer.setGenerics(kyro, generics);
+				kyro.skipObject(input, concreteType, serializer);
+			} else {
+				if (serializer == null) this.serializer = serializer = kyro.getSerializer(valueClass);
+				serializer.setGenerics(kyro, generics);
+				if (canBeNull)
+					kyro.skipObjectOrNull(input, concreteType, serializer);
+				else
+					kyro.skipObject(input, concreteType, serializer);
+			}
+		} catch (KyroException ex) {
+			ex.addTrace(this + " (" + type.getName() + ")");
+			throw ex;
+		} catch (RuntimeException runtimeEx) {
+			KyroException ex = new KyroException(runtimeEx);
+			ex.addTrace(this + " (" + type.getName() + ")");
+			throw ex;
+		}
+	}
+
+	public void readProjected (Input input, Object object, FieldProjection projection) {
+		try {
+			if (TRACE) trace("kyro", "Read field: " + this + " (" + type.getName() + ")" + " pos=" + input.position());
+			Object value;
+
+			Class concreteType = valueClass;
+			Serializer serializer = this.serializer;
+			if (concreteType == null) {
+				Registration registration = kyro.readClass(input);
+				if (registration == null)
+					value = null;
+				else {
+					if (serializer == null) serializer = registration.getSerializer();
+					serializer.setGenerics(kyro, generics);
+					value = kyro.readProjected(input, registration.getType(), serializer, projection);
+				}
+			} else {
+				if (serializer == null) this.serializer = serializer = kyro.getSerializer(valueClass);
+				serializer.setGenerics(kyro, generics);
+				if (canBeNull)
+					value = kyro.readProjectedOrNull(input, concreteType, serializer, projection);
+				else
+					value = kyro.readProjected(input, concreteType, serializer, projection);
+			}
+
+			setField(object, value);
+		} catch (IllegalAccessException ex) {
+			throw new KyroException("Error accessing field: " + this + " (" + type.getName() + ")", ex);
+		} catch (KyroException ex) {
+			ex.addTrace(this + " (" + type.getName() + ")");
+			throw ex;
+		} catch (RuntimeException runtimeEx) {
+			KyroException ex = new KyroException(runtimeEx);
+			ex.addTrace(this + " (" + type.getName() + ")");
+			throw ex;
+		}
+	}
+
 	public void copy (Object original, Object copy) {
 		try {
 			if (accessIndex != -1) {
@@ -0,0 +1,19 @@
+package com.esotericsoftware.kyro.serializers;
+
+import com.esotericsoftware.kyro.KyroException;
+
+/** Assigns IDs to the field names written by a {@link CompatibleFieldSerializer}, so the names don't need to be written with the
+ * objects. The writer and the reader must use registries that map each ID to the same schema. Implementations must be thread
+ * safe if used by serializers of more than one Kyro instance.
+ * @see CompatibleFieldSerializer#setSchemaRegistry(SchemaRegistry)
+ * @see com.esotericsoftware.kyro.util.MapSchemaRegistry
+ * @see com.esotericsoftware.kyro.util.FileSchemaRegistry */
+public interface SchemaRegistry {
+	/** Returns the ID of the schema with the specified field names for the class, registering the schema if it is new.
+	 * @return An ID >= 0. */
+	public int getId (Class type, String[] fieldNames);
+
+	/** Returns the field names of the schema with the specified ID. The returned array must not be modified.
+	 * @throws KyroException if the ID is not registered or is registered for a different class. */
+	public String[] getFieldNames (Class type, int id);
+}
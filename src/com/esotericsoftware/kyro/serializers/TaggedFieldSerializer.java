@@ -98,6 +98,37 @@ public class TaggedFieldSerializer<T> extends FieldSerializer<T> {
 		return object;
 	}
 
+	public void skip (Kyro kyro, Input input, Class<T> type) {
+		if (kyro.getReferences()) {
+			read(kyro, input, type);
+			return;
+		}
+		int fieldCount = input.readVarInt(true);
+		CachedField[] fields = getFields();
+		for (int i = 0, n = fieldCount; i < n; i++)
+			fields[indexOf(input.readVarInt(true))].skip(input);
+	}
+
+	public T readProjected (Kyro kyro, Input input, Class<T> type, FieldProjection projection) {
+		T object = create(kyro, input, type);
+		kyro.reference(object);
+		int fieldCount = input.readVarInt(true);
+		CachedField[] fields = getFields();
+		FieldProjection[] selected = select(fields, projection, true);
+		for (int i = 0, n = fieldCount; i < n; i++) {
+			int index = indexOf(input.readVarInt(true));
+			readProjected(fields[index], selected[index], input, object);
+		}
+		return object;
+	}
+
+	private int indexOf (int tag) {
+		int[] tags = this.tags;
+		for (int i = 0, n = tags.length; i < n; i++)
+			if (tags[i] == tag) return i;
+		throw new KyroException("Unknown field tag: " + tag + " (" + getType().getName() + ")");
+	}
+
 	/** If true, this field will not be serialized. */
 	@Retention(RetentionPolicy.RUNTIME)
 	@Target(ElementType.FIELD)
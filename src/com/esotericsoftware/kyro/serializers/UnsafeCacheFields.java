@@ -267,6 +267,10 @@ class UnsafeCacheFields {
 			}
 		}
 
+		public void skip (Input input) {
+			input.skip((int)len);
+		}
+
 		public void copy (Object original, Object copy) {
 			unsafe().copyMemory(original, offset, copy, offset, len);
 		}
@@ -2,6 +2,7 @@ package com.esotericsoftware.kyro.serializers;
 
 import java.lang.reflect.Field;
 
+import com.esotericsoftware.kyro.serializers.DefaultSerializers.StringSerializer;
 import com.esotericsoftware.kyro.serializers.FieldSerializer.CachedField;
 import com.esotericsoftware.kyro.serializers.FieldSerializer.CachedFieldFactory;
 import com.esotericsoftware.kyro.serializers.UnsafeCacheFields.*;
@@ -31,7 +32,8 @@ class UnsafeCachedFieldFactory implements CachedFieldFactory {
 				cachedField = new UnsafeObjectField(ser);
 			}
 		} else if (fieldClass == String.class
-			&& (!ser.kyro.getReferences() || !ser.kyro.getReferenceResolver().useReferences(String.class))) {
+			&& (!ser.kyro.getReferences() || !ser.kyro.getReferenceResolver().useReferences(String.class))
+			&& ser.kyro.getSerializer(String.class).getClass() == StringSerializer.class) {
 			cachedField = new UnsafeStringField(field);
 		} else {
 			cachedField = new UnsafeObjectField(ser);
@@ -0,0 +1,50 @@
+package com.esotericsoftware.kyro.util;
+
+import java.util.Arrays;
+
+/** An array of objects stored in fixed size chunks, so growing it never copies the elements. {@link #clear()} only nulls the
+ * elements that were used and keeps the chunks, so an array that is filled and cleared many times allocates only when it grows
+ * beyond its largest size so far. Bounds are not checked beyond the array access itself.
+ * @see ChunkedReferenceResolver */
+public class ChunkedObjectArray {
+	static private final int CHUNK_SHIFT = 10;
+	static private final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	static private final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private Object[][] chunks = new Object[8][];
+	public int size;
+
+	/** Adds a null element.
+	 * @return The index of the element. */
+	public int add () {
+		int index = size++;
+		if ((index & CHUNK_MASK) == 0) {
+			int chunk = index >>> CHUNK_SHIFT;
+			if (chunk == chunks.length) {
+				Object[][] newChunks = new Object[chunk << 1][];
+				System.arraycopy(chunks, 0, newChunks, 0, chunk);
+				chunks = newChunks;
+			}
+			if (chunks[chunk] == null) chunks[chunk] = new Object[CHUNK_SIZE];
+		}
+		return index;
+	}
+
+	public void set (int index, Object value) {
+		chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = value;
+	}
+
+	public Object get (int index) {
+		return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+	}
+
+	/** Removes all elements, keeping the chunks. */
+	public void clear () {
+		Object[][] chunks = this.chunks;
+		for (int i = 0, n = size >>> CHUNK_SHIFT; i < n; i++)
+			Arrays.fill(chunks[i], null);
+		int remaining = size & CHUNK_MASK;
+		if (remaining > 0) Arrays.fill(chunks[size >>> CHUNK_SHIFT], 0, remaining, null);
+		size = 0;
+	}
+}
@@ -0,0 +1,55 @@
+package com.esotericsoftware.kyro.util;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.ReferenceResolver;
+
+/** Tracks objects like {@link MapReferenceResolver}, but keeps the objects that have been read in a {@link ChunkedObjectArray}
+ * instead of an ArrayList. Reserving an ID doesn't add a null that is then replaced, growing adds a chunk without copying, and
+ * {@link #reset()} nulls only the entries that were used and keeps the chunks for the next graph. This makes reading graphs where
+ * most fields are references, such as linked lists and trees with parent pointers, faster.
+ * <p>
+ * Instances of this class must not be shared by Kyro instances. */
+public class ChunkedReferenceResolver implements ReferenceResolver {
+	protected Kyro kyro;
+	protected final IdentityObjectIntMap writtenObjects = new IdentityObjectIntMap();
+	protected final ChunkedObjectArray readObjects = new ChunkedObjectArray();
+
+	public void setKryo (Kyro kyro) {
+		this.kyro = kyro;
+	}
+
+	public int addWrittenObject (Object object) {
+		int id = writtenObjects.size;
+		writtenObjects.put(object, id);
+		return id;
+	}
+
+	public int getWrittenId (Object object) {
+		return writtenObjects.get(object, -1);
+	}
+
+	public int nextReadId (Class type) {
+		return readObjects.add();
+	}
+
+	public void setReadObject (int id, Object object) {
+		readObjects.set(id, object);
+	}
+
+	/** @throws KyroException if no object has been read for the ID. */
+	public Object getReadObject (Class type, int id) {
+		if (id < 0 || id >= readObjects.size) throw new KyroException("Invalid reference ID: " + id);
+		return readObjects.get(id);
+	}
+
+	public void reset () {
+		readObjects.clear();
+		writtenObjects.clear();
+	}
+
+	/** Returns false for all primitive wrappers. */
+	public boolean useReferences (Class type) {
+		return !Util.isWrapperClass(type);
+	}
+}
@@ -0,0 +1,192 @@
+package com.esotericsoftware.kyro.util;
+
+import static com.esotericsoftware.minlog.Log.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+
+/** A list of class names known ahead of time, so a {@link ClassDictionaryResolver} can write unregistered classes as a small
+ * dictionary ID instead of writing the class name in each object graph. The dictionary is built once, from the classes seen
+ * during a training run ({@link ClassDictionaryResolver#getUnknownClasses()}) or from a scan of classpath entries, then
+ * {@link #write(OutputStream) saved} and {@link #read(InputStream) loaded} by the processes that write and read.
+ * <p>
+ * IDs are never reused: a new version of a dictionary is created from the previous one and only appends names. Data written
+ * with a dictionary can be read with the same or any later version of it. A {@link #getHash(int) hash} of the writer's dictionary
+ * is written with each object graph that uses it, so reading with any other dictionary fails instead of loading the wrong classes.
+ * <p>
+ * Before it is frozen, the dictionary must be used by only one thread. After it is frozen, it is immutable and thread safe. */
+public class ClassDictionary {
+	private final ArrayList<String> names = new ArrayList();
+	private final ObjectMap<String, Integer> nameToId = new ObjectMap();
+	private int version;
+	private int[] hashes;
+	private volatile boolean frozen;
+
+	public ClassDictionary () {
+	}
+
+	/** Creates the next version of the dictionary, with the same names and IDs. */
+	public ClassDictionary (ClassDictionary dictionary) {
+		if (dictionary == null) throw new IllegalArgumentException("dictionary cannot be null.");
+		for (int i = 0, n = dictionary.names.size(); i < n; i++)
+			add(dictionary.names.get(i));
+		version = dictionary.version + 1;
+	}
+
+	/** Adds the class name using the next ID, if it is not already in the dictionary.
+	 * @return The ID of the class name. */
+	public int add (String className) {
+		if (frozen) throw new IllegalStateException("The dictionary is frozen.");
+		if (className == null) throw new IllegalArgumentException("className cannot be null.");
+		Integer id = nameToId.get(className);
+		if (id != null) return id;
+		int newId = names.size();
+		names.add(className);
+		nameToId.put(className, newId);
+		if (TRACE) trace("kyro", "Class dictionary ID " + newId + ": " + className);
+		return newId;
+	}
+
+	/** @see #add(String) */
+	public int add (Class type) {
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		return add(type.getName());
+	}
+
+	/** Adds the named, top level and member classes found in a directory or jar file of the classpath, in name order. The classes
+	 * are not loaded.
+	 * @param packageName Only classes in this package and its subpackages are added. May be null for all classes.
+	 * @return The number of classes found. */
+	public int scan (File classpathEntry, String packageName) throws KyroException {
+		if (classpathEntry == null) throw new IllegalArgumentException("classpathEntry cannot be null.");
+		String prefix = packageName == null ? "" : packageName.replace('.', '/') + '/';
+		ArrayList<String> classNames = new ArrayList();
+		try {
+			if (classpathEntry.isDirectory())
+				scanDirectory(classpathEntry, "", prefix, classNames);
+			else {
+				JarFile jar = new JarFile(classpathEntry);
+				try {
+					for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+						String path = entries.nextElement().getName();
+						if (path.startsWith(prefix)) addClassName(path, classNames);
+					}
+				} finally {
+					jar.close();
+				}
+			}
+		} catch (IOException ex) {
+			throw new KyroException("Error scanning classpath entry: " + classpathEntry, ex);
+		}
+		// Sorted so the same classes always get the same IDs, regardless of the order the files are listed.
+		Collections.sort(classNames);
+		for (int i = 0, n = classNames.size(); i < n; i++)
+			add(classNames.get(i));
+		return classNames.size();
+	}
+
+	private void scanDirectory (File dir, String path, String prefix, ArrayList<String> classNames) {
+		File[] files = dir.listFiles();
+		if (files == null) return;
+		for (int i = 0, n = files.length; i < n; i++) {
+			File file = files[i];
+			String filePath = path + file.getName();
+			if (file.isDirectory())
+				scanDirectory(file, filePath + '/', prefix, classNames);
+			else if (filePath.startsWith(prefix))
+				addClassName(filePath, classNames);
+		}
+	}
+
+	private void addClassName (String path, ArrayList<String> classNames) {
+		if (!path.endsWith(".class")) return;
+		String className = path.substring(0, path.length() - 6).replace('/', '.');
+		if (className.endsWith("package-info") || className.endsWith("module-info")) return;
+		// Skip anonymous and local classes, whose names change when the enclosing class is edited.
+		int dollar = className.indexOf('$');
+		while (dollar != -1) {
+			if (dollar + 1 < className.length() && Character.isDigit(className.charAt(dollar + 1))) return;
+			dollar = className.indexOf('$', dollar + 1);
+		}
+		classNames.add(className);
+	}
+
+	/** Makes the dictionary immutable. After this call it can be safely shared by Kyro instances on any number of threads. */
+	public void freeze () {
+		if (frozen) return;
+		int[] hashes = new int[names.size() + 1];
+		for (int i = 0, n = names.size(); i < n; i++)
+			hashes[i + 1] = hashes[i] * 31 + names.get(i).hashCode();
+		this.hashes = hashes;
+		frozen = true;
+		if (TRACE) trace("kyro", "Class dictionary version " + version + " frozen: " + names.size() + " classes.");
+	}
+
+	public boolean isFrozen () {
+		return frozen;
+	}
+
+	/** Returns the version, which is one more than the version of the dictionary this dictionary was created from. */
+	public int getVersion () {
+		return version;
+	}
+
+	/** Returns the ID of the class name, or -1. */
+	public int getId (String className) {
+		Integer id = nameToId.get(className);
+		return id == null ? -1 : id;
+	}
+
+	/** Returns the class name for the ID, or null. */
+	public String getName (int id) {
+		if (id < 0 || id >= names.size()) return null;
+		return names.get(id);
+	}
+
+	/** Returns the number of class names. */
+	public int size () {
+		return names.size();
+	}
+
+	/** Returns a hash of the class names, which is the same for a later version of the dictionary with the same number of names.
+	 * @param count The number of names to hash, from the first one. */
+	public int getHash (int count) {
+		if (!frozen) throw new IllegalStateException("The dictionary is not frozen.");
+		if (count < 0 || count >= hashes.length) throw new IllegalArgumentException("Invalid count: " + count);
+		return hashes[count];
+	}
+
+	/** Writes the version and the class names. The stream is not closed. */
+	public void write (OutputStream outputStream) throws KyroException {
+		Output output = new Output(outputStream, 1024);
+		output.writeVarInt(version, true);
+		output.writeVarInt(names.size(), true);
+		for (int i = 0, n = names.size(); i < n; i++)
+			output.writeString(names.get(i));
+		output.flush();
+	}
+
+	/** Reads a dictionary written by {@link #write(OutputStream)}. The stream is not closed and may be read past the end of the
+	 * dictionary.
+	 * @return A frozen dictionary. */
+	static public ClassDictionary read (InputStream inputStream) throws KyroException {
+		Input input = new Input(inputStream, 1024);
+		ClassDictionary dictionary = new ClassDictionary();
+		dictionary.version = input.readVarInt(true);
+		for (int i = 0, n = input.readVarInt(true); i < n; i++)
+			dictionary.add(input.readString());
+		dictionary.freeze();
+		return dictionary;
+	}
+}
@@ -0,0 +1,173 @@
+package com.esotericsoftware.kyro.util;
+
+import static com.esotericsoftware.kyro.util.Util.*;
+import static com.esotericsoftware.minlog.Log.*;
+
+import java.util.ArrayList;
+
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.Registration;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+
+/** A {@link DefaultClassResolver} that writes unregistered classes found in a frozen {@link ClassDictionary} as their dictionary
+ * ID. Unlike name IDs, dictionary IDs are the same for every object graph, so the class name is never written and each class is
+ * loaded only once. Unregistered classes not in the dictionary are written by name the first time they appear in each object
+ * graph, as by DefaultClassResolver, and are remembered so they can be added to the next version of the dictionary.
+ * <p>
+ * The writer and the reader must both use a ClassDictionaryResolver, and the reader's dictionary must be the same or a later
+ * version of the writer's, which is checked the first time a dictionary ID is read in each object graph. Each Kyro instance needs its own resolver, while all of them can use the same dictionary:
+ *
+ * <pre>
+ * Kyro kyro = new Kyro(new ClassDictionaryResolver(dictionary), new MapReferenceResolver());
+ * </pre> */
+public class ClassDictionaryResolver extends DefaultClassResolver {
+	static private final int UNKNOWN = -2;
+
+	protected final ClassDictionary dictionary;
+	private final IdentityObjectIntMap<Class> classToDictionaryId = new IdentityObjectIntMap();
+	private final Class[] dictionaryIdToClass;
+	private final ArrayList<Class> unknownClasses = new ArrayList();
+	private boolean hashWritten, hashRead;
+
+	/** @param dictionary Must be {@link ClassDictionary#freeze() frozen}. */
+	public ClassDictionaryResolver (ClassDictionary dictionary) {
+		if (dictionary == null) throw new IllegalArgumentException("dictionary cannot be null.");
+		if (!dictionary.isFrozen()) throw new IllegalArgumentException("dictionary must be frozen.");
+		this.dictionary = dictionary;
+		dictionaryIdToClass = new Class[dictionary.size()];
+	}
+
+	protected void writeName (Output output, Class type, Registration registration) {
+		output.writeVarInt(NAME + 2, true);
+		// The low bit is set for a dictionary ID and clear for a name ID.
+		int dictionaryId = getDictionaryId(type);
+		if (dictionaryId != -1) {
+			if (TRACE) trace("kyro", "Write class dictionary ID " + dictionaryId + ": " + className(type));
+			output.writeVarInt(dictionaryId << 1 | 1, true);
+			if (!hashWritten) {
+				// The first dictionary ID in the object graph is followed by the size and hash of the dictionary.
+				hashWritten = true;
+				output.writeVarInt(dictionary.size(), true);
+				output.writeInt(dictionary.getHash(dictionary.size()));
+			}
+			return;
+		}
+		if (classToNameId != null) {
+			int nameId = classToNameId.get(type, -1);
+			if (nameId != -1) {
+				if (TRACE) trace("kyro", "Write class name reference " + nameId + ": " + className(type));
+				output.writeVarInt(nameId << 1, true);
+				return;
+			}
+		}
+		// Only write the class name the first time encountered in object graph.
+		if (TRACE) trace("kyro", "Write class name: " + className(type));
+		int nameId = nextNameId++;
+		if (classToNameId == null) classToNameId = new IdentityObjectIntMap();
+		classToNameId.put(type, nameId);
+		output.writeVarInt(nameId << 1, true);
+		output.writeString(type.getName());
+	}
+
+	/** Returns the dictionary ID of the class, or -1 if it is not in the dictionary. */
+	private int getDictionaryId (Class type) {
+		int dictionaryId = classToDictionaryId.get(type, UNKNOWN);
+		if (dictionaryId == UNKNOWN) {
+			dictionaryId = dictionary.getId(type.getName());
+			classToDictionaryId.put(type, dictionaryId);
+			if (dictionaryId == -1) {
+				if (DEBUG) debug("kyro", "Class not in dictionary version " + dictionary.getVersion() + ": " + className(type));
+				unknownClasses.add(type);
+			}
+		}
+		return dictionaryId;
+	}
+
+	protected Registration readName (Input input) {
+		int id = input.readVarInt(true);
+		if ((id & 1) == 0) {
+			// Only read the class name the first time encountered in object graph.
+			int nameId = id >>> 1;
+			if (nameIdToClass == null) nameIdToClass = new IntMap();
+			Class type = nameIdToClass.get(nameId);
+			if (type == null) {
+				String className = input.readString();
+				type = loadClass(className);
+				nameIdToClass.put(nameId, type);
+				if (TRACE) trace("kyro", "Read class name: " + className);
+			} else {
+				if (TRACE) trace("kyro", "Read class name reference " + nameId + ": " + className(type));
+			}
+			return kyro.getRegistration(type);
+		}
+		int dictionaryId = id >>> 1;
+		if (!hashRead) {
+			readHash(input);
+			hashRead = true;
+		}
+		if (dictionaryId >= dictionaryIdToClass.length) {
+			throw new KyroException("Class dictionary ID not found: " + dictionaryId + " (dictionary version "
+				+ dictionary.getVersion() + " has " + dictionaryIdToClass.length + " classes)");
+		}
+		Class type = dictionaryIdToClass[dictionaryId];
+		if (type == null) {
+			type = loadClass(dictionary.getName(dictionaryId));
+			dictionaryIdToClass[dictionaryId] = type;
+		}
+		if (TRACE) trace("kyro", "Read class dictionary ID " + dictionaryId + ": " + className(type));
+		return kyro.getRegistration(type);
+	}
+
+	private void readHash (Input input) {
+		int size = input.readVarInt(true);
+		int hash = input.readInt();
+		if (size > dictionary.size()) {
+			throw new KyroException("Class dictionary version " + dictionary.getVersion() + " has " + dictionary.size()
+				+ " classes, the data was written with a dictionary of " + size + " classes.");
+		}
+		if (hash != dictionary.getHash(size)) {
+			throw new KyroException("Class dictionary version " + dictionary.getVersion()
+				+ " does not match the dictionary the data was written with.");
+		}
+	}
+
+	/** Sets aside whether the dictionary hash has been written and read, along with the class names. */
+	public Object isolateGraph () {
+		GraphHash graph = new GraphHash();
+		graph.names = super.isolateGraph();
+		graph.hashWritten = hashWritten;
+		graph.hashRead = hashRead;
+		hashWritten = false;
+		hashRead = false;
+		return graph;
+	}
+
+	public void restoreGraph (Object graph) {
+		GraphHash graphHash = (GraphHash)graph;
+		super.restoreGraph(graphHash.names);
+		hashWritten = graphHash.hashWritten;
+		hashRead = graphHash.hashRead;
+	}
+
+	public void reset () {
+		super.reset();
+		hashWritten = false;
+		hashRead = false;
+	}
+
+	public ClassDictionary getDictionary () {
+		return dictionary;
+	}
+
+	/** Returns the unregistered classes written by this resolver that are not in the dictionary, in the order they were first
+	 * written. After a training run, these can be added to the next version of the dictionary. */
+	public ArrayList<Class> getUnknownClasses () {
+		return unknownClasses;
+	}
+
+	static private class GraphHash {
+		Object names;
+		boolean hashWritten, hashRead;
+	}
+}
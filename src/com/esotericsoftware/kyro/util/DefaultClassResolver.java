@@ -16,6 +16,11 @@ import com.esotericsoftware.kyro.io.Output;
 public class DefaultClassResolver implements ClassResolver {
 	static public final byte NAME = -1;
 
+	/** The number of recently used registrations remembered when writing and when reading classes. */
+	static private final int MEMOIZED_SIZE = 8;
+	/** IDs below this are always stored in the array of dense IDs. Larger IDs are stored when the array stays dense. */
+	static private final int MIN_DENSE_IDS = 64;
+
 	protected Kyro kyro;
 
 	protected final IntMap<Registration> idToRegistration = new IntMap();
@@ -26,10 +31,14 @@ public class DefaultClassResolver implements ClassResolver {
 	protected ObjectMap<String, Class> nameToClass;
 	protected int nextNameId;
 
-	private int memoizedClassId = -1;
-	private Registration memoizedClassIdValue;
-	private Class memoizedClass;
-	private Registration memoizedClassValue;
+	private Registration[] denseIdToRegistration = new Registration[MIN_DENSE_IDS];
+
+	private final int[] memoizedClassIds = new int[MEMOIZED_SIZE];
+	private final Registration[] memoizedClassIdValues = new Registration[MEMOIZED_SIZE];
+	private int nextMemoizedClassId;
+	private final Class[] memoizedClasses = new Class[MEMOIZED_SIZE];
+	private final Registration[] memoizedClassValues = new Registration[MEMOIZED_SIZE];
+	private int nextMemoizedClass;
 
 	public void setKryo (Kyro kyro) {
 		this.kyro = kyro;
@@ -43,30 +52,62 @@ public class DefaultClassResolver implements ClassResolver {
 					+ registration.getSerializer().getClass().getName() + ")");
 			}
 			idToRegistration.put(registration.getId(), registration);
+			putDenseId(registration);
 		} else if (TRACE) {
 			trace("kyro", "Register class name: " + className(registration.getType()) + " ("
 				+ registration.getSerializer().getClass().getName() + ")");
 		}
 		classToRegistration.put(registration.getType(), registration);
 		if (registration.getType().isPrimitive()) classToRegistration.put(getWrapperClass(registration.getType()), registration);
+		clearMemoized();
 		return registration;
 	}
 
+	/** Stores the registration in the array used to look up IDs without hashing, if the array would remain dense. */
+	private void putDenseId (Registration registration) {
+		int id = registration.getId();
+		Registration[] dense = denseIdToRegistration;
+		if (id >= dense.length) {
+			if (id >= Math.max(MIN_DENSE_IDS, idToRegistration.size * 4)) return;
+			Registration[] newDense = new Registration[Math.max(id + 1, dense.length * 2)];
+			System.arraycopy(dense, 0, newDense, 0, dense.length);
+			denseIdToRegistration = dense = newDense;
+		}
+		dense[id] = registration;
+	}
+
+	private void clearMemoized () {
+		for (int i = 0; i < MEMOIZED_SIZE; i++) {
+			memoizedClasses[i] = null;
+			memoizedClassValues[i] = null;
+			memoizedClassIdValues[i] = null;
+		}
+	}
+
 	public Registration registerImplicit (Class type) {
 		return register(new Registration(type, kyro.getDefaultSerializer(type), NAME));
 	}
 
 	public Registration getRegistration (Class type) {
-		if (type == memoizedClass) return memoizedClassValue;
+		// Checking the few most recently used classes avoids hashing when objects of a few different classes alternate.
+		Class[] memoizedClasses = this.memoizedClasses;
+		for (int i = 0; i < MEMOIZED_SIZE; i++)
+			if (memoizedClasses[i] == type) return memoizedClassValues[i];
 		Registration registration = classToRegistration.get(type);
 		if (registration != null) {
-			memoizedClass = type;
-			memoizedClassValue = registration;
+			int index = nextMemoizedClass;
+			memoizedClasses[index] = type;
+			memoizedClassValues[index] = registration;
+			nextMemoizedClass = (index + 1) % MEMOIZED_SIZE;
 		}
 		return registration;
 	}
 
 	public Registration getRegistration (int classID) {
+		if (classID >= 0 && classID < denseIdToRegistration.length) {
+			Registration registration = denseIdToRegistration[classID];
+			if (registration != null) return registration;
+		}
 		return idToRegistration.get(classID);
 	}
 
@@ -114,12 +155,25 @@ public class DefaultClassResolver implements ClassResolver {
 		case NAME + 2: // Offset for NAME and NULL.
 			return readName(input);
 		}
-		if (classID == memoizedClassId) return memoizedClassIdValue;
-		Registration registration = idToRegistration.get(classID - 2);
-		if (registration == null) throw new KyroException("Encountered unregistered class ID: " + (classID - 2));
-		if (TRACE) trace("kyro", "Read class " + (classID - 2) + ": " + className(registration.getType()));
-		memoizedClassId = classID;
-		memoizedClassIdValue = registration;
+		int id = classID - 2;
+		if (id >= 0 && id < denseIdToRegistration.length) {
+			Registration registration = denseIdToRegistration[id];
+			if (registration != null) {
+				if (TRACE) trace("kyro", "Read class " + id + ": " + className(registration.getType()));
+				return registration;
+			}
+		}
+		// Sparse IDs: checking the few most recently used IDs avoids hashing.
+		int[] memoizedClassIds = this.memoizedClassIds;
+		for (int i = 0; i < MEMOIZED_SIZE; i++)
+			if (memoizedClassIds[i] == classID && memoizedClassIdValues[i] != null) return memoizedClassIdValues[i];
+		Registration registration = getRegistration(id);
+		if (registration == null) throw new KyroException("Encountered unregistered class ID: " + id);
+		if (TRACE) trace("kyro", "Read class " + id + ": " + className(registration.getType()));
+		int index = nextMemoizedClassId;
+		memoizedClassIds[index] = classID;
+		memoizedClassIdValues[index] = registration;
+		nextMemoizedClassId = (index + 1) % MEMOIZED_SIZE;
 		return registration;
 	}
 
@@ -130,16 +184,7 @@ public class DefaultClassResolver implements ClassResolver {
 		if (type == null) {
 			// Only read the class name the first time encountered in object graph.
 			String className = input.readString();
-			type = getTypeByName(className);
-			if (type == null) {
-				try {
-					type = Class.forName(className, false, kyro.getClassLoader());
-				} catch (ClassNotFoundException ex) {
-					throw new KyroException("Unable to find class: " + className, ex);
-				}
-				if (nameToClass == null) nameToClass = new ObjectMap();
-				nameToClass.put(className, type);
-			}
+			type = loadClass(className);
 			nameIdToClass.put(nameId, type);
 			if (TRACE) trace("kyro", "Read class name: " + className);
 		} else {
@@ -148,10 +193,48 @@ public class DefaultClassResolver implements ClassResolver {
 		return kyro.getRegistration(type);
 	}
 
+	/** Returns the class with the specified name, loading it with the Kyro instance's class loader the first time. */
+	protected Class loadClass (String className) {
+		Class type = getTypeByName(className);
+		if (type == null) {
+			try {
+				type = Class.forName(className, false, kyro.getClassLoader());
+			} catch (ClassNotFoundException ex) {
+				throw new KyroException("Unable to find class: " + className, ex);
+			}
+			if (nameToClass == null) nameToClass = new ObjectMap();
+			nameToClass.put(className, type);
+		}
+		return type;
+	}
+
 	protected Class<?> getTypeByName(final String className) {
 		return nameToClass != null ? nameToClass.get(className) : null;
 	}
 
+	/** Sets aside the unregistered class names of the current object graph, so an object graph nested in it starts without
+	 * them.
+	 * @return The class names that were set aside, to pass to {@link #restoreGraph(Object)}.
+	 * @see Kyro#beginNestedGraph() */
+	public Object isolateGraph () {
+		GraphNames names = new GraphNames();
+		names.classToNameId = classToNameId;
+		names.nameIdToClass = nameIdToClass;
+		names.nextNameId = nextNameId;
+		classToNameId = null;
+		nameIdToClass = null;
+		nextNameId = 0;
+		return names;
+	}
+
+	/** Replaces the unregistered class names of the nested object graph with those set aside by {@link #isolateGraph()}. */
+	public void restoreGraph (Object graph) {
+		GraphNames names = (GraphNames)graph;
+		classToNameId = names.classToNameId;
+		nameIdToClass = names.nameIdToClass;
+		nextNameId = names.nextNameId;
+	}
+
 	public void reset () {
 		if (!kyro.isRegistrationRequired()) {
 			if (classToNameId != null) classToNameId.clear();
@@ -159,4 +242,10 @@ public class DefaultClassResolver implements ClassResolver {
 			nextNameId = 0;
 		}
 	}
+
+	static private class GraphNames {
+		IdentityObjectIntMap<Class> classToNameId;
+		IntMap<Class> nameIdToClass;
+		int nextNameId;
+	}
 }
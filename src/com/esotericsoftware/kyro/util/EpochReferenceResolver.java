@@ -0,0 +1,157 @@
+package com.esotericsoftware.kyro.util;
+
+import java.util.Arrays;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.ReferenceResolver;
+
+/** Tracks objects like {@link MapReferenceResolver}, but {@link #reset()} takes constant time. Each entry is stamped with the
+ * number of the object graph that added it, and entries from previous graphs are ignored. {@link MapReferenceResolver#reset()}
+ * clears its whole table, so after one large graph every small graph pays for clearing a large table. This is useful when
+ * {@link Kyro#setAutoReset(boolean) auto reset} is used for many small object graphs.
+ * <p>
+ * Objects from previous graphs stay reachable until their entries are reused. After a graph larger than the
+ * {@link #setMaximumCapacity(int) maximum capacity}, the tables are replaced with smaller ones once enough small graphs have
+ * followed it.
+ * <p>
+ * Instances of this class must not be shared by Kyro instances. */
+public class EpochReferenceResolver implements ReferenceResolver {
+	protected Kyro kyro;
+
+	private Object[] keys;
+	private int[] ids, stamps;
+	private int capacity, mask, shift, threshold;
+	private int size, epoch = 1;
+
+	private Object[] readObjects;
+	private int readSize;
+
+	private int maximumCapacity = 2048, shrinkCapacity = 4096, shrinkAfter = 64, smallGraphs;
+
+	public EpochReferenceResolver () {
+		allocate(32);
+		readObjects = new Object[32];
+	}
+
+	public void setKryo (Kyro kyro) {
+		this.kyro = kyro;
+	}
+
+	/** Sets the number of objects the tables are reduced to hold when they have grown larger for a previous graph and enough
+	 * small graphs have followed it. Default is 2048.
+	 * @see #setShrinkAfter(int) */
+	public void setMaximumCapacity (int maximumCapacity) {
+		if (maximumCapacity < 1 || maximumCapacity > 1 << 29)
+			throw new IllegalArgumentException("maximumCapacity must be > 0 and <= 2^29: " + maximumCapacity);
+		this.maximumCapacity = maximumCapacity;
+		shrinkCapacity = Math.max(32, ceilPowerOfTwo(maximumCapacity * 2));
+	}
+
+	/** Sets the number of graphs in a row that must fit the {@link #setMaximumCapacity(int) maximum capacity} before tables that
+	 * are larger are replaced. Default is 64. */
+	public void setShrinkAfter (int shrinkAfter) {
+		if (shrinkAfter < 1) throw new IllegalArgumentException("shrinkAfter must be > 0: " + shrinkAfter);
+		this.shrinkAfter = shrinkAfter;
+	}
+
+	public int addWrittenObject (Object object) {
+		int id = size;
+		if (++size > threshold) resize(capacity << 1);
+		put(object, id);
+		return id;
+	}
+
+	public int getWrittenId (Object object) {
+		Object[] keys = this.keys;
+		int[] stamps = this.stamps;
+		int epoch = this.epoch, mask = this.mask;
+		for (int index = place(object);; index = (index + 1) & mask) {
+			if (stamps[index] != epoch) return -1;
+			if (keys[index] == object) return ids[index];
+		}
+	}
+
+	public int nextReadId (Class type) {
+		int id = readSize++;
+		if (id == readObjects.length) {
+			Object[] newObjects = new Object[id << 1];
+			System.arraycopy(readObjects, 0, newObjects, 0, id);
+			readObjects = newObjects;
+		}
+		readObjects[id] = null;
+		return id;
+	}
+
+	public void setReadObject (int id, Object object) {
+		readObjects[id] = object;
+	}
+
+	public Object getReadObject (Class type, int id) {
+		return readObjects[id];
+	}
+
+	public void reset () {
+		if (capacity > shrinkCapacity || readObjects.length > maximumCapacity) {
+			if (size <= maximumCapacity && readSize <= maximumCapacity) {
+				if (++smallGraphs >= shrinkAfter) {
+					if (capacity > shrinkCapacity) allocate(shrinkCapacity);
+					if (readObjects.length > maximumCapacity) readObjects = new Object[maximumCapacity];
+					smallGraphs = 0;
+				}
+			} else
+				smallGraphs = 0;
+		}
+		size = 0;
+		readSize = 0;
+		if (++epoch == 0) {
+			// The stamps of 2^32 graphs ago would match again.
+			Arrays.fill(stamps, 0);
+			epoch = 1;
+		}
+	}
+
+	/** Returns false for all primitive wrappers. */
+	public boolean useReferences (Class type) {
+		return !Util.isWrapperClass(type);
+	}
+
+	private int place (Object object) {
+		return (System.identityHashCode(object) * 0x9E3779B9) >>> shift;
+	}
+
+	private void put (Object object, int id) {
+		int[] stamps = this.stamps;
+		int index = place(object);
+		while (stamps[index] == epoch)
+			index = (index + 1) & mask;
+		keys[index] = object;
+		ids[index] = id;
+		stamps[index] = epoch;
+	}
+
+	private void allocate (int capacity) {
+		this.capacity = capacity;
+		mask = capacity - 1;
+		shift = 32 - Integer.numberOfTrailingZeros(capacity);
+		threshold = capacity >>> 1;
+		keys = new Object[capacity];
+		ids = new int[capacity];
+		stamps = new int[capacity];
+	}
+
+	private void resize (int newCapacity) {
+		Object[] oldKeys = keys;
+		int[] oldIds = ids, oldStamps = stamps;
+		int epoch = this.epoch;
+		allocate(newCapacity);
+		for (int i = 0, n = oldKeys.length; i < n; i++)
+			if (oldStamps[i] == epoch) put(oldKeys[i], oldIds[i]);
+	}
+
+	static private int ceilPowerOfTwo (int value) {
+		int power = 1;
+		while (power < value)
+			power <<= 1;
+		return power;
+	}
+}
@@ -0,0 +1,112 @@
+package com.esotericsoftware.kyro.util;
+
+import static com.esotericsoftware.minlog.Log.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+
+/** Keeps schemas in memory and in a file, so processes that use the same file map IDs to the same schemas. Each new schema is
+ * appended to the file and synced before its ID is returned. When a reader finds an ID that is not registered, the schemas
+ * appended to the file since it was last read are loaded. They are also loaded before an ID is chosen for a new schema, so
+ * registries that take turns registering schemas in the same file never reuse an ID.
+ * <p>
+ * Any number of processes can read the file, but only one process at a time may register new schemas. A schema cut off by a
+ * crash while being appended is ignored and overwritten by the next new schema. Complete schemas are never overwritten.
+ * <p>
+ * Each schema in the file is a variable length int for the ID, a String for the class name, a variable length int for the number
+ * of fields and a String for each field name. */
+public class FileSchemaRegistry extends MapSchemaRegistry {
+	private final File file;
+	private long validLength;
+
+	/** @param file Schemas are read from the file if it exists. Otherwise it is created when the first schema is registered. */
+	public FileSchemaRegistry (File file) throws KyroException {
+		if (file == null) throw new IllegalArgumentException("file cannot be null.");
+		this.file = file;
+		synchronized (this) {
+			load();
+		}
+	}
+
+	public File getFile () {
+		return file;
+	}
+
+	protected void added (int id, String typeName, String[] fieldNames) {
+		Output output = new Output(64, -1);
+		output.writeVarInt(id, true);
+		output.writeString(typeName);
+		output.writeVarInt(fieldNames.length, true);
+		for (int i = 0, n = fieldNames.length; i < n; i++)
+			output.writeString(fieldNames[i]);
+		try {
+			RandomAccessFile raf = new RandomAccessFile(file, "rw");
+			try {
+				if (raf.length() != validLength) {
+					// Schemas appended since the ID was chosen would be overwritten.
+					long length = validLength;
+					load();
+					if (validLength != length)
+						throw new KyroException("Schemas were appended while registering schema ID " + id + ": " + file);
+					raf.setLength(validLength);
+				}
+				raf.seek(validLength);
+				raf.write(output.getBuffer(), 0, output.position());
+				raf.getFD().sync();
+			} finally {
+				raf.close();
+			}
+		} catch (IOException ex) {
+			throw new KyroException("Error writing schema registry: " + file, ex);
+		}
+		validLength += output.position();
+	}
+
+	protected void refresh () {
+		load();
+	}
+
+	protected void missing (int id) {
+		load();
+	}
+
+	/** Registers the schemas appended to the file since it was last read. */
+	private void load () {
+		if (!file.exists()) return;
+		try {
+			FileInputStream stream = new FileInputStream(file);
+			try {
+				long start = validLength;
+				stream.getChannel().position(start);
+				Input input = new Input(stream, 1024);
+				while (!input.eof()) {
+					int id;
+					String typeName;
+					String[] fieldNames;
+					try {
+						id = input.readVarInt(true);
+						typeName = input.readString();
+						fieldNames = new String[input.readVarInt(true)];
+						for (int i = 0, n = fieldNames.length; i < n; i++)
+							fieldNames[i] = input.readString();
+					} catch (KyroException ex) {
+						if (DEBUG) debug("kyro", "Ignoring incomplete schema at offset " + validLength + ": " + file);
+						return;
+					}
+					register(id, typeName, fieldNames);
+					validLength = start + input.total();
+				}
+			} finally {
+				stream.close();
+			}
+		} catch (IOException ex) {
+			throw new KyroException("Error reading schema registry: " + file, ex);
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package com.esotericsoftware.kyro.util;
+
+import static com.esotericsoftware.minlog.Log.*;
+
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.serializers.SchemaRegistry;
+
+/** Keeps schemas in memory, assigning IDs in the order schemas are registered. A writer and a reader in the same process can share
+ * an instance. To share schemas between processes, use {@link FileSchemaRegistry} or {@link #register(int, String, String[])
+ * register} the same schemas with the same IDs on both sides. This class is thread safe.
+ * @see com.esotericsoftware.kyro.serializers.CompatibleFieldSerializer#setSchemaRegistry(SchemaRegistry) */
+public class MapSchemaRegistry implements SchemaRegistry {
+	private final IntMap<Schema> idToSchema = new IntMap();
+	private final ObjectMap<String, Schema> keyToSchema = new ObjectMap();
+	private int nextId;
+
+	public synchronized int getId (Class type, String[] fieldNames) {
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		if (fieldNames == null) throw new IllegalArgumentException("fieldNames cannot be null.");
+		String key = key(type.getName(), fieldNames);
+		Schema schema = keyToSchema.get(key);
+		if (schema != null) return schema.id;
+		refresh();
+		schema = keyToSchema.get(key);
+		if (schema != null) return schema.id;
+		while (idToSchema.containsKey(nextId))
+			nextId++;
+		int id = nextId;
+		added(id, type.getName(), fieldNames);
+		register(id, type.getName(), fieldNames);
+		return id;
+	}
+
+	public synchronized String[] getFieldNames (Class type, int id) {
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		Schema schema = idToSchema.get(id);
+		if (schema == null) {
+			missing(id);
+			schema = idToSchema.get(id);
+			if (schema == null) throw new KyroException("Schema ID is not registered: " + id);
+		}
+		if (!schema.typeName.equals(type.getName()))
+			throw new KyroException("Schema ID " + id + " is registered for a different class: " + schema.typeName);
+		return schema.fieldNames;
+	}
+
+	/** Registers a schema using the specified ID.
+	 * @throws KyroException if the ID is already registered for a different schema. */
+	public synchronized void register (int id, String typeName, String[] fieldNames) {
+		if (id < 0) throw new IllegalArgumentException("id must be >= 0: " + id);
+		if (typeName == null) throw new IllegalArgumentException("typeName cannot be null.");
+		if (fieldNames == null) throw new IllegalArgumentException("fieldNames cannot be null.");
+		String key = key(typeName, fieldNames);
+		Schema existing = idToSchema.get(id);
+		if (existing != null) {
+			if (existing.key.equals(key)) return;
+			throw new KyroException("Schema ID " + id + " is already registered for a different schema of class: "
+				+ existing.typeName);
+		}
+		if (TRACE) trace("kyro", "Register schema ID " + id + ": " + typeName + " (" + fieldNames.length + " fields)");
+		Schema schema = new Schema(id, typeName, fieldNames.clone(), key);
+		idToSchema.put(id, schema);
+		if (!keyToSchema.containsKey(key)) keyToSchema.put(key, schema);
+	}
+
+	/** Called with the lock held before a new schema is registered by {@link #getId(Class, String[])}. This implementation does
+	 * nothing. */
+	protected void added (int id, String typeName, String[] fieldNames) {
+	}
+
+	/** Called with the lock held when a schema is not registered, before {@link #getId(Class, String[])} chooses an ID for it.
+	 * Subclasses can register the schemas added elsewhere, so the schema is found or its new ID is not already in use. This
+	 * implementation does nothing. */
+	protected void refresh () {
+	}
+
+	/** Called with the lock held when a schema ID is not registered, before a KyroException is thrown. Subclasses can register the
+	 * schema if it can be found elsewhere. This implementation does nothing. */
+	protected void missing (int id) {
+	}
+
+	private String key (String typeName, String[] fieldNames) {
+		StringBuilder buffer = new StringBuilder(typeName.length() + fieldNames.length * 12);
+		buffer.append(typeName);
+		for (int i = 0, n = fieldNames.length; i < n; i++) {
+			buffer.append(' ');
+			buffer.append(fieldNames[i]);
+		}
+		return buffer.toString();
+	}
+
+	static private class Schema {
+		final int id;
+		final String typeName;
+		final String[] fieldNames;
+		final String key;
+
+		Schema (int id, String typeName, String[] fieldNames, String key) {
+			this.id = id;
+			this.typeName = typeName;
+			this.fieldNames = fieldNames;
+			this.key = key;
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package com.esotericsoftware.kyro.util;
+
+import static com.esotericsoftware.kyro.util.Util.*;
+import static com.esotericsoftware.minlog.Log.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Locale;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.ReferenceResolver;
+import com.esotericsoftware.kyro.References;
+
+/** Tracks references only for the classes whose objects can be shared or be part of a cycle, using another ReferenceResolver for
+ * the objects that are tracked. Whether a class is tracked is decided the first time it is used, from in order:
+ * {@link #setReferences(Class, boolean)}, the {@link References} annotation, whether the class is an immutable leaf type such as
+ * String, BigDecimal or an enum, and finally {@link #setDefaultReferences(boolean)}. The Kyro instances that write and read an
+ * object graph must decide the same for each class.
+ * <p>
+ * For each class, the number of objects tracked and the number of references written or read to objects already tracked are
+ * counted. A class with many tracked objects and no back references is a good candidate for being configured as not tracked. */
+public class SelectiveReferenceResolver implements ReferenceResolver {
+	private final ReferenceResolver resolver;
+	private final IdentityMap<Class, TypeEntry> entries = new IdentityMap();
+	private TypeEntry lastEntry;
+	private boolean defaultReferences = true, inferImmutable = true;
+
+	/** Uses a {@link MapReferenceResolver} for the objects that are tracked. */
+	public SelectiveReferenceResolver () {
+		this(new MapReferenceResolver());
+	}
+
+	/** @param resolver Tracks the objects of the classes that use references. */
+	public SelectiveReferenceResolver (ReferenceResolver resolver) {
+		if (resolver == null) throw new IllegalArgumentException("resolver cannot be null.");
+		this.resolver = resolver;
+	}
+
+	public void setKryo (Kyro kyro) {
+		resolver.setKryo(kyro);
+	}
+
+	/** Sets whether references are tracked for objects of the specified class, overriding the annotation and inferred setting. */
+	public void setReferences (Class type, boolean references) {
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		TypeEntry entry = entry(type);
+		entry.references = references && resolver.useReferences(type);
+	}
+
+	/** Sets whether references are tracked for classes that are not configured, annotated or inferred to be immutable. Default is
+	 * true. Classes already used keep their setting. */
+	public void setDefaultReferences (boolean defaultReferences) {
+		this.defaultReferences = defaultReferences;
+	}
+
+	/** If true, references are not tracked for immutable classes that don't reference other objects: String, the primitive
+	 * wrappers, enums, BigInteger, BigDecimal, Class, Currency and Locale. Default is true. Classes already used keep their
+	 * setting. */
+	public void setInferImmutable (boolean inferImmutable) {
+		this.inferImmutable = inferImmutable;
+	}
+
+	public boolean useReferences (Class type) {
+		return entry(type).references;
+	}
+
+	public int getWrittenId (Object object) {
+		int id = resolver.getWrittenId(object);
+		if (id != -1) entry(object.getClass()).backReferences++;
+		return id;
+	}
+
+	public int addWrittenObject (Object object) {
+		entry(object.getClass()).tracked++;
+		return resolver.addWrittenObject(object);
+	}
+
+	public int nextReadId (Class type) {
+		entry(type).tracked++;
+		return resolver.nextReadId(type);
+	}
+
+	public void setReadObject (int id, Object object) {
+		resolver.setReadObject(id, object);
+	}
+
+	public Object getReadObject (Class type, int id) {
+		entry(type).backReferences++;
+		return resolver.getReadObject(type, id);
+	}
+
+	public void reset () {
+		resolver.reset();
+	}
+
+	/** Returns the number of objects of the class that were tracked since the counts were last cleared. */
+	public int getTracked (Class type) {
+		TypeEntry entry = entries.get(type);
+		return entry == null ? 0 : entry.tracked;
+	}
+
+	/** Returns the number of references to already tracked objects of the class that were written or read since the counts were
+	 * last cleared. */
+	public int getBackReferences (Class type) {
+		TypeEntry entry = entries.get(type);
+		return entry == null ? 0 : entry.backReferences;
+	}
+
+	/** Returns the classes that had objects tracked but no back references since the counts were last cleared. */
+	public ArrayList<Class> getUnsharedTypes () {
+		ArrayList<Class> types = new ArrayList();
+		for (IdentityMap.Entry<Class, TypeEntry> entry : entries.entries())
+			if (entry.value.tracked > 0 && entry.value.backReferences == 0) types.add(entry.key);
+		return types;
+	}
+
+	public void clearCounts () {
+		for (TypeEntry entry : entries.values()) {
+			entry.tracked = 0;
+			entry.backReferences = 0;
+		}
+	}
+
+	private TypeEntry entry (Class type) {
+		TypeEntry entry = lastEntry;
+		if (entry != null && entry.type == type) return entry;
+		entry = entries.get(type);
+		if (entry == null) {
+			entry = new TypeEntry(type, resolver.useReferences(type) && isReferenced(type));
+			if (TRACE) trace("kyro", "References " + (entry.references ? "tracked" : "not tracked") + ": " + className(type));
+			entries.put(type, entry);
+		}
+		lastEntry = entry;
+		return entry;
+	}
+
+	private boolean isReferenced (Class type) {
+		References references = (References)type.getAnnotation(References.class);
+		if (references != null) return references.value();
+		if (inferImmutable && isImmutable(type)) return false;
+		return defaultReferences;
+	}
+
+	static private boolean isImmutable (Class type) {
+		return type == String.class || isWrapperClass(type) || Enum.class.isAssignableFrom(type)
+			|| type == BigInteger.class || type == BigDecimal.class || type == Class.class || type == Currency.class
+			|| type == Locale.class;
+	}
+
+	static private class TypeEntry {
+		final Class type;
+		boolean references;
+		int tracked, backReferences;
+
+		TypeEntry (Class type, boolean references) {
+			this.type = type;
+			this.references = references;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package com.esotericsoftware.kyro.util;
+
+import static com.esotericsoftware.kyro.util.Util.*;
+import static com.esotericsoftware.minlog.Log.*;
+
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.Serializer;
+import com.esotericsoftware.kyro.factories.PseudoSerializerFactory;
+import com.esotericsoftware.kyro.factories.SerializerFactory;
+
+/** A table of class registrations that is configured once, {@link #freeze() frozen}, and then shared read-only by any number of
+ * {@link Kyro} instances through a {@link SharedClassResolver}. This avoids repeating every registration for each Kyro instance.
+ * <p>
+ * The registry stores class IDs and how to obtain the serializer for each class, not serializer instances. Most serializers,
+ * such as {@link com.esotericsoftware.kyro.serializers.FieldSerializer}, are bound to a single Kyro instance and keep state
+ * between calls, so each Kyro instance creates its own serializer the first time it uses a class. Serializers registered with
+ * {@link #register(Class, Serializer, int)} are shared by all Kyro instances and must be thread safe.
+ * <p>
+ * Before it is frozen, the registry must be used by only one thread. After it is frozen, it is immutable and thread safe. */
+public class SharedClassRegistry {
+	private final IntMap<Entry> idToEntry = new IntMap();
+	private final ObjectMap<Class, Entry> classToEntry = new ObjectMap();
+	private int nextId = 10;
+	private volatile boolean frozen;
+
+	/** Registers the class using the lowest, next available ID. The {@link Kyro#getDefaultSerializer(Class) default serializer} of
+	 * each Kyro instance that uses the registry is used for the class.
+	 * @see Kyro#register(Class) */
+	public int register (Class type) {
+		return register(type, (SerializerFactory)null, nextAvailableId());
+	}
+
+	/** Registers the class using the specified ID. The {@link Kyro#getDefaultSerializer(Class) default serializer} of each Kyro
+	 * instance that uses the registry is used for the class.
+	 * @see Kyro#register(Class, int) */
+	public int register (Class type, int id) {
+		return register(type, (SerializerFactory)null, id);
+	}
+
+	/** Registers the class using the specified ID and serializer. The serializer instance is shared by all Kyro instances that use
+	 * the registry, so it must be thread safe and must not keep a reference to a Kyro instance. */
+	public int register (Class type, Serializer serializer, int id) {
+		if (serializer == null) throw new IllegalArgumentException("serializer cannot be null.");
+		return register(type, new PseudoSerializerFactory(serializer), id);
+	}
+
+	/** Registers the class using the specified ID. Each Kyro instance that uses the registry calls the factory to create its own
+	 * serializer for the class the first time the class is used.
+	 * @param serializerFactory May be null to use the {@link Kyro#getDefaultSerializer(Class) default serializer}.
+	 * @param id Must be >= 10. IDs 0-9 are used by each Kyro instance for primitive types and String, and registrations in a Kyro
+	 *           instance take precedence over those in the registry. */
+	public int register (Class type, SerializerFactory serializerFactory, int id) {
+		if (frozen) throw new IllegalStateException("The registry is frozen.");
+		if (type == null) throw new IllegalArgumentException("type cannot be null.");
+		if (id < 10) throw new IllegalArgumentException("id must be >= 10, IDs 0-9 are used by each Kyro instance: " + id);
+		Entry existing = idToEntry.get(id);
+		if (existing != null && existing.type != type) {
+			throw new KyroException("An existing registration with a different type already uses ID: " + id
+				+ "\nExisting registration: " + className(existing.type) + "\nUnable to register: " + className(type));
+		}
+		if (TRACE) trace("kyro", "Register shared class ID " + id + ": " + className(type));
+		Entry entry = new Entry(type, id, serializerFactory);
+		idToEntry.put(id, entry);
+		classToEntry.put(type, entry);
+		if (type.isPrimitive()) classToEntry.put(getWrapperClass(type), entry);
+		return id;
+	}
+
+	private int nextAvailableId () {
+		while (nextId != -2) {
+			if (idToEntry.get(nextId) == null) return nextId;
+			nextId++;
+		}
+		throw new KyroException("No registration IDs are available.");
+	}
+
+	/** Makes the registry immutable. After this call it can be safely shared by Kyro instances on any number of threads. */
+	public void freeze () {
+		frozen = true;
+		if (TRACE) trace("kyro", "Shared class registry frozen: " + classToEntry.size + " classes.");
+	}
+
+	public boolean isFrozen () {
+		return frozen;
+	}
+
+	/** Returns the ID registered for the class, or -1. */
+	public int getId (Class type) {
+		Entry entry = classToEntry.get(type);
+		return entry == null ? -1 : entry.id;
+	}
+
+	/** Returns the class registered for the ID, or null. */
+	public Class getType (int id) {
+		Entry entry = idToEntry.get(id);
+		return entry == null ? null : entry.type;
+	}
+
+	/** Creates a new serializer for the class for use by the specified Kyro instance.
+	 * @return May be null if the class is not registered. */
+	public Serializer newSerializer (Kyro kyro, Class type) {
+		Entry entry = classToEntry.get(type);
+		if (entry == null) return null;
+		if (entry.serializerFactory == null) return kyro.getDefaultSerializer(entry.type);
+		return entry.serializerFactory.makeSerializer(kyro, entry.type);
+	}
+
+	/** Returns the number of registered classes, not counting primitive wrappers. */
+	public int size () {
+		return idToEntry.size;
+	}
+
+	static final class Entry {
+		final Class type;
+		final int id;
+		final SerializerFactory serializerFactory;
+
+		Entry (Class type, int id, SerializerFactory serializerFactory) {
+			this.type = type;
+			this.id = id;
+			this.serializerFactory = serializerFactory;
+		}
+	}
+}
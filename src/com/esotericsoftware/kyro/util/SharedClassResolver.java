@@ -0,0 +1,71 @@
+package com.esotericsoftware.kyro.util;
+
+import static com.esotericsoftware.kyro.util.Util.*;
+
+import com.esotericsoftware.kyro.KyroException;
+import com.esotericsoftware.kyro.Registration;
+
+/** A {@link DefaultClassResolver} that falls back to a frozen {@link SharedClassRegistry} for classes that are not registered with
+ * the Kyro instance itself. The registration for a shared class, including its serializer, is created when the Kyro instance
+ * first uses the class. Name IDs for unregistered classes and all other per graph state stay private to each Kyro instance.
+ * <p>
+ * Each Kyro instance needs its own SharedClassResolver, while all of them can use the same registry:
+ * 
+ * <pre>
+ * Kyro kyro = new Kyro(new SharedClassResolver(registry), new MapReferenceResolver());
+ * </pre> */
+public class SharedClassResolver extends DefaultClassResolver {
+	protected final SharedClassRegistry registry;
+
+	/** @param registry Must be {@link SharedClassRegistry#freeze() frozen}. */
+	public SharedClassResolver (SharedClassRegistry registry) {
+		if (registry == null) throw new IllegalArgumentException("registry cannot be null.");
+		if (!registry.isFrozen()) throw new IllegalArgumentException("registry must be frozen.");
+		this.registry = registry;
+	}
+
+	/** Registers the class with this instance. A shared registration created earlier for the same ID with a different type is
+	 * replaced, so the shared class can no longer be used by this instance. */
+	public Registration register (Registration registration) {
+		if (registration == null) throw new IllegalArgumentException("registration cannot be null.");
+		Registration existing = registration.getId() == NAME ? null : idToRegistration.get(registration.getId());
+		if (existing != null && existing.getType() != registration.getType()
+			&& registry.getType(existing.getId()) == existing.getType()) {
+			classToRegistration.remove(existing.getType());
+			if (existing.getType().isPrimitive()) classToRegistration.remove(getWrapperClass(existing.getType()));
+		}
+		return super.register(registration);
+	}
+
+	public Registration getRegistration (Class type) {
+		Registration registration = super.getRegistration(type);
+		if (registration != null) return registration;
+		int id = registry.getId(type);
+		if (id == -1) return null;
+		return registerShared(registry.getType(id), id);
+	}
+
+	public Registration getRegistration (int classID) {
+		Registration registration = super.getRegistration(classID);
+		if (registration != null) return registration;
+		Class type = registry.getType(classID);
+		if (type == null) return null;
+		return registerShared(type, classID);
+	}
+
+	private Registration registerShared (Class type, int id) {
+		// A registration in this instance for a primitive wrapper or an unrelated ID takes precedence.
+		Registration registration = classToRegistration.get(type);
+		if (registration != null) return registration;
+		Registration existing = idToRegistration.get(id);
+		if (existing != null) {
+			throw new KyroException("A registration in the Kyro instance with a different type already uses shared ID: " + id
+				+ "\nExisting registration: " + className(existing.getType()) + "\nShared registration: " + className(type));
+		}
+		return register(new Registration(type, registry.newSerializer(kyro, type), id));
+	}
+
+	public SharedClassRegistry getRegistry () {
+		return registry;
+	}
+}
@@ -0,0 +1,189 @@
+package com.esotericsoftware.kyro;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import com.esotericsoftware.kyro.io.ChannelInput;
+import com.esotericsoftware.kyro.io.ChannelOutput;
+
+public class ChannelInputOutputTest extends KryoTestCase {
+	private File file;
+
+	protected void setUp () throws Exception {
+		super.setUp();
+		file = File.createTempFile("kyro-channel", ".bin");
+	}
+
+	protected void tearDown () throws Exception {
+		file.delete();
+		super.tearDown();
+	}
+
+	public void testFileChannel () throws Exception {
+		kyro.register(ArrayList.class);
+		kyro.register(byte[].class);
+		ArrayList list = new ArrayList();
+		for (int i = 0; i < 100; i++) {
+			list.add("value" + i);
+			list.add(new byte[i * 3]);
+		}
+		byte[] large = new byte[1000];
+		for (int i = 0; i < large.length; i++)
+			large[i] = (byte)i;
+		ByteBuffer direct = ByteBuffer.allocateDirect(500);
+		for (int i = 0; i < 500; i++)
+			direct.put((byte)-i);
+		direct.flip();
+
+		ChannelOutput output = new ChannelOutput(new FileOutputStream(file).getChannel(), 64);
+		kyro.writeClassAndObject(output, list);
+		output.writeInt(123);
+		output.writeBytes(large);
+		output.writeByteBuffer(ByteBuffer.wrap(large, 0, 10));
+		output.writeByteBuffer(direct);
+		output.writeString("end");
+		long total = output.total();
+		output.close();
+		assertEquals(total, file.length());
+
+		ChannelInput input = new ChannelInput(new FileInputStream(file).getChannel(), 64);
+		assertEquals(list.size(), ((ArrayList)kyro.readClassAndObject(input)).size());
+		assertEquals(123, input.readInt());
+		assertTrue(Arrays.equals(large, input.readBytes(1000)));
+		byte[] bytes;
+		bytes = input.readBytes(10);
+		for (int i = 0; i < 10; i++)
+			assertEquals(large[i], bytes[i]);
+		bytes = input.readBytes(500);
+		for (int i = 0; i < 500; i++)
+			assertEquals((byte)-i, bytes[i]);
+		assertEquals("end", input.readString());
+		assertEquals(total, input.total());
+		assertTrue(input.eof());
+		input.close();
+	}
+
+	public void testPartialReads () throws Exception {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		ChannelOutput output = new ChannelOutput(Channels.newChannel(stream), 64);
+		Random random = new Random(123);
+		for (int i = 0; i < 500; i++) {
+			output.writeInt(random.nextInt(), true);
+			output.writeLong(random.nextLong());
+			output.writeString("value" + random.nextInt());
+			output.writeDouble(random.nextDouble());
+		}
+		output.flush();
+
+		// The channel returns fewer bytes than requested, as sockets and pipes do.
+		final ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(stream.toByteArray()));
+		ChannelInput input = new ChannelInput(new ReadableByteChannel() {
+			public int read (ByteBuffer buffer) throws IOException {
+				int limit = buffer.limit();
+				buffer.limit(Math.min(limit, buffer.position() + 7));
+				try {
+					return channel.read(buffer);
+				} finally {
+					buffer.limit(limit);
+				}
+			}
+
+			public boolean isOpen () {
+				return channel.isOpen();
+			}
+
+			public void close () throws IOException {
+				channel.close();
+			}
+		}, 64);
+		random = new Random(123);
+		for (int i = 0; i < 500; i++) {
+			assertEquals(random.nextInt(), input.readInt(true));
+			assertEquals(random.nextLong(), input.readLong());
+			assertEquals("value" + random.nextInt(), input.readString());
+			assertEquals(random.nextDouble(), input.readDouble());
+		}
+		assertTrue(input.eof());
+	}
+
+	public void testAsciiAcrossFlush () throws Exception {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		ChannelOutput output = new ChannelOutput(Channels.newChannel(stream), 16);
+		for (int i = 1; i < 40; i++) {
+			output.writeAscii(ascii(i));
+			output.writeString(ascii(i));
+		}
+		output.flush();
+
+		ChannelInput input = new ChannelInput(Channels.newChannel(new ByteArrayInputStream(stream.toByteArray())), 16);
+		for (int i = 1; i < 40; i++) {
+			assertEquals(ascii(i), input.readString());
+			assertEquals(ascii(i), input.readString());
+		}
+		assertTrue(input.eof());
+	}
+
+	public void testTransfer () throws Exception {
+		byte[] bytes = new byte[3000];
+		for (int i = 0; i < bytes.length; i++)
+			bytes[i] = (byte)(i * 7);
+		FileOutputStream fileOutput = new FileOutputStream(file);
+		fileOutput.write(bytes);
+		fileOutput.close();
+
+		// File to channel through ChannelOutput.
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		ChannelOutput output = new ChannelOutput(Channels.newChannel(stream), 64);
+		output.writeInt(1);
+		FileChannel source = new FileInputStream(file).getChannel();
+		output.transferFrom(source, 100, 2000);
+		source.close();
+		output.writeInt(2);
+		output.flush();
+		assertEquals(2008, output.total());
+		byte[] written = stream.toByteArray();
+		assertEquals(2008, written.length);
+		for (int i = 0; i < 2000; i++)
+			assertEquals(bytes[100 + i], written[4 + i]);
+
+		// File to channel through ChannelInput.
+		ChannelInput input = new ChannelInput(new FileInputStream(file).getChannel(), 64);
+		input.skip(10);
+		input.readByte();
+		stream.reset();
+		input.transferTo(Channels.newChannel(stream), 2500);
+		assertEquals(bytes[2511], input.readByte());
+		assertEquals(2512, input.total());
+		input.close();
+		written = stream.toByteArray();
+		for (int i = 0; i < 2500; i++)
+			assertEquals(bytes[11 + i], written[i]);
+
+		// Non-file channel to channel through ChannelInput.
+		input = new ChannelInput(Channels.newChannel(new ByteArrayInputStream(bytes)), 64);
+		input.readByte();
+		stream.reset();
+		input.transferTo(Channels.newChannel(stream), 2998);
+		assertEquals(bytes[2999], input.readByte());
+		assertTrue(input.eof());
+		written = stream.toByteArray();
+		for (int i = 0; i < 2998; i++)
+			assertEquals(bytes[1 + i], written[i]);
+		try {
+			input.transferTo(Channels.newChannel(stream), 1);
+			fail();
+		} catch (KyroException expected) {
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package com.esotericsoftware.kyro;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.util.ClassDictionary;
+import com.esotericsoftware.kyro.util.ClassDictionaryResolver;
+import com.esotericsoftware.kyro.util.MapReferenceResolver;
+
+public class ClassDictionaryTest extends KryoTestCase {
+	public void testTraining () {
+		// A training run with an empty dictionary finds the classes to add.
+		ClassDictionary empty = new ClassDictionary();
+		empty.freeze();
+		Kyro training = newKyro(empty);
+		writeClassAndObject(training, graph());
+		ArrayList<Class> unknown = ((ClassDictionaryResolver)training.getClassResolver()).getUnknownClasses();
+		assertEquals(3, unknown.size());
+		assertTrue(unknown.contains(Line.class));
+
+		ClassDictionary dictionary = new ClassDictionary();
+		for (Class type : unknown)
+			dictionary.add(type);
+		dictionary.freeze();
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		dictionary.write(stream);
+		ClassDictionary loaded = ClassDictionary.read(new ByteArrayInputStream(stream.toByteArray()));
+		assertTrue(loaded.isFrozen());
+		assertEquals(3, loaded.size());
+		assertEquals(dictionary.getId(Point.class.getName()), loaded.getId(Point.class.getName()));
+
+		// No class names are written, and each graph is written the same.
+		Kyro writer = newKyro(dictionary), reader = newKyro(loaded);
+		byte[] bytes = writeClassAndObject(writer, graph());
+		assertEquals(bytes.length, writeClassAndObject(writer, graph()).length);
+		assertEquals(-1, new String(bytes).indexOf("ClassDictionaryTest"));
+		assertEquals(graph(), reader.readClassAndObject(new Input(bytes)));
+		assertEquals(graph(), reader.readClassAndObject(new Input(bytes)));
+		assertEquals(0, ((ClassDictionaryResolver)writer.getClassResolver()).getUnknownClasses().size());
+
+		Kyro plain = new Kyro();
+		plain.setReferences(false);
+		assertTrue(bytes.length * 2 < writeClassAndObject(plain, graph()).length);
+	}
+
+	public void testVersions () {
+		ClassDictionary version0 = new ClassDictionary();
+		version0.add(ArrayList.class);
+		version0.add(Point.class);
+		version0.freeze();
+		ClassDictionary version1 = new ClassDictionary(version0);
+		assertEquals(1, version1.getVersion());
+		version1.add(Line.class);
+		version1.freeze();
+		assertEquals(version0.getId(Point.class.getName()), version1.getId(Point.class.getName()));
+
+		// Line is not in the old dictionary, so its name is written. The last character of an ASCII string is written with its
+		// high bit set.
+		byte[] bytes = writeClassAndObject(newKyro(version0), graph());
+		assertTrue(new String(bytes).indexOf("ClassDictionaryTest$Lin") != -1);
+		assertEquals(graph(), newKyro(version1).readClassAndObject(new Input(bytes)));
+
+		bytes = writeClassAndObject(newKyro(version1), graph());
+		assertEquals(graph(), newKyro(version1).readClassAndObject(new Input(bytes)));
+		try {
+			newKyro(version0).readClassAndObject(new Input(bytes));
+			fail();
+		} catch (KyroException expected) {
+		}
+	}
+
+	public void testMismatch () {
+		// Same size and version, different IDs.
+		ClassDictionary writer = new ClassDictionary();
+		writer.add(Point.class);
+		writer.add(Line.class);
+		writer.freeze();
+		ClassDictionary reader = new ClassDictionary();
+		reader.add(Line.class);
+		reader.add(Point.class);
+		reader.freeze();
+		assertTrue(writer.getHash(2) != reader.getHash(2));
+
+		byte[] bytes = writeClassAndObject(newKyro(writer), graph());
+		try {
+			newKyro(reader).readClassAndObject(new Input(bytes));
+			fail();
+		} catch (KyroException expected) {
+			assertTrue(expected.getMessage().indexOf("does not match") != -1);
+		}
+
+		// The hash is written once per graph, and a reader with the same dictionary checks it for each graph.
+		Kyro kyro = newKyro(writer);
+		Output output = new Output(1024, -1);
+		kyro.writeClassAndObject(output, graph());
+		kyro.writeClassAndObject(output, graph());
+		Input input = new Input(output.toBytes());
+		Kyro sameReader = newKyro(writer);
+		assertEquals(graph(), sameReader.readClassAndObject(input));
+		assertEquals(graph(), sameReader.readClassAndObject(input));
+	}
+
+	public void testScan () throws Exception {
+		ClassDictionary dictionary = new ClassDictionary();
+		File classpathEntry = new File(ClassDictionaryTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		assertTrue(dictionary.scan(classpathEntry, "com.esotericsoftware.kyro") > 0);
+		assertTrue(dictionary.getId(ClassDictionaryTest.class.getName()) != -1);
+		assertTrue(dictionary.getId(Point.class.getName()) != -1);
+		assertEquals(-1, dictionary.getId(ArrayList.class.getName()));
+		dictionary.freeze();
+		try {
+			dictionary.add(ArrayList.class);
+			fail();
+		} catch (IllegalStateException expected) {
+		}
+	}
+
+	private Kyro newKyro (ClassDictionary dictionary) {
+		Kyro kyro = new Kyro(new ClassDictionaryResolver(dictionary), new MapReferenceResolver());
+		kyro.setReferences(false);
+		return kyro;
+	}
+
+	private ArrayList graph () {
+		ArrayList list = new ArrayList();
+		for (int i = 0; i < 3; i++) {
+			Line line = new Line();
+			line.start = new Point(i, i);
+			line.end = new Point(i + 1, i * 2);
+			list.add(line);
+			list.add(new Point(0, i));
+		}
+		return list;
+	}
+
+	static public class Point {
+		public int x, y;
+
+		public Point () {
+		}
+
+		public Point (int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+
+		public boolean equals (Object obj) {
+			Point other = (Point)obj;
+			return x == other.x && y == other.y;
+		}
+	}
+
+	static public class Line {
+		public Object start, end;
+
+		public boolean equals (Object obj) {
+			Line other = (Line)obj;
+			return start.equals(other.start) && end.equals(other.end);
+		}
+	}
+}
@@ -3,6 +3,8 @@ package com.esotericsoftware.kyro;
 
 import java.io.FileNotFoundException;
 
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
 import com.esotericsoftware.kyro.serializers.CompatibleFieldSerializer;
 
 /** @author Nathan Sweet <misc@n4te.com> */
@@ -53,6 +55,22 @@ public class CompatibleFieldSerializerTest extends KryoTestCase {
 		assertEquals(object1, object2);
 	}
 
+	public void testFailedWrite () {
+		TestClass object1 = new TestClass();
+		object1.child = new TestClass();
+		kyro.register(TestClass.class, new CompatibleFieldSerializer(kyro, TestClass.class));
+		try {
+			kyro.writeObject(new Output(16), object1);
+			fail();
+		} catch (KyroException expected) {
+		}
+
+		// The reused OutputChunked doesn't keep bytes from the failed write.
+		Output output = new Output(256);
+		kyro.writeObject(output, object1);
+		assertEquals(object1, kyro.readObject(new Input(output.toBytes()), TestClass.class));
+	}
+
 	static public class TestClass {
 		public String text = "something";
 		public int moo = 120;
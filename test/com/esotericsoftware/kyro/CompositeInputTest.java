@@ -0,0 +1,158 @@
+package com.esotericsoftware.kyro;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Random;
+
+import com.esotericsoftware.kyro.io.CompositeInput;
+import com.esotericsoftware.kyro.io.Output;
+
+public class CompositeInputTest extends KryoTestCase {
+	public void testPrimitives () {
+		Output output = new Output(1024, -1);
+		writeValues(output);
+		byte[] bytes = output.toBytes();
+
+		CompositeInput input = new CompositeInput();
+		for (int size = 1; size <= 20; size++) {
+			input.setBuffers(split(bytes, size, false));
+			readValues(input);
+			assertEquals(bytes.length, input.total());
+			assertTrue(input.eof());
+
+			input.rewind();
+			readValues(input);
+			assertTrue(input.eof());
+		}
+
+		Random random = new Random(42);
+		for (int i = 0; i < 50; i++) {
+			ArrayList<ByteBuffer> buffers = splitRandom(bytes, random);
+			input.setBuffers(buffers);
+			assertEquals(bytes.length, input.available());
+			readValues(input);
+			assertEquals(0, input.available());
+			assertEquals(-1, input.read());
+		}
+	}
+
+	public void testObjects () {
+		kyro.register(ArrayList.class);
+		kyro.register(byte[].class);
+		ArrayList list = new ArrayList();
+		for (int i = 0; i < 100; i++) {
+			list.add("value" + i);
+			list.add("\u1234" + i);
+			list.add(i * 1234567L);
+			list.add(new byte[i]);
+		}
+		Output output = new Output(1024, -1);
+		kyro.writeClassAndObject(output, list);
+		byte[] bytes = output.toBytes();
+
+		CompositeInput input = new CompositeInput(split(bytes, 7, true));
+		Object read = kyro.readClassAndObject(input);
+		output.clear();
+		kyro.writeClassAndObject(output, read);
+		assertEquals(bytes, output.toBytes());
+
+		input.setBuffers(split(bytes, 7, true));
+		input.skip(bytes.length - 1);
+		assertEquals(bytes[bytes.length - 1], input.readByte());
+		try {
+			input.readByte();
+			fail();
+		} catch (KyroException expected) {
+		}
+	}
+
+	public void testArrayNotModified () {
+		byte[] bytes = new byte[] {1, 2, 3, 4, 5, 6};
+		ByteBuffer[] array = split(bytes, 3, false);
+		ByteBuffer[] copy = array.clone();
+		CompositeInput input = new CompositeInput(array);
+		ArrayList<ByteBuffer> list = new ArrayList();
+		list.add(ByteBuffer.wrap(new byte[] {7}));
+		list.add(ByteBuffer.wrap(new byte[] {8}));
+		input.setBuffers(list);
+		assertEquals(7, input.readByte());
+		assertEquals(8, input.readByte());
+		for (int i = 0; i < array.length; i++)
+			assertSame(copy[i], array[i]);
+
+		input.setBuffers(array);
+		for (ByteBuffer buffer : list)
+			buffer.rewind();
+		input.setBuffers(list);
+		assertEquals(7, input.readByte());
+		for (int i = 0; i < array.length; i++)
+			assertSame(copy[i], array[i]);
+	}
+
+	private void writeValues (Output output) {
+		for (int i = 0; i < 20; i++) {
+			output.writeByte(i);
+			output.writeInt(i * 123456789);
+			output.writeVarInt(i * 1234567, true);
+			output.writeVarInt(-i, false);
+			output.writeLong(i * 123456789012L);
+			output.writeVarLong(i * 123456789012L, true);
+			output.writeDouble(i * 1.5);
+			output.writeFloat(i * 2.5f);
+			output.writeShort(i * 1000);
+			output.writeChar((char)('a' + i));
+			output.writeBoolean(i % 2 == 0);
+			output.writeString("abc" + i);
+			output.writeString("\u1234\u5678" + i);
+			output.writeBytes(new byte[] {1, 2, 3, (byte)i});
+		}
+	}
+
+	private void readValues (CompositeInput input) {
+		for (int i = 0; i < 20; i++) {
+			assertEquals(i, input.readByte());
+			assertEquals(i * 123456789, input.readInt());
+			assertEquals(i * 1234567, input.readVarInt(true));
+			assertEquals(-i, input.readVarInt(false));
+			assertEquals(i * 123456789012L, input.readLong());
+			assertEquals(i * 123456789012L, input.readVarLong(true));
+			assertEquals(i * 1.5, input.readDouble());
+			assertEquals(i * 2.5f, input.readFloat());
+			assertEquals(i * 1000, input.readShort());
+			assertEquals('a' + i, input.readChar());
+			assertEquals(i % 2 == 0, input.readBoolean());
+			assertEquals("abc" + i, input.readString());
+			assertEquals("\u1234\u5678" + i, input.readString());
+			byte[] bytes = input.readBytes(4);
+			assertEquals(i, bytes[3]);
+		}
+	}
+
+	/** Splits the bytes into ByteBuffers of the specified size, each with bytes before its position and after its limit. */
+	private ByteBuffer[] split (byte[] bytes, int size, boolean direct) {
+		ByteBuffer[] buffers = new ByteBuffer[(bytes.length + size - 1) / size];
+		for (int i = 0, offset = 0; i < buffers.length; i++, offset += size)
+			buffers[i] = buffer(bytes, offset, Math.min(size, bytes.length - offset), direct);
+		return buffers;
+	}
+
+	private ArrayList<ByteBuffer> splitRandom (byte[] bytes, Random random) {
+		ArrayList<ByteBuffer> buffers = new ArrayList();
+		int offset = 0;
+		while (offset < bytes.length) {
+			int size = Math.min(random.nextInt(30), bytes.length - offset);
+			buffers.add(buffer(bytes, offset, size, random.nextBoolean()));
+			offset += size;
+		}
+		return buffers;
+	}
+
+	private ByteBuffer buffer (byte[] bytes, int offset, int count, boolean direct) {
+		ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(count + 6) : ByteBuffer.allocate(count + 6);
+		buffer.position(3);
+		buffer.put(bytes, offset, count);
+		buffer.limit(3 + count);
+		buffer.position(3);
+		return buffer;
+	}
+}
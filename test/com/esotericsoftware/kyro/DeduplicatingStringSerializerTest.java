@@ -0,0 +1,145 @@
+package com.esotericsoftware.kyro;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kyro.serializers.DeduplicatingStringSerializer;
+import com.esotericsoftware.kyro.serializers.LazyRef;
+
+public class DeduplicatingStringSerializerTest extends KryoTestCase {
+	protected void setUp () throws Exception {
+		super.setUp();
+		kyro.register(String.class, new DeduplicatingStringSerializer());
+		kyro.register(ArrayList.class);
+		kyro.register(HashMap.class);
+		kyro.register(String[].class);
+		kyro.register(Event.class);
+	}
+
+	public void testDeduplicate () {
+		ArrayList events = events(100);
+		byte[] bytes = writeClassAndObject(kyro, events);
+		ArrayList<Event> read = (ArrayList)kyro.readClassAndObject(new Input(bytes));
+		assertEquals(events, read);
+
+		// Equal strings are read as the same instance, from fields, arrays and map keys.
+		Event first = read.get(0), last = read.get(99);
+		assertSame(first.tenant, last.tenant);
+		assertSame(first.status, read.get(4).status);
+		assertSame(first.tags[0], last.tags[0]);
+		assertSame(first.tenant, last.tags[1]);
+		assertSame(first.attributes.keySet().iterator().next(), last.attributes.keySet().iterator().next());
+		assertNull(read.get(1).status);
+
+		Kyro plain = new Kyro();
+		plain.setReferences(false);
+		plain.register(ArrayList.class);
+		plain.register(HashMap.class);
+		plain.register(String[].class);
+		plain.register(Event.class);
+		assertTrue(bytes.length < writeClassAndObject(plain, events).length / 2);
+	}
+
+	public void testReset () {
+		// The table is cleared after each graph, so writing the same graph again writes the strings again.
+		ArrayList events = events(3);
+		Output output = new Output(1024, -1);
+		kyro.writeClassAndObject(output, events);
+		int length = output.position();
+		kyro.writeClassAndObject(output, events);
+		assertEquals(length * 2, output.position());
+
+		Input input = new Input(output.toBytes());
+		assertEquals(events, kyro.readClassAndObject(input));
+		assertEquals(events, kyro.readClassAndObject(input));
+	}
+
+	public void testSkip () {
+		// Without resetting, the second object refers to strings written for the first.
+		kyro.setAutoReset(false);
+		ArrayList events = events(3);
+		Output output = new Output(1024, -1);
+		kyro.writeObject(output, events.get(0));
+		kyro.writeObject(output, events.get(1));
+		kyro.writeObject(output, events.get(2));
+		kyro.reset();
+
+		Input input = new Input(output.toBytes());
+		kyro.skipObject(input, Event.class);
+		assertEquals(events.get(1), kyro.readObject(input, Event.class));
+		kyro.skipObject(input, Event.class);
+		assertEquals(output.position(), input.position());
+	}
+
+	public void testLazyRef () {
+		// The value of a LazyRef has its own table, so it can be read after the outer graph.
+		kyro.register(LazyRef.class);
+		ArrayList events = events(3);
+		ArrayList list = new ArrayList();
+		list.add(events.get(0));
+		list.add(new LazyRef(events.get(1)));
+		list.add(events.get(2));
+		ArrayList read = (ArrayList)kyro.readClassAndObject(new Input(writeClassAndObject(kyro, list)));
+		assertEquals(events.get(2), read.get(2));
+		assertEquals(events.get(1), ((LazyRef)read.get(1)).get(kyro));
+		assertEquals(events.get(0), read.get(0));
+	}
+
+	public void testProjection () {
+		// The "tenant" string is first written in the skipped tags field.
+		kyro.register(Event.class, new CompatibleFieldSerializer(kyro, Event.class));
+		Event event = (Event)events(1).get(0);
+		Event read = kyro.readProjected(new Input(writeObject(kyro, event)), Event.class, "tenant");
+		assertEquals("tenant", read.tenant);
+		assertNull(read.tags);
+	}
+
+	public void testInvalidIndex () {
+		Output output = new Output(16);
+		output.writeVarInt(7, true);
+		try {
+			kyro.readObject(new Input(output.toBytes()), String.class);
+			fail();
+		} catch (KyroException expected) {
+		}
+		output.clear();
+		output.writeVarInt(-1, true);
+		try {
+			kyro.readObject(new Input(output.toBytes()), String.class);
+			fail();
+		} catch (KyroException expected) {
+		}
+	}
+
+	private ArrayList events (int count) {
+		ArrayList events = new ArrayList();
+		for (int i = 0; i < count; i++) {
+			Event event = new Event();
+			// Separate instances, so references would not find them.
+			event.tenant = new String("tenant");
+			if (i % 2 == 0) event.status = "status" + i % 4;
+			event.tags = new String[] {new String("tag"), new String("tenant")};
+			event.attributes = new HashMap();
+			event.attributes.put(new String("key"), String.valueOf(i));
+			events.add(event);
+		}
+		return events;
+	}
+
+	static public class Event {
+		public String tenant, status;
+		public String[] tags;
+		public HashMap<String, String> attributes;
+
+		public boolean equals (Object obj) {
+			Event other = (Event)obj;
+			if (tenant == null ? other.tenant != null : !tenant.equals(other.tenant)) return false;
+			if (status == null ? other.status != null : !status.equals(other.status)) return false;
+			return Arrays.equals(tags, other.tags) && attributes.equals(other.attributes);
+		}
+	}
+}
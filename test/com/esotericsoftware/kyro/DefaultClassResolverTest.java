@@ -0,0 +1,75 @@
+package com.esotericsoftware.kyro;
+
+import java.util.ArrayList;
+
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.serializers.DefaultSerializers.StringSerializer;
+
+public class DefaultClassResolverTest extends KryoTestCase {
+	{
+		supportsCopy = true;
+	}
+
+	public void testPolymorphicList () {
+		kyro.register(ArrayList.class);
+		kyro.register(A.class);
+		kyro.register(B.class);
+		kyro.register(C.class, 100000);
+		kyro.register(D.class);
+		kyro.register(E.class);
+		ArrayList list = new ArrayList();
+		for (int i = 0; i < 4; i++) {
+			list.add(new A());
+			list.add(new B());
+			list.add(new C());
+			list.add(new D());
+			list.add(new E());
+		}
+		roundTrip(30, 30, list);
+		assertEquals(100000, kyro.getRegistration(C.class).getId());
+		assertSame(C.class, kyro.getRegistration(100000).getType());
+	}
+
+	public void testReregister () {
+		kyro.register(A.class, 20);
+		Output output = new Output(32);
+		kyro.writeClassAndObject(output, new A());
+		assertTrue(kyro.readClassAndObject(new Input(output.toBytes())) instanceof A);
+
+		// A new registration for a memoized class or ID is used.
+		kyro.register(B.class, 20);
+		Registration registration = kyro.register(A.class, new StringSerializer(), 21);
+		assertSame(registration, kyro.getRegistration(A.class));
+		assertTrue(kyro.readClassAndObject(new Input(output.toBytes())) instanceof B);
+	}
+
+	public void testInvalidId () {
+		Output output = new Output(32);
+		output.writeVarInt(-5, true);
+		try {
+			kyro.readClass(new Input(output.toBytes()));
+			fail();
+		} catch (KyroException ex) {
+			assertTrue(ex.getMessage().startsWith("Encountered unregistered class ID"));
+		}
+	}
+
+	static public class A {
+		public boolean equals (Object obj) {
+			return obj != null && obj.getClass() == getClass();
+		}
+	}
+
+	static public class B extends A {
+	}
+
+	static public class C extends A {
+	}
+
+	static public class D extends A {
+	}
+
+	static public class E extends A {
+	}
+}
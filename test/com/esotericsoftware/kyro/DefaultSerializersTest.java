@@ -13,6 +13,10 @@ import java.util.TimeZone;
 import com.esotericsoftware.kyro.Kyro;
 import com.esotericsoftware.kyro.io.Input;
 import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.serializers.BeanSerializer;
+import com.esotericsoftware.kyro.serializers.CollectionSerializer;
+import com.esotericsoftware.kyro.serializers.FieldSerializer;
+import com.esotericsoftware.kyro.serializers.JavaSerializer;
 
 /** @author Nathan Sweet <misc@n4te.com> */
 public class DefaultSerializersTest extends KryoTestCase {
@@ -280,6 +284,32 @@ public class DefaultSerializersTest extends KryoTestCase {
 		assertEquals(TestEnum.class, kyro.readObject(in, Class.class));
 	}
 
+	public void testDefaultSerializerCache () {
+		assertTrue(kyro.getDefaultSerializer(ArrayList.class) instanceof CollectionSerializer);
+		assertTrue(kyro.getDefaultSerializer(TestBean.class) instanceof FieldSerializer);
+		assertTrue(kyro.getDefaultSerializer(Object.class) instanceof FieldSerializer);
+		assertNotSame(kyro.getDefaultSerializer(ArrayList.class), kyro.getDefaultSerializer(ArrayList.class));
+
+		// Adding a default serializer invalidates the cached lookups.
+		kyro.addDefaultSerializer(ArrayList.class, JavaSerializer.class);
+		assertTrue(kyro.getDefaultSerializer(ArrayList.class) instanceof JavaSerializer);
+		kyro.addDefaultSerializer(TestBean.class, BeanSerializer.class);
+		assertTrue(kyro.getDefaultSerializer(TestBean.class) instanceof BeanSerializer);
+
+		// The fallback serializer is not cached.
+		kyro.setDefaultSerializer(BeanSerializer.class);
+		assertTrue(kyro.getDefaultSerializer(Object.class) instanceof BeanSerializer);
+		assertTrue(kyro.getDefaultSerializer(TestAnnotated.class) instanceof JavaSerializer);
+	}
+
+	@DefaultSerializer(JavaSerializer.class)
+	static public class TestAnnotated implements java.io.Serializable {
+	}
+
+	static public class TestBean {
+		public int value;
+	}
+
 	public enum TestEnum {
 		a, b, c
 	}
@@ -1,7 +1,10 @@
 
 package com.esotericsoftware.kyro;
 
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
 import com.esotericsoftware.kyro.serializers.DeflateSerializer;
+import com.esotericsoftware.kyro.serializers.FieldSerializer;
 import com.esotericsoftware.kyro.serializers.DefaultSerializers.StringSerializer;
 
 /** @author Nathan Sweet <misc@n4te.com> */
@@ -25,6 +28,42 @@ public class DeflateSerializerTest extends KryoTestCase {
 		roundTrip(8, 8, message);
 	}
 
+	public void testReuse () {
+		kyro.register(MessageType.class);
+		kyro.register(ServerPhysicsUpdate.class);
+		DeflateSerializer serializer = new DeflateSerializer(new FieldSerializer(kyro, Message.class));
+		kyro.register(Message.class, serializer);
+
+		// The inner message is deflated while the outer message is being deflated.
+		Message message = new Message();
+		message.type = MessageType.SERVER_UPDATE;
+		message.data = new Message();
+		Output output = new Output(1024, -1);
+		for (int i = 0; i < 3; i++)
+			kyro.writeObject(output, message);
+		kyro.writeObject(output, "end");
+		Input input = new Input(output.toBytes());
+		for (int i = 0; i < 3; i++)
+			assertEquals(message, kyro.readObject(input, Message.class));
+		assertEquals("end", kyro.readObject(input, String.class));
+
+		serializer.setNoHeaders(false);
+		serializer.setCompressionLevel(9);
+		output.clear();
+		kyro.writeObject(output, message);
+		assertEquals(message, kyro.readObject(new Input(output.toBytes()), Message.class));
+
+		// Each Kyro instance has its own deflater and inflater.
+		Kyro other = new Kyro();
+		other.setReferences(false);
+		other.register(MessageType.class);
+		other.register(ServerPhysicsUpdate.class);
+		DeflateSerializer otherSerializer = new DeflateSerializer(new FieldSerializer(other, Message.class));
+		otherSerializer.setNoHeaders(false);
+		other.register(Message.class, otherSerializer);
+		assertEquals(message, other.readObject(new Input(output.toBytes()), Message.class));
+	}
+
 	public static class ServerPhysicsUpdate {
 		public int value;
 
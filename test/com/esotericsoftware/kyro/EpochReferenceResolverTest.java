@@ -0,0 +1,74 @@
+package com.esotericsoftware.kyro;
+
+import java.util.ArrayList;
+
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.util.EpochReferenceResolver;
+
+public class EpochReferenceResolverTest extends KryoTestCase {
+	private EpochReferenceResolver resolver;
+
+	protected void setUp () throws Exception {
+		super.setUp();
+		resolver = new EpochReferenceResolver();
+		kyro.setReferences(true);
+		kyro.setReferenceResolver(resolver);
+		kyro.register(Node.class);
+		kyro.register(ArrayList.class);
+	}
+
+	public void testReferences () {
+		Node node = new Node();
+		node.next = new Node();
+		node.next.next = node;
+		node.value = 1;
+		node.next.value = 2;
+		Node read = roundTripObject(node);
+		assertSame(read, read.next.next);
+		assertEquals(2, read.next.value);
+
+		// An object from a previous graph is written again, not as a reference.
+		Output output = new Output(1024, -1);
+		kyro.writeObject(output, node);
+		kyro.writeObject(output, node);
+		Input input = new Input(output.toBytes());
+		Node first = kyro.readObject(input, Node.class);
+		Node second = kyro.readObject(input, Node.class);
+		assertNotSame(first, second);
+		assertEquals(1, second.value);
+	}
+
+	public void testGrowAndShrink () {
+		resolver.setMaximumCapacity(10);
+		resolver.setShrinkAfter(2);
+		ArrayList list = new ArrayList();
+		for (int i = 0; i < 1000; i++) {
+			Node node = new Node();
+			node.value = i;
+			list.add(node);
+			list.add(node);
+		}
+		ArrayList read = roundTripObject(list);
+		assertEquals(2000, read.size());
+		for (int i = 0; i < 2000; i += 2) {
+			assertSame(read.get(i), read.get(i + 1));
+			assertEquals(i / 2, ((Node)read.get(i)).value);
+		}
+
+		// Small graphs work while and after the tables shrink.
+		for (int i = 0; i < 5; i++) {
+			Node node = new Node();
+			node.next = node;
+			Node readNode = roundTripObject(node);
+			assertSame(readNode, readNode.next);
+		}
+		read = roundTripObject(list);
+		assertSame(read.get(1998), read.get(1999));
+	}
+
+	static public class Node {
+		public int value;
+		public Node next;
+	}
+}
@@ -394,6 +394,22 @@ public class FieldSerializerTest extends KryoTestCase {
 		roundTrip(18, 18, al);
 	}
 
+	public void testGenericsCache () {
+		kyro.register(HasEnvelopes.class);
+		kyro.register(Envelope.class);
+		HasEnvelopes test = new HasEnvelopes();
+		test.a = new Envelope("a", 1);
+		test.b = new Envelope("b", 2);
+		test.c = new Envelope(3, "c");
+		roundTrip(16, 25, test);
+
+		FieldSerializer serializer = (FieldSerializer)kyro.getSerializer(Envelope.class);
+		// Fields are built once for <String, Integer> and once for <Integer, String>.
+		assertEquals(2, serializer.getGenericsCacheMisses());
+		assertTrue(serializer.getGenericsCacheHits() > 0);
+		assertEquals(2, serializer.getGenerics().length);
+	}
+
 	public void testRegistration () {
 		int id = kyro.getNextRegistrationId();
 		kyro.register(DefaultTypes.class, id);
@@ -908,6 +924,36 @@ public class FieldSerializerTest extends KryoTestCase {
 		}
 	}
 	
+	static public class Envelope<K, V> {
+		K key;
+		V value;
+
+		public Envelope () {
+		}
+
+		public Envelope (K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Envelope)) return false;
+			Envelope other = (Envelope)obj;
+			return key.equals(other.key) && value.equals(other.value);
+		}
+	}
+
+	static public class HasEnvelopes {
+		Envelope<String, Integer> a, b;
+		Envelope<Integer, String> c;
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof HasEnvelopes)) return false;
+			HasEnvelopes other = (HasEnvelopes)obj;
+			return a.equals(other.a) && b.equals(other.b) && c.equals(other.c);
+		}
+	}
+
 	static public class MultipleTimesAnnotatedCollectionFields {
 		// This annotation should result in an exception, because
 		// it is applied to a non-collection field
@@ -0,0 +1,158 @@
+package com.esotericsoftware.kyro;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.esotericsoftware.kyro.io.FramedInput;
+import com.esotericsoftware.kyro.io.FramedOutput;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+
+public class FramedInputOutputTest extends KryoTestCase {
+	private ArrayList messages = new ArrayList();
+
+	protected void setUp () throws Exception {
+		super.setUp();
+		kyro.register(ArrayList.class);
+		kyro.register(byte[].class);
+		for (int i = 0; i < 50; i++) {
+			messages.add("message" + i);
+			messages.add(new byte[i * 7]);
+			messages.add(null);
+			ArrayList list = new ArrayList();
+			list.add(i);
+			list.add((long)i << 40);
+			messages.add(list);
+		}
+	}
+
+	public void testMessages () {
+		roundTrip(false);
+		roundTrip(true);
+	}
+
+	private void roundTrip (boolean checksum) {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		// A small buffer so messages span flushes and grow the buffer.
+		FramedOutput output = new FramedOutput(stream, 16, -1);
+		output.setChecksum(checksum);
+		for (int i = 0; i < messages.size(); i++)
+			output.writeMessage(kyro, messages.get(i));
+		output.flush();
+		assertEquals(stream.size(), output.total());
+
+		FramedInput input = new FramedInput(new ByteArrayInputStream(stream.toByteArray()), 16, -1);
+		input.setChecksum(checksum);
+		ArrayList read = new ArrayList();
+		for (int i = 0; i < messages.size(); i++)
+			read.add(input.readMessage(kyro));
+		assertTrue(input.eof());
+		assertMessages(read);
+	}
+
+	public void testBatches () {
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		FramedOutput output = new FramedOutput(stream, 4096, -1);
+		for (int i = 0; i < messages.size(); i += 25) {
+			output.writeMessages(kyro, messages.subList(i, i + 25));
+			// Each batch is flushed once.
+			assertEquals(0, output.position());
+			assertEquals(stream.size(), output.total());
+		}
+
+		FramedInput input = new FramedInput(new ByteArrayInputStream(stream.toByteArray()), 256, -1);
+		ArrayList read = new ArrayList();
+		while (true) {
+			int count = input.readMessages(kyro, read, 10);
+			if (count == 0) break;
+			assertTrue(count <= 10);
+		}
+		assertMessages(read);
+	}
+
+	public void testChecksumMismatch () {
+		FramedOutput output = new FramedOutput(64, -1);
+		output.setChecksum(true);
+		output.writeMessage(kyro, "abc");
+		output.writeMessage(kyro, "def");
+		byte[] bytes = output.toBytes();
+		bytes[9]++;
+
+		FramedInput input = new FramedInput(bytes);
+		input.setChecksum(true);
+		try {
+			input.readMessage(kyro);
+			fail();
+		} catch (KyroException expected) {
+		}
+		// The corrupt message is skipped.
+		assertEquals("def", input.readMessage(kyro));
+		assertTrue(input.eof());
+	}
+
+	public void testPartialReads () {
+		FramedOutput output = new FramedOutput(64, -1);
+		output.beginMessage();
+		output.writeInt(1);
+		output.writeInt(2);
+		output.endMessage();
+		output.writeMessage(kyro, "abc");
+		output.beginMessage();
+		output.endMessage();
+		output.writeMessage(kyro, "def");
+
+		FramedInput input = new FramedInput(output.toBytes());
+		assertTrue(input.isMessageBuffered());
+		assertEquals(8, input.beginMessage());
+		assertEquals(1, input.readInt());
+		try {
+			input.endMessage();
+			fail();
+		} catch (KyroException expected) {
+		}
+		assertEquals("abc", input.readMessage(kyro));
+		assertEquals(0, input.beginMessage());
+		try {
+			input.readInt();
+			fail();
+		} catch (KyroException expected) {
+		}
+		input.endMessage();
+		input.skipMessage();
+		assertTrue(input.eof());
+		assertFalse(input.isMessageBuffered());
+	}
+
+	public void testFailedWrite () {
+		FramedOutput output = new FramedOutput(64, -1);
+		output.writeMessage(kyro, "abc");
+		kyro.setRegistrationRequired(true);
+		try {
+			output.writeMessage(kyro, new Unregistered());
+			fail();
+		} catch (IllegalArgumentException expected) {
+		}
+		output.writeMessage(kyro, "def");
+
+		FramedInput input = new FramedInput(output.toBytes());
+		assertEquals("abc", input.readMessage(kyro));
+		assertEquals("def", input.readMessage(kyro));
+		assertTrue(input.eof());
+	}
+
+	private void assertMessages (ArrayList read) {
+		assertEquals(messages.size(), read.size());
+		for (int i = 0, n = messages.size(); i < n; i++) {
+			Object expected = messages.get(i), actual = read.get(i);
+			if (expected instanceof byte[])
+				assertTrue(Arrays.equals((byte[])expected, (byte[])actual));
+			else
+				assertEquals(expected, actual);
+		}
+	}
+
+	static public class Unregistered {
+	}
+}
@@ -0,0 +1,190 @@
+package com.esotericsoftware.kyro;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.serializers.FieldSerializer;
+import com.esotericsoftware.kyro.serializers.GeneratedFieldSerializer;
+
+public class GeneratedFieldSerializerTest extends KryoTestCase {
+	{
+		supportsCopy = true;
+	}
+
+	public void testGenerated () {
+		kyro.register(Data.class, new GeneratedFieldSerializer(kyro, Data.class));
+		kyro.register(Inner.class, new GeneratedFieldSerializer(kyro, Inner.class));
+		kyro.register(ArrayList.class);
+		kyro.register(int[].class);
+		roundTrip(48, 66, newData());
+
+		Data data = new Data();
+		data.text = "x";
+		data.inner = new Inner();
+		roundTrip(29, 45, data);
+	}
+
+	public void testSameBytes () {
+		Data data = newData();
+		Kyro kyro = new Kyro();
+		kyro.register(Data.class, new FieldSerializer(kyro, Data.class));
+		register(kyro);
+		byte[] expected = writeClassAndObject(kyro, data);
+
+		Kyro generatedKyro = new Kyro();
+		generatedKyro.register(Data.class, new GeneratedFieldSerializer(generatedKyro, Data.class));
+		register(generatedKyro);
+		assertTrue(Arrays.equals(expected, writeClassAndObject(generatedKyro, data)));
+	}
+
+	public void testNotGeneratable () {
+		GeneratedFieldSerializer serializer = new GeneratedFieldSerializer(kyro, Hidden.class);
+		kyro.register(Hidden.class, serializer);
+		Hidden hidden = new Hidden();
+		hidden.value = 123;
+		roundTrip(3, 5, hidden);
+	}
+
+	public void testRemoveField () {
+		GeneratedFieldSerializer serializer = new GeneratedFieldSerializer(kyro, Inner.class);
+		kyro.register(Inner.class, serializer);
+		Inner inner = new Inner();
+		inner.value = 5;
+		inner.name = "abc";
+		roundTrip(5, 8, inner);
+		serializer.removeField("name");
+		inner.name = null;
+		roundTrip(2, 5, inner);
+	}
+
+	public void testNullNotAllowed () {
+		GeneratedFieldSerializer serializer = new GeneratedFieldSerializer(kyro, Data.class);
+		serializer.getField("inner").setCanBeNull(false);
+		kyro.register(Data.class, serializer);
+		kyro.register(Inner.class);
+		kyro.register(ArrayList.class);
+		kyro.register(int[].class);
+		try {
+			kyro.writeObject(new Output(1024), new Data());
+			fail();
+		} catch (KyroException expected) {
+		}
+	}
+
+	public void testTrace () {
+		kyro.register(Data.class, new GeneratedFieldSerializer(kyro, Data.class));
+		kyro.register(Inner.class, new Serializer<Inner>() {
+			public void write (Kyro kyro, Output output, Inner object) {
+				throw new IllegalStateException();
+			}
+
+			public Inner read (Kyro kyro, Input input, Class<Inner> type) {
+				throw new IllegalStateException();
+			}
+		});
+		kyro.register(ArrayList.class);
+		kyro.register(int[].class);
+		Output output = new Output(1024);
+		try {
+			kyro.writeObject(output, newData());
+			fail();
+		} catch (KyroException ex) {
+			assertTrue(ex.getMessage().indexOf("inner (" + Data.class.getName() + ")") != -1);
+		}
+
+		// A primitive field read past the end of the input.
+		output.clear();
+		output.writeByte(1);
+		try {
+			kyro.readObject(new Input(output.toBytes()), Data.class);
+			fail();
+		} catch (KyroException ex) {
+			assertTrue(ex.getMessage().indexOf("c (" + Data.class.getName() + ")") != -1);
+		}
+	}
+
+	private void register (Kyro kyro) {
+		kyro.register(Inner.class, new FieldSerializer(kyro, Inner.class));
+		kyro.register(ArrayList.class);
+		kyro.register(int[].class);
+	}
+
+	private Data newData () {
+		Data data = new Data();
+		data.b = 1;
+		data.c = 'c';
+		data.s = 300;
+		data.i = -12345;
+		data.l = 1234567890123L;
+		data.f = 1.5f;
+		data.d = -2.25;
+		data.z = true;
+		data.text = "abc";
+		data.inner = new Inner();
+		data.inner.value = 7;
+		data.inner.name = "inner";
+		data.list = new ArrayList();
+		data.list.add("a");
+		data.ints = new int[] {1, 2, 3};
+		data.setHidden(42);
+		return data;
+	}
+
+	static public class Data {
+		public byte b;
+		public char c;
+		public short s;
+		public int i;
+		public long l;
+		public float f;
+		public double d;
+		public boolean z;
+		public String text;
+		public Inner inner;
+		public ArrayList list;
+		public int[] ints;
+		private int hidden;
+
+		public int getHidden () {
+			return hidden;
+		}
+
+		public void setHidden (int hidden) {
+			this.hidden = hidden;
+		}
+
+		public boolean equals (Object obj) {
+			if (this == obj) return true;
+			if (obj == null || getClass() != obj.getClass()) return false;
+			Data other = (Data)obj;
+			if (b != other.b || c != other.c || s != other.s || i != other.i || l != other.l || f != other.f || d != other.d
+				|| z != other.z || hidden != other.hidden) return false;
+			if (text == null ? other.text != null : !text.equals(other.text)) return false;
+			if (inner == null ? other.inner != null : !inner.equals(other.inner)) return false;
+			if (list == null ? other.list != null : !list.equals(other.list)) return false;
+			return Arrays.equals(ints, other.ints);
+		}
+	}
+
+	static public final class Inner {
+		public int value;
+		public String name;
+
+		public boolean equals (Object obj) {
+			if (this == obj) return true;
+			if (obj == null || getClass() != obj.getClass()) return false;
+			Inner other = (Inner)obj;
+			return value == other.value && (name == null ? other.name == null : name.equals(other.name));
+		}
+	}
+
+	static class Hidden {
+		public int value;
+
+		public boolean equals (Object obj) {
+			return obj instanceof Hidden && ((Hidden)obj).value == value;
+		}
+	}
+}
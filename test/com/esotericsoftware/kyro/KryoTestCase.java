@@ -248,10 +248,38 @@ abstract public class KryoTestCase extends TestCase {
 		return (T) object2;
 	}
 
+	/** Writes the object with {@link Kyro#writeObject(Output, Object)} and returns the bytes. */
+	protected byte[] writeObject(Kyro kyro, Object object) {
+		Output output = new Output(1024, -1);
+		kyro.writeObject(output, object);
+		return output.toBytes();
+	}
+
+	/** Writes the object with {@link Kyro#writeClassAndObject(Output, Object)} and returns the bytes. */
+	protected byte[] writeClassAndObject(Kyro kyro, Object object) {
+		Output output = new Output(1024, -1);
+		kyro.writeClassAndObject(output, object);
+		return output.toBytes();
+	}
+
+	/** Writes the object with {@link #kyro} and reads it back. Unlike {@link #roundTrip(int, int, Object)}, the length is not
+	 * checked and the object does not need to implement equals. */
+	protected <T> T roundTripObject(T object) {
+		return (T)kyro.readClassAndObject(new Input(writeClassAndObject(kyro, object)));
+	}
+
 	static public void assertEquals(Object object1, Object object2) {
 		Assert.assertEquals(arrayToList(object1), arrayToList(object2));
 	}
 
+	/** Returns an ASCII string of the specified length. */
+	static public String ascii(int length) {
+		StringBuilder buffer = new StringBuilder(length);
+		for (int i = 0; i < length; i++)
+			buffer.append((char)('a' + i % 26));
+		return buffer.toString();
+	}
+
 	static public Object arrayToList(Object array) {
 		if (array == null || !array.getClass().isArray())
 			return array;
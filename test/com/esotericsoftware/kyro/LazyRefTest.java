@@ -0,0 +1,242 @@
+package com.esotericsoftware.kyro;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kyro.serializers.LazyRef;
+import com.esotericsoftware.kyro.serializers.LazyRefSerializer;
+import com.esotericsoftware.kyro.serializers.LazyRefSerializer.Lazy;
+
+public class LazyRefTest extends KryoTestCase {
+	protected void setUp () throws Exception {
+		super.setUp();
+		kyro.register(Entry.class);
+		kyro.register(Payload.class);
+		kyro.register(LazyRef.class);
+		kyro.register(int[].class);
+		kyro.register(ArrayList.class);
+	}
+
+	public void testRoundTrip () {
+		Entry entry = new Entry();
+		entry.header = "header";
+		entry.payload = new LazyRef(new Payload("payload", 1000));
+		entry.typed = new LazyRef(new Payload("typed", 10));
+		byte[] bytes = writeObject(kyro, entry);
+
+		Entry read = kyro.readObject(new Input(bytes), Entry.class);
+		assertEquals("header", read.header);
+		assertFalse(read.payload.isResolved());
+		assertFalse(read.typed.isResolved());
+		assertTrue(read.payload.getLength() > 1000);
+		int typedLength = read.typed.getLength();
+		assertEquals(entry.typed.get(kyro), read.typed.get(kyro));
+		assertTrue(read.typed.isResolved());
+		assertEquals(-1, read.typed.getLength());
+		assertFalse(read.payload.isResolved());
+		assertEquals(entry.payload.get(kyro), read.payload.get(kyro));
+
+		// The class of the typed value is not written.
+		Output output = new Output(64);
+		LazyRefSerializer serializer = new LazyRefSerializer();
+		serializer.setValueClass(Payload.class);
+		serializer.write(kyro, output, new LazyRef(new Payload("typed", 10)));
+		assertEquals(typedLength + 1, output.position());
+	}
+
+	public void testStream () {
+		Entry entry = new Entry();
+		entry.payload = new LazyRef(new Payload("payload", 100));
+		byte[] bytes = writeObject(kyro, entry);
+
+		Entry read = kyro.readObject(new Input(new ByteArrayInputStream(bytes), 16), Entry.class);
+		assertNull(read.header);
+		assertNull(read.typed);
+		assertEquals(entry.payload.get(kyro), read.payload.get(kyro));
+	}
+
+	public void testCopyBytes () {
+		Entry entry = new Entry();
+		entry.payload = new LazyRef(new Payload("payload", 10));
+		byte[] bytes = writeObject(kyro, entry);
+
+		// The bytes are copied by default, so the buffer can be reused before the value is deserialized.
+		Entry read = kyro.readObject(new Input(bytes), Entry.class);
+		Arrays.fill(bytes, (byte)0);
+		assertEquals(entry.payload.get(kyro), read.payload.get(kyro));
+	}
+
+	public void testSliceBytes () {
+		LazyRefSerializer serializer = new LazyRefSerializer();
+		serializer.setCopyBytes(false);
+		kyro.register(LazyRef.class, serializer);
+		Entry entry = new Entry();
+		entry.payload = new LazyRef(new Payload("payload", 10));
+		byte[] bytes = writeObject(kyro, entry);
+
+		Entry read = kyro.readObject(new Input(bytes), Entry.class);
+		assertEquals(entry.payload.get(kyro), read.payload.get(kyro));
+	}
+
+	public void testWriteUnresolved () {
+		Entry entry = new Entry();
+		entry.header = "header";
+		entry.payload = new LazyRef(new Payload("payload", 100));
+		entry.typed = new LazyRef();
+		byte[] bytes = writeObject(kyro, entry);
+
+		Entry read = kyro.readObject(new Input(bytes), Entry.class);
+		assertEquals(bytes, writeObject(kyro, read));
+		assertFalse(read.payload.isResolved());
+		read.payload.get(kyro);
+		assertNull(read.typed.get(kyro));
+		assertEquals(bytes, writeObject(kyro, read));
+
+		read.typed.set(new Payload("typed", 1));
+		assertTrue(writeObject(kyro, read).length > bytes.length);
+	}
+
+	public void testReferences () {
+		kyro.setReferences(true);
+		Payload payload = new Payload("shared", 10);
+		Entry entry = new Entry();
+		entry.first = payload;
+		entry.payload = new LazyRef(payload);
+		entry.second = payload;
+		byte[] bytes = writeObject(kyro, entry);
+
+		Entry read = kyro.readObject(new Input(bytes), Entry.class);
+		assertSame(read.first, read.second);
+		Payload lazy = (Payload)read.payload.get(kyro);
+		assertEquals(payload, lazy);
+		assertNotSame(read.first, lazy);
+		assertSame(kyro.getReferenceResolver(), kyro.getReferenceResolver());
+		assertTrue(kyro.getReferences());
+
+		// References inside the value are kept.
+		ArrayList list = new ArrayList();
+		list.add(payload);
+		list.add(payload);
+		entry.payload = new LazyRef(list);
+		read = kyro.readObject(new Input(writeObject(kyro, entry)), Entry.class);
+		list = (ArrayList)read.payload.get(kyro);
+		assertSame(list.get(0), list.get(1));
+	}
+
+	public void testNested () {
+		Entry inner = new Entry();
+		inner.header = "inner";
+		inner.payload = new LazyRef(new Payload("nested", 20));
+		Entry entry = new Entry();
+		entry.payload = new LazyRef(inner);
+		byte[] bytes = writeObject(kyro, entry);
+
+		Entry read = kyro.readObject(new Input(bytes), Entry.class);
+		Entry readInner = (Entry)read.payload.get(kyro);
+		assertEquals("inner", readInner.header);
+		assertFalse(readInner.payload.isResolved());
+		assertEquals(inner.payload.get(kyro), readInner.payload.get(kyro));
+	}
+
+	public void testUnregistered () {
+		// The class name is written in the value's bytes and in the outer graph, whichever is written first.
+		kyro.setRegistrationRequired(false);
+		ArrayList list = new ArrayList();
+		list.add(new LazyRef(new Unregistered(1)));
+		list.add(new Unregistered(2));
+		list.add(new LazyRef(new Unregistered(3)));
+		ArrayList read = (ArrayList)kyro.readClassAndObject(new Input(writeClassAndObject(kyro, list)));
+		assertEquals(2, ((Unregistered)read.get(1)).value);
+		assertEquals(3, ((Unregistered)((LazyRef)read.get(2)).get(kyro)).value);
+		assertEquals(1, ((Unregistered)((LazyRef)read.get(0)).get(kyro)).value);
+		assertFalse(kyro.isRegistrationRequired());
+	}
+
+	public void testCompatible () {
+		// The field names are written in the value's bytes and in the outer graph.
+		kyro.register(Compatible.class, new CompatibleFieldSerializer(kyro, Compatible.class));
+		ArrayList list = new ArrayList();
+		list.add(new Compatible(1, "first"));
+		list.add(new LazyRef(new Compatible(2, "lazy")));
+		list.add(new Compatible(3, "last"));
+		ArrayList read = (ArrayList)kyro.readClassAndObject(new Input(writeClassAndObject(kyro, list)));
+		assertEquals(list.get(2), read.get(2));
+		assertEquals(((LazyRef)list.get(1)).get(kyro), ((LazyRef)read.get(1)).get(kyro));
+
+		list.remove(0);
+		read = (ArrayList)kyro.readClassAndObject(new Input(writeClassAndObject(kyro, list)));
+		assertEquals(list.get(1), read.get(1));
+		assertEquals(((LazyRef)list.get(0)).get(kyro), ((LazyRef)read.get(0)).get(kyro));
+	}
+
+	public void testCopy () {
+		Entry entry = new Entry();
+		entry.payload = new LazyRef(new Payload("payload", 10));
+		Entry read = kyro.readObject(new Input(writeObject(kyro, entry)), Entry.class);
+		Entry copy = kyro.copy(read);
+		assertNotSame(read.payload, copy.payload);
+		assertFalse(copy.payload.isResolved());
+		assertEquals(entry.payload.get(kyro), copy.payload.get(kyro));
+	}
+
+	static public class Entry {
+		public String header;
+		public Payload first, second;
+		public LazyRef payload;
+		@Lazy(valueClass = Payload.class) public LazyRef<Payload> typed;
+	}
+
+	static public class Payload {
+		public String text;
+		public int[] values;
+
+		public Payload () {
+		}
+
+		public Payload (String text, int count) {
+			this.text = text;
+			values = new int[count];
+			for (int i = 0; i < count; i++)
+				values[i] = i * 31;
+		}
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Payload)) return false;
+			Payload other = (Payload)obj;
+			return text.equals(other.text) && Arrays.equals(values, other.values);
+		}
+	}
+
+	static public class Unregistered {
+		public int value;
+
+		public Unregistered () {
+		}
+
+		public Unregistered (int value) {
+			this.value = value;
+		}
+	}
+
+	static public class Compatible {
+		public int a;
+		public String b;
+
+		public Compatible () {
+		}
+
+		public Compatible (int a, String b) {
+			this.a = a;
+			this.b = b;
+		}
+
+		public boolean equals (Object obj) {
+			Compatible other = (Compatible)obj;
+			return a == other.a && b.equals(other.b);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package com.esotericsoftware.kyro;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import com.esotericsoftware.kyro.io.MappedFileInput;
+import com.esotericsoftware.kyro.io.MappedFileOutput;
+
+public class MappedFileTest extends KryoTestCase {
+	private File file;
+
+	protected void setUp () throws Exception {
+		super.setUp();
+		file = File.createTempFile("kyro-mapped", ".bin");
+	}
+
+	protected void tearDown () throws Exception {
+		file.delete();
+		super.tearDown();
+	}
+
+	public void testSegments () {
+		kyro.register(ArrayList.class);
+		kyro.register(byte[].class);
+		ArrayList list = new ArrayList();
+		for (int i = 0; i < 200; i++) {
+			list.add("value" + i);
+			list.add(i * 1234567L);
+			list.add(new byte[i]);
+		}
+
+		MappedFileOutput output = new MappedFileOutput(file, 64);
+		for (int i = 0; i < 10; i++)
+			kyro.writeClassAndObject(output, list);
+		output.writeAscii("end");
+		long total = output.total();
+		output.close();
+		assertEquals(total, file.length());
+
+		byte[] expected = writeClassAndObject(kyro, list);
+		MappedFileInput input = new MappedFileInput(file, 64);
+		assertEquals(total, input.length());
+		for (int i = 0; i < 10; i++)
+			assertEquals(expected, writeClassAndObject(kyro, kyro.readClassAndObject(input)));
+		assertEquals("end", input.readString());
+		assertTrue(input.eof());
+		assertEquals(-1, input.read());
+
+		input.rewind();
+		assertEquals(expected, writeClassAndObject(kyro, kyro.readClassAndObject(input)));
+		input.close();
+	}
+
+	public void testAsciiAcrossSegments () {
+		MappedFileOutput output = new MappedFileOutput(file, 16);
+		for (int i = 1; i < 40; i++)
+			output.writeAscii(ascii(i));
+		output.close();
+
+		MappedFileInput input = new MappedFileInput(file, 16);
+		for (int i = 1; i < 40; i++)
+			assertEquals(ascii(i), input.readString());
+		assertTrue(input.eof());
+		input.close();
+	}
+
+	public void testFilePosition () {
+		MappedFileOutput output = new MappedFileOutput(file, 16);
+		for (int i = 0; i < 100; i++)
+			output.writeLong(i);
+		output.setFilePosition(16);
+		output.writeLong(-1);
+		output.setFilePosition(800);
+		output.close();
+		assertEquals(800, file.length());
+
+		MappedFileInput input = new MappedFileInput(file, 16);
+		input.setFilePosition(8 * 50);
+		assertEquals(50, input.readLong());
+		assertEquals(8 * 51, input.total());
+		input.setFilePosition(16);
+		assertEquals(-1, input.readLong());
+		input.skip(8 * 96);
+		assertEquals(99, input.readLong());
+		assertTrue(input.eof());
+		try {
+			input.readByte();
+			fail();
+		} catch (KyroException expected) {
+		}
+		input.close();
+	}
+
+}
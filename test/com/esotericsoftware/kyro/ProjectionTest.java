@@ -0,0 +1,234 @@
+package com.esotericsoftware.kyro;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.esotericsoftware.kyro.io.ByteBufferInput;
+import com.esotericsoftware.kyro.io.ByteBufferOutput;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kyro.serializers.FieldProjection;
+import com.esotericsoftware.kyro.serializers.TaggedFieldSerializer;
+import com.esotericsoftware.kyro.serializers.TaggedFieldSerializer.Tag;
+
+public class ProjectionTest extends KryoTestCase {
+	protected void setUp () throws Exception {
+		super.setUp();
+		kyro.register(Order.class);
+		kyro.register(Customer.class);
+		kyro.register(ArrayList.class);
+		kyro.register(int[].class);
+		Customer.created = 0;
+	}
+
+	public void testProjection () {
+		Output output = new Output(1024, -1);
+		kyro.writeObject(output, newOrder(1));
+		kyro.writeObject(output, newOrder(2));
+		Input input = new Input(output.toBytes());
+
+		Order order = kyro.readProjected(input, Order.class, "id", "customer.region");
+		assertEquals(1, order.id);
+		assertEquals("north \u00e9\u4e2d", order.customer.region);
+		assertNull(order.customer.name);
+		assertNull(order.customer.scores);
+		assertNull(order.note);
+		assertNull(order.items);
+		assertNull(order.other);
+		assertEquals(0L, order.timestamp);
+		assertEquals(0.0, order.total);
+		assertEquals(1, Customer.created);
+
+		// The input is positioned after the first order.
+		assertEquals(newOrder(2), kyro.readObject(input, Order.class));
+		assertEquals(input.limit(), input.position());
+	}
+
+	public void testWholeField () {
+		FieldProjection projection = new FieldProjection("customer.name", "customer", "total", "other.region");
+		byte[] bytes = writeObject(kyro, newOrder(1));
+		Order order = kyro.readProjected(new Input(bytes), Order.class, projection);
+		assertEquals(newOrder(1).customer, order.customer);
+		assertEquals(12.5, order.total);
+		assertEquals("other", ((Customer)order.other).region);
+		assertNull(((Customer)order.other).name);
+		assertNull(order.items);
+
+		// The projection is reused.
+		order = kyro.readProjected(new Input(bytes), Order.class, projection);
+		assertEquals(newOrder(1).customer, order.customer);
+	}
+
+	public void testNull () {
+		Order order = newOrder(1);
+		order.customer = null;
+		order.other = null;
+		order.note = null;
+		Order read = kyro.readProjected(new Input(writeObject(kyro, order)), Order.class, "customer.region", "other.region", "id");
+		assertNull(read.customer);
+		assertNull(read.other);
+		assertEquals(1, read.id);
+	}
+
+	public void testReferences () {
+		kyro.setReferences(true);
+		Order order = newOrder(1);
+		order.other = order.customer;
+		Order read = kyro.readProjected(new Input(writeObject(kyro, order)), Order.class, "other");
+		assertEquals(order.customer, read.other);
+		assertNull(read.customer);
+	}
+
+	public void testByteBuffer () {
+		ByteBufferOutput output = new ByteBufferOutput(1024, -1);
+		kyro.writeObject(output, newOrder(1));
+		kyro.writeObject(output, newOrder(2));
+		ByteBufferInput input = new ByteBufferInput(output.toBytes());
+		assertEquals(12.5, kyro.readProjected(input, Order.class, "total").total);
+		assertEquals(newOrder(2), kyro.readObject(input, Order.class));
+	}
+
+	public void testInvalidPaths () {
+		byte[] bytes = writeObject(kyro, newOrder(1));
+		try {
+			kyro.readProjected(new Input(bytes), Order.class, "missing");
+			fail();
+		} catch (KyroException expected) {
+		}
+		try {
+			kyro.readProjected(new Input(bytes), Order.class, "id.value");
+			fail();
+		} catch (KyroException expected) {
+		}
+		try {
+			new FieldProjection("customer..name");
+			fail();
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	public void testTagged () {
+		kyro.register(TaggedOrder.class, new TaggedFieldSerializer(kyro, TaggedOrder.class));
+		TaggedOrder order = new TaggedOrder();
+		order.id = 5;
+		order.customer = newOrder(1).customer;
+		order.note = "note";
+		TaggedOrder read = kyro.readProjected(new Input(writeObject(kyro, order)), TaggedOrder.class, "customer.name", "note");
+		assertEquals(0, read.id);
+		assertEquals("note", read.note);
+		assertEquals("name", read.customer.name);
+		assertNull(read.customer.region);
+	}
+
+	public void testCompatible () {
+		kyro.register(Order.class, new CompatibleFieldSerializer(kyro, Order.class));
+		kyro.register(Customer.class, new CompatibleFieldSerializer(kyro, Customer.class));
+		Output output = new Output(1024, -1);
+		kyro.writeObject(output, newOrder(1));
+		kyro.writeObject(output, newOrder(2));
+		Input input = new Input(output.toBytes());
+		Order order = kyro.readProjected(input, Order.class, "customer.scores", "note");
+		assertEquals("note 1", order.note);
+		assertEquals(3, order.customer.scores.length);
+		assertNull(order.customer.name);
+		assertNull(order.items);
+		assertEquals(newOrder(2), kyro.readObject(input, Order.class));
+	}
+
+	public void testCompatibleGraphState () {
+		// The field names of Customer are written in the skipped customer field.
+		kyro.register(Order.class, new CompatibleFieldSerializer(kyro, Order.class));
+		kyro.register(Customer.class, new CompatibleFieldSerializer(kyro, Customer.class));
+		Order order = kyro.readProjected(new Input(writeObject(kyro, newOrder(1))), Order.class, "other");
+		assertEquals("other", ((Customer)order.other).region);
+		assertNull(order.customer);
+
+		// The class name is written in the skipped field a.
+		kyro.setRegistrationRequired(false);
+		kyro.register(Pair.class, new CompatibleFieldSerializer(kyro, Pair.class));
+		Pair pair = new Pair();
+		pair.a = new Unregistered(1);
+		pair.b = new Unregistered(2);
+		Pair read = kyro.readProjected(new Input(writeObject(kyro, pair)), Pair.class, "b");
+		assertNull(read.a);
+		assertEquals(2, ((Unregistered)read.b).value);
+	}
+
+	static Order newOrder (int id) {
+		Order order = new Order();
+		order.id = id;
+		order.timestamp = 1234567890123L * id;
+		order.note = "note " + id;
+		order.total = 12.5;
+		order.customer = new Customer();
+		order.customer.name = "name";
+		order.customer.region = "north \u00e9\u4e2d";
+		order.customer.scores = new int[] {1, 2, 3};
+		order.items = new ArrayList();
+		for (int i = 0; i < 10; i++)
+			order.items.add("item " + i);
+		Customer other = new Customer();
+		other.region = "other";
+		order.other = other;
+		Customer.created = 0;
+		return order;
+	}
+
+	static public class Order {
+		public int id;
+		public long timestamp;
+		public String note;
+		public Customer customer;
+		public ArrayList items;
+		public Object other;
+		private double total;
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Order)) return false;
+			Order other = (Order)obj;
+			return id == other.id && timestamp == other.timestamp && note.equals(other.note) && customer.equals(other.customer)
+				&& items.equals(other.items) && this.other.equals(other.other) && total == other.total;
+		}
+	}
+
+	static public class Customer {
+		static int created;
+
+		public String name;
+		String region;
+		public int[] scores;
+
+		public Customer () {
+			created++;
+		}
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Customer)) return false;
+			Customer other = (Customer)obj;
+			return (name == null ? other.name == null : name.equals(other.name)) && region.equals(other.region)
+				&& (scores == null ? other.scores == null : Arrays.equals(scores, other.scores));
+		}
+	}
+
+	static public class Pair {
+		public Object a, b;
+	}
+
+	static public class Unregistered {
+		public int value;
+
+		public Unregistered () {
+		}
+
+		public Unregistered (int value) {
+			this.value = value;
+		}
+	}
+
+	static public class TaggedOrder {
+		@Tag(1) public int id;
+		@Tag(2) public Customer customer;
+		@Tag(3) public String note;
+	}
+}
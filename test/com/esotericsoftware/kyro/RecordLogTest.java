@@ -0,0 +1,210 @@
+package com.esotericsoftware.kyro;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import com.esotericsoftware.kyro.recordlog.KyroRecordLog;
+import com.esotericsoftware.kyro.recordlog.KyroRecordLogReader;
+import com.esotericsoftware.kyro.recordlog.KyroRecordLogWriter;
+
+public class RecordLogTest extends KryoTestCase {
+	private File file, indexFile;
+	private boolean nulls;
+
+	protected void setUp () throws Exception {
+		super.setUp();
+		kyro.register(Event.class);
+		file = File.createTempFile("kyro-log", ".bin");
+		file.delete();
+		indexFile = KyroRecordLog.getIndexFile(file);
+	}
+
+	protected void tearDown () throws Exception {
+		file.delete();
+		indexFile.delete();
+		super.tearDown();
+	}
+
+	public void testAppendAndRead () {
+		nulls = true;
+		KyroRecordLogWriter writer = new KyroRecordLogWriter(file, kyro, 16);
+		for (int i = 0; i < 1000; i++)
+			assertEquals(i, writer.append(isNull(i) ? null : new Event(i)));
+		writer.close();
+		assertEquals((1000 + 15) / 16 * 8, indexFile.length());
+
+		KyroRecordLogReader reader = new KyroRecordLogReader(file, kyro);
+		assertEquals(1000, reader.size());
+		assertEquals(16, reader.getIndexInterval());
+		for (int i = 0; i < 1000; i++)
+			assertEvent(i, reader.next());
+		assertFalse(reader.hasNext());
+
+		int[] records = {999, 0, 17, 16, 15, 500, 501, 503, 502, 32};
+		for (int record : records)
+			assertEvent(record, reader.read(record));
+		reader.seek(1000);
+		assertFalse(reader.hasNext());
+		reader.seek(998);
+		assertEvent(998, reader.next());
+		assertEvent(999, reader.next());
+		reader.close();
+
+		// Appending continues after the existing records.
+		writer = new KyroRecordLogWriter(file, kyro);
+		assertEquals(16, writer.getIndexInterval());
+		assertEquals(1000, writer.size());
+		for (int i = 1000; i < 1100; i++)
+			assertEquals(i, writer.append(new Event(i)));
+		writer.close();
+		reader = new KyroRecordLogReader(file, kyro);
+		assertEquals(1100, reader.size());
+		assertEvent(1050, reader.read(1050));
+		assertEvent(999, reader.read(999));
+		reader.close();
+	}
+
+	public void testTruncatedTail () throws Exception {
+		KyroRecordLogWriter writer = new KyroRecordLogWriter(file, kyro, 8);
+		for (int i = 0; i < 100; i++)
+			writer.append(new Event(i));
+		writer.close();
+
+		// Cut the last record in half and lose the last index entries.
+		RandomAccessFile data = new RandomAccessFile(file, "rw");
+		data.setLength(data.length() - 5);
+		data.close();
+		RandomAccessFile index = new RandomAccessFile(indexFile, "rw");
+		index.setLength(8 * 10 + 3);
+		index.close();
+
+		KyroRecordLogReader reader = new KyroRecordLogReader(file, kyro);
+		assertEquals(99, reader.size());
+		assertEvent(98, reader.read(98));
+		assertEvent(90, reader.read(90));
+		reader.close();
+
+		writer = new KyroRecordLogWriter(file, kyro);
+		assertEquals(99, writer.size());
+		assertEquals(13 * 8, indexFile.length());
+		writer.append(new Event(99));
+		writer.close();
+		reader = new KyroRecordLogReader(file, kyro);
+		assertEquals(100, reader.size());
+		for (int i = 0; i < 100; i++)
+			assertEvent(i, reader.next());
+		reader.close();
+	}
+
+	public void testCorruptRecord () throws Exception {
+		KyroRecordLogWriter writer = new KyroRecordLogWriter(file, kyro, 4);
+		for (int i = 0; i < 20; i++)
+			writer.append(new Event(i));
+		writer.close();
+		long length = file.length();
+
+		// Corrupt a byte of record 16, so the index entry for it refers to a dropped record.
+		RandomAccessFile data = new RandomAccessFile(file, "rw");
+		long recordSize = (length - 12) / 20;
+		data.seek(12 + recordSize * 16 + 9);
+		data.write(0xFF);
+		data.close();
+
+		KyroRecordLogReader reader = new KyroRecordLogReader(file, kyro);
+		assertEquals(16, reader.size());
+		assertEvent(15, reader.read(15));
+		reader.close();
+
+		writer = new KyroRecordLogWriter(file, kyro);
+		assertEquals(16, writer.size());
+		assertEquals(12 + recordSize * 16, file.length());
+		assertEquals(4 * 8, indexFile.length());
+		writer.close();
+	}
+
+	public void testNoIndex () {
+		KyroRecordLogWriter writer = new KyroRecordLogWriter(file, kyro, 4);
+		for (int i = 0; i < 30; i++)
+			writer.append(new Event(i));
+		writer.close();
+		indexFile.delete();
+
+		KyroRecordLogReader reader = new KyroRecordLogReader(file, kyro);
+		assertEquals(30, reader.size());
+		assertEvent(21, reader.read(21));
+		reader.close();
+	}
+
+	public void testInvalidHeader () throws Exception {
+		RandomAccessFile data = new RandomAccessFile(file, "rw");
+		data.writeInt(123);
+		data.writeInt(456);
+		data.writeInt(789);
+		data.close();
+		assertOpenFails(false);
+	}
+
+	public void testUnreadableIndex () {
+		KyroRecordLogWriter writer = new KyroRecordLogWriter(file, kyro, 4);
+		for (int i = 0; i < 10; i++)
+			writer.append(new Event(i));
+		writer.close();
+		// The index file exists but cannot be opened.
+		indexFile.delete();
+		assertTrue(indexFile.mkdir());
+		assertOpenFails(false);
+	}
+
+	public void testWriterUnreadableIndex () {
+		assertTrue(indexFile.mkdir());
+		assertOpenFails(true);
+	}
+
+	/** Checks that opening the log with a reader or a writer fails and that the files opened before the failure are closed. */
+	private void assertOpenFails (boolean writer) {
+		File fds = new File("/proc/self/fd");
+		int open = fds.isDirectory() ? fds.list().length : 0;
+		for (int i = 0; i < 10; i++) {
+			try {
+				if (writer)
+					new KyroRecordLogWriter(file, kyro);
+				else
+					new KyroRecordLogReader(file, kyro);
+				fail();
+			} catch (KyroException expected) {
+			}
+		}
+		if (fds.isDirectory()) assertEquals(open, fds.list().length);
+	}
+
+	/** Some of the first 1000 records are null when testing nulls. */
+	private boolean isNull (int record) {
+		return nulls && record < 1000 && record % 100 == 0;
+	}
+
+	private void assertEvent (int record, Object object) {
+		if (isNull(record))
+			assertNull(object);
+		else
+			assertEquals(new Event(record), object);
+	}
+
+	static public class Event {
+		public int id;
+		public String name;
+
+		public Event () {
+		}
+
+		public Event (int id) {
+			this.id = id;
+			name = "event" + (id % 10);
+		}
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Event)) return false;
+			Event other = (Event)obj;
+			return id == other.id && name.equals(other.name);
+		}
+	}
+}
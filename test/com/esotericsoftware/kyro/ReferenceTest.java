@@ -6,6 +6,7 @@ import com.esotericsoftware.kyro.Serializer;
 import com.esotericsoftware.kyro.io.Input;
 import com.esotericsoftware.kyro.io.Output;
 import com.esotericsoftware.kyro.serializers.MapSerializer;
+import com.esotericsoftware.kyro.util.ChunkedReferenceResolver;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -60,6 +61,49 @@ public class ReferenceTest extends KryoTestCase {
 		assertTrue(stuff2.get("self") == stuff2);
 	}
 
+	public void testManyReferences () {
+		Kyro kyro = new Kyro(new ChunkedReferenceResolver());
+		kyro.register(Node.class);
+		kyro.register(Node[].class);
+		for (int count : new int[] {3000, 10, 2000}) {
+			// References span the chunks of the read reference table.
+			Node[] nodes = new Node[count];
+			for (int i = 0; i < count; i++) {
+				nodes[i] = new Node();
+				nodes[i].value = i;
+				nodes[i].back = nodes[i / 2];
+			}
+
+			Output output = new Output(1024, -1);
+			kyro.writeObject(output, nodes);
+			Node[] read = kyro.readObject(new Input(output.toBytes()), Node[].class);
+			assertEquals(count, read.length);
+			for (int i = 0; i < count; i++) {
+				assertEquals(i, read[i].value);
+				assertSame(read[i / 2], read[i].back);
+			}
+		}
+	}
+
+	public void testInvalidReferenceId () {
+		ChunkedReferenceResolver resolver = new ChunkedReferenceResolver();
+		resolver.setReadObject(resolver.nextReadId(Node.class), new Node());
+		assertNotNull(resolver.getReadObject(Node.class, 0));
+		// The IDs are within the first chunk, but no object has been read for them.
+		for (int id : new int[] {1, 1023, -1}) {
+			try {
+				resolver.getReadObject(Node.class, id);
+				fail();
+			} catch (KyroException expected) {
+			}
+		}
+	}
+
+	static public class Node {
+		public int value;
+		public Node back;
+	}
+
 	public void testReadingNestedObjectsFirst () {
 		ArrayList list = new ArrayList();
 		list.add("1");
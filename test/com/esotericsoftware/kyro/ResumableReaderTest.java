@@ -0,0 +1,139 @@
+package com.esotericsoftware.kyro;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.io.ResumableReader;
+import com.esotericsoftware.kyro.serializers.DefaultArraySerializers.ByteArraySerializer;
+
+public class ResumableReaderTest extends KryoTestCase {
+	private ArrayList objects = new ArrayList();
+	private byte[] bytes;
+
+	protected void setUp () throws Exception {
+		super.setUp();
+		kyro.setReferences(true);
+		kyro.register(ArrayList.class);
+		kyro.register(HashMap.class);
+		kyro.register(byte[].class);
+		Output output = new Output(1024, -1);
+		for (int i = 0; i < 20; i++) {
+			ArrayList list = new ArrayList();
+			list.add("value" + i);
+			list.add(new byte[i * 10]);
+			list.add(list);
+			HashMap map = new HashMap();
+			map.put("key" + i, i * 1234567L);
+			objects.add(list);
+			objects.add(map);
+			objects.add(null);
+			objects.add(i);
+		}
+		for (Object object : objects)
+			kyro.writeClassAndObject(output, object);
+		bytes = output.toBytes();
+	}
+
+	public void testByteAtATime () {
+		ResumableReader reader = new ResumableReader(kyro, 4, -1);
+		ArrayList read = new ArrayList();
+		for (int i = 0; i < bytes.length; i++) {
+			reader.append(bytes, i, 1);
+			while (reader.readClassAndObject())
+				read.add(reader.getObject());
+			assertTrue(reader.getRequired() > 0);
+		}
+		assertEquals(0, reader.available());
+		assertRead(read);
+	}
+
+	public void testRandomChunks () {
+		Random random = new Random(7);
+		for (int n = 0; n < 20; n++) {
+			ResumableReader reader = new ResumableReader(kyro, 16, 1024);
+			ArrayList read = new ArrayList();
+			int offset = 0;
+			while (offset < bytes.length) {
+				int count = Math.min(random.nextInt(100), bytes.length - offset);
+				reader.append(ByteBuffer.wrap(bytes, offset, count));
+				offset += count;
+				while (reader.readClassAndObject())
+					read.add(reader.getObject());
+			}
+			assertRead(read);
+		}
+	}
+
+	public void testRequired () {
+		final int[] reads = new int[1];
+		kyro.register(byte[].class, new ByteArraySerializer() {
+			public byte[] read (Kyro kyro, Input input, Class<byte[]> type) {
+				reads[0]++;
+				return super.read(kyro, input, type);
+			}
+		});
+		Output output = new Output(1024);
+		kyro.writeObject(output, 12);
+		kyro.writeObject(output, new byte[100]);
+		byte[] bytes = output.toBytes();
+
+		ResumableReader reader = new ResumableReader(kyro);
+		assertFalse(reader.readObject(Integer.class));
+		assertEquals(1, reader.getRequired());
+		reader.append(bytes, 0, 1);
+		assertTrue(reader.readObject(Integer.class));
+		assertEquals(12, reader.getObject());
+		assertEquals(0, reader.getRequired());
+
+		reader.append(bytes, 1, 10);
+		assertFalse(reader.readObject(byte[].class));
+		assertEquals(1, reads[0]);
+		// Not parsed again until the required bytes have arrived.
+		int required = reader.getRequired();
+		assertEquals(bytes.length - 11, required);
+		reader.append(bytes, 11, required - 1);
+		assertFalse(reader.readObject(byte[].class));
+		assertEquals(1, reads[0]);
+		assertEquals(1, reader.getRequired());
+		reader.append(bytes, bytes.length - 1, 1);
+		assertTrue(reader.readObject(byte[].class));
+		assertEquals(2, reads[0]);
+		assertEquals(100, ((byte[])reader.getObject()).length);
+		assertEquals(0, reader.available());
+	}
+
+	public void testChannel () throws Exception {
+		Pipe pipe = Pipe.open();
+		pipe.source().configureBlocking(false);
+		ResumableReader reader = new ResumableReader(kyro, 64, -1);
+		ArrayList read = new ArrayList();
+		for (int offset = 0; offset < bytes.length; offset += 50) {
+			pipe.sink().write(ByteBuffer.wrap(bytes, offset, Math.min(50, bytes.length - offset)));
+			while (reader.readFrom(pipe.source()) > 0)
+				while (reader.readClassAndObject())
+					read.add(reader.getObject());
+		}
+		assertEquals(0, reader.readFrom(pipe.source()));
+		assertRead(read);
+		pipe.sink().close();
+		assertEquals(-1, reader.readFrom(pipe.source()));
+		pipe.source().close();
+	}
+
+	private void assertRead (ArrayList read) {
+		assertEquals(objects.size(), read.size());
+		Output expected = new Output(1024, -1), actual = new Output(1024, -1);
+		for (int i = 0, n = objects.size(); i < n; i++) {
+			expected.clear();
+			actual.clear();
+			kyro.writeClassAndObject(expected, objects.get(i));
+			kyro.writeClassAndObject(actual, read.get(i));
+			assertEquals(expected.toBytes(), actual.toBytes());
+		}
+	}
+}
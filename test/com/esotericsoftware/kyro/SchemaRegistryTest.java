@@ -0,0 +1,170 @@
+package com.esotericsoftware.kyro;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kyro.util.FileSchemaRegistry;
+import com.esotericsoftware.kyro.util.MapSchemaRegistry;
+
+public class SchemaRegistryTest extends KryoTestCase {
+	private MapSchemaRegistry registry;
+	private File file;
+
+	protected void setUp () throws Exception {
+		super.setUp();
+		registry = new MapSchemaRegistry();
+		kyro.register(Message.class, newSerializer(kyro, registry));
+	}
+
+	protected void tearDown () throws Exception {
+		if (file != null) file.delete();
+		super.tearDown();
+	}
+
+	public void testRoundTrip () {
+		Message message = new Message(5, "text");
+		byte[] bytes = writeObject(kyro, message);
+		assertEquals(message, kyro.readObject(new Input(bytes), Message.class));
+
+		// Only the schema ID is written instead of the field names.
+		Kyro named = newKyro();
+		named.register(Message.class, new CompatibleFieldSerializer(named, Message.class));
+		assertEquals(writeObject(named, message).length - 10, bytes.length);
+		assertEquals(0, registry.getId(Message.class, new String[] {"number", "text"}));
+
+		// Each object has the ID, not only the first in the graph.
+		Output output = new Output(256, -1);
+		kyro.setAutoReset(false);
+		kyro.writeObject(output, message);
+		kyro.writeObject(output, new Message(6, "other"));
+		kyro.reset();
+		Input input = new Input(output.toBytes());
+		kyro.skipObject(input, Message.class);
+		assertEquals(new Message(6, "other"), kyro.readObject(input, Message.class));
+	}
+
+	public void testChangedFields () {
+		Kyro reader = newKyro();
+		CompatibleFieldSerializer serializer = newSerializer(reader, registry);
+		serializer.removeField("text");
+		reader.register(Message.class, serializer);
+		Message read = reader.readObject(new Input(writeObject(kyro, new Message(5, "text"))), Message.class);
+		assertEquals(5, read.number);
+		assertNull(read.text);
+
+		// The removed field is a new schema.
+		byte[] bytes = writeObject(reader, new Message(7, "ignored"));
+		read = kyro.readObject(new Input(bytes), Message.class);
+		assertEquals(7, read.number);
+		assertNull(read.text);
+		assertEquals(1, registry.getId(Message.class, new String[] {"number"}));
+	}
+
+	public void testInvalidIds () {
+		Kyro reader = newKyro();
+		reader.register(Message.class, newSerializer(reader, new MapSchemaRegistry()));
+		try {
+			reader.readObject(new Input(writeObject(kyro, new Message(1, "a"))), Message.class);
+			fail();
+		} catch (KyroException expected) {
+		}
+
+		int id = registry.getId(Other.class, new String[] {"value"});
+		try {
+			registry.getFieldNames(Message.class, id);
+			fail();
+		} catch (KyroException expected) {
+		}
+		try {
+			registry.register(id, Message.class.getName(), new String[] {"number"});
+			fail();
+		} catch (KyroException expected) {
+		}
+		registry.register(id, Other.class.getName(), new String[] {"value"});
+	}
+
+	public void testFile () throws IOException {
+		file = File.createTempFile("kyro-schemas", ".bin");
+		file.delete();
+		FileSchemaRegistry writerRegistry = new FileSchemaRegistry(file);
+		FileSchemaRegistry readerRegistry = new FileSchemaRegistry(file);
+		kyro.register(Message.class, newSerializer(kyro, writerRegistry));
+		writerRegistry.getId(Other.class, new String[] {"value"});
+		byte[] bytes = writeObject(kyro, new Message(3, "file"));
+
+		// The reader loads the schema appended after it was created.
+		Kyro reader = newKyro();
+		reader.register(Message.class, newSerializer(reader, readerRegistry));
+		assertEquals(new Message(3, "file"), reader.readObject(new Input(bytes), Message.class));
+
+		// A schema cut off while being appended is overwritten.
+		long length = file.length();
+		FileOutputStream stream = new FileOutputStream(file, true);
+		stream.write(new byte[] {9, 3});
+		stream.close();
+		FileSchemaRegistry reopened = new FileSchemaRegistry(file);
+		assertEquals(1, reopened.getId(Message.class, new String[] {"number", "text"}));
+		assertEquals(2, reopened.getId(Other.class, new String[] {"other"}));
+		assertTrue(file.length() > length + 2);
+		reopened = new FileSchemaRegistry(file);
+		assertEquals("other", reopened.getFieldNames(Other.class, 2)[0]);
+	}
+
+	public void testFileRegistries () throws IOException {
+		file = File.createTempFile("kyro-schemas", ".bin");
+		file.delete();
+		FileSchemaRegistry registry1 = new FileSchemaRegistry(file);
+		FileSchemaRegistry registry2 = new FileSchemaRegistry(file);
+		assertEquals(0, registry1.getId(Other.class, new String[] {"value"}));
+		long length = file.length();
+
+		// The second registry loads the first schema before choosing an ID, rather than overwriting it.
+		assertEquals(1, registry2.getId(Message.class, new String[] {"number"}));
+		assertTrue(file.length() > length);
+		assertEquals(0, registry2.getId(Other.class, new String[] {"value"}));
+		assertEquals(1, registry1.getId(Message.class, new String[] {"number"}));
+
+		FileSchemaRegistry reopened = new FileSchemaRegistry(file);
+		assertEquals("value", reopened.getFieldNames(Other.class, 0)[0]);
+		assertEquals("number", reopened.getFieldNames(Message.class, 1)[0]);
+	}
+
+	private Kyro newKyro () {
+		Kyro kyro = new Kyro();
+		kyro.setReferences(false);
+		return kyro;
+	}
+
+	private CompatibleFieldSerializer newSerializer (Kyro kyro, MapSchemaRegistry registry) {
+		CompatibleFieldSerializer serializer = new CompatibleFieldSerializer(kyro, Message.class);
+		serializer.setSchemaRegistry(registry);
+		return serializer;
+	}
+
+	static public class Message {
+		public int number;
+		public String text;
+
+		public Message () {
+		}
+
+		public Message (int number, String text) {
+			this.number = number;
+			this.text = text;
+		}
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Message)) return false;
+			Message other = (Message)obj;
+			return number == other.number && (text == null ? other.text == null : text.equals(other.text));
+		}
+	}
+
+	static public class Other {
+		public int value;
+	}
+}
@@ -0,0 +1,99 @@
+package com.esotericsoftware.kyro;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
+import java.util.ArrayList;
+
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.io.SegmentPool;
+import com.esotericsoftware.kyro.io.SegmentedOutput;
+
+public class SegmentedOutputTest extends KryoTestCase {
+	public void testSegments () throws Exception {
+		kyro.register(ArrayList.class);
+		kyro.register(byte[].class);
+		ArrayList list = new ArrayList();
+		for (int i = 0; i < 200; i++) {
+			list.add("value" + i);
+			list.add(i * 1234567L);
+			list.add(new byte[i]);
+		}
+		Output expected = new Output(1024, -1);
+		kyro.writeClassAndObject(expected, list);
+		byte[] expectedBytes = expected.toBytes();
+
+		SegmentedOutput output = new SegmentedOutput(64);
+		kyro.writeClassAndObject(output, list);
+		assertEquals(expectedBytes.length, output.total());
+		assertTrue(output.getSegmentCount() > 1);
+		assertEquals(expectedBytes, output.toBytes());
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		for (ByteBuffer buffer : output.getByteBuffers()) {
+			assertTrue(buffer.remaining() <= 64);
+			stream.write(buffer.array(), buffer.position(), buffer.remaining());
+		}
+		assertEquals(expectedBytes, stream.toByteArray());
+
+		stream.reset();
+		output.writeTo(stream);
+		assertEquals(expectedBytes, stream.toByteArray());
+
+		File file = File.createTempFile("kyro-segmented", ".bin");
+		try {
+			FileChannel channel = new FileOutputStream(file).getChannel();
+			assertEquals(expectedBytes.length, output.writeTo(channel));
+			channel.close();
+			Input input = new Input(new FileInputStream(file));
+			assertEquals(list.size(), ((ArrayList)kyro.readClassAndObject(input)).size());
+			input.close();
+		} finally {
+			file.delete();
+		}
+	}
+
+	public void testNonBlockingChannel () throws Exception {
+		SegmentedOutput output = new SegmentedOutput(64);
+		output.writeInt(123);
+		// A non-blocking channel could accept no bytes on every write.
+		Pipe pipe = Pipe.open();
+		try {
+			pipe.sink().configureBlocking(false);
+			output.writeTo(pipe.sink());
+			fail();
+		} catch (IllegalArgumentException expected) {
+		} finally {
+			pipe.sink().close();
+			pipe.source().close();
+		}
+	}
+
+	public void testPool () {
+		SegmentPool pool = new SegmentPool(16, 4);
+		SegmentedOutput output = new SegmentedOutput(pool);
+		for (int i = 0; i < 10; i++)
+			output.writeLong(i);
+		assertEquals(5, output.getSegmentCount());
+		assertEquals(0, pool.getFree());
+
+		// Segments are reused after clear, so writing the same bytes again allocates nothing new.
+		output.clear();
+		assertEquals(0, output.total());
+		assertEquals(4, pool.getFree());
+		for (int i = 0; i < 10; i++)
+			output.writeLong(i);
+		assertEquals(0, pool.getFree());
+		Input input = new Input(output.toBytes());
+		for (int i = 0; i < 10; i++)
+			assertEquals(i, input.readLong());
+
+		output.close();
+		assertEquals(4, pool.getFree());
+	}
+}
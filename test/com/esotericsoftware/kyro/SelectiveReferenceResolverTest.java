@@ -0,0 +1,107 @@
+package com.esotericsoftware.kyro;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+
+import com.esotericsoftware.kyro.util.SelectiveReferenceResolver;
+
+public class SelectiveReferenceResolverTest extends KryoTestCase {
+	private SelectiveReferenceResolver resolver;
+
+	protected void setUp () throws Exception {
+		super.setUp();
+		resolver = new SelectiveReferenceResolver();
+		kyro.setReferences(true);
+		kyro.setReferenceResolver(resolver);
+		kyro.register(Node.class);
+		kyro.register(Leaf.class);
+		kyro.register(ArrayList.class);
+		kyro.register(BigDecimal.class);
+	}
+
+	public void testSelective () {
+		Node node = new Node();
+		node.next = node;
+		node.leaf = new Leaf();
+		node.other = node.leaf;
+		node.name = "name";
+		node.alias = node.name;
+		Node read = roundTripObject(node);
+
+		// Cycles are kept for tracked classes.
+		assertSame(read, read.next);
+		// Leaf is annotated and String is inferred as not tracked, so shared objects are read as copies.
+		assertNotSame(read.leaf, read.other);
+		assertEquals("name", read.alias);
+		assertFalse(resolver.useReferences(Leaf.class));
+		assertFalse(resolver.useReferences(String.class));
+		assertFalse(resolver.useReferences(BigDecimal.class));
+		assertFalse(resolver.useReferences(Thread.State.class));
+		assertTrue(resolver.useReferences(Node.class));
+		assertTrue(resolver.useReferences(ArrayList.class));
+	}
+
+	public void testConfiguration () {
+		resolver.setDefaultReferences(false);
+		resolver.setReferences(Node.class, true);
+		resolver.setReferences(Leaf.class, true);
+		assertTrue(resolver.useReferences(Leaf.class));
+		assertFalse(resolver.useReferences(ArrayList.class));
+		assertFalse(resolver.useReferences(Integer.class));
+
+		SelectiveReferenceResolver inferred = new SelectiveReferenceResolver();
+		inferred.setInferImmutable(false);
+		assertTrue(inferred.useReferences(String.class));
+		// The wrapped resolver never tracks primitive wrappers.
+		inferred.setReferences(Integer.class, true);
+		assertFalse(inferred.useReferences(Integer.class));
+
+		// Only Node is tracked, so the shared node is read once.
+		ArrayList list = new ArrayList();
+		Node node = new Node();
+		list.add(node);
+		list.add(node);
+		ArrayList read = roundTripObject(list);
+		assertSame(read.get(0), read.get(1));
+		// One back reference written and one read.
+		assertEquals(2, resolver.getBackReferences(Node.class));
+		assertEquals(0, resolver.getTracked(ArrayList.class));
+	}
+
+	public void testCounts () {
+		ArrayList list = new ArrayList();
+		Node shared = new Node();
+		for (int i = 0; i < 3; i++) {
+			list.add(shared);
+			list.add(new Node());
+			list.add(new BigDecimal(i));
+		}
+		ArrayList read = roundTripObject(list);
+		assertSame(read.get(0), read.get(3));
+		assertNotSame(read.get(1), read.get(4));
+
+		// Counted when written and when read.
+		assertEquals(2, resolver.getTracked(ArrayList.class));
+		assertEquals(8, resolver.getTracked(Node.class));
+		assertEquals(4, resolver.getBackReferences(Node.class));
+		assertEquals(0, resolver.getTracked(BigDecimal.class));
+		assertEquals(1, resolver.getUnsharedTypes().size());
+		assertEquals(ArrayList.class, resolver.getUnsharedTypes().get(0));
+
+		resolver.clearCounts();
+		assertEquals(0, resolver.getTracked(Node.class));
+		assertEquals(0, resolver.getBackReferences(Node.class));
+	}
+
+	static public class Node {
+		public Node next;
+		public Leaf leaf;
+		public Object other;
+		public String name, alias;
+	}
+
+	@References(false)
+	static public class Leaf {
+		public int value;
+	}
+}
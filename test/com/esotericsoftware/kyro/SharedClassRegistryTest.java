@@ -0,0 +1,138 @@
+package com.esotericsoftware.kyro;
+
+import java.util.ArrayList;
+
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.serializers.DefaultSerializers.StringSerializer;
+import com.esotericsoftware.kyro.serializers.FieldSerializer;
+import com.esotericsoftware.kyro.util.MapReferenceResolver;
+import com.esotericsoftware.kyro.util.SharedClassRegistry;
+import com.esotericsoftware.kyro.util.SharedClassResolver;
+
+public class SharedClassRegistryTest extends KryoTestCase {
+	SharedClassRegistry registry;
+
+	protected void setUp () throws Exception {
+		super.setUp();
+		registry = new SharedClassRegistry();
+		registry.register(Message.class, 20);
+		registry.register(ArrayList.class, 21);
+		registry.freeze();
+	}
+
+	Kyro newKyro () {
+		Kyro kyro = new Kyro(new SharedClassResolver(registry), new MapReferenceResolver());
+		kyro.setRegistrationRequired(true);
+		return kyro;
+	}
+
+	public void testSharedRegistrations () {
+		Kyro kyro1 = newKyro();
+		Kyro kyro2 = newKyro();
+
+		Message message = new Message();
+		message.text = "abc";
+		message.values = new ArrayList();
+		message.values.add(123);
+
+		Output output = new Output(256);
+		kyro1.writeClassAndObject(output, message);
+		assertEquals(20, kyro1.getRegistration(Message.class).getId());
+		assertEquals(message, kyro2.readClassAndObject(new Input(output.toBytes())));
+
+		// Each Kyro creates its own serializer.
+		Serializer serializer1 = kyro1.getSerializer(Message.class);
+		Serializer serializer2 = kyro2.getSerializer(Message.class);
+		assertTrue(serializer1 instanceof FieldSerializer);
+		assertNotSame(serializer1, serializer2);
+		assertSame(kyro2, ((FieldSerializer)serializer2).getKryo());
+	}
+
+	public void testLocalRegistrations () {
+		Kyro kyro = newKyro();
+		kyro.register(Message.class, new StringSerializer(), 30);
+		assertEquals(30, kyro.getRegistration(Message.class).getId());
+		// Registration IDs used by the registry are not reused.
+		Registration registration = kyro.register(Local.class);
+		assertTrue(registration.getId() != 20 && registration.getId() != 21);
+		try {
+			newKyro().getRegistration(Local.class);
+			fail();
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	public void testCollidingId () {
+		Kyro kyro = newKyro();
+		kyro.register(Local.class, 20);
+		try {
+			kyro.getRegistration(Message.class);
+			fail();
+		} catch (KyroException expected) {
+		}
+		// The registration in the instance is kept.
+		assertEquals(Local.class, kyro.getRegistration(20).getType());
+
+		// Also when the shared class was used before the instance registration.
+		kyro = newKyro();
+		assertEquals(20, kyro.getRegistration(Message.class).getId());
+		kyro.register(Local.class, 20);
+		assertEquals(Local.class, kyro.getRegistration(20).getType());
+		try {
+			kyro.getRegistration(Message.class);
+			fail();
+		} catch (KyroException expected) {
+		}
+	}
+
+	public void testDefaultRegistrations () {
+		SharedClassRegistry registry = new SharedClassRegistry();
+		assertEquals(10, registry.register(Message.class));
+		registry.freeze();
+		Kyro shared = new Kyro(new SharedClassResolver(registry), new MapReferenceResolver());
+		assertEquals(0, shared.getRegistration(int.class).getId());
+
+		// The built-in IDs are the same as those of a Kyro that does not use the registry.
+		Output output = new Output(256);
+		shared.writeClassAndObject(output, 123);
+		shared.writeClassAndObject(output, "abc");
+		Kyro plain = new Kyro();
+		Input input = new Input(output.toBytes());
+		assertEquals(123, plain.readClassAndObject(input));
+		assertEquals("abc", plain.readClassAndObject(input));
+
+		try {
+			new SharedClassRegistry().register(Local.class, 9);
+			fail();
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	public void testFrozen () {
+		try {
+			registry.register(Local.class);
+			fail();
+		} catch (IllegalStateException expected) {
+		}
+		try {
+			new SharedClassResolver(new SharedClassRegistry());
+			fail();
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+	static public class Message {
+		public String text;
+		public ArrayList values;
+
+		public boolean equals (Object obj) {
+			if (!(obj instanceof Message)) return false;
+			Message other = (Message)obj;
+			return text.equals(other.text) && values.equals(other.values);
+		}
+	}
+
+	static public class Local {
+	}
+}
@@ -0,0 +1,167 @@
+package com.esotericsoftware.kyro;
+
+import static com.esotericsoftware.kyro.ProjectionTest.newOrder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.TreeMap;
+
+import com.esotericsoftware.kyro.ProjectionTest.Customer;
+import com.esotericsoftware.kyro.ProjectionTest.Order;
+import com.esotericsoftware.kyro.ProjectionTest.Pair;
+import com.esotericsoftware.kyro.ProjectionTest.Unregistered;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+import com.esotericsoftware.kyro.serializers.CompatibleFieldSerializer;
+import com.esotericsoftware.kyro.serializers.DefaultArraySerializers.ObjectArraySerializer;
+
+public class SkipTest extends KryoTestCase {
+	protected void setUp () throws Exception {
+		super.setUp();
+		kyro.register(Order.class);
+		kyro.register(Customer.class);
+		kyro.register(ArrayList.class);
+		kyro.register(HashMap.class);
+		kyro.register(TreeMap.class);
+		kyro.register(int[].class);
+		kyro.register(long[].class);
+		kyro.register(double[].class);
+		kyro.register(char[].class);
+		kyro.register(byte[].class);
+		kyro.register(boolean[].class);
+		kyro.register(String[].class);
+		kyro.register(Object[].class);
+		kyro.register(Order[].class);
+		Customer.created = 0;
+	}
+
+	public void testSkipObject () {
+		Output output = new Output(1024, -1);
+		kyro.writeObject(output, newOrder(1));
+		kyro.writeObjectOrNull(output, null, Order.class);
+		kyro.writeObjectOrNull(output, newOrder(2), Order.class);
+		kyro.writeClassAndObject(output, newOrder(3));
+		kyro.writeClassAndObject(output, null);
+		kyro.writeObject(output, "end");
+		Input input = new Input(output.toBytes());
+
+		kyro.skipObject(input, Order.class);
+		kyro.skipObjectOrNull(input, Order.class);
+		kyro.skipObjectOrNull(input, Order.class);
+		kyro.skipClassAndObject(input);
+		kyro.skipClassAndObject(input);
+		assertEquals(0, Customer.created);
+		assertEquals("end", kyro.readObject(input, String.class));
+		assertEquals(input.limit(), input.position());
+	}
+
+	public void testSkipBuiltIns () {
+		Object[] values = {true, (byte)1, 'c', (short)-2, -3, 4L, 5.5f, 6.5, "\u00e9\u4e2d", "ascii", "", new int[] {1, -200, 300000},
+			new long[] {-1, 1L << 40}, new double[] {1.5}, new char[] {'a', '\u4e2d'}, new byte[] {1, 2}, new boolean[] {true},
+			new String[] {"a", null, "\u00e9"}, new Object[] {1, "two", null, newOrder(3)}, new Order[] {newOrder(4), null}};
+		Output output = new Output(1024, -1);
+		for (int i = 0; i < values.length; i++)
+			kyro.writeClassAndObject(output, values[i]);
+		kyro.writeObject(output, "end");
+		Input input = new Input(output.toBytes());
+		for (int i = 0; i < values.length; i++)
+			kyro.skipClassAndObject(input);
+		assertEquals(0, Customer.created);
+		assertEquals("end", kyro.readObject(input, String.class));
+	}
+
+	public void testSkipArrays () {
+		ObjectArraySerializer serializer = new ObjectArraySerializer(kyro, Order[].class);
+		serializer.setElementsAreSameType(true);
+		serializer.setElementsCanBeNull(false);
+		Output output = new Output(1024, -1);
+		kyro.writeObject(output, new Order[] {newOrder(1), newOrder(2)}, serializer);
+		kyro.writeObject(output, new int[0]);
+		kyro.writeObjectOrNull(output, null, int[].class);
+		kyro.writeObject(output, "end");
+		Input input = new Input(output.toBytes());
+		kyro.skipObject(input, Order[].class, serializer);
+		kyro.skipObject(input, int[].class);
+		kyro.skipObjectOrNull(input, int[].class);
+		assertEquals(0, Customer.created);
+		assertEquals("end", kyro.readObject(input, String.class));
+	}
+
+	public void testSkipCollections () {
+		ArrayList list = new ArrayList();
+		list.add(newOrder(1));
+		list.add(null);
+		list.add("text");
+		HashMap map = new HashMap();
+		map.put("a", newOrder(2));
+		map.put(newOrder(3), null);
+		TreeMap tree = new TreeMap();
+		tree.put("b", 1);
+		tree.put("a", 2);
+		Output output = new Output(1024, -1);
+		kyro.writeObject(output, list);
+		kyro.writeObject(output, map);
+		kyro.writeObject(output, tree);
+		kyro.writeObject(output, "end");
+		Input input = new Input(output.toBytes());
+		kyro.skipObject(input, ArrayList.class);
+		kyro.skipObject(input, HashMap.class);
+		kyro.skipObject(input, TreeMap.class);
+		assertEquals(0, Customer.created);
+		assertEquals("end", kyro.readObject(input, String.class));
+	}
+
+	public void testCompatible () {
+		kyro.register(Order.class, new CompatibleFieldSerializer(kyro, Order.class));
+		Output output = new Output(1024, -1);
+		kyro.writeObject(output, newOrder(1));
+		kyro.writeObject(output, newOrder(2));
+		Input input = new Input(output.toBytes());
+		kyro.skipObject(input, Order.class);
+		Customer.created = 0;
+		assertEquals(newOrder(2), kyro.readObject(input, Order.class));
+		assertEquals(input.limit(), input.position());
+	}
+
+	public void testCompatibleGraphState () {
+		// The class name is first written in the skipped object, and only referred to by the object read after it.
+		kyro.setRegistrationRequired(false);
+		kyro.register(Pair.class, new CompatibleFieldSerializer(kyro, Pair.class));
+		Pair pair = new Pair();
+		pair.a = new Unregistered(1);
+		kyro.setAutoReset(false);
+		try {
+			Output output = new Output(1024, -1);
+			kyro.writeObject(output, pair);
+			kyro.writeClassAndObject(output, new Unregistered(2));
+			kyro.reset();
+			Input input = new Input(output.toBytes());
+			kyro.skipObject(input, Pair.class);
+			assertEquals(Unregistered.class, kyro.readClassAndObject(input).getClass());
+		} finally {
+			kyro.setAutoReset(true);
+			kyro.reset();
+		}
+	}
+
+	public void testReferences () {
+		kyro.setReferences(true);
+		Order order = newOrder(1);
+		ArrayList list = new ArrayList();
+		list.add(order);
+		kyro.setAutoReset(false);
+		try {
+			Output output = new Output(1024, -1);
+			kyro.writeObject(output, list);
+			kyro.writeObject(output, order);
+			kyro.reset();
+			Input input = new Input(output.toBytes());
+			// The skipped list is read, so the reference to its order can be resolved.
+			kyro.skipObject(input, ArrayList.class);
+			assertEquals(order, kyro.readObject(input, Order.class));
+		} finally {
+			kyro.setAutoReset(true);
+			kyro.reset();
+		}
+	}
+}
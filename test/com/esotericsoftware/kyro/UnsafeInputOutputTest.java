@@ -784,4 +784,21 @@ public class UnsafeInputOutputTest extends KryoTestCase {
       final int actualValue = in.readVarInt(true);
       assertEquals(value, actualValue);
   }
+
+	public void testVarIntsMatchOutput () {
+		Random random = new Random(1);
+		for (int i = 0; i < 10000; i++) {
+			long value = i < 64 ? (1L << i) - 1 : random.nextLong() >> random.nextInt(64);
+			for (int j = 0; j < 2; j++) {
+				boolean optimizePositive = j == 0;
+				Output expected = new Output(32);
+				expected.writeVarInt((int)value, optimizePositive);
+				expected.writeVarLong(value, optimizePositive);
+				Output write = new UnsafeOutput(32);
+				write.writeVarInt((int)value, optimizePositive);
+				write.writeVarLong(value, optimizePositive);
+				assertEquals(expected.toBytes(), write.toBytes());
+			}
+		}
+	}
 }
@@ -780,4 +780,21 @@ public class UnsafeMemoryInputOutputTest extends KryoTestCase {
 		assertEquals(32767, read.readChar());
 		assertEquals(65535, read.readChar());
 	}
+
+	public void testVarIntsMatchOutput () {
+		Random random = new Random(1);
+		for (int i = 0; i < 10000; i++) {
+			long value = i < 64 ? (1L << i) - 1 : random.nextLong() >> random.nextInt(64);
+			for (int j = 0; j < 2; j++) {
+				boolean optimizePositive = j == 0;
+				Output expected = new Output(32);
+				expected.writeVarInt((int)value, optimizePositive);
+				expected.writeVarLong(value, optimizePositive);
+				Output write = new UnsafeMemoryOutput(32);
+				write.writeVarInt((int)value, optimizePositive);
+				write.writeVarLong(value, optimizePositive);
+				assertEquals(expected.toBytes(), write.toBytes());
+			}
+		}
+	}
 }
@@ -0,0 +1,118 @@
+package com.esotericsoftware.kyro.pool;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import com.esotericsoftware.kyro.KryoTestCase;
+import com.esotericsoftware.kyro.Kyro;
+import com.esotericsoftware.kyro.io.Input;
+import com.esotericsoftware.kyro.io.Output;
+
+public class KyroPoolTest extends KryoTestCase {
+	int created;
+
+	KyroFactory factory = new KyroFactory() {
+		public Kyro create () {
+			created++;
+			Kyro kyro = new Kyro();
+			kyro.register(ArrayList.class);
+			return kyro;
+		}
+	};
+
+	public void testBorrowRelease () {
+		KyroPool pool = new KyroPool(factory);
+		Kyro kyro = pool.borrow();
+		assertEquals(1, created);
+		assertEquals(0, pool.size());
+		pool.release(kyro);
+		assertEquals(1, pool.size());
+		assertSame(kyro, pool.borrow());
+		assertEquals(1, created);
+		assertNotSame(kyro, pool.borrow());
+		assertEquals(2, created);
+	}
+
+	public void testMaximumSize () {
+		KyroPool pool = new KyroPool(factory, 2, false);
+		HashSet<Kyro> borrowed = new HashSet();
+		for (int i = 0; i < 4; i++)
+			borrowed.add(pool.borrow());
+		for (Kyro kyro : borrowed)
+			pool.release(kyro);
+		assertEquals(2, pool.size());
+		pool.clear();
+		assertEquals(0, pool.size());
+	}
+
+	public void testSoftReferences () {
+		KyroPool pool = new KyroPool(factory, 1, true);
+		Kyro kyro = pool.borrow();
+		pool.release(kyro);
+		assertEquals(1, pool.size());
+		assertSame(kyro, pool.borrow());
+		pool.release(kyro);
+		pool.release(new Kyro()); // Pool is full, discarded.
+		assertEquals(1, pool.size());
+		assertEquals(0, pool.clean());
+	}
+
+	public void testRun () {
+		KyroPool pool = new KyroPool(factory);
+		final ArrayList list = new ArrayList();
+		list.add("abc");
+		list.add(123);
+		ArrayList result = pool.run(new KyroCallback<ArrayList>() {
+			public ArrayList execute (Kyro kyro) {
+				Output output = new Output(256);
+				kyro.writeClassAndObject(output, list);
+				return (ArrayList)kyro.readClassAndObject(new Input(output.toBytes()));
+			}
+		});
+		assertEquals(list, result);
+		assertEquals(1, pool.size());
+
+		try {
+			pool.run(new KyroCallback() {
+				public Object execute (Kyro kyro) {
+					throw new IllegalStateException();
+				}
+			});
+			fail();
+		} catch (IllegalStateException expected) {
+		}
+		assertEquals(1, pool.size());
+	}
+
+	public void testConcurrentUse () throws Exception {
+		final KyroPool pool = new KyroPool(factory);
+		final Throwable[] error = new Throwable[1];
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				public void run () {
+					try {
+						for (int i = 0; i < 200; i++) {
+							final Integer value = i;
+							Object result = pool.run(new KyroCallback() {
+								public Object execute (Kyro kyro) {
+									Output output = new Output(32);
+									kyro.writeClassAndObject(output, value);
+									return kyro.readClassAndObject(new Input(output.toBytes()));
+								}
+							});
+							if (!value.equals(result)) throw new AssertionError(result);
+						}
+					} catch (Throwable ex) {
+						error[0] = ex;
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		if (error[0] != null) throw new RuntimeException(error[0]);
+		assertTrue(pool.size() <= threads.length);
+	}
+}